@@ -0,0 +1,147 @@
+package com.example.gatewayservice.benchmark;
+
+import com.example.gatewayservice.GatewayServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Latency of the profile screen as seen by a client: two sequential calls (GET /users/{id}, then
+ * GET /api/v1/orders/user/my-orders/page) vs one call to the gateway, which calls both services
+ * concurrently over warm connections.
+ *
+ * user-service and order-service are replaced by stub servers answering after a fixed delay; the
+ * network between the client and the services is simulated by sleeping 'client-rtt' before each
+ * client request, while the gateway and the stubs talk over loopback as in a data center.
+ *
+ * System properties:
+ * - bench.user-delay-ms: response time of the user stub (default 20)
+ * - bench.orders-delay-ms: response time of the orders stub (default 30)
+ * - bench.client-rtt-ms: round trip between the client and the services (default 40)
+ * - bench.warmup: warm-up iterations per variant (default 200)
+ * - bench.iterations: measured iterations per variant (default 500)
+ */
+public final class ProfileCompositionBenchmark {
+
+    private static final String TOKEN = "Bearer benchmark";
+    private static final String USER_JSON = "{\"id\":1,\"name\":\"Bench\",\"username\":\"bench\",\"email\":\"bench@example.com\"}";
+    private static final String ORDERS_JSON = "{\"items\":[{\"id\":\"o1\",\"status\":\"CREATED\",\"totalAmount\":42.5}],\"nextCursor\":null}";
+
+    private ProfileCompositionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Duration userDelay = Duration.ofMillis(Long.getLong("bench.user-delay-ms", 20));
+        Duration ordersDelay = Duration.ofMillis(Long.getLong("bench.orders-delay-ms", 30));
+        long clientRttMs = Long.getLong("bench.client-rtt-ms", 40);
+        int warmup = Integer.getInteger("bench.warmup", 200);
+        int iterations = Integer.getInteger("bench.iterations", 500);
+        System.out.printf("userDelay=%dms ordersDelay=%dms clientRtt=%dms iterations=%d%n",
+                userDelay.toMillis(), ordersDelay.toMillis(), clientRttMs, iterations);
+
+        DisposableServer userStub = stub(USER_JSON, userDelay);
+        DisposableServer orderStub = stub(ORDERS_JSON, ordersDelay);
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(GatewayServiceApplication.class)
+                .properties(
+                        "server.port", "0",
+                        "application.gateway.user-service.url", "http://localhost:" + userStub.port(),
+                        "application.gateway.order-service.url", "http://localhost:" + orderStub.port(),
+                        // Measures composition, not the partial-response path
+                        "application.gateway.user-service.timeout", "10s",
+                        "application.gateway.order-service.timeout", "10s")
+                .run(args);
+        try {
+            int gatewayPort = gateway.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            URI user = URI.create("http://localhost:" + userStub.port() + "/users/1");
+            URI orders = URI.create("http://localhost:" + orderStub.port() + "/api/v1/orders/user/my-orders/page?limit=10");
+            URI profile = URI.create("http://localhost:" + gatewayPort + "/api/v1/profiles/1?ordersLimit=10");
+
+            Runnable sequential = () -> {
+                get(client, user, clientRttMs);
+                get(client, orders, clientRttMs);
+            };
+            Runnable composed = () -> get(client, profile, clientRttMs);
+
+            run(sequential, warmup);
+            run(composed, warmup);
+            long[] sequentialNanos = run(sequential, iterations);
+            long[] composedNanos = run(composed, iterations);
+            report("sequential", sequentialNanos);
+            report("gateway", composedNanos);
+            System.out.printf("saving: p50=%.1fms mean=%.1fms%n",
+                    millis(percentile(sequentialNanos, 0.5) - percentile(composedNanos, 0.5)),
+                    millis(mean(sequentialNanos) - mean(composedNanos)));
+        } finally {
+            gateway.close();
+            userStub.disposeNow();
+            orderStub.disposeNow();
+        }
+    }
+
+    private static DisposableServer stub(String body, Duration delay) {
+        return HttpServer.create()
+                .port(0)
+                .handle((request, response) -> response.header("Content-Type", "application/json")
+                        .sendString(Mono.just(body).delayElement(delay)))
+                .bindNow();
+    }
+
+    private static void get(HttpClient client, URI uri, long rttMs) {
+        try {
+            Thread.sleep(rttMs);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                    .header("Authorization", TOKEN)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(uri + " answered " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long[] run(Runnable call, int iterations) {
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String label, long[] sortedNanos) {
+        System.out.printf("%s: p50=%.1fms p90=%.1fms p99=%.1fms mean=%.1fms%n", label,
+                millis(percentile(sortedNanos, 0.5)), millis(percentile(sortedNanos, 0.9)),
+                millis(percentile(sortedNanos, 0.99)), millis(mean(sortedNanos)));
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))];
+    }
+
+    private static long mean(long[] nanos) {
+        return (long) Arrays.stream(nanos).average().orElse(0);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
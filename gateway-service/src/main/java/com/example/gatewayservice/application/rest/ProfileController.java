@@ -0,0 +1,63 @@
+package com.example.gatewayservice.application.rest;
+
+import com.example.gatewayservice.application.rest.dto.ProfilePartDto;
+import com.example.gatewayservice.application.rest.dto.ProfileResponseDto;
+import com.example.gatewayservice.core.service.ProfileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for composite views spanning several services.
+ */
+@RestController
+@RequestMapping("/api/v1/profiles")
+@RequiredArgsConstructor
+public class ProfileController {
+
+    private final ProfileService profileService;
+
+    /**
+     * Endpoint to retrieve a user and their most recent orders in one call, replacing
+     * GET /users/{id} on user-service followed by GET /api/v1/orders/user/my-orders on order-service.
+     * @param id The user id.
+     * @param authorization The caller's bearer token, forwarded to both services.
+     * @param ordersLimit Number of recent orders, capped by order-service's page size.
+     * @return A Mono emitting the profile, possibly partial (see 'unavailable').
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProfileResponseDto> getProfile(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                               @RequestParam(required = false) Integer ordersLimit) {
+        return profileService.getProfile(id, requireToken(authorization), ordersLimit);
+    }
+
+    /**
+     * Same profile streamed as newline-delimited JSON, one line per part as soon as its service
+     * has answered, so a client can render the user before the orders arrive.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProfilePartDto> streamProfile(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                              @RequestParam(required = false) Integer ordersLimit) {
+        return profileService.streamProfile(id, requireToken(authorization), ordersLimit);
+    }
+
+    // Rejected here rather than by both services
+    private String requireToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing bearer token");
+        }
+        return authorization;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.gatewayservice.application.rest.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One part of the composite profile ('user' or 'orders'), streamed as soon as its backend has
+ * answered. 'error' is set instead of 'data' when the part is unavailable.
+ */
+@Getter
+@AllArgsConstructor
+public class ProfilePartDto {
+
+    private String part;
+    private JsonNode data;
+    private String error;
+
+    public static ProfilePartDto of(String part, JsonNode data) {
+        return new ProfilePartDto(part, data, null);
+    }
+
+    public static ProfilePartDto unavailable(String part, String error) {
+        return new ProfilePartDto(part, null, error);
+    }
+
+    public boolean isAvailable() {
+        return error == null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.gatewayservice.application.rest.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO for the composite profile: the user from user-service and the first page of their orders
+ * from order-service. A part that could not be fetched in time is null and listed in
+ * 'unavailable' with the reason, e.g. "orders: timeout".
+ */
+@Getter
+@Builder
+public class ProfileResponseDto {
+
+    private JsonNode user;
+    private JsonNode recentOrders;
+    private List<String> unavailable;
+
+}
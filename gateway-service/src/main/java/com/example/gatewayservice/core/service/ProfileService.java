@@ -0,0 +1,16 @@
+package com.example.gatewayservice.core.service;
+
+import com.example.gatewayservice.application.rest.dto.ProfilePartDto;
+import com.example.gatewayservice.application.rest.dto.ProfileResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Composes the profile of a user from user-service and order-service, calling both concurrently.
+ */
+public interface ProfileService {
+
+    Mono<ProfileResponseDto> getProfile(Long userId, String authorization, Integer ordersLimit);
+
+    Flux<ProfilePartDto> streamProfile(Long userId, String authorization, Integer ordersLimit);
+}
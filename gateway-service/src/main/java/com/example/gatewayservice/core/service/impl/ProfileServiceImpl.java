@@ -0,0 +1,112 @@
+package com.example.gatewayservice.core.service.impl;
+
+import com.example.gatewayservice.application.rest.dto.ProfilePartDto;
+import com.example.gatewayservice.application.rest.dto.ProfileResponseDto;
+import com.example.gatewayservice.core.service.ProfileService;
+import com.example.gatewayservice.infrastructure.client.OrderServiceClient;
+import com.example.gatewayservice.infrastructure.client.UserServiceClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Each backend call has its own timeout. A call that times out, cannot connect or fails with a
+ * server error leaves its part empty instead of failing the whole profile; client errors
+ * (401, 403, 404...) are the caller's and are returned as they are.
+ */
+@Service
+@Slf4j
+public class ProfileServiceImpl implements ProfileService {
+
+    private static final String USER = "user";
+    private static final String ORDERS = "orders";
+
+    private final UserServiceClient userServiceClient;
+    private final OrderServiceClient orderServiceClient;
+
+    @Value("${application.gateway.user-service.timeout:500ms}")
+    private Duration userTimeout;
+
+    @Value("${application.gateway.order-service.timeout:800ms}")
+    private Duration ordersTimeout;
+
+    @Value("${application.gateway.profile.orders-limit:10}")
+    private int defaultOrdersLimit;
+
+    public ProfileServiceImpl(UserServiceClient userServiceClient, OrderServiceClient orderServiceClient) {
+        this.userServiceClient = userServiceClient;
+        this.orderServiceClient = orderServiceClient;
+    }
+
+    @Override
+    public Mono<ProfileResponseDto> getProfile(Long userId, String authorization, Integer ordersLimit) {
+        // zip subscribes to both parts at once: the latency is the slower call, not the sum
+        return Mono.zip(userPart(userId, authorization), ordersPart(authorization, ordersLimit))
+                .map(parts -> ProfileResponseDto.builder()
+                        .user(parts.getT1().getData())
+                        .recentOrders(parts.getT2().getData())
+                        .unavailable(Stream.of(parts.getT1(), parts.getT2())
+                                .filter(part -> !part.isAvailable())
+                                .map(part -> part.getPart() + ": " + part.getError())
+                                .toList())
+                        .build());
+    }
+
+    @Override
+    public Flux<ProfilePartDto> streamProfile(Long userId, String authorization, Integer ordersLimit) {
+        // Parts are emitted in completion order; once streaming has started, a client error can
+        // only be reported in its part
+        return Flux.merge(
+                userPart(userId, authorization).onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(ProfilePartDto.unavailable(USER, "status " + e.getStatusCode().value()))),
+                ordersPart(authorization, ordersLimit).onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(ProfilePartDto.unavailable(ORDERS, "status " + e.getStatusCode().value()))));
+    }
+
+    private Mono<ProfilePartDto> userPart(Long userId, String authorization) {
+        return part(USER, userServiceClient.getUser(userId, authorization), userTimeout);
+    }
+
+    private Mono<ProfilePartDto> ordersPart(String authorization, Integer ordersLimit) {
+        int limit = ordersLimit != null && ordersLimit > 0 ? ordersLimit : defaultOrdersLimit;
+        return part(ORDERS, orderServiceClient.getRecentOrders(authorization, limit), ordersTimeout);
+    }
+
+    private Mono<ProfilePartDto> part(String name, Mono<JsonNode> call, Duration timeout) {
+        return call.timeout(timeout)
+                .map(data -> ProfilePartDto.of(name, data))
+                .defaultIfEmpty(ProfilePartDto.of(name, null))
+                .onErrorResume(this::isPartialFailure, e -> {
+                    String reason = reason(e);
+                    log.warn("Profile part '{}' unavailable: {}", name, reason);
+                    return Mono.just(ProfilePartDto.unavailable(name, reason));
+                });
+    }
+
+    private boolean isPartialFailure(Throwable e) {
+        return !(e instanceof WebClientResponseException responseException)
+                || responseException.getStatusCode().is5xxServerError();
+    }
+
+    private String reason(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return "status " + responseException.getStatusCode().value();
+        }
+        if (e instanceof WebClientRequestException) {
+            return "unreachable";
+        }
+        return "error";
+    }
+}
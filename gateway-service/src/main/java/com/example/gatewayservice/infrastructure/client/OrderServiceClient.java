@@ -0,0 +1,33 @@
+package com.example.gatewayservice.infrastructure.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client of order-service. Responses are passed through as JSON trees.
+ */
+@Component
+public class OrderServiceClient {
+
+    private final WebClient webClient;
+
+    public OrderServiceClient(@Qualifier("orderServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * First page of the caller's orders, newest first ({'items', 'nextCursor'}), for the user of
+     * the token, which order-service verifies.
+     */
+    public Mono<JsonNode> getRecentOrders(String authorization, int limit) {
+        return webClient.get()
+                .uri(uri -> uri.path("/api/v1/orders/user/my-orders/page").queryParam("limit", limit).build())
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+}
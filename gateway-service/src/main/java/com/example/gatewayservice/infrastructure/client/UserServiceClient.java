@@ -0,0 +1,33 @@
+package com.example.gatewayservice.infrastructure.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client of user-service. Responses are passed through as JSON trees: the gateway composes them
+ * without depending on the DTOs of the backend.
+ */
+@Component
+public class UserServiceClient {
+
+    private final WebClient webClient;
+
+    public UserServiceClient(@Qualifier("userServiceWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * GET /users/{id} with the caller's token, which user-service verifies.
+     */
+    public Mono<JsonNode> getUser(Long id, String authorization) {
+        return webClient.get()
+                .uri("/users/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+}
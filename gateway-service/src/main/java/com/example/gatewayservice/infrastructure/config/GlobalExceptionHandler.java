@@ -0,0 +1,21 @@
+package com.example.gatewayservice.infrastructure.config;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * Client errors of a backend (invalid token, unknown user...) are returned with their status.
+     */
+    @ExceptionHandler(WebClientResponseException.class)
+    public ResponseEntity<Map<String, String>> handleBackendError(WebClientResponseException ex) {
+        return ResponseEntity.status(ex.getStatusCode())
+                .body(Map.of("error", ex.getStatusText(), "message", "Rejected by " + ex.getRequest().getURI().getPath()));
+    }
+}
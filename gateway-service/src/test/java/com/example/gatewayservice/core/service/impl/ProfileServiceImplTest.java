@@ -0,0 +1,205 @@
+package com.example.gatewayservice.core.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The profile endpoints against stub backends that answer slowly, fail or reject the caller.
+ * A backend that times out or fails with a 5xx leaves its part empty; a 4xx is the caller's and
+ * fails the whole profile, or only its part once the NDJSON stream has started.
+ */
+@SpringBootTest(properties = {
+        "application.gateway.user-service.timeout=300ms",
+        "application.gateway.order-service.timeout=300ms"})
+@AutoConfigureWebTestClient
+class ProfileServiceImplTest {
+
+    private static final String TOKEN = "Bearer test-token";
+    private static final String USER_JSON = "{\"id\":1,\"username\":\"alice\"}";
+    private static final String ORDERS_JSON = "{\"items\":[{\"id\":\"order-1\"}],\"nextCursor\":null}";
+    private static final Duration TOO_SLOW = Duration.ofSeconds(2);
+
+    private static final StubBackend USERS = new StubBackend();
+    private static final StubBackend ORDERS = new StubBackend();
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        registry.add("application.gateway.user-service.url", USERS::url);
+        registry.add("application.gateway.order-service.url", ORDERS::url);
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        USERS.server.disposeNow();
+        ORDERS.server.disposeNow();
+    }
+
+    // The first backend calls set up the clients and their connections, which can take longer than the timeouts
+    private static boolean warmedUp;
+
+    @Autowired
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        USERS.answer(200, USER_JSON, Duration.ZERO);
+        ORDERS.answer(200, ORDERS_JSON, Duration.ZERO);
+        if (!warmedUp) {
+            getProfile().expectStatus().isOk();
+            warmedUp = true;
+        }
+    }
+
+    @Test
+    void bothPartsAreComposed() {
+        getProfile()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.user.username").isEqualTo("alice")
+                .jsonPath("$.recentOrders.items[0].id").isEqualTo("order-1")
+                .jsonPath("$.unavailable").isEmpty();
+    }
+
+    @Test
+    void slowBackendIsCutOffByItsOwnTimeout() {
+        ORDERS.answer(200, ORDERS_JSON, TOO_SLOW);
+
+        long start = System.nanoTime();
+        getProfile()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.user.username").isEqualTo("alice")
+                .jsonPath("$.recentOrders").doesNotExist()
+                .jsonPath("$.unavailable[0]").isEqualTo("orders: timeout");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(TOO_SLOW);
+    }
+
+    @Test
+    void serverErrorLeavesItsPartEmpty() {
+        USERS.answer(503, "{}", Duration.ZERO);
+
+        getProfile()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.user").doesNotExist()
+                .jsonPath("$.recentOrders.items[0].id").isEqualTo("order-1")
+                .jsonPath("$.unavailable[0]").isEqualTo("user: status 503");
+    }
+
+    @Test
+    void clientErrorIsReturnedAsItIs() {
+        USERS.answer(404, "{}", Duration.ZERO);
+        getProfile().expectStatus().isNotFound();
+
+        USERS.answer(200, USER_JSON, Duration.ZERO);
+        ORDERS.answer(401, "{}", Duration.ZERO);
+        getProfile().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void missingTokenIsRejectedWithoutCallingTheBackends() {
+        client.get().uri("/api/v1/profiles/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void streamEmitsPartsInCompletionOrder() {
+        USERS.answer(200, USER_JSON, Duration.ofMillis(150));
+
+        List<JsonNode> parts = streamProfile();
+
+        assertThat(parts).extracting(part -> part.get("part").asText()).containsExactly("orders", "user");
+        assertThat(parts.get(1).get("data").get("username").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void streamReportsEveryFailureInItsPart() {
+        USERS.answer(403, "{}", Duration.ZERO);
+        ORDERS.answer(200, ORDERS_JSON, TOO_SLOW);
+
+        assertThat(streamProfile())
+                .extracting(part -> part.get("part").asText(), part -> part.get("error").asText())
+                .containsExactly(
+                        tuple("user", "status 403"),
+                        tuple("orders", "timeout"));
+
+        USERS.answer(200, USER_JSON, Duration.ZERO);
+        ORDERS.answer(500, "{}", Duration.ofMillis(50));
+
+        assertThat(streamProfile())
+                .extracting(part -> part.get("part").asText(), part -> part.get("error").asText(null))
+                .containsExactly(
+                        tuple("user", null),
+                        tuple("orders", "status 500"));
+    }
+
+    private WebTestClient.ResponseSpec getProfile() {
+        return client.get().uri("/api/v1/profiles/1")
+                .header(HttpHeaders.AUTHORIZATION, TOKEN)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange();
+    }
+
+    private List<JsonNode> streamProfile() {
+        return client.get().uri("/api/v1/profiles/1")
+                .header(HttpHeaders.AUTHORIZATION, TOKEN)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JsonNode.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * A backend on a random port answering every request with the status, body and delay last set.
+     */
+    private static final class StubBackend {
+
+        private record Answer(int status, String body, Duration delay) {
+        }
+
+        private final AtomicReference<Answer> answer = new AtomicReference<>();
+        private final DisposableServer server = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    Answer current = answer.get();
+                    return response.status(current.status())
+                            .header("Content-Type", "application/json")
+                            .sendString(Mono.just(current.body()).delayElement(current.delay()));
+                })
+                .bindNow();
+
+        void answer(int status, String body, Duration delay) {
+            answer.set(new Answer(status, body, delay));
+        }
+
+        String url() {
+            return "http://localhost:" + server.port();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.OrderServiceApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The whole order-service started in-process for a benchmark, against an in-process MongoDB and
+ * an embedded Kafka broker, so every component starts as in production. Closing it stops all three.
+ */
+final class BenchmarkOrderService implements AutoCloseable {
+
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private final EmbeddedKafkaBroker kafka;
+    private final ConfigurableApplicationContext app;
+
+    private BenchmarkOrderService(TransitionWalker.ReachedState<RunningMongodProcess> mongod, EmbeddedKafkaBroker kafka,
+                                  ConfigurableApplicationContext app) {
+        this.mongod = mongod;
+        this.kafka = kafka;
+        this.app = app;
+    }
+
+    /**
+     * @param database MongoDB database of the orders.
+     * @param properties Application properties added to (or overriding) the benchmark defaults.
+     */
+    static BenchmarkOrderService start(String database, Map<String, Object> properties) {
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0);
+        EmbeddedKafkaBroker kafka = null;
+        try {
+            kafka = new EmbeddedKafkaKraftBroker(1, 3, "user-events");
+            kafka.afterPropertiesSet();
+            ServerAddress mongo = mongod.current().getServerAddress();
+            Map<String, Object> all = new HashMap<>(Map.of(
+                    "spring.kafka.bootstrap-servers", kafka.getBrokersAsString(),
+                    "spring.data.mongodb.uri", "mongodb://" + mongo.getHost() + ":" + mongo.getPort() + "/" + database,
+                    "server.port", "0",
+                    "application.orders.archive.enabled", "false",
+                    "management.tracing.sampling.probability", System.getProperty("bench.trace-sampling", "0.0"),
+                    "logging.level.com.example.orderservice", "WARN"));
+            all.putAll(properties);
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(OrderServiceApplication.class)
+                    .properties(all)
+                    .run();
+            return new BenchmarkOrderService(mongod, kafka, app);
+        } catch (RuntimeException e) {
+            if (kafka != null) {
+                kafka.destroy();
+            }
+            mongod.close();
+            throw e;
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return app.getBean(type);
+    }
+
+    int port() {
+        return app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @Override
+    public void close() {
+        try {
+            app.close();
+        } finally {
+            kafka.destroy();
+            mongod.close();
+        }
+    }
+}
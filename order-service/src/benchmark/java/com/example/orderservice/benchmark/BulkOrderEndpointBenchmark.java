@@ -0,0 +1,180 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.application.rest.dto.OrderRequestDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the streaming bulk creation endpoint (POST /api/v1/orders/bulk): 'bench.clients'
+ * clients each stream NDJSON requests of 'bench.orders-per-request' orders, generated while
+ * they are sent, and read the NDJSON results back. As a baseline, orders are then created one
+ * request at a time through POST /api/v1/orders by 'bench.baseline-concurrency' clients.
+ *
+ * Requests go through HTTP, JWT authentication and the adaptive concurrency limit of the
+ * 'orders-bulk' group exactly as in production; requests it rejects (503) are counted.
+ *
+ * Reports per round the created orders/sec, the per-request latency percentiles and the items
+ * rejected by the endpoint.
+ *
+ *   mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.orderservice.benchmark.BulkOrderEndpointBenchmark
+ *
+ * System properties:
+ * - bench.clients: concurrent requests (default 4)
+ * - bench.orders-per-request: orders streamed in each bulk request (default 10000)
+ * - bench.requests-per-client: bulk requests per client and round (default 5)
+ * - bench.rounds: measured rounds after one warm-up round (default 3)
+ * - bench.chunk-size: application.orders.bulk.chunk-size (default: the application's)
+ * - bench.concurrency-limit: keep the adaptive concurrency limits on (default true)
+ * - bench.baseline-concurrency: concurrent single-order requests of the baseline (default 64, 0 skips it)
+ * - bench.baseline-orders: orders created by the baseline (default 20000)
+ */
+public final class BulkOrderEndpointBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyLongEnoughForHmacSha256";
+
+    private BulkOrderEndpointBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int clients = Integer.getInteger("bench.clients", 4);
+        int ordersPerRequest = Integer.getInteger("bench.orders-per-request", 10_000);
+        int requestsPerClient = Integer.getInteger("bench.requests-per-client", 5);
+        int rounds = Integer.getInteger("bench.rounds", 3);
+        int baselineConcurrency = Integer.getInteger("bench.baseline-concurrency", 64);
+        int baselineOrders = Integer.getInteger("bench.baseline-orders", 20_000);
+
+        Map<String, Object> properties = new HashMap<>(Map.of(
+                "application.security.jwt.secret-key", SECRET,
+                "application.concurrency-limit.enabled", System.getProperty("bench.concurrency-limit", "true")));
+        if (System.getProperty("bench.chunk-size") != null) {
+            properties.put("application.orders.bulk.chunk-size", System.getProperty("bench.chunk-size"));
+        }
+
+        System.out.printf("clients=%d ordersPerRequest=%d requestsPerClient=%d rounds=%d%n",
+                clients, ordersPerRequest, requestsPerClient, rounds);
+
+        try (BenchmarkOrderService service = BenchmarkOrderService.start("orders-bulk-benchmark", properties)) {
+            WebClient client = WebClient.builder()
+                    .baseUrl("http://localhost:" + service.port() + "/api/v1/orders")
+                    .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token("bench-user"))
+                    .build();
+
+            for (int round = 0; round <= rounds; round++) {
+                runBulkRound(round == 0 ? "warm-up" : "round-" + round, client, clients, requestsPerClient, ordersPerRequest);
+            }
+            if (baselineConcurrency > 0) {
+                runSingleRound("single-order", client, baselineConcurrency, baselineOrders);
+            }
+        }
+    }
+
+    private static void runBulkRound(String label, WebClient client, int clients, int requestsPerClient, int ordersPerRequest) {
+        int requests = clients * requestsPerClient;
+        long[] latencies = new long[requests];
+        AtomicLong created = new AtomicLong();
+        AtomicLong failedItems = new AtomicLong();
+        AtomicLong rejectedRequests = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(request -> {
+                    long requestStart = System.nanoTime();
+                    return client.post()
+                            .uri("/bulk")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .body(orders(request, ordersPerRequest), OrderRequestDto.class)
+                            .retrieve()
+                            // One {index, id, error} result per order
+                            .bodyToFlux(JsonNode.class)
+                            .doOnNext(result -> (result.hasNonNull("error") ? failedItems : created).incrementAndGet())
+                            .then()
+                            .onErrorResume(WebClientResponseException.ServiceUnavailable.class, e -> {
+                                rejectedRequests.incrementAndGet();
+                                return Mono.empty();
+                            })
+                            .doOnSuccess(done -> latencies[request] = System.nanoTime() - requestStart);
+                }, clients)
+                .then()
+                .block();
+        report(label, System.nanoTime() - start, latencies, created.get(), failedItems.get(), rejectedRequests.get());
+    }
+
+    private static void runSingleRound(String label, WebClient client, int concurrency, int orders) {
+        long[] latencies = new long[orders];
+        AtomicLong created = new AtomicLong();
+        AtomicLong rejectedRequests = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, orders)
+                .flatMap(order -> {
+                    long requestStart = System.nanoTime();
+                    return client.post()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(order(order))
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnNext(response -> created.incrementAndGet())
+                            .then()
+                            .onErrorResume(WebClientResponseException.ServiceUnavailable.class, e -> {
+                                rejectedRequests.incrementAndGet();
+                                return Mono.empty();
+                            })
+                            .doOnSuccess(done -> latencies[order] = System.nanoTime() - requestStart);
+                }, concurrency)
+                .then()
+                .block();
+        report(label, System.nanoTime() - start, latencies, created.get(), 0, rejectedRequests.get());
+    }
+
+    private static void report(String label, long elapsedNanos, long[] latencies, long created, long failedItems, long rejectedRequests) {
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d orders created in %d ms -> %.0f orders/sec; %d requests, p50=%.1fms p99=%.1fms max=%.1fms; "
+                        + "failed items=%d, requests rejected by the concurrency limit=%d%n",
+                label, created, elapsedNanos / 1_000_000, created / (elapsedNanos / 1e9), latencies.length,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6,
+                failedItems, rejectedRequests);
+    }
+
+    /**
+     * The orders of one request, generated as the request body is written.
+     */
+    private static Flux<OrderRequestDto> orders(int request, int count) {
+        return Flux.range(0, count).map(i -> order(request * count + i));
+    }
+
+    private static OrderRequestDto order(int i) {
+        return OrderRequestDto.builder()
+                .customerName("Bench Customer")
+                .productIds(List.of("product-" + (i % 100), "product-" + (i % 7)))
+                .totalAmount(BigDecimal.valueOf(10 + i % 90))
+                .build();
+    }
+
+    private static String token(String username) {
+        return Jwts.builder()
+                .subject(username)
+                .claim("auth", "ROLE_USER")
+                .expiration(new Date(System.currentTimeMillis() + 24 * 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.BulkUpdateResult;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of renaming the customer of all the orders of a user, as done for every USER_UPDATED
+ * event: OrderRepository.updateCustomerName, a server-side updateMany (or chunked unordered bulk
+ * writes above 'application.orders.customer-update.bulk-threshold'), compared with the
+ * per-document read-modify-save it replaced.
+ *
+ * Every round renames all the users, 'bench.concurrency' at a time like the batch listener,
+ * then replays the same renames, which must match nothing. Reports per round the modified
+ * orders/sec, the per-user latency percentiles and the strategies used; the baseline runs once,
+ * after the rounds.
+ *
+ *   mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.orderservice.benchmark.CustomerRenameBenchmark -Dbench.shape=few-heavy
+ *
+ * System properties:
+ * - bench.shape: few-heavy (10 users x 20000 orders), many-light (5000 users x 5 orders, default)
+ *   or one-huge (1 user x 100000 orders, above the default bulk threshold)
+ * - bench.users, bench.orders-per-user: override the shape
+ * - bench.bulk-threshold: application.orders.customer-update.bulk-threshold (default: the application's)
+ * - bench.concurrency: users renamed concurrently (default 8)
+ * - bench.rounds: measured rounds after one warm-up round (default 3)
+ * - bench.baseline: also run the per-document rename (default true)
+ */
+public final class CustomerRenameBenchmark {
+
+    private static final int SEED_CHUNK = 10_000;
+
+    private CustomerRenameBenchmark() {
+    }
+
+    private enum Shape {
+        FEW_HEAVY(10, 20_000),
+        MANY_LIGHT(5_000, 5),
+        ONE_HUGE(1, 100_000);
+
+        private final int users;
+        private final int ordersPerUser;
+
+        Shape(int users, int ordersPerUser) {
+            this.users = users;
+            this.ordersPerUser = ordersPerUser;
+        }
+
+        static Shape from(String name) {
+            return valueOf(name.toUpperCase().replace('-', '_'));
+        }
+    }
+
+    public static void main(String[] args) {
+        Shape shape = Shape.from(System.getProperty("bench.shape", "many-light"));
+        int users = Integer.getInteger("bench.users", shape.users);
+        int ordersPerUser = Integer.getInteger("bench.orders-per-user", shape.ordersPerUser);
+        int concurrency = Integer.getInteger("bench.concurrency", 8);
+        int rounds = Integer.getInteger("bench.rounds", 3);
+        boolean baseline = Boolean.parseBoolean(System.getProperty("bench.baseline", "true"));
+        Map<String, Object> properties = System.getProperty("bench.bulk-threshold") != null
+                ? Map.of("application.orders.customer-update.bulk-threshold", System.getProperty("bench.bulk-threshold"))
+                : Map.of();
+
+        System.out.printf("shape=%s users=%d ordersPerUser=%d concurrency=%d rounds=%d%n",
+                shape, users, ordersPerUser, concurrency, rounds);
+
+        try (BenchmarkOrderService service = BenchmarkOrderService.start("orders-rename-benchmark", properties)) {
+            ReactiveMongoTemplate mongo = service.bean(ReactiveMongoTemplate.class);
+            OrderRepository orderRepository = service.bean(OrderRepository.class);
+            seed(mongo, users, ordersPerUser);
+
+            for (int round = 0; round <= rounds; round++) {
+                String label = round == 0 ? "warm-up" : "round-" + round;
+                String customerName = "customer-" + round;
+                runRound(label, users, concurrency, user -> orderRepository.updateCustomerName(user, customerName));
+                runRound(label + "-replay", users, concurrency, user -> orderRepository.updateCustomerName(user, customerName));
+            }
+            if (baseline) {
+                runRound("per-document", users, concurrency, user -> renamePerDocument(orderRepository, user, "per-document"));
+            }
+        }
+    }
+
+    private static void seed(ReactiveMongoTemplate mongo, int users, int ordersPerUser) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long total = (long) users * ordersPerUser;
+        Flux.range(0, (int) ((total + SEED_CHUNK - 1) / SEED_CHUNK))
+                .concatMap(chunk -> {
+                    List<Order> orders = new ArrayList<>(SEED_CHUNK);
+                    for (long i = (long) chunk * SEED_CHUNK; i < Math.min(total, (long) (chunk + 1) * SEED_CHUNK); i++) {
+                        orders.add(Order.builder()
+                                .username(username((int) (i % users)))
+                                .customerName("seed")
+                                .productIds(List.of("product-" + (i % 100)))
+                                .totalAmount(BigDecimal.valueOf(10 + i % 90))
+                                .orderDate(now.minusMinutes(i / users))
+                                .build());
+                    }
+                    return mongo.insertAll(orders);
+                })
+                .then()
+                .block();
+        System.out.printf("seeded %d orders in %d ms%n", total, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private interface Rename {
+        Mono<BulkUpdateResult> apply(String username);
+    }
+
+    private static void runRound(String label, int users, int concurrency, Rename rename) {
+        long[] latencies = new long[users];
+        AtomicLong modified = new AtomicLong();
+        Map<String, Integer> strategies = new TreeMap<>();
+        long start = System.nanoTime();
+        Flux.range(0, users)
+                .flatMap(user -> {
+                    long userStart = System.nanoTime();
+                    return rename.apply(username(user)).doOnNext(result -> {
+                        latencies[user] = System.nanoTime() - userStart;
+                        modified.addAndGet(result.modifiedCount());
+                        synchronized (strategies) {
+                            strategies.merge(result.strategy(), 1, Integer::sum);
+                        }
+                    });
+                }, concurrency)
+                .then()
+                .block();
+        long elapsedNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d users, %d orders modified in %d ms -> %.0f orders/sec; per user p50=%.1fms p99=%.1fms max=%.1fms; strategies=%s%n",
+                label, users, modified.get(), elapsedNanos / 1_000_000, modified.get() / (elapsedNanos / 1e9),
+                percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6, strategies);
+    }
+
+    /**
+     * The rename as it was before updateCustomerName: every order read, changed and saved back.
+     */
+    private static Mono<BulkUpdateResult> renamePerDocument(OrderRepository orderRepository, String username, String customerName) {
+        return orderRepository.findByUsername(username)
+                .flatMap(order -> {
+                    order.setCustomerName(customerName);
+                    return orderRepository.save(order);
+                })
+                .count()
+                .map(saved -> new BulkUpdateResult(saved, saved, "per-document"));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1e6;
+    }
+
+    private static String username(int user) {
+        return "user-" + user;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.ProductPopularity;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Latency of the product analytics aggregations (OrderRepository.findTopProducts and
+ * findProductPopularity) over date ranges of growing size, on orders spread over a year whose
+ * products follow a Zipf-like popularity, some listed twice in the same order.
+ *
+ * Each query runs 'bench.warm-up' times unmeasured, then 'bench.iterations' times; reports the
+ * latency percentiles and the number of rows returned. As a baseline, the top products of each
+ * range are also computed client-side, by streaming the orders of the range and counting their
+ * products in memory.
+ *
+ *   mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.orderservice.benchmark.ProductAnalyticsBenchmark
+ *
+ * System properties:
+ * - bench.orders: orders seeded (default 1000000)
+ * - bench.products: distinct products (default 5000)
+ * - bench.days: days the order dates span, ending now (default 365)
+ * - bench.warm-up: unmeasured runs per query (default 2)
+ * - bench.iterations: measured runs per query (default 10)
+ * - bench.baseline: also run the client-side count (default true)
+ */
+public final class ProductAnalyticsBenchmark {
+
+    private static final int SEED_CHUNK = 10_000;
+    private static final int TOP = 10;
+
+    private ProductAnalyticsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int orders = Integer.getInteger("bench.orders", 1_000_000);
+        int products = Integer.getInteger("bench.products", 5_000);
+        int days = Integer.getInteger("bench.days", 365);
+        int warmUp = Integer.getInteger("bench.warm-up", 2);
+        int iterations = Integer.getInteger("bench.iterations", 10);
+        boolean baseline = Boolean.parseBoolean(System.getProperty("bench.baseline", "true"));
+
+        System.out.printf("orders=%d products=%d days=%d iterations=%d%n", orders, products, days, iterations);
+
+        try (BenchmarkOrderService service = BenchmarkOrderService.start("orders-analytics-benchmark", Map.of())) {
+            ReactiveMongoTemplate mongo = service.bean(ReactiveMongoTemplate.class);
+            OrderRepository orderRepository = service.bean(OrderRepository.class);
+            LocalDateTime now = LocalDateTime.now();
+            seed(mongo, orders, products, days, now);
+
+            String popular = "product-1";
+            for (int rangeDays : new int[]{1, 30, days}) {
+                LocalDateTime from = now.minusDays(rangeDays);
+                String range = rangeDays + "d";
+                measure("top-products " + range, warmUp, iterations,
+                        () -> orderRepository.findTopProducts(from, now, TOP));
+                if (baseline) {
+                    measure("top-products " + range + " client-side", warmUp, iterations,
+                            () -> topProductsClientSide(mongo, from, now));
+                }
+            }
+            measure("popularity 30d by day", warmUp, iterations,
+                    () -> orderRepository.findProductPopularity(now.minusDays(30), now, "day", null));
+            measure("popularity " + days + "d by month", warmUp, iterations,
+                    () -> orderRepository.findProductPopularity(now.minusDays(days), now, "month", null));
+            measure("popularity " + days + "d by week of " + popular, warmUp, iterations,
+                    () -> orderRepository.findProductPopularity(now.minusDays(days), now, "week", popular));
+        }
+    }
+
+    private static void seed(ReactiveMongoTemplate mongo, int total, int products, int days, LocalDateTime now) {
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        long spanMinutes = days * 24L * 60;
+        Flux.range(0, (total + SEED_CHUNK - 1) / SEED_CHUNK)
+                .concatMap(chunk -> {
+                    List<Order> orders = new ArrayList<>(SEED_CHUNK);
+                    for (int i = chunk * SEED_CHUNK; i < Math.min(total, (chunk + 1) * SEED_CHUNK); i++) {
+                        List<String> productIds = new ArrayList<>();
+                        for (int p = 1 + random.nextInt(4); p > 0; p--) {
+                            productIds.add("product-" + (int) Math.pow(products, random.nextDouble()));
+                        }
+                        if (random.nextInt(20) == 0) {
+                            productIds.add(productIds.get(0));
+                        }
+                        orders.add(Order.builder()
+                                .username("user-" + (i % 10_000))
+                                .customerName("Customer " + (i % 10_000))
+                                .productIds(productIds)
+                                .totalAmount(BigDecimal.valueOf(10 + i % 90))
+                                .orderDate(now.minusMinutes((long) (random.nextDouble() * spanMinutes)))
+                                .build());
+                    }
+                    return mongo.insertAll(orders);
+                })
+                .then()
+                .block();
+        System.out.printf("seeded %d orders in %d ms%n", total, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void measure(String label, int warmUp, int iterations, Supplier<Flux<ProductPopularity>> query) {
+        for (int i = 0; i < warmUp; i++) {
+            query.get().then().block();
+        }
+        long[] latencies = new long[iterations];
+        long rows = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            rows = query.get().count().block();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d rows, p50=%.1fms p99=%.1fms max=%.1fms%n",
+                label, rows, percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * The top products computed without the aggregation: every order of the range is read and
+     * its distinct products counted in memory.
+     */
+    private static Flux<ProductPopularity> topProductsClientSide(ReactiveMongoTemplate mongo, LocalDateTime from, LocalDateTime to) {
+        Query range = Query.query(Criteria.where("orderDate").gte(from).lt(to));
+        range.fields().include("productIds");
+        return mongo.find(range, Order.class)
+                .collect(HashMap<String, Long>::new, (counts, order) -> order.getProductIds().stream()
+                        .distinct()
+                        .forEach(productId -> counts.merge(productId, 1L, Long::sum)))
+                .flatMapMany(counts -> Flux.fromStream(counts.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                        .limit(TOP)
+                        .map(entry -> new ProductPopularity(entry.getKey(), null, entry.getValue()))));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1e6;
+    }
+}
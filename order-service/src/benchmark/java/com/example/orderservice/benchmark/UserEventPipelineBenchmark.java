@@ -0,0 +1,225 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.infrastructure.messaging.UserEventAvroSerializer;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustained throughput of the user-event pipeline: USER_UPDATED events published to Kafka,
+ * consumed by KafkaConsumerService and applied to the orders in MongoDB.
+ *
+ * The whole order-service is started against an embedded Kafka broker and an in-process
+ * MongoDB seeded with the chosen data shape. Events are published the way user-service's
+ * KafkaProducerService does (key = user id, Avro value); user-service itself is a separate
+ * module and is not started. Before every round the customer name of all orders is reset, so
+ * the first event of each user in a round rewrites all the orders of that user.
+ *
+ * Reports events/sec per round, the consumer lag sampled during each round (CSV lines
+ * 'lag,elapsedMs,sent,applied,lag') and the end-to-end latency percentiles measured by the
+ * service itself (user.events.end_to_end.latency).
+ *
+ * System properties:
+ * - bench.shape: few-heavy (10 users x 20000 orders) or many-light (20000 users x 5 orders, default)
+ * - bench.users, bench.orders-per-user: override the shape
+ * - bench.events-per-user: events per user and round (default 5)
+ * - bench.rounds: measured rounds after one warm-up round (default 3)
+ * - bench.sample-interval-ms: lag sampling period (default 250)
+ */
+public final class UserEventPipelineBenchmark {
+
+    private static final String TOPIC = "user-events";
+    private static final int SEED_CHUNK = 10_000;
+
+    private UserEventPipelineBenchmark() {
+    }
+
+    private enum Shape {
+        FEW_HEAVY(10, 20_000),
+        MANY_LIGHT(20_000, 5);
+
+        private final int users;
+        private final int ordersPerUser;
+
+        Shape(int users, int ordersPerUser) {
+            this.users = users;
+            this.ordersPerUser = ordersPerUser;
+        }
+
+        static Shape from(String name) {
+            return valueOf(name.toUpperCase().replace('-', '_'));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Shape shape = Shape.from(System.getProperty("bench.shape", "many-light"));
+        int users = Integer.getInteger("bench.users", shape.users);
+        int ordersPerUser = Integer.getInteger("bench.orders-per-user", shape.ordersPerUser);
+        int eventsPerUser = Integer.getInteger("bench.events-per-user", 5);
+        int rounds = Integer.getInteger("bench.rounds", 3);
+        long sampleIntervalMs = Long.getLong("bench.sample-interval-ms", 250);
+
+        System.out.printf("shape=%s users=%d ordersPerUser=%d eventsPerUser=%d rounds=%d%n",
+                shape, users, ordersPerUser, eventsPerUser, rounds);
+
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0)) {
+            EmbeddedKafkaBroker kafka = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+            kafka.afterPropertiesSet();
+            try (ConfigurableApplicationContext app = startOrderService(kafka, mongod.current().getServerAddress())) {
+                ReactiveMongoTemplate mongo = app.getBean(ReactiveMongoTemplate.class);
+                MeterRegistry meterRegistry = app.getBean(MeterRegistry.class);
+                KafkaListenerEndpointRegistry listeners = app.getBean(KafkaListenerEndpointRegistry.class);
+                ContainerTestUtils.waitForAssignment(listeners.getListenerContainer("userEventsBatchListener"), 3);
+
+                seed(mongo, users, ordersPerUser);
+                KafkaTemplate<String, UserEvent> producer = producer(kafka);
+                Counter applied = meterRegistry.get("user.events.received").counter();
+
+                for (int round = 0; round <= rounds; round++) {
+                    String label = round == 0 ? "warm-up" : "round-" + round;
+                    mongo.updateMulti(new Query(), Update.update("customerName", "seed"), Order.class).block();
+                    runRound(label, producer, applied, users, eventsPerUser, sampleIntervalMs);
+                }
+                reportLatency(meterRegistry);
+            } finally {
+                kafka.destroy();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startOrderService(EmbeddedKafkaBroker kafka, ServerAddress mongo) {
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .properties(Map.of(
+                        "spring.kafka.bootstrap-servers", kafka.getBrokersAsString(),
+                        "spring.kafka.consumer.auto-offset-reset", "earliest",
+                        "spring.data.mongodb.uri", "mongodb://" + mongo.getHost() + ":" + mongo.getPort() + "/orders-benchmark",
+                        "server.port", "0",
+                        "application.orders.archive.enabled", "false",
+                        "management.tracing.sampling.probability", System.getProperty("bench.trace-sampling", "0.0"),
+                        "management.metrics.distribution.percentiles.user.events.end_to_end.latency", "0.5,0.9,0.99,0.999",
+                        "logging.level.com.example.orderservice", "WARN"))
+                .run();
+    }
+
+    private static void seed(ReactiveMongoTemplate mongo, int users, int ordersPerUser) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long total = (long) users * ordersPerUser;
+        Flux.range(0, (int) ((total + SEED_CHUNK - 1) / SEED_CHUNK))
+                .concatMap(chunk -> {
+                    List<Order> orders = new ArrayList<>(SEED_CHUNK);
+                    for (long i = (long) chunk * SEED_CHUNK; i < Math.min(total, (long) (chunk + 1) * SEED_CHUNK); i++) {
+                        orders.add(Order.builder()
+                                .username("user-" + (i % users))
+                                .customerName("seed")
+                                .productIds(List.of("product-" + (i % 100)))
+                                .totalAmount(BigDecimal.valueOf(10 + i % 90))
+                                .orderDate(now.minusMinutes(i / users))
+                                .build());
+                    }
+                    return mongo.insertAll(orders);
+                })
+                .then()
+                .block();
+        System.out.printf("seeded %d orders in %d ms%n", total, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static KafkaTemplate<String, UserEvent> producer(EmbeddedKafkaBroker kafka) {
+        Map<String, Object> config = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new UserEventAvroSerializer()));
+    }
+
+    private static void runRound(String label, KafkaTemplate<String, UserEvent> producer, Counter applied,
+                                 int users, int eventsPerUser, long sampleIntervalMs) throws InterruptedException {
+        long events = (long) users * eventsPerUser;
+        long appliedBefore = (long) applied.count();
+        AtomicLong sent = new AtomicLong();
+        long start = System.nanoTime();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            long done = (long) applied.count() - appliedBefore;
+            System.out.printf("lag,%d,%d,%d,%d%n", (System.nanoTime() - start) / 1_000_000, sent.get(), done, sent.get() - done);
+        }, 0, sampleIntervalMs, TimeUnit.MILLISECONDS);
+
+        for (int e = 0; e < eventsPerUser; e++) {
+            for (int u = 0; u < users; u++) {
+                UserEvent event = UserEvent.builder()
+                        .eventType("USER_UPDATED")
+                        .id((long) u)
+                        .username("user-" + u)
+                        .email("user-" + u + "@example.com")
+                        .eventTimestamp(System.currentTimeMillis())
+                        .build();
+                producer.send(TOPIC, String.valueOf(u), event).whenComplete((result, error) -> {
+                    if (error == null) {
+                        sent.incrementAndGet();
+                    }
+                });
+            }
+        }
+        producer.flush();
+
+        long deadline = System.nanoTime() + Duration.ofMinutes(10).toNanos();
+        while ((long) applied.count() - appliedBefore < events && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        sampler.shutdownNow();
+
+        long done = (long) applied.count() - appliedBefore;
+        System.out.printf("%s: %d/%d events applied in %d ms -> %.0f events/sec%n",
+                label, done, events, elapsedNanos / 1_000_000, done / (elapsedNanos / 1e9));
+    }
+
+    private static void reportLatency(MeterRegistry meterRegistry) {
+        Timer latency = meterRegistry.find("user.events.end_to_end.latency").tag("event.type", "USER_UPDATED").timer();
+        if (latency == null) {
+            System.out.println("no end-to-end latency recorded");
+            return;
+        }
+        StringBuilder line = new StringBuilder("end-to-end latency (all rounds):");
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            line.append(String.format(" p%s=%.1fms", percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        line.append(String.format(" max=%.1fms", latency.max(TimeUnit.MILLISECONDS)));
+        System.out.println(line);
+    }
+}
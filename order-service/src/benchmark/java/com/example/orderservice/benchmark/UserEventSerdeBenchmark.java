@@ -0,0 +1,101 @@
+package com.example.orderservice.benchmark;
+
+import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.infrastructure.messaging.UserEventAvroSerializer;
+import com.example.orderservice.infrastructure.messaging.UserEventDeserializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Wire size and encode/decode cost of a user event in the JSON format used before user-service
+ * moved to Avro and in the Avro format used now. Both are decoded through {@link UserEventDeserializer},
+ * the deserializer the consumers actually run, configured like in application.properties.
+ *
+ * Bytes per record include the headers, since the JSON format carries the producer's class name
+ * in a type header and Avro the schema version.
+ *
+ * System properties: bench.iterations (default 1000000), bench.warmup-iterations (default 200000).
+ */
+public final class UserEventSerdeBenchmark {
+
+    private static final String TOPIC = "user-events";
+    // Type id of the JSON records sent by user-service
+    private static final String PRODUCER_TYPE = "com.example.userservice.core.events.UserEvent";
+
+    private static volatile Object sink;
+
+    private UserEventSerdeBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = Integer.getInteger("bench.iterations", 1_000_000);
+        int warmup = Integer.getInteger("bench.warmup-iterations", 200_000);
+        UserEvent event = UserEvent.builder()
+                .eventType("USER_UPDATED")
+                .id(4242L)
+                .username("jane.doe")
+                .email("jane.doe@example.com")
+                .street("221B Baker Street")
+                .city("London")
+                .state("Greater London")
+                .zipCode("NW1 6XE")
+                .eventTimestamp(System.currentTimeMillis())
+                .build();
+
+        // Written as the type header by the producer and mapped back to the local class on read
+        String typeMapping = PRODUCER_TYPE + ":" + UserEvent.class.getName();
+        JsonSerializer<UserEvent> json = new JsonSerializer<>();
+        json.configure(Map.of(JsonSerializer.TYPE_MAPPINGS, typeMapping), false);
+        UserEventDeserializer deserializer = new UserEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.TYPE_MAPPINGS, typeMapping), false);
+
+        report("json", json, deserializer, event, warmup, iterations);
+        report("avro", new UserEventAvroSerializer(), deserializer, event, warmup, iterations);
+        deserializer.close();
+    }
+
+    private static void report(String format, Serializer<UserEvent> serializer, Deserializer<UserEvent> deserializer,
+                               UserEvent event, int warmup, int iterations) {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer.serialize(TOPIC, headers, event);
+        int headerBytes = 0;
+        for (Header header : headers) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+
+        encode(serializer, event, warmup);
+        decode(deserializer, headers, data, warmup);
+        double encodeNanos = encode(serializer, event, iterations);
+        double decodeNanos = decode(deserializer, headers, data, iterations);
+
+        System.out.printf("%s: value=%d B headers=%d B total=%d B/record, encode=%.0f ns/op, decode=%.0f ns/op%n",
+                format, data.length, headerBytes, data.length + headerBytes, encodeNanos, decodeNanos);
+    }
+
+    private static double encode(Serializer<UserEvent> serializer, UserEvent event, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = serializer.serialize(TOPIC, new RecordHeaders(), event);
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    private static double decode(Deserializer<UserEvent> deserializer, Headers headers, byte[] data, int iterations) {
+        Header[] received = headers.toArray();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            // Fresh headers per record: the JSON deserializer removes the type header it consumed
+            sink = deserializer.deserialize(TOPIC, new RecordHeaders(received), data);
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+}
@@ -3,9 +3,11 @@ package com.example.orderservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching // Enables Spring's caching abstraction for the reactive application
+@EnableScheduling // Enables the periodic maintenance jobs (e.g. order summary rebuild)
 public class OrderServiceApplication {
 
 	public static void main(String[] args) {
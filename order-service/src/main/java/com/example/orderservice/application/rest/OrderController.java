@@ -1,15 +1,25 @@
 package com.example.orderservice.application.rest;
 
+import com.example.orderservice.application.rest.dto.BulkOrderResultDto;
+import com.example.orderservice.application.rest.dto.OrderChangeDto;
+import com.example.orderservice.application.rest.dto.OrderPageResponseDto;
 import com.example.orderservice.application.rest.dto.OrderRequestDto;
 import com.example.orderservice.application.rest.dto.OrderResponseDto;
+import com.example.orderservice.application.rest.dto.OrderSummaryResponseDto;
+import com.example.orderservice.application.rest.dto.ProductPopularityDto;
 import com.example.orderservice.core.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
@@ -30,6 +40,22 @@ public class OrderController {
         return orderService.createOrder(requestDto);
     }
 
+    /**
+     * Endpoint to create many orders in one request.
+     * The body is either a JSON array or an NDJSON stream of orders; it is decoded incrementally
+     * and written in unordered insertMany chunks, with backpressure towards the client.
+     * One result line per item (the created id or a validation/write error) is streamed back
+     * as each chunk completes.
+     * @param requestDtos The stream of orders from the request body.
+     * @return A Flux emitting one result per submitted order, as NDJSON.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkOrderResultDto> createOrders(@RequestBody Flux<OrderRequestDto> requestDtos) {
+        return orderService.createOrders(requestDtos);
+    }
+
     /**
      * Endpoint to retrieve an order by its ID.
      * @param id The ID of the order.
@@ -55,6 +81,108 @@ public class OrderController {
         return orderService.getOrdersByUsername(username);
     }
 
+    /**
+     * Endpoint to retrieve the authenticated user's orders one page at a time, newest first.
+     * Pages are addressed by an opaque cursor instead of an offset, so every page costs the
+     * same index range scan regardless of how far the client has paged.
+     * @param authentication The authentication principal.
+     * @param cursor The 'nextCursor' of the previous page; omitted for the first page.
+     * @param limit The page size, capped by 'application.orders.page.max-size'.
+     * @param from Optional inclusive lower bound on the order date (ISO date-time).
+     * @param to Optional exclusive upper bound on the order date (ISO date-time).
+     * @return A Mono emitting the page and the cursor of the next one.
+     */
+    @GetMapping("/user/my-orders/page")
+    public Mono<OrderPageResponseDto> getMyOrdersPage(org.springframework.security.core.Authentication authentication,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.getOrdersPageByUsername(authentication.getName(), cursor, limit, from, to);
+    }
+
+    /**
+     * Server-Sent Events endpoint streaming live changes of the authenticated user's orders.
+     * The stream starts with a 'snapshot' event holding the first page of orders, followed by
+     * 'insert', 'update' and 'delete' events as they happen. A client reconnecting with the
+     * 'Last-Event-ID' header receives the changes it missed instead of a new snapshot, as long
+     * as they are still in the server's replay window.
+     * @param authentication The authentication principal.
+     * @param lastEventId The id of the last event received, sent by the browser on reconnect.
+     * @return A Flux of server-sent events.
+     */
+    @GetMapping(value = "/user/my-orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderChangeDto>> streamMyOrders(org.springframework.security.core.Authentication authentication,
+                                                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderService.streamOrderChanges(authentication.getName(), lastEventId)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(change.getEventId())
+                        .event(change.getType())
+                        .build());
+    }
+
+    /**
+     * Endpoint to retrieve the orders containing a product, newest first, one page at a time.
+     * @param productId The product to look for.
+     * @param cursor The 'nextCursor' of the previous page; omitted for the first page.
+     * @param limit The page size, capped by 'application.orders.page.max-size'.
+     * @param from Optional inclusive lower bound on the order date (ISO date-time).
+     * @param to Optional exclusive upper bound on the order date (ISO date-time).
+     * @return A Mono emitting the page and the cursor of the next one.
+     */
+    @GetMapping("/product/{productId}")
+    public Mono<OrderPageResponseDto> getOrdersByProduct(@PathVariable String productId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.getOrdersPageByProductId(productId, cursor, limit, from, to);
+    }
+
+    /**
+     * Endpoint to retrieve the most ordered products in a date range.
+     * The counting runs as an aggregation pipeline in MongoDB and results are streamed as they
+     * are read from the cursor.
+     * @param from Optional inclusive lower bound on the order date (ISO date-time).
+     * @param to Optional exclusive upper bound on the order date (ISO date-time).
+     * @param limit The number of products to return, capped by 'application.orders.page.max-size'.
+     * @return A Flux emitting the products ordered by descending order count.
+     */
+    @GetMapping("/analytics/top-products")
+    public Flux<ProductPopularityDto> getTopProducts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     @RequestParam(required = false) Integer limit) {
+        return orderService.getTopProducts(from, to, limit);
+    }
+
+    /**
+     * Endpoint to retrieve the number of orders per product and time window.
+     * @param from Optional inclusive lower bound on the order date (ISO date-time).
+     * @param to Optional exclusive upper bound on the order date (ISO date-time).
+     * @param window The window size: 'day', 'week' or 'month'.
+     * @param productId Optional product to restrict the series to.
+     * @return A Flux emitting one count per product and window, ordered by window.
+     */
+    @GetMapping("/analytics/product-popularity")
+    public Flux<ProductPopularityDto> getProductPopularity(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                           @RequestParam(defaultValue = "day") String window,
+                                                           @RequestParam(required = false) String productId) {
+        return orderService.getProductPopularity(from, to, window, productId);
+    }
+
+    /**
+     * Endpoint to retrieve the authenticated user's order count, total spend and last order date.
+     * The figures are read from a pre-aggregated summary document, so the cost does not depend
+     * on the number of orders the user has.
+     * @param authentication The authentication principal.
+     * @return A Mono emitting the user's order summary.
+     */
+    @GetMapping("/user/summary")
+    public Mono<OrderSummaryResponseDto> getMySummary(org.springframework.security.core.Authentication authentication) {
+        return orderService.getOrderSummary(authentication.getName());
+    }
+
     /**
      * Endpoint to update an existing order.
      * @param id The ID of the order to update.
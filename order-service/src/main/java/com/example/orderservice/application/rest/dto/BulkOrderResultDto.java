@@ -0,0 +1,21 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO for reporting the outcome of one item of a bulk order creation.
+ * 'index' is the zero-based position of the item in the request stream; exactly one of
+ * 'id' (created) or 'error' (rejected) is set.
+ */
+@Getter
+@Setter
+@Builder
+public class BulkOrderResultDto {
+
+    private long index;
+    private String id;
+    private String error;
+
+}
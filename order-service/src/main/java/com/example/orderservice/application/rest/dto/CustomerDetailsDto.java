@@ -0,0 +1,28 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * DTO for the current details of the user who owns an order, taken from the local user projection.
+ */
+@Getter
+@Setter
+@Builder
+public class CustomerDetailsDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String email;
+    private String street;
+    private String city;
+    private String state;
+    private String zipCode;
+
+}
@@ -0,0 +1,24 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO for one event of the live order stream.
+ * 'type' is 'snapshot' (with the first page of orders in 'snapshot'), or 'insert', 'update'
+ * or 'delete' (with the order id and, except for deletes, the order).
+ * 'eventId' is sent as the SSE id so reconnecting clients can resume after it.
+ */
+@Getter
+@Setter
+@Builder
+public class OrderChangeDto {
+
+    private String eventId;
+    private String type;
+    private String orderId;
+    private OrderResponseDto order;
+    private OrderPageResponseDto snapshot;
+
+}
@@ -0,0 +1,22 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO for returning one page of orders.
+ * 'nextCursor' is an opaque token to pass back to fetch the following page; it is null
+ * when there are no more orders.
+ */
+@Getter
+@Setter
+@Builder
+public class OrderPageResponseDto {
+
+    private List<OrderResponseDto> items;
+    private String nextCursor;
+
+}
@@ -4,6 +4,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,7 +16,10 @@ import java.util.List;
 @Getter
 @Setter
 @Builder
-public class OrderResponseDto {
+public class OrderResponseDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     private String id;
     private String username;
@@ -22,5 +27,7 @@ public class OrderResponseDto {
     private List<String> productIds;
     private BigDecimal totalAmount;
     private LocalDateTime orderDate;
+    // Null when the owner is not (yet) known to the local user projection
+    private CustomerDetailsDto customer;
 
 }
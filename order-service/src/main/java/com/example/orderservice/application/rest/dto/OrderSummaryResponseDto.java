@@ -0,0 +1,23 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for returning a user's aggregated order figures.
+ */
+@Getter
+@Setter
+@Builder
+public class OrderSummaryResponseDto {
+
+    private String username;
+    private long orderCount;
+    private BigDecimal totalSpend;
+    private LocalDateTime lastOrderDate;
+
+}
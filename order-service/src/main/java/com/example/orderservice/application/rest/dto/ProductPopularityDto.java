@@ -0,0 +1,22 @@
+package com.example.orderservice.application.rest.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for returning how many orders contain a product.
+ * 'windowStart' is only set for time-windowed results.
+ */
+@Getter
+@Setter
+@Builder
+public class ProductPopularityDto {
+
+    private String productId;
+    private LocalDateTime windowStart;
+    private long orderCount;
+
+}
@@ -6,7 +6,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,8 +23,19 @@ import java.util.List;
  * It uses the Builder pattern (@Builder) for easy and readable object instantiation.
  * Lombok's @Data has been avoided in favor of more granular annotations (@Getter, @Setter)
  * to provide finer control over generated boilerplate code.
+ *
+ * Indexes are declared here and ensured at startup by MongoIndexInitializer.
+ * The 'username_orderDate_id' index serves the per-user lookups (including the rename fan-out)
+ * and the keyset-paginated "my orders" query without an in-memory sort.
+ * 'productIds_orderDate_id' is a multikey index (one entry per product of an order) serving
+ * product lookups, and 'orderDate' serves the date-range analytics pipelines.
  */
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "username_orderDate_id", def = "{'username': 1, 'orderDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "productIds_orderDate_id", def = "{'productIds': 1, 'orderDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "orderDate", def = "{'orderDate': -1}")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,6 +52,8 @@ public class Order {
 
     private List<String> productIds;
 
+    // Stored as Decimal128 rather than Spring Data's default string so it can be summed server-side
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal totalAmount;
 
     private LocalDateTime orderDate;
@@ -0,0 +1,44 @@
+package com.example.orderservice.core.domain.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user aggregate of the 'orders' collection, keyed by username.
+ * It is maintained incrementally with atomic $inc/$max updates on every order write,
+ * and periodically rebuilt from the orders themselves to correct any drift.
+ */
+@Document(collection = "order_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary {
+
+    @Id
+    private String username;
+
+    private long orderCount;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalSpend;
+
+    private LocalDateTime lastOrderDate;
+
+    /**
+     * Server time of the last write to this summary. A rebuild removes the summaries it did not
+     * refresh, i.e. those of users without any order left.
+     */
+    private LocalDateTime refreshedAt;
+}
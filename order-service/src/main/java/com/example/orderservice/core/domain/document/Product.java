@@ -0,0 +1,34 @@
+package com.example.orderservice.core.domain.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * A product of the catalog, keyed by the id orders refer to in 'productIds'.
+ * Prices are read by order-service only; the collection is maintained by the catalog owners.
+ */
+@Document(collection = "products")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Product {
+
+    @Id
+    private String id;
+
+    private String name;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal price;
+}
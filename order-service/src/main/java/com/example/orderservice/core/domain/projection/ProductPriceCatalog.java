@@ -0,0 +1,322 @@
+package com.example.orderservice.core.domain.projection;
+
+import com.example.orderservice.core.domain.document.Product;
+import com.example.orderservice.core.exceptions.OrderPricingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory read model of the product prices, built from the 'products' collection, so orders
+ * can be priced on the request path without any I/O.
+ *
+ * Prices are kept off-heap in an open-addressing hash table (linear probing) of 16-byte slots:
+ * the 64-bit hash of the product id and the price in units of 10^-{@value #SCALE}. Millions of
+ * products take a few tens of MB of direct memory and add nothing for the GC to trace. Product
+ * ids themselves are not stored; two ids with the same 64-bit hash (~n^2 / 2^65) would share a
+ * price.
+ *
+ * It is written by a single thread (the catalog loader) and read concurrently: readers use an
+ * optimistic stamp and only take the read lock when a write raced with them.
+ */
+@Component
+public class ProductPriceCatalog {
+
+    public static final int SCALE = 4;
+
+    private static final int SLOT_BYTES = 16;
+    private static final long EMPTY = 0L;
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final double MAX_LOAD = 0.7;
+    // Direct buffers are indexed by int: 2^26 slots of 16 bytes is 1 GiB
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final int MAX_REPORTED_UNKNOWN = 10;
+
+    private final StampedLock lock = new StampedLock();
+    private final int initialCapacity;
+    // Replaced when it grows or is reloaded, under the write lock
+    private volatile Table table;
+
+    public ProductPriceCatalog(@Value("${application.orders.pricing.catalog.expected-products:50000}") int expectedProducts) {
+        this.initialCapacity = capacityFor(expectedProducts);
+        this.table = new Table(initialCapacity);
+    }
+
+    /**
+     * Sum of the catalog prices of the given products; a product listed twice is counted twice.
+     * @throws OrderPricingException if a product is not in the catalog.
+     */
+    public BigDecimal total(List<String> productIds) {
+        long[] keys = new long[productIds.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyOf(productIds.get(i));
+        }
+        long[] prices = new long[keys.length];
+        long stamp = lock.tryOptimisticRead();
+        lookup(table, keys, prices);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                lookup(table, keys, prices);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long total = 0;
+        List<String> unknown = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] == MISSING) {
+                if (unknown.size() < MAX_REPORTED_UNKNOWN) {
+                    unknown.add(productIds.get(i));
+                }
+            } else {
+                total = Math.addExact(total, prices[i]);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new OrderPricingException("Unknown products: " + String.join(", ", unknown));
+        }
+        return toAmount(total);
+    }
+
+    public Optional<BigDecimal> priceOf(String productId) {
+        long key = keyOf(productId);
+        long stamp = lock.tryOptimisticRead();
+        long price = table.get(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                price = table.get(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return price == MISSING ? Optional.empty() : Optional.of(toAmount(price));
+    }
+
+    public void put(String productId, BigDecimal price) {
+        long key = keyOf(productId);
+        long units = toUnits(price);
+        long stamp = lock.writeLock();
+        try {
+            table = putOrGrow(table, key, units);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(String productId) {
+        long key = keyOf(productId);
+        long stamp = lock.writeLock();
+        try {
+            table.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Rebuilds the catalog from scratch into a new table, which replaces the current one once
+     * complete; until then lookups keep using the current prices.
+     * @return The number of products loaded.
+     */
+    public Mono<Integer> reload(Flux<Product> products) {
+        return products
+                .reduceWith(() -> new Table(initialCapacity), (loading, product) -> putOrGrow(loading, keyOf(product.getId()), toUnits(product.getPrice())))
+                .map(loaded -> {
+                    long stamp = lock.writeLock();
+                    try {
+                        table = loaded;
+                    } finally {
+                        lock.unlockWrite(stamp);
+                    }
+                    return loaded.size;
+                });
+    }
+
+    /**
+     * Prices must be non-negative with at most {@value #SCALE} decimals.
+     */
+    public static boolean isValidPrice(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            return false;
+        }
+        try {
+            toUnits(price);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public long offHeapBytes() {
+        return (long) table.capacity() * SLOT_BYTES;
+    }
+
+    private static void lookup(Table current, long[] keys, long[] prices) {
+        for (int i = 0; i < keys.length; i++) {
+            prices[i] = current.get(keys[i]);
+        }
+    }
+
+    private static Table putOrGrow(Table current, long key, long units) {
+        Table target = current;
+        if (target.size + 1 > target.capacity() * MAX_LOAD) {
+            if (target.capacity() == MAX_CAPACITY) {
+                throw new IllegalStateException("Product price catalog is full (" + target.size + " products)");
+            }
+            target = target.resize(target.capacity() * 2);
+        }
+        target.put(key, units);
+        return target;
+    }
+
+    private static long toUnits(BigDecimal price) {
+        return price.movePointRight(SCALE).longValueExact();
+    }
+
+    private static BigDecimal toAmount(long units) {
+        BigDecimal amount = BigDecimal.valueOf(units, SCALE).stripTrailingZeros();
+        return amount.scale() < 2 ? amount.setScale(2) : amount;
+    }
+
+    private static int capacityFor(int expectedProducts) {
+        long needed = (long) Math.ceil(Math.max(expectedProducts, 1) / MAX_LOAD);
+        int capacity = 16;
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars (no allocation) followed by the MurmurHash3 finalizer,
+     * so the low bits used as the slot index are well mixed. 0 marks empty slots.
+     */
+    static long keyOf(String productId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < productId.length(); i++) {
+            h ^= productId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec3L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1 : h;
+    }
+
+    /**
+     * Power-of-two table of (key, price) slots in a direct buffer. Old tables are released by
+     * the GC once replaced.
+     */
+    private static final class Table {
+
+        private final ByteBuffer slots;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private long get(long key) {
+            int index = (int) key & mask;
+            // Bounded so a read racing with a write always terminates (and is then retried)
+            for (int probe = 0; probe <= mask; probe++) {
+                int offset = index * SLOT_BYTES;
+                long current = slots.getLong(offset);
+                if (current == key) {
+                    return slots.getLong(offset + Long.BYTES);
+                }
+                if (current == EMPTY) {
+                    return MISSING;
+                }
+                index = (index + 1) & mask;
+            }
+            return MISSING;
+        }
+
+        private void put(long key, long value) {
+            int index = (int) key & mask;
+            while (true) {
+                int offset = index * SLOT_BYTES;
+                long current = slots.getLong(offset);
+                if (current == key || current == EMPTY) {
+                    slots.putLong(offset + Long.BYTES, value);
+                    if (current == EMPTY) {
+                        slots.putLong(offset, key);
+                        size++;
+                    }
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        /**
+         * Backward-shift deletion: the entries following the removed one are moved back when
+         * that brings them closer to their home slot, so no tombstones are needed.
+         */
+        private void remove(long key) {
+            int hole = (int) key & mask;
+            while (true) {
+                long current = slots.getLong(hole * SLOT_BYTES);
+                if (current == EMPTY) {
+                    return;
+                }
+                if (current == key) {
+                    break;
+                }
+                hole = (hole + 1) & mask;
+            }
+            int next = (hole + 1) & mask;
+            while (true) {
+                long current = slots.getLong(next * SLOT_BYTES);
+                if (current == EMPTY) {
+                    break;
+                }
+                int home = (int) current & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots.putLong(hole * SLOT_BYTES + Long.BYTES, slots.getLong(next * SLOT_BYTES + Long.BYTES));
+                    slots.putLong(hole * SLOT_BYTES, current);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            slots.putLong(hole * SLOT_BYTES, EMPTY);
+            size--;
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int index = 0; index <= mask; index++) {
+                long key = slots.getLong(index * SLOT_BYTES);
+                if (key != EMPTY) {
+                    resized.put(key, slots.getLong(index * SLOT_BYTES + Long.BYTES));
+                }
+            }
+            return resized;
+        }
+    }
+}
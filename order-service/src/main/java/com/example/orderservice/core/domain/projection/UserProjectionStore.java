@@ -0,0 +1,51 @@
+package com.example.orderservice.core.domain.projection;
+
+import com.example.orderservice.core.events.UserEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of the users, built from the 'user-events' topic.
+ * It is written by a single thread (the projection loader) and read concurrently by request
+ * handlers, which get current user details without calling user-service.
+ */
+@Component
+public class UserProjectionStore {
+
+    private final Map<Long, UserView> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByUsername = new ConcurrentHashMap<>();
+
+    public void apply(UserEvent event) {
+        UserView view = new UserView(event.getId(), event.getUsername(), event.getEmail(),
+                event.getStreet(), event.getCity(), event.getState(), event.getZipCode());
+        UserView previous = usersById.put(view.id(), view);
+        if (previous != null && previous.username() != null && !previous.username().equals(view.username())) {
+            userIdsByUsername.remove(previous.username(), previous.id());
+        }
+        if (view.username() != null) {
+            userIdsByUsername.put(view.username(), view.id());
+        }
+    }
+
+    public void remove(Long userId) {
+        UserView previous = usersById.remove(userId);
+        if (previous != null && previous.username() != null) {
+            userIdsByUsername.remove(previous.username(), userId);
+        }
+    }
+
+    public Optional<UserView> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        Long userId = userIdsByUsername.get(username);
+        return userId == null ? Optional.empty() : Optional.ofNullable(usersById.get(userId));
+    }
+
+    public int size() {
+        return usersById.size();
+    }
+}
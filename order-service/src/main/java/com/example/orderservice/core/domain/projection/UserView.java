@@ -0,0 +1,9 @@
+package com.example.orderservice.core.domain.projection;
+
+/**
+ * Compact, immutable snapshot of a user as known to order-service.
+ * Only the fields needed to enrich order responses are kept.
+ */
+public record UserView(Long id, String username, String email,
+                       String street, String city, String state, String zipCode) {
+}
@@ -0,0 +1,129 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.PageCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cold tier for orders older than {@code application.orders.archive.max-age}. Archived orders
+ * keep the {@link Order} shape but live in a separate collection created with zstd block
+ * compression and only the index needed by the per-user queries.
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    public static final String COLLECTION = "orders_archive";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Counter archiveReads;
+
+    @Value("${application.orders.archive.max-age:365d}")
+    private Duration maxAge;
+
+    public OrderArchiveRepository(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveReads = Counter.builder("orders.archive.reads")
+                .description("Orders served from the archive tier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Orders placed before this instant belong to the archive tier.
+     */
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(maxAge);
+    }
+
+    /**
+     * Creates the archive collection with zstd compression if it is missing and ensures its index.
+     */
+    public Mono<String> ensureCollection() {
+        CreateCollectionOptions options = new CreateCollectionOptions()
+                .storageEngineOptions(new Document("wiredTiger", new Document("configString", "block_compressor=zstd")));
+        Index byUser = new Index()
+                .on("username", Sort.Direction.ASC)
+                .on("orderDate", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("username_orderDate_id");
+
+        return mongoTemplate.collectionExists(COLLECTION)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : mongoTemplate.getMongoDatabase().flatMap(db -> Mono.from(db.createCollection(COLLECTION, options))))
+                .then(mongoTemplate.indexOps(COLLECTION).ensureIndex(byUser));
+    }
+
+    /**
+     * Copies the orders into the archive. Upserts by id, so a batch interrupted before the hot
+     * copies are deleted can simply be archived again.
+     */
+    public Mono<Void> saveAll(List<Order> orders) {
+        ReactiveBulkOperations bulkOps = mongoTemplate.bulkOps(BulkMode.UNORDERED, Order.class, COLLECTION);
+        orders.forEach(order -> bulkOps.replaceOne(
+                Query.query(Criteria.where("_id").is(order.getId())), order, FindAndReplaceOptions.options().upsert()));
+        return bulkOps.execute().then();
+    }
+
+    /**
+     * Replaces an archived order in place; it stays in the archive, its order date being past the cutoff.
+     */
+    public Mono<Order> save(Order order) {
+        return saveAll(List.of(order)).thenReturn(order);
+    }
+
+    public Mono<Order> findById(String id) {
+        return mongoTemplate.findById(id, Order.class, COLLECTION)
+                .doOnNext(order -> archiveReads.increment());
+    }
+
+    public Flux<Order> findByUsername(String username) {
+        return mongoTemplate.find(Query.query(Criteria.where("username").is(username)), Order.class, COLLECTION)
+                .doOnNext(order -> archiveReads.increment());
+    }
+
+    public Mono<Order> findLatestByUsername(String username) {
+        Query query = Query.query(Criteria.where("username").is(username))
+                .with(Sort.by(Sort.Direction.DESC, "orderDate"));
+        return mongoTemplate.findOne(query, Order.class, COLLECTION);
+    }
+
+    public Flux<Order> findPageByUsername(String username, PageCursor after, LocalDateTime from, LocalDateTime to, int limit) {
+        Query query = OrderRepositoryCustomImpl.pageQuery(Criteria.where("username").is(username), after, from, to, limit);
+        return mongoTemplate.find(query, Order.class, COLLECTION)
+                .doOnNext(order -> archiveReads.increment());
+    }
+
+    /**
+     * Whether the archive holds the order. Not counted as an archive read.
+     */
+    public Mono<Boolean> existsById(String id) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), COLLECTION);
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), COLLECTION).then();
+    }
+
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(COLLECTION);
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.orderservice.core.domain.repository;
 
 import com.example.orderservice.core.domain.document.Order;
-import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
-import org.springframework.stereotype.Repository;
-import reactor.core.publisher.Flux;
+import org.springframework.data.repository.RepositoryDefinition;
 
-@Repository
-public interface OrderRepository extends ReactiveMongoRepository<Order, String> {
-
-    Flux<Order> findByUsername(String username);
+/**
+ * Orders are spread over the shards of {@link OrderShards}, so every operation is implemented in
+ * {@link OrderRepositoryCustomImpl} to route it. The repository deliberately does not extend
+ * {@code ReactiveMongoRepository}: its inherited CRUD methods (findAll, count, saveAll, ...)
+ * would only address shard 0.
+ */
+@RepositoryDefinition(domainClass = Order.class, idClass = String.class)
+public interface OrderRepository extends OrderRepositoryCustom {
 }
@@ -0,0 +1,143 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.Order;
+import org.bson.Document;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom repository fragment for Order operations that cannot be expressed as
+ * derived queries. Spring Data picks up {@link OrderRepositoryCustomImpl} by naming
+ * convention and merges it into {@link OrderRepository}.
+ *
+ * Operations on one user's orders go to the user's shard; the others are run on every shard
+ * and their results merged (scatter-gather).
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Saves the order on its owner's shard, assigning a slot-encoded id to new orders.
+     */
+    <S extends Order> Mono<S> save(S order);
+
+    /**
+     * Looks the order up on the shard encoded in its id, or on every shard for ids created before sharding.
+     */
+    Mono<Order> findById(String id);
+
+    Mono<Void> delete(Order order);
+
+    Mono<Void> deleteAllById(Iterable<? extends String> ids);
+
+    Flux<Order> findByUsername(String username);
+
+    Mono<Order> findFirstByUsernameOrderByOrderDateDesc(String username);
+
+    /**
+     * Orders placed before the cutoff, oldest first, used by the archival job to move them in bounded batches.
+     */
+    Flux<StoredOrder> findByOrderDateBefore(LocalDateTime cutoff, int limit);
+
+    /**
+     * The order with the given id along with its stored document, or empty if it does not exist.
+     */
+    Mono<StoredOrder> findStoredById(String id);
+
+    /**
+     * Deletes the order only if its stored document is still the one it was read with, so an
+     * order changed in the meantime is kept.
+     *
+     * @return A Mono emitting whether the order was deleted.
+     */
+    Mono<Boolean> deleteIfUnchanged(StoredOrder order);
+
+    /**
+     * Sum of the estimated document counts of the orders collection on every shard.
+     */
+    Mono<Long> estimatedCount();
+
+    /**
+     * Sets the customer name on every order of the given user in a server-side update,
+     * touching only the documents whose value actually changes.
+     *
+     * @param username     The owner of the orders (matched against the indexed 'username' field).
+     * @param customerName The new customer name.
+     * @return A Mono emitting the matched/modified counts of the update.
+     */
+    Mono<BulkUpdateResult> updateCustomerName(String username, String customerName);
+
+    /**
+     * Inserts the orders with one unordered insertMany per shard: a failing document does not
+     * prevent the others from being written.
+     *
+     * @param orders The orders to insert; their ids must already be assigned.
+     * @return A Mono emitting the error message of every rejected order, keyed by its position in 'orders'.
+     */
+    Mono<Map<Integer, String>> insertAllUnordered(List<Order> orders);
+
+    /**
+     * Returns one page of a user's orders, newest first, using keyset pagination on
+     * (orderDate desc, _id desc). The query is served by the 'username_orderDate_id' index,
+     * so neither skipping nor an in-memory sort is needed however deep the page is.
+     *
+     * @param username The owner of the orders.
+     * @param after    Position of the last order of the previous page, or null for the first page.
+     * @param from     Inclusive lower bound on orderDate, or null.
+     * @param to       Exclusive upper bound on orderDate, or null.
+     * @param limit    Maximum number of orders to return.
+     * @return A Flux emitting at most 'limit' orders in page order.
+     */
+    Flux<Order> findPageByUsername(String username, PageCursor after, LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Same as {@link #findPageByUsername} for the orders containing the given product,
+     * served by the multikey 'productIds_orderDate_id' index.
+     */
+    Flux<Order> findPageByProductId(String productId, PageCursor after, LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Counts, server-side, the orders containing each product in a date range and returns the
+     * most ordered products first. Results are streamed from the aggregation cursor.
+     */
+    Flux<ProductPopularity> findTopProducts(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Counts the orders containing each product per time window ('day', 'week' or 'month'),
+     * optionally for a single product, ordered by window then product.
+     */
+    Flux<ProductPopularity> findProductPopularity(LocalDateTime from, LocalDateTime to, String window, String productId);
+
+    /**
+     * Number of orders containing a product, optionally within a time window.
+     *
+     * @param windowStart Start of the window, or null for a whole-range count.
+     */
+    record ProductPopularity(String productId, LocalDateTime windowStart, long orderCount) {
+    }
+
+    /**
+     * An order and the document it was read from, as stored (before any conversion).
+     */
+    record StoredOrder(Order order, Document document) {
+    }
+
+    /**
+     * Keyset position of an order in the (orderDate desc, _id desc) ordering.
+     */
+    record PageCursor(LocalDateTime orderDate, String id) {
+    }
+
+    /**
+     * Outcome of a multi-document update.
+     *
+     * @param matchedCount  Documents that matched the filter.
+     * @param modifiedCount Documents that were actually rewritten.
+     * @param strategy      How the update was issued ('updateMany' or 'bulkWrite').
+     */
+    record BulkUpdateResult(long matchedCount, long modifiedCount, String strategy) {
+    }
+}
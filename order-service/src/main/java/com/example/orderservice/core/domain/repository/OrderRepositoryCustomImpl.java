@@ -0,0 +1,440 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link OrderRepositoryCustom} on top of the {@link ReactiveMongoTemplate}s of
+ * {@link OrderShards}. With a single shard every operation runs exactly as before sharding.
+ */
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final Comparator<Order> NEWEST_FIRST = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Order::getId, OrderShards.ID_ORDER.reversed());
+
+    private static final Comparator<Order> OLDEST_FIRST = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static final Comparator<ProductPopularity> MOST_ORDERED_FIRST = Comparator
+            .comparingLong(ProductPopularity::orderCount).reversed()
+            .thenComparing(ProductPopularity::productId);
+
+    private static final Comparator<ProductPopularity> BY_WINDOW_THEN_PRODUCT = Comparator
+            .comparing(ProductPopularity::windowStart, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ProductPopularity::productId);
+
+    private final OrderShards orderShards;
+
+    /**
+     * Above this number of affected orders the rename is split into chunked unordered
+     * bulk writes, so a single huge updateMany does not hold the write lock for too long.
+     */
+    @Value("${application.orders.customer-update.bulk-threshold:50000}")
+    private long bulkThreshold;
+
+    @Value("${application.orders.customer-update.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public <S extends Order> Mono<S> save(S order) {
+        if (order.getId() == null) {
+            order.setId(orderShards.newId(order.getUsername()));
+        }
+        return orderShards.forUsername(order.getUsername()).save(order);
+    }
+
+    @Override
+    public Mono<Order> findById(String id) {
+        // While a slot is being moved, the copy on the new owner (listed first) wins
+        return Flux.mergeSequential(orderShards.readersForId(id).stream()
+                        .map(shard -> shard.findById(id, Order.class))
+                        .toList())
+                .next();
+    }
+
+    @Override
+    public Mono<Void> delete(Order order) {
+        return Flux.fromIterable(orderShards.readersForUsername(order.getUsername()))
+                .flatMap(shard -> shard.remove(Query.query(Criteria.where("_id").is(order.getId())), Order.class))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        Map<ReactiveMongoTemplate, List<String>> idsByShard = new IdentityHashMap<>();
+        for (String id : ids) {
+            orderShards.readersForId(id).forEach(shard -> idsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(id));
+        }
+        return Flux.fromIterable(idsByShard.entrySet())
+                .flatMap(entry -> entry.getKey().remove(Query.query(Criteria.where("_id").in(entry.getValue())), Order.class))
+                .then();
+    }
+
+    @Override
+    public Flux<Order> findByUsername(String username) {
+        return Flux.fromIterable(orderShards.readersForUsername(username))
+                .concatMap(shard -> shard.find(Query.query(Criteria.where("username").is(username)), Order.class))
+                .distinct(Order::getId);
+    }
+
+    @Override
+    public Mono<Order> findFirstByUsernameOrderByOrderDateDesc(String username) {
+        Query latest = Query.query(Criteria.where("username").is(username))
+                .with(Sort.by(Sort.Direction.DESC, "orderDate"));
+        return Flux.fromIterable(orderShards.readersForUsername(username))
+                .flatMap(shard -> shard.findOne(latest, Order.class))
+                .sort(NEWEST_FIRST)
+                .next();
+    }
+
+    @Override
+    public Flux<StoredOrder> findByOrderDateBefore(LocalDateTime cutoff, int limit) {
+        Query oldest = Query.query(Criteria.where("orderDate").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "orderDate"))
+                .limit(limit);
+        return Flux.mergeSequential(orderShards.all().stream().map(shard -> findStored(shard, oldest).collectList()).toList())
+                .collectList()
+                .flatMapMany(results -> {
+                    Set<String> seen = new HashSet<>();
+                    return Flux.fromStream(results.stream()
+                            .flatMap(List::stream)
+                            .filter(found -> seen.add(found.order().getId()))
+                            .sorted(Comparator.comparing(StoredOrder::order, OLDEST_FIRST))
+                            .limit(limit));
+                });
+    }
+
+    @Override
+    public Mono<StoredOrder> findStoredById(String id) {
+        Query byId = Query.query(Criteria.where("_id").is(id));
+        return Flux.mergeSequential(orderShards.readersForId(id).stream().map(shard -> findStored(shard, byId)).toList())
+                .next();
+    }
+
+    @Override
+    public Mono<Boolean> deleteIfUnchanged(StoredOrder order) {
+        return Flux.fromIterable(orderShards.readersForUsername(order.order().getUsername()))
+                .concatMap(shard -> shard.getCollection(shard.getCollectionName(Order.class))
+                        .flatMap(collection -> Mono.from(collection.deleteOne(unchangedFilter(shard, order.document())))))
+                .reduce(0L, (deleted, result) -> deleted + result.getDeletedCount())
+                .map(deleted -> deleted > 0);
+    }
+
+    private Flux<StoredOrder> findStored(ReactiveMongoTemplate shard, Query query) {
+        return shard.find(query, Document.class, shard.getCollectionName(Order.class))
+                .map(document -> new StoredOrder(shard.getConverter().read(Order.class, document), document));
+    }
+
+    /**
+     * Matches the stored document only while every field still has its stored value. Mapped
+     * fields the document lacks must still be missing (or null), so setting one also counts as a change.
+     */
+    private static Document unchangedFilter(ReactiveMongoTemplate shard, Document stored) {
+        Document filter = new Document(stored);
+        shard.getConverter().getMappingContext().getRequiredPersistentEntity(Order.class)
+                .doWithProperties((PropertyHandler<MongoPersistentProperty>) property ->
+                        filter.putIfAbsent(property.getFieldName(), null));
+        return filter;
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return Flux.fromIterable(orderShards.all())
+                .flatMap(shard -> shard.estimatedCount(Order.class))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<BulkUpdateResult> updateCustomerName(String username, String customerName) {
+        // While the user's slot is being moved, orders not moved yet are renamed on the previous owner
+        return Flux.fromIterable(orderShards.readersForUsername(username))
+                .concatMap(shard -> updateCustomerName(shard, username, customerName))
+                .reduce((owner, previous) -> new BulkUpdateResult(
+                        owner.matchedCount() + previous.matchedCount(),
+                        owner.modifiedCount() + previous.modifiedCount(),
+                        owner.strategy()));
+    }
+
+    private Mono<BulkUpdateResult> updateCustomerName(ReactiveMongoTemplate shard, String username, String customerName) {
+        // Only documents whose value differs are matched, so replays of the same event are no-ops.
+        Criteria changed = Criteria.where("username").is(username).and("customerName").ne(customerName);
+        Update update = Update.update("customerName", customerName);
+
+        return shard.count(Query.query(changed), Order.class)
+                .flatMap(pending -> pending > bulkThreshold
+                        ? chunkedBulkUpdate(shard, changed, update)
+                        : shard.updateMulti(Query.query(changed), update, Order.class)
+                                .map(result -> new BulkUpdateResult(result.getMatchedCount(), result.getModifiedCount(), "updateMany")));
+    }
+
+    private Mono<BulkUpdateResult> chunkedBulkUpdate(ReactiveMongoTemplate shard, Criteria changed, Update update) {
+        Query idsOnly = Query.query(changed);
+        idsOnly.fields().include("_id");
+
+        return shard.find(idsOnly, Order.class)
+                .map(Order::getId)
+                .buffer(chunkSize)
+                .concatMap(ids -> bulkUpdateChunk(shard, ids, update))
+                .reduce(new BulkUpdateResult(0, 0, "bulkWrite"), (total, chunk) -> new BulkUpdateResult(
+                        total.matchedCount() + chunk.matchedCount(),
+                        total.modifiedCount() + chunk.modifiedCount(),
+                        total.strategy()));
+    }
+
+    private Mono<BulkUpdateResult> bulkUpdateChunk(ReactiveMongoTemplate shard, List<String> ids, Update update) {
+        ReactiveBulkOperations bulk = shard.bulkOps(BulkMode.UNORDERED, Order.class);
+        ids.forEach(id -> bulk.updateOne(Query.query(Criteria.where("_id").is(id)), update));
+        return bulk.execute()
+                .map(result -> new BulkUpdateResult(result.getMatchedCount(), result.getModifiedCount(), "bulkWrite"));
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> insertAllUnordered(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        // Positions in 'orders' of the orders sent to each shard, to report failures by position
+        Map<ReactiveMongoTemplate, List<Integer>> positionsByShard = new IdentityHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (order.getId() == null) {
+                order.setId(orderShards.newId(order.getUsername()));
+            }
+            positionsByShard.computeIfAbsent(orderShards.forUsername(order.getUsername()), key -> new ArrayList<>()).add(i);
+        }
+        return Flux.fromIterable(positionsByShard.entrySet())
+                .flatMap(entry -> {
+                    List<Integer> positions = entry.getValue();
+                    return insertUnordered(entry.getKey(), positions.stream().map(orders::get).toList())
+                            .map(failures -> failures.entrySet().stream()
+                                    .collect(Collectors.toMap(failure -> positions.get(failure.getKey()), Map.Entry::getValue)));
+                })
+                .<Map<Integer, String>>reduce(new HashMap<>(), (all, failures) -> {
+                    all.putAll(failures);
+                    return all;
+                });
+    }
+
+    private Mono<Map<Integer, String>> insertUnordered(ReactiveMongoTemplate shard, List<Order> orders) {
+        return shard.bulkOps(BulkMode.UNORDERED, Order.class)
+                .insert(orders)
+                .execute()
+                .map(result -> Map.<Integer, String>of())
+                .onErrorResume(this::isBulkWriteFailure, e -> Mono.just(writeErrorsByIndex(e)));
+    }
+
+    private boolean isBulkWriteFailure(Throwable e) {
+        return e instanceof BulkOperationException || e instanceof MongoBulkWriteException;
+    }
+
+    private Map<Integer, String> writeErrorsByIndex(Throwable e) {
+        List<BulkWriteError> errors = e instanceof BulkOperationException bulkException
+                ? bulkException.getErrors()
+                : ((MongoBulkWriteException) e).getWriteErrors();
+        return errors.stream().collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage, (first, second) -> first));
+    }
+
+    @Override
+    public Flux<Order> findPageByUsername(String username, PageCursor after, LocalDateTime from, LocalDateTime to, int limit) {
+        Query page = pageQuery(Criteria.where("username").is(username), after, from, to, limit);
+        return gather(orderShards.readersForUsername(username), page, NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public Flux<Order> findPageByProductId(String productId, PageCursor after, LocalDateTime from, LocalDateTime to, int limit) {
+        Query page = pageQuery(Criteria.where("productIds").is(productId), after, from, to, limit);
+        return gather(orderShards.all(), page, NEWEST_FIRST, limit);
+    }
+
+    /**
+     * Runs the query on the given shards in parallel and merges the results in the query's order.
+     * Each shard returns at most 'limit' orders, so the merged first 'limit' orders are exact.
+     * Shards are listed owner first, so when an order being moved exists on two shards the
+     * owner's copy is kept.
+     */
+    private Flux<Order> gather(List<ReactiveMongoTemplate> shards, Query query, Comparator<Order> order, int limit) {
+        if (shards.size() == 1) {
+            return shards.get(0).find(query, Order.class);
+        }
+        return Flux.mergeSequential(shards.stream().map(shard -> shard.find(query, Order.class).collectList()).toList())
+                .collectList()
+                .flatMapMany(results -> {
+                    Set<String> seen = new HashSet<>();
+                    return Flux.fromStream(results.stream()
+                            .flatMap(List::stream)
+                            .filter(found -> seen.add(found.getId()))
+                            .sorted(order)
+                            .limit(limit));
+                });
+    }
+
+    /**
+     * Keyset page query sorted by orderDate desc, _id desc. Shared with the archive tier so both
+     * collections page the same way.
+     */
+    static Query pageQuery(Criteria owner, PageCursor after, LocalDateTime from, LocalDateTime to, int limit) {
+        // Separate criteria are combined with $and because orderDate may be constrained several times
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(owner);
+        filters.addAll(dateRange(from, to));
+        if (after != null) {
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("orderDate").lt(after.orderDate()),
+                    new Criteria().andOperator(
+                            Criteria.where("orderDate").is(after.orderDate()),
+                            idBefore(after.id()))));
+        }
+
+        return Query.query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "orderDate", "_id"))
+                .limit(limit);
+    }
+
+    /**
+     * Ids after 'id' in '_id desc' order. $lt only compares values of the same type, and plain ids
+     * (ObjectIds) sort after slot-prefixed ones (strings), so after a plain id every prefixed id
+     * also follows. See {@link OrderShards#ID_ORDER}.
+     */
+    private static Criteria idBefore(String id) {
+        if (!ObjectId.isValid(id)) {
+            return Criteria.where("_id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where("_id").lt(new ObjectId(id)),
+                Criteria.where("_id").type(JsonSchemaObject.Type.STRING));
+    }
+
+    @Override
+    public Flux<ProductPopularity> findTopProducts(LocalDateTime from, LocalDateTime to, int limit) {
+        List<AggregationOperation> pipeline = new ArrayList<>(productsPerOrder(from, to, null));
+        pipeline.add(context -> new Document("$group", new Document("_id", "$productIds")
+                .append("orderCount", new Document("$sum", 1))));
+        if (orderShards.all().size() == 1) {
+            pipeline.add(context -> new Document("$sort", new Document("orderCount", -1).append("_id", 1)));
+            pipeline.add(context -> new Document("$limit", limit));
+        }
+        pipeline.add(context -> new Document("$project", new Document("_id", 0)
+                .append("productId", "$_id")
+                .append("orderCount", 1)));
+        // A shard's top products are not necessarily the global ones: with several shards every
+        // count is gathered and the top is taken after summing them
+        return aggregateAll(pipeline, MOST_ORDERED_FIRST, limit);
+    }
+
+    @Override
+    public Flux<ProductPopularity> findProductPopularity(LocalDateTime from, LocalDateTime to, String window, String productId) {
+        Document windowStart = new Document("$dateTrunc", new Document("date", "$orderDate")
+                .append("unit", window)
+                .append("timezone", ZoneId.systemDefault().getId()));
+
+        List<AggregationOperation> pipeline = new ArrayList<>(productsPerOrder(from, to, productId));
+        pipeline.add(context -> new Document("$group", new Document("_id", new Document("productId", "$productIds")
+                .append("windowStart", windowStart))
+                .append("orderCount", new Document("$sum", 1))));
+        pipeline.add(context -> new Document("$sort", new Document("_id.windowStart", 1).append("_id.productId", 1)));
+        pipeline.add(context -> new Document("$project", new Document("_id", 0)
+                .append("productId", "$_id.productId")
+                .append("windowStart", "$_id.windowStart")
+                .append("orderCount", 1)));
+        return aggregateAll(pipeline, BY_WINDOW_THEN_PRODUCT, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stages emitting one document per (order, distinct product) in the date range.
+     * The date filter goes through Criteria so LocalDateTime values are converted like on writes.
+     */
+    private List<AggregationOperation> productsPerOrder(LocalDateTime from, LocalDateTime to, String productId) {
+        List<Criteria> filters = new ArrayList<>(dateRange(from, to));
+        if (productId != null) {
+            filters.add(Criteria.where("productIds").is(productId));
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (!filters.isEmpty()) {
+            stages.add(Aggregation.match(new Criteria().andOperator(filters)));
+        }
+        // $setUnion de-duplicates products listed twice in the same order
+        stages.add(context -> new Document("$project", new Document("_id", 0)
+                .append("orderDate", 1)
+                .append("productIds", new Document("$setUnion", List.of("$productIds", List.of())))));
+        stages.add(context -> new Document("$unwind", "$productIds"));
+        if (productId != null) {
+            stages.add(context -> new Document("$match", new Document("productIds", productId)));
+        }
+        return stages;
+    }
+
+    /**
+     * Runs the pipeline on every shard and sums the counts of the same (product, window).
+     */
+    private Flux<ProductPopularity> aggregateAll(List<AggregationOperation> pipeline, Comparator<ProductPopularity> order, int limit) {
+        List<ReactiveMongoTemplate> shards = orderShards.all();
+        if (shards.size() == 1) {
+            return aggregate(shards.get(0), pipeline);
+        }
+        return Flux.fromIterable(shards)
+                .flatMap(shard -> aggregate(shard, pipeline))
+                .collect(LinkedHashMap<PopularityKey, Long>::new, (counts, popularity) -> counts.merge(
+                        new PopularityKey(popularity.productId(), popularity.windowStart()), popularity.orderCount(), Long::sum))
+                .flatMapMany(counts -> Flux.fromStream(counts.entrySet().stream()
+                        .map(entry -> new ProductPopularity(entry.getKey().productId(), entry.getKey().windowStart(), entry.getValue()))
+                        .sorted(order)
+                        .limit(limit)));
+    }
+
+    private Flux<ProductPopularity> aggregate(ReactiveMongoTemplate shard, List<AggregationOperation> pipeline) {
+        Aggregation aggregation = Aggregation.newAggregation(Order.class, pipeline)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(500).build());
+        return shard.aggregate(aggregation, shard.getCollectionName(Order.class), ProductPopularity.class);
+    }
+
+    private record PopularityKey(String productId, LocalDateTime windowStart) {
+    }
+
+    private static List<Criteria> dateRange(LocalDateTime from, LocalDateTime to) {
+        List<Criteria> filters = new ArrayList<>();
+        if (from != null) {
+            filters.add(Criteria.where("orderDate").gte(from));
+        }
+        if (to != null) {
+            filters.add(Criteria.where("orderDate").lt(to));
+        }
+        return filters;
+    }
+}
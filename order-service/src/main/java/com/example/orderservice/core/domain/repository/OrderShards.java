@@ -0,0 +1,250 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Routing of the 'orders' collection across N MongoDB databases ("shards").
+ *
+ * Every username hashes to one of {@value #SLOTS} fixed slots, and slots are spread over the
+ * shards with a consistent-hash ring, so growing from N to N+1 shards only moves ~1/(N+1) of the
+ * slots. Once sharding is on (more than one shard, now or before a rebalance), new order ids are
+ * prefixed with the slot of their owner ('0a3-' + ObjectId) so an id lookup goes to a single
+ * shard; with one shard ids stay plain ObjectIds. Ids without a slot are looked up on every shard.
+ * Prefixed ids are stored as strings and plain ones as ObjectIds: {@link #ID_ORDER} orders them
+ * the way MongoDB compares the two types. Shard 0 is the database of 'spring.data.mongodb.uri',
+ * which also keeps all the other collections (archive, summaries, migrations).
+ *
+ * While the shard count changes ('previous-count' differs from 'count'), a moved slot is written
+ * to its new owner and read from both owners until {@code OrderShardRebalancer} has moved it.
+ */
+@Component
+@Slf4j
+public class OrderShards implements DisposableBean {
+
+    public static final int SLOTS = 4096;
+
+    /**
+     * Order of '_id' values in MongoDB: strings (slot-prefixed ids) sort before ObjectIds (plain
+     * ids); within a type, the lowercase hex form sorts like the value itself.
+     */
+    public static final Comparator<String> ID_ORDER = Comparator
+            .comparing((String id) -> ObjectId.isValid(id))
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final int VIRTUAL_NODES = 160;
+    private static final String SLOT_SEPARATOR = "-";
+    private static final int ENCODED_ID_LENGTH = 3 + SLOT_SEPARATOR.length() + 24;
+
+    private final List<ReactiveMongoTemplate> templates = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private final int count;
+    private final int previousCount;
+    private final int[] owners;
+    private final int[] previousOwners;
+
+    public OrderShards(ReactiveMongoTemplate mongoTemplate, MongoConverter mongoConverter,
+                       ObjectProvider<MongoClientSettingsBuilderCustomizer> settingsCustomizers,
+                       @Value("${application.orders.sharding.additional-uris:}") List<String> additionalUris,
+                       @Value("${application.orders.sharding.count:0}") int count,
+                       @Value("${application.orders.sharding.previous-count:0}") int previousCount) {
+        templates.add(mongoTemplate);
+        for (String uri : additionalUris) {
+            if (uri.isBlank()) {
+                continue;
+            }
+            ConnectionString connectionString = new ConnectionString(uri.trim());
+            MongoClientSettings.Builder settings = MongoClientSettings.builder().applyConnectionString(connectionString);
+            // Same metrics and tracing listeners as the auto-configured client
+            settingsCustomizers.orderedStream().forEach(customizer -> customizer.customize(settings));
+            MongoClient client = MongoClients.create(settings.build());
+            clients.add(client);
+            String database = connectionString.getDatabase() != null
+                    ? connectionString.getDatabase()
+                    : mongoTemplate.getMongoDatabase().map(MongoDatabase::getName).block();
+            templates.add(new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, database), mongoConverter));
+        }
+
+        this.count = count > 0 ? count : templates.size();
+        this.previousCount = previousCount > 0 ? previousCount : this.count;
+        if (Math.max(this.count, this.previousCount) > templates.size()) {
+            throw new IllegalStateException("Order sharding needs " + Math.max(this.count, this.previousCount)
+                    + " shards but only " + templates.size() + " are configured");
+        }
+        this.owners = assignSlots(this.count);
+        this.previousOwners = assignSlots(this.previousCount);
+        if (this.count > 1 || isRebalancing()) {
+            log.info("Orders sharded over {} databases ({} slots moved from the previous {} shards)",
+                    this.count, movedSlots().size(), this.previousCount);
+        }
+    }
+
+    /**
+     * Shard owning the slot of the given user.
+     */
+    public ReactiveMongoTemplate forUsername(String username) {
+        return templates.get(owners[slotOf(username)]);
+    }
+
+    /**
+     * Shards to read a user's orders from: the owner, followed by the previous owner while the
+     * user's slot is being moved.
+     */
+    public List<ReactiveMongoTemplate> readersForUsername(String username) {
+        return readersForSlot(slotOf(username));
+    }
+
+    /**
+     * Shards that may hold the order with the given id: a single one (two while rebalancing) for
+     * slot-encoded ids, every shard for ids created before sharding.
+     */
+    public List<ReactiveMongoTemplate> readersForId(String id) {
+        int slot = slotOfId(id);
+        return slot < 0 ? all() : readersForSlot(slot);
+    }
+
+    /**
+     * Every shard that may hold orders, including shards being drained by a rebalance.
+     */
+    public List<ReactiveMongoTemplate> all() {
+        return templates.subList(0, Math.max(count, previousCount));
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int previousCount() {
+        return previousCount;
+    }
+
+    public ReactiveMongoTemplate shard(int index) {
+        return templates.get(index);
+    }
+
+    public int ownerOf(String username) {
+        return owners[slotOf(username)];
+    }
+
+    public boolean isRebalancing() {
+        return count != previousCount;
+    }
+
+    /**
+     * Whether orders are (or were, before a rebalance) spread over more than one shard.
+     */
+    public boolean isSharded() {
+        return Math.max(count, previousCount) > 1;
+    }
+
+    /**
+     * Slots whose owner differs between the previous and the current shard count.
+     */
+    public List<Integer> movedSlots() {
+        List<Integer> moved = new ArrayList<>();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (owners[slot] != previousOwners[slot]) {
+                moved.add(slot);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * New order id for the given owner: routed to its shard by the slot prefix when sharding is
+     * on, a plain ObjectId otherwise.
+     */
+    public String newId(String username) {
+        String objectId = new ObjectId().toHexString();
+        return isSharded() ? String.format("%03x", slotOf(username)) + SLOT_SEPARATOR + objectId : objectId;
+    }
+
+    public static int slotOf(String username) {
+        return (int) Long.remainderUnsigned(hash(username), SLOTS);
+    }
+
+    /**
+     * Slot encoded in an order id, or -1 for ids without one.
+     */
+    public static int slotOfId(String id) {
+        if (id == null || id.length() != ENCODED_ID_LENGTH || !id.startsWith(SLOT_SEPARATOR, 3)) {
+            return -1;
+        }
+        try {
+            int slot = Integer.parseInt(id, 0, 3, 16);
+            return slot >= 0 ? slot : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        clients.forEach(MongoClient::close);
+    }
+
+    private List<ReactiveMongoTemplate> readersForSlot(int slot) {
+        ReactiveMongoTemplate owner = templates.get(owners[slot]);
+        return owners[slot] == previousOwners[slot]
+                ? List.of(owner)
+                : List.of(owner, templates.get(previousOwners[slot]));
+    }
+
+    /**
+     * Places {@link #VIRTUAL_NODES} points per shard on a hash ring and gives each slot to the
+     * first point at or after the slot's own hash. Shards are named by position, so appending a
+     * shard keeps every existing point in place.
+     */
+    static int[] assignSlots(int shardCount) {
+        TreeMap<Long, Integer> ring = new TreeMap<>(Long::compareUnsigned);
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+        int[] slotOwners = new int[SLOTS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            Map.Entry<Long, Integer> point = ring.ceilingEntry(hash("slot-" + slot));
+            slotOwners[slot] = (point != null ? point : ring.firstEntry()).getValue();
+        }
+        return slotOwners;
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the MurmurHash3 finalizer. Must never change: it decides where
+     * existing orders live.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.OrderSummary;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderSummaryRepository extends ReactiveMongoRepository<OrderSummary, String>, OrderSummaryRepositoryCustom {
+}
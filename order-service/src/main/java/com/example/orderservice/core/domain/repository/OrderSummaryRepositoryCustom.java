@@ -0,0 +1,37 @@
+package com.example.orderservice.core.domain.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Atomic, incremental updates of the per-user order summaries.
+ * Every method is a single server-side update, so concurrent order writes never lose increments.
+ */
+public interface OrderSummaryRepositoryCustom {
+
+    /**
+     * Adds newly created orders to the user's summary, creating it if needed.
+     */
+    Mono<Void> recordOrdersCreated(String username, long count, BigDecimal amount, LocalDateTime lastOrderDate);
+
+    /**
+     * Applies the difference between the new and the old amount of an updated order.
+     */
+    Mono<Void> recordAmountChanged(String username, BigDecimal delta);
+
+    /**
+     * Removes a deleted order from the user's summary.
+     *
+     * @param lastOrderDate The date of the user's most recent remaining order, or null if none is left.
+     */
+    Mono<Void> recordOrderDeleted(String username, BigDecimal amount, LocalDateTime lastOrderDate);
+
+    /**
+     * Recomputes every summary from the 'orders' and 'orders_archive' collections with an aggregation pipeline
+     * whose result is merged into the summaries collection server-side (summed in the application
+     * when orders are sharded), then removes the summaries of users who no longer have any order.
+     */
+    Mono<Void> rebuildAll();
+}
@@ -0,0 +1,176 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.document.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * Implementation of {@link OrderSummaryRepositoryCustom} on top of {@link ReactiveMongoTemplate}.
+ * Amounts are passed as {@link Decimal128}: a plain BigDecimal would be converted to a string,
+ * which $inc cannot operate on.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryRepositoryCustomImpl implements OrderSummaryRepositoryCustom {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+    private static final String REFRESHED_AT = "refreshedAt";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final OrderShards orderShards;
+
+    @Override
+    public Mono<Void> recordOrdersCreated(String username, long count, BigDecimal amount, LocalDateTime lastOrderDate) {
+        Update update = new Update()
+                .inc("orderCount", count)
+                .inc("totalSpend", toDecimal128(amount))
+                .max("lastOrderDate", lastOrderDate)
+                .currentDate(REFRESHED_AT);
+        return mongoTemplate.upsert(byUsername(username), update, OrderSummary.class).then();
+    }
+
+    @Override
+    public Mono<Void> recordAmountChanged(String username, BigDecimal delta) {
+        if (delta == null || delta.signum() == 0) {
+            return Mono.empty();
+        }
+        Update update = new Update()
+                .inc("totalSpend", toDecimal128(delta))
+                .currentDate(REFRESHED_AT);
+        return mongoTemplate.updateFirst(byUsername(username), update, OrderSummary.class).then();
+    }
+
+    @Override
+    public Mono<Void> recordOrderDeleted(String username, BigDecimal amount, LocalDateTime lastOrderDate) {
+        Update update = new Update()
+                .inc("orderCount", -1)
+                .inc("totalSpend", toDecimal128(amount == null ? BigDecimal.ZERO : amount.negate()))
+                .set("lastOrderDate", lastOrderDate)
+                .currentDate(REFRESHED_AT);
+        return mongoTemplate.updateFirst(byUsername(username), update, OrderSummary.class).then();
+    }
+
+    /**
+     * Every summary written by the rebuild, and by the incremental updates running concurrently,
+     * gets the server time as 'refreshedAt'. The summaries left older than the start of the run
+     * belong to users without any order and are removed afterwards.
+     */
+    @Override
+    public Mono<Void> rebuildAll() {
+        return serverTime().flatMap(startedAt -> rebuildSummaries().then(removeNotRefreshedSince(startedAt)));
+    }
+
+    private Mono<Void> rebuildSummaries() {
+        if (orderShards.all().size() > 1) {
+            return rebuildAcrossShards();
+        }
+        // Archived orders still count towards the lifetime totals
+        Aggregation aggregation = Aggregation.newAggregation(
+                UnionWithOperation.unionWith(OrderArchiveRepository.COLLECTION),
+                totalsPerUser(),
+                context -> new Document("$set", new Document(REFRESHED_AT, "$$NOW")),
+                Aggregation.merge()
+                        .intoCollection(mongoTemplate.getCollectionName(OrderSummary.class))
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                        .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                        .build()
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Order.class), Document.class).then();
+    }
+
+    /**
+     * $merge cannot read from other databases, so with several shards the per-user totals of every
+     * shard (and of the archive, next to shard 0) are summed here and written back in chunks.
+     */
+    private Mono<Void> rebuildAcrossShards() {
+        AggregationOptions options = AggregationOptions.builder().allowDiskUse(true).build();
+        return Flux.fromIterable(orderShards.all())
+                .flatMap(shard -> {
+                    Aggregation aggregation = shard == mongoTemplate
+                            ? Aggregation.newAggregation(UnionWithOperation.unionWith(OrderArchiveRepository.COLLECTION), totalsPerUser())
+                            : Aggregation.newAggregation(totalsPerUser());
+                    return shard.aggregate(aggregation.withOptions(options), shard.getCollectionName(Order.class), OrderSummary.class);
+                })
+                .collect(HashMap<String, OrderSummary>::new, (totals, shardTotal) -> totals.merge(shardTotal.getUsername(), shardTotal, this::sum))
+                .flatMapMany(totals -> Flux.fromIterable(totals.values()))
+                .buffer(REBUILD_CHUNK_SIZE)
+                .concatMap(chunk -> {
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, OrderSummary.class);
+                    chunk.forEach(summary -> bulk.upsert(byUsername(summary.getUsername()), new Update()
+                            .set("orderCount", summary.getOrderCount())
+                            .set("totalSpend", toDecimal128(summary.getTotalSpend()))
+                            .set("lastOrderDate", summary.getLastOrderDate())
+                            .currentDate(REFRESHED_AT)));
+                    return bulk.execute();
+                })
+                .then();
+    }
+
+    private Mono<Void> removeNotRefreshedSince(Date startedAt) {
+        return mongoTemplate.remove(Query.query(Criteria.where(REFRESHED_AT).not().gte(startedAt)), OrderSummary.class)
+                .doOnNext(result -> {
+                    if (result.getDeletedCount() > 0) {
+                        log.info("Removed {} order summaries of users without orders", result.getDeletedCount());
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * The run start is compared with $$NOW and $currentDate values, so it is taken from the
+     * server's clock rather than the application's.
+     */
+    private Mono<Date> serverTime() {
+        return mongoTemplate.executeCommand(new Document("hello", 1)).map(reply -> reply.getDate("localTime"));
+    }
+
+    private GroupOperation totalsPerUser() {
+        return Aggregation.group("username")
+                .count().as("orderCount")
+                .sum("totalAmount").as("totalSpend")
+                .max("orderDate").as("lastOrderDate");
+    }
+
+    private OrderSummary sum(OrderSummary a, OrderSummary b) {
+        LocalDateTime lastOrderDate = a.getLastOrderDate() == null
+                || (b.getLastOrderDate() != null && b.getLastOrderDate().isAfter(a.getLastOrderDate()))
+                ? b.getLastOrderDate()
+                : a.getLastOrderDate();
+        return new OrderSummary(a.getUsername(), a.getOrderCount() + b.getOrderCount(),
+                amountOrZero(a.getTotalSpend()).add(amountOrZero(b.getTotalSpend())), lastOrderDate, null);
+    }
+
+    private BigDecimal amountOrZero(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+    private Query byUsername(String username) {
+        return Query.query(Criteria.where("_id").is(username));
+    }
+
+    private Decimal128 toDecimal128(BigDecimal amount) {
+        return new Decimal128(amount == null ? BigDecimal.ZERO : amount);
+    }
+}
@@ -7,11 +7,17 @@ import lombok.*;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class UserEvent {
     private String eventType;
     private Long id;
     private String username;
     private String email;
+    private String street;
+    private String city;
+    private String state;
+    private String zipCode;
+    // Epoch millis at which the producer created the event, for end-to-end latency measurement
+    private Long eventTimestamp;
 }
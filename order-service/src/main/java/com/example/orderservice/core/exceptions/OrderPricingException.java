@@ -0,0 +1,11 @@
+package com.example.orderservice.core.exceptions;
+
+/**
+ * An order whose products cannot be priced from the catalog, or whose 'totalAmount' does not
+ * match the catalog prices.
+ */
+public class OrderPricingException extends RuntimeException {
+    public OrderPricingException(String message) {
+        super(message);
+    }
+}
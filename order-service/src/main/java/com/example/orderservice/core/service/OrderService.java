@@ -1,11 +1,18 @@
 package com.example.orderservice.core.service;
 
+import com.example.orderservice.application.rest.dto.BulkOrderResultDto;
+import com.example.orderservice.application.rest.dto.OrderChangeDto;
+import com.example.orderservice.application.rest.dto.OrderPageResponseDto;
 import com.example.orderservice.application.rest.dto.OrderRequestDto;
 import com.example.orderservice.application.rest.dto.OrderResponseDto;
+import com.example.orderservice.application.rest.dto.OrderSummaryResponseDto;
+import com.example.orderservice.application.rest.dto.ProductPopularityDto;
 import com.example.orderservice.core.events.UserEvent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 /**
  * Service layer interface for managing Orders using a reactive paradigm.
  * All methods return reactive publishers (Mono or Flux), ensuring that
@@ -16,10 +23,32 @@ public interface OrderService {
 
     Mono<OrderResponseDto> createOrder(OrderRequestDto requestDto);
 
+    Flux<BulkOrderResultDto> createOrders(Flux<OrderRequestDto> requestDtos);
+
     Mono<OrderResponseDto> getOrderById(String id);
 
+    /**
+     * Reloads the order from the database into the 'orders' cache, e.g. to refresh a hot entry
+     * before it expires.
+     */
+    Mono<OrderResponseDto> refreshCachedOrder(String id);
+
     Flux<OrderResponseDto> getOrdersByUsername(String username);
 
+    Mono<OrderPageResponseDto> getOrdersPageByUsername(String username, String cursor, Integer limit,
+                                                       LocalDateTime from, LocalDateTime to);
+
+    Flux<OrderChangeDto> streamOrderChanges(String username, String lastEventId);
+
+    Mono<OrderPageResponseDto> getOrdersPageByProductId(String productId, String cursor, Integer limit,
+                                                        LocalDateTime from, LocalDateTime to);
+
+    Flux<ProductPopularityDto> getTopProducts(LocalDateTime from, LocalDateTime to, Integer limit);
+
+    Flux<ProductPopularityDto> getProductPopularity(LocalDateTime from, LocalDateTime to, String window, String productId);
+
+    Mono<OrderSummaryResponseDto> getOrderSummary(String username);
+
     Mono<OrderResponseDto> updateOrder(String id, OrderRequestDto requestDto);
 
     Mono<Void> deleteOrder(String id);
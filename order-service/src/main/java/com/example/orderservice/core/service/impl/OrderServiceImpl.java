@@ -1,13 +1,32 @@
 package com.example.orderservice.core.service.impl;
 
+import com.example.orderservice.application.rest.dto.BulkOrderResultDto;
+import com.example.orderservice.application.rest.dto.CustomerDetailsDto;
+import com.example.orderservice.application.rest.dto.OrderChangeDto;
+import com.example.orderservice.application.rest.dto.OrderPageResponseDto;
 import com.example.orderservice.application.rest.dto.OrderRequestDto;
 import com.example.orderservice.application.rest.dto.OrderResponseDto;
+import com.example.orderservice.application.rest.dto.OrderSummaryResponseDto;
+import com.example.orderservice.application.rest.dto.ProductPopularityDto;
 import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.projection.ProductPriceCatalog;
+import com.example.orderservice.core.domain.projection.UserProjectionStore;
+import com.example.orderservice.core.domain.projection.UserView;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
 import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.PageCursor;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.ProductPopularity;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.example.orderservice.core.domain.repository.OrderSummaryRepository;
 import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.core.exceptions.OrderPricingException;
 import com.example.orderservice.core.service.OrderService;
+import com.example.orderservice.infrastructure.logging.RateLimitedLogger;
+import com.example.orderservice.infrastructure.streaming.OrderChangeEvent;
+import com.example.orderservice.infrastructure.streaming.OrderChangeFeed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -16,10 +35,22 @@ import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -27,6 +58,35 @@ import java.util.Objects;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderShards orderShards;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final UserProjectionStore userProjectionStore;
+    private final OrderChangeFeed orderChangeFeed;
+    private final ProductPriceCatalog productPriceCatalog;
+
+    @Value("${application.orders.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${application.orders.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${application.orders.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${application.orders.pricing.mode:off}")
+    private String pricingMode;
+
+    // One limiter per call site, so a burst of one message does not hide the others
+    private static final RateLimitedLogger cacheMissLog = RateLimitedLogger.perSecond(log, 10);
+    private static final RateLimitedLogger cacheEvictLog = RateLimitedLogger.perSecond(log, 10);
+    private static final RateLimitedLogger customerDataLog = RateLimitedLogger.perSecond(log, 10);
+
+    private static final Set<String> POPULARITY_WINDOWS = Set.of("day", "week", "month");
+
+    private static final Comparator<Order> NEWEST_FIRST = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Order::getId, OrderShards.ID_ORDER.reversed());
 
     @Override
     public Mono<OrderResponseDto> createOrder(OrderRequestDto requestDto) {
@@ -37,71 +97,351 @@ public class OrderServiceImpl implements OrderService {
                             .username(username)
                             .customerName(requestDto.getCustomerName())
                             .productIds(requestDto.getProductIds())
-                            .totalAmount(requestDto.getTotalAmount())
+                            .totalAmount(pricedTotal(requestDto))
                             .orderDate(LocalDateTime.now())
                             .build();
                     return orderRepository.save(newOrder);
                 })
+                .flatMap(saved -> orderSummaryRepository
+                        .recordOrdersCreated(saved.getUsername(), 1, saved.getTotalAmount(), saved.getOrderDate())
+                        .onErrorResume(e -> logSummaryFailure(saved.getUsername(), e))
+                        .thenReturn(saved))
                 .map(this::toDto);
     }
 
+    @Override
+    public Flux<BulkOrderResultDto> createOrders(Flux<OrderRequestDto> requestDtos) {
+        // The username is resolved once for the whole stream; concatMap requests one chunk at a time,
+        // so no more than one chunk of the request body is buffered while it is being written.
+        return ReactiveSecurityContextHolder.getContext()
+                .map(ctx -> ctx.getAuthentication().getName())
+                .flatMapMany(username -> requestDtos
+                        .index()
+                        .buffer(bulkChunkSize)
+                        .concatMap(chunk -> createOrderChunk(username, chunk), 1));
+    }
+
+    private Flux<BulkOrderResultDto> createOrderChunk(String username, List<Tuple2<Long, OrderRequestDto>> chunk) {
+        List<BulkOrderResultDto> rejected = new ArrayList<>();
+        List<Long> acceptedIndexes = new ArrayList<>();
+        List<Order> accepted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Tuple2<Long, OrderRequestDto> item : chunk) {
+            String error = validate(item.getT2());
+            BigDecimal totalAmount = null;
+            if (error == null) {
+                try {
+                    totalAmount = pricedTotal(item.getT2());
+                } catch (OrderPricingException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                rejected.add(BulkOrderResultDto.builder().index(item.getT1()).error(error).build());
+                continue;
+            }
+            acceptedIndexes.add(item.getT1());
+            accepted.add(Order.builder()
+                    // Ids are assigned up front so each result can be reported even when the insert is partial
+                    .id(orderShards.newId(username))
+                    .username(username)
+                    .customerName(item.getT2().getCustomerName())
+                    .productIds(item.getT2().getProductIds())
+                    .totalAmount(totalAmount)
+                    .orderDate(now)
+                    .build());
+        }
+
+        return orderRepository.insertAllUnordered(accepted)
+                .flatMapMany(failures -> recordBulkCreated(username, accepted, failures, now)
+                        .thenMany(Flux.fromIterable(rejected)
+                                .concatWith(Flux.range(0, accepted.size())
+                                        .map(i -> failures.containsKey(i)
+                                                ? BulkOrderResultDto.builder().index(acceptedIndexes.get(i)).error(failures.get(i)).build()
+                                                : BulkOrderResultDto.builder().index(acceptedIndexes.get(i)).id(accepted.get(i).getId()).build()))));
+    }
+
+    private Mono<Void> recordBulkCreated(String username, List<Order> orders, Map<Integer, String> failures, LocalDateTime orderDate) {
+        long created = orders.size() - failures.size();
+        if (created == 0) {
+            return Mono.empty();
+        }
+        BigDecimal amount = BigDecimal.ZERO;
+        for (int i = 0; i < orders.size(); i++) {
+            if (!failures.containsKey(i)) {
+                amount = amount.add(amountOrZero(orders.get(i).getTotalAmount()));
+            }
+        }
+        return orderSummaryRepository.recordOrdersCreated(username, created, amount, orderDate)
+                .onErrorResume(e -> logSummaryFailure(username, e));
+    }
+
+    private String validate(OrderRequestDto requestDto) {
+        if (requestDto.getProductIds() == null || requestDto.getProductIds().isEmpty()) {
+            return "productIds must not be empty";
+        }
+        // With server-side pricing the catalog decides the amount
+        if (isPricingOff() && (requestDto.getTotalAmount() == null || requestDto.getTotalAmount().signum() < 0)) {
+            return "totalAmount must be a non-negative amount";
+        }
+        return null;
+    }
+
+    /**
+     * The amount stored for an order: the client's 'totalAmount' when pricing is off, otherwise
+     * the sum of the catalog prices of its products, which in 'verify' mode must also match the
+     * client's amount. Only in-memory lookups, no I/O.
+     */
+    private BigDecimal pricedTotal(OrderRequestDto requestDto) {
+        if (isPricingOff()) {
+            return requestDto.getTotalAmount();
+        }
+        if (requestDto.getProductIds() == null || requestDto.getProductIds().isEmpty()) {
+            throw new OrderPricingException("productIds must not be empty");
+        }
+        BigDecimal catalogTotal = productPriceCatalog.total(requestDto.getProductIds());
+        if ("verify".equalsIgnoreCase(pricingMode)
+                && (requestDto.getTotalAmount() == null || requestDto.getTotalAmount().compareTo(catalogTotal) != 0)) {
+            throw new OrderPricingException("totalAmount " + requestDto.getTotalAmount()
+                    + " does not match the catalog price " + catalogTotal);
+        }
+        return catalogTotal;
+    }
+
+    private boolean isPricingOff() {
+        return "off".equalsIgnoreCase(pricingMode);
+    }
+
     @Override
     @Cacheable(value = "orders", key = "#id")
     public Mono<OrderResponseDto> getOrderById(String id) {
-        log.info("--- Database Hit: Fetching order with id {} from database. ---", id);
-        return orderRepository.findById(id).map(this::toDto);
+        cacheMissLog.info("--- Database Hit: Fetching order with id {} from database. ---", id);
+        return loadOrder(id);
+    }
+
+    @Override
+    @CachePut(value = "orders", key = "#id")
+    public Mono<OrderResponseDto> refreshCachedOrder(String id) {
+        return loadOrder(id);
+    }
+
+    private Mono<OrderResponseDto> loadOrder(String id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> orderArchiveRepository.findById(id)))
+                .map(this::toDto);
     }
 
     @Override
     public Flux<OrderResponseDto> getOrdersByUsername(String username) {
-        return orderRepository.findByUsername(username).map(this::toDto);
+        return orderRepository.findByUsername(username)
+                .concatWith(Flux.defer(() -> orderArchiveRepository.findByUsername(username)))
+                .distinct(Order::getId)
+                .map(this::toDto);
+    }
+
+    @Override
+    public Mono<OrderPageResponseDto> getOrdersPageByUsername(String username, String cursor, Integer limit,
+                                                              LocalDateTime from, LocalDateTime to) {
+        int pageSize = pageSize(limit);
+        PageCursor after = decodeCursor(cursor);
+        return orderRepository.findPageByUsername(username, after, from, to, pageSize + 1)
+                .collectList()
+                .flatMap(hot -> needsArchive(hot, pageSize)
+                        ? orderArchiveRepository.findPageByUsername(username, after, from, to, pageSize + 1)
+                                .collectList()
+                                .map(archived -> mergeTiers(hot, archived, pageSize + 1))
+                        : Mono.just(hot))
+                .flatMap(orders -> toPage(Flux.fromIterable(orders), pageSize));
+    }
+
+    /**
+     * The archive only holds orders older than the cutoff, so it can be skipped when the hot tier
+     * already filled the page with newer orders.
+     */
+    private boolean needsArchive(List<Order> hot, int pageSize) {
+        if (hot.size() <= pageSize) {
+            return true;
+        }
+        LocalDateTime oldest = hot.get(hot.size() - 1).getOrderDate();
+        return oldest == null || oldest.isBefore(orderArchiveRepository.cutoff());
+    }
+
+    /**
+     * Merges both tiers in page order. An order being archived can briefly exist in both
+     * collections, hence the de-duplication by id.
+     */
+    private List<Order> mergeTiers(List<Order> hot, List<Order> archived, int limit) {
+        Set<String> seen = new HashSet<>();
+        return Stream.concat(hot.stream(), archived.stream())
+                .filter(order -> seen.add(order.getId()))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Flux<OrderChangeDto> streamOrderChanges(String username, String lastEventId) {
+        // A reset is answered with a fresh first page; changes that happen meanwhile stay queued
+        // in the subscriber buffer and are delivered right after it.
+        return orderChangeFeed.subscribe(username, lastEventId)
+                .concatMap(event -> OrderChangeEvent.RESET.equals(event.type())
+                        ? getOrdersPageByUsername(username, null, null, null, null)
+                                .map(page -> OrderChangeDto.builder().eventId(event.id()).type("snapshot").snapshot(page).build())
+                        : Mono.just(OrderChangeDto.builder()
+                                .eventId(event.id())
+                                .type(event.type())
+                                .orderId(event.orderId())
+                                .order(event.order() == null ? null : toDto(event.order()))
+                                .build()));
+    }
+
+    @Override
+    public Mono<OrderPageResponseDto> getOrdersPageByProductId(String productId, String cursor, Integer limit,
+                                                               LocalDateTime from, LocalDateTime to) {
+        int pageSize = pageSize(limit);
+        return toPage(orderRepository.findPageByProductId(productId, decodeCursor(cursor), from, to, pageSize + 1), pageSize);
+    }
+
+    @Override
+    public Flux<ProductPopularityDto> getTopProducts(LocalDateTime from, LocalDateTime to, Integer limit) {
+        return orderRepository.findTopProducts(from, to, pageSize(limit)).map(this::toPopularityDto);
+    }
+
+    @Override
+    public Flux<ProductPopularityDto> getProductPopularity(LocalDateTime from, LocalDateTime to, String window, String productId) {
+        if (!POPULARITY_WINDOWS.contains(window)) {
+            return Flux.error(new IllegalArgumentException("window must be one of " + POPULARITY_WINDOWS));
+        }
+        return orderRepository.findProductPopularity(from, to, window, productId).map(this::toPopularityDto);
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+    }
+
+    /**
+     * Builds a page from a query that was asked for one order more than the page size,
+     * the extra order only signalling that another page follows.
+     */
+    private Mono<OrderPageResponseDto> toPage(Flux<Order> orders, int pageSize) {
+        return orders.collectList()
+                .map(found -> {
+                    boolean hasMore = found.size() > pageSize;
+                    List<Order> page = hasMore ? found.subList(0, pageSize) : found;
+                    return OrderPageResponseDto.builder()
+                            .items(page.stream().map(this::toDto).toList())
+                            .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+                            .build();
+                });
+    }
+
+    @Override
+    public Mono<OrderSummaryResponseDto> getOrderSummary(String username) {
+        return orderSummaryRepository.findById(username)
+                .map(summary -> OrderSummaryResponseDto.builder()
+                        .username(summary.getUsername())
+                        .orderCount(summary.getOrderCount())
+                        .totalSpend(summary.getTotalSpend())
+                        .lastOrderDate(summary.getLastOrderDate())
+                        .build())
+                .defaultIfEmpty(OrderSummaryResponseDto.builder()
+                        .username(username)
+                        .totalSpend(BigDecimal.ZERO)
+                        .build());
     }
 
+    /**
+     * Updates the order in the tier that holds it: like reads and deletes, archived orders are
+     * found in the archive, and they are updated there.
+     */
     @Override
     @CachePut(value = "orders", key = "#id")
     public Mono<OrderResponseDto> updateOrder(String id, OrderRequestDto requestDto) {
         return ReactiveSecurityContextHolder.getContext()
                 .map(ctx -> ctx.getAuthentication().getName())
                 .flatMap(username -> orderRepository.findById(id)
-                        .flatMap(order -> {
-                            if (!Objects.equals(order.getUsername(), username)) {
-                                log.warn("User '{}' attempted to update order '{}' owned by '{}'", username, id, order.getUsername());
-                                return Mono.error(new AccessDeniedException("You do not have permission to update this order."));
-                            }
-                            order.setCustomerName(requestDto.getCustomerName());
-                            order.setProductIds(requestDto.getProductIds());
-                            order.setTotalAmount(requestDto.getTotalAmount());
-                            return orderRepository.save(order);
-                        }))
+                        .flatMap(order -> applyUpdate(order, username, requestDto, orderRepository::save))
+                        .switchIfEmpty(Mono.defer(() -> orderArchiveRepository.findById(id)
+                                .flatMap(order -> applyUpdate(order, username, requestDto, orderArchiveRepository::save)))))
                 .map(this::toDto);
     }
 
+    private Mono<Order> applyUpdate(Order order, String username, OrderRequestDto requestDto,
+                                    Function<Order, Mono<Order>> save) {
+        if (!Objects.equals(order.getUsername(), username)) {
+            log.warn("User '{}' attempted to update order '{}' owned by '{}'", username, order.getId(), order.getUsername());
+            return Mono.error(new AccessDeniedException("You do not have permission to update this order."));
+        }
+        BigDecimal totalAmount = pricedTotal(requestDto);
+        BigDecimal previousAmount = order.getTotalAmount();
+        order.setCustomerName(requestDto.getCustomerName());
+        order.setProductIds(requestDto.getProductIds());
+        order.setTotalAmount(totalAmount);
+        return save.apply(order)
+                .flatMap(saved -> orderSummaryRepository
+                        .recordAmountChanged(username, amountOrZero(saved.getTotalAmount()).subtract(amountOrZero(previousAmount)))
+                        .onErrorResume(e -> logSummaryFailure(username, e))
+                        .thenReturn(saved));
+    }
+
     @Override
     @CacheEvict(value = "orders", key = "#id")
     public Mono<Void> deleteOrder(String id) {
-        log.info("--- Cache Evict: Removing order with id {} from cache. ---", id);
-        return orderRepository.deleteById(id);
+        cacheEvictLog.info("--- Cache Evict: Removing order with id {} from cache. ---", id);
+        return orderRepository.findById(id)
+                .flatMap(order -> orderRepository.delete(order).thenReturn(order))
+                .switchIfEmpty(Mono.defer(() -> orderArchiveRepository.findById(id)
+                        .flatMap(order -> orderArchiveRepository.deleteById(id).thenReturn(order))))
+                .flatMap(order -> orderRepository.findFirstByUsernameOrderByOrderDateDesc(order.getUsername())
+                        .switchIfEmpty(Mono.defer(() -> orderArchiveRepository.findLatestByUsername(order.getUsername())))
+                        .map(Order::getOrderDate)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(lastOrderDate -> orderSummaryRepository
+                                .recordOrderDeleted(order.getUsername(), order.getTotalAmount(), lastOrderDate.orElse(null))
+                                .onErrorResume(e -> logSummaryFailure(order.getUsername(), e))));
     }
 
     @Override
     public Mono<Void> updateOrderCustomerData(UserEvent userEvent) {
-        log.info("Updating customer name to '{}' for all orders of user: {}", userEvent.getUsername(), userEvent.getUsername());
-        return orderRepository.findByUsername(userEvent.getUsername())
-                .doOnSubscribe(subscription -> log.info("Subscribed to findByUsername stream for user: {}", userEvent.getUsername()))
-                .subscribeOn(Schedulers.boundedElastic())
-                .doOnNext(order -> log.info("Found order {} to update.", order.getId()))
-                .publishOn(Schedulers.parallel())
-                .flatMap(order -> {
-                    log.info("Processing order {} on thread {}", order.getId(), Thread.currentThread().getName());
-                    order.setCustomerName(userEvent.getUsername()); // Assuming the event carries the new customer name as 'username'
-                    return orderRepository.save(order)
-                            .onErrorResume(e -> {
-                                log.error("Failed to save order {}. Continuing with other orders.", order.getId(), e);
-                                return Mono.empty();
-                            });
-                })
-                .then()
-                .doOnError(e -> log.error("An unexpected error occurred during the update process for user: {}", userEvent.getUsername(), e));
+        String username = userEvent.getUsername();
+        long start = System.nanoTime();
+        // Assuming the event carries the new customer name as 'username'
+        return orderRepository.updateCustomerName(username, username)
+                .doOnNext(result -> customerDataLog.info("Customer data of user '{}' updated via {}: matched={}, modified={} in {} ms",
+                        username, result.strategy(), result.matchedCount(), result.modifiedCount(),
+                        (System.nanoTime() - start) / 1_000_000))
+                .doOnError(e -> log.error("An unexpected error occurred during the update process for user: {}", username, e))
+                .then();
+    }
+
+    private Mono<Void> logSummaryFailure(String username, Throwable e) {
+        // The order write already succeeded; the scheduled rebuild will reconcile the summary
+        log.error("Failed to update order summary of user '{}'", username, e);
+        return Mono.empty();
+    }
+
+    private BigDecimal amountOrZero(BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+    private String encodeCursor(Order last) {
+        String position = last.getOrderDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PageCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
     }
 
     private OrderResponseDto toDto(Order entity) {
@@ -112,6 +452,26 @@ public class OrderServiceImpl implements OrderService {
                 .productIds(entity.getProductIds())
                 .totalAmount(entity.getTotalAmount())
                 .orderDate(entity.getOrderDate())
+                .customer(userProjectionStore.findByUsername(entity.getUsername()).map(this::toCustomerDto).orElse(null))
+                .build();
+    }
+
+    private ProductPopularityDto toPopularityDto(ProductPopularity popularity) {
+        return ProductPopularityDto.builder()
+                .productId(popularity.productId())
+                .windowStart(popularity.windowStart())
+                .orderCount(popularity.orderCount())
+                .build();
+    }
+
+    private CustomerDetailsDto toCustomerDto(UserView user) {
+        return CustomerDetailsDto.builder()
+                .id(user.id())
+                .email(user.email())
+                .street(user.street())
+                .city(user.city())
+                .state(user.state())
+                .zipCode(user.zipCode())
                 .build();
     }
 }
@@ -19,11 +19,6 @@ public class CustomReactiveAuthenticationManager implements ReactiveAuthenticati
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
         String authToken = authentication.getCredentials().toString();
-
-        if (tokenProvider.validateToken(authToken)) {
-            return Mono.just(tokenProvider.getAuthentication(authToken));
-        } else {
-            return Mono.empty();
-        }
+        return Mono.justOrEmpty(tokenProvider.authenticate(authToken));
     }
 }
@@ -1,6 +1,7 @@
 package com.example.orderservice.core.service.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -24,19 +26,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtTokenProvider {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String jwtSecret;
+    // Token parsing runs on the Netty event loop for every request, so the key and the parser are built
+    // once, at startup: building the parser loads jjwt's services from the classpath, which blocks
+    private final JwtParser parser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtTokenProvider(@Value("${application.security.jwt.secret-key}") String jwtSecret) {
+        SecretKey signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean validateToken(String token) {
@@ -50,7 +50,24 @@ public class JwtTokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = parseClaims(token);
+        return toAuthentication(parseClaims(token));
+    }
+
+    /**
+     * Validates the token and builds its Authentication with a single parse.
+     *
+     * @return the authentication, or empty if the token is invalid
+     */
+    public Optional<Authentication> authenticate(String token) {
+        try {
+            return Optional.of(toAuthentication(parseClaims(token)));
+        } catch (Exception ex) {
+            log.error("JWT token validation failed: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Authentication toAuthentication(Claims claims) {
         String username = claims.getSubject();
         String authoritiesClaim = claims.get("auth", String.class);
 
@@ -0,0 +1,69 @@
+package com.example.orderservice.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of key access frequencies: {@value #DEPTH} rows of 'width' counters, a key
+ * incrementing one counter per row. The estimate of a key is the smallest of its counters, so it
+ * never under-counts and only over-counts through collisions, in a fixed amount of memory
+ * whatever the number of keys.
+ *
+ * {@link #halve()} ages every counter so estimates follow recent popularity. Increments racing
+ * with it may be lost, which only makes the sketch slightly forget faster.
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width) {
+        this.width = width <= 1 ? 1 : Integer.highestOneBit(Math.min(width, 1 << 28) - 1) << 1;
+        this.counters = new AtomicIntegerArray(DEPTH * this.width);
+    }
+
+    /**
+     * Adds one access of the key and returns its new estimate.
+     */
+    public long increment(Object key) {
+        return add(key, 1);
+    }
+
+    public long add(Object key, int count) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int value = counters.addAndGet(index(hash, row), count);
+            estimate = Math.min(estimate, value < 0 ? Integer.MAX_VALUE : value);
+        }
+        return estimate;
+    }
+
+    public long estimate(Object key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash ^ SEEDS[row]) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return row * width + (int) (h & (width - 1));
+    }
+}
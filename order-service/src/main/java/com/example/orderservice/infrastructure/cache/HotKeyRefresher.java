@@ -0,0 +1,119 @@
+package com.example.orderservice.infrastructure.cache;
+
+import com.example.orderservice.core.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Refresh-ahead of the hot orders found by {@link HotKeyTracker}. Every 'refresh-interval', the
+ * hot orders whose cache entry this instance wrote more than 'refresh-ahead' x TTL ago, or at an
+ * unknown time, are reloaded from MongoDB, so a popular order never expires and misses.
+ *
+ * The hot keys are also saved to a Redis sorted set, from which the top ones are loaded into the
+ * cache on startup, before the instance reports ready (runs just before the warm-up).
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class HotKeyRefresher implements ApplicationRunner {
+
+    private static final String CACHE = "orders";
+    private static final int CONCURRENCY = 4;
+    private static final Duration SAVED_TTL = Duration.ofDays(1);
+
+    private final HotKeyTracker hotKeyTracker;
+    private final OrderService orderService;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    @Value("${spring.cache.redis.time-to-live:10m}")
+    private Duration ttl;
+
+    @Value("${spring.cache.redis.key-prefix:}")
+    private String keyPrefix;
+
+    @Value("${application.cache.hot-keys.refresh-ahead:0.8}")
+    private double refreshAhead;
+
+    @Value("${application.cache.hot-keys.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    @Value("${application.cache.hot-keys.preload-timeout:10s}")
+    private Duration preloadTimeout;
+
+    public HotKeyRefresher(HotKeyTracker hotKeyTracker, OrderService orderService, ReactiveStringRedisTemplate redisTemplate) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.orderService = orderService;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!hotKeyTracker.trackedCaches().contains(CACHE)) {
+            return;
+        }
+        try {
+            Long preloaded = redisTemplate.opsForZSet()
+                    .reverseRangeWithScores(savedKey(), Range.closed(0L, hotKeyTracker.topN() - 1L))
+                    .doOnNext(saved -> hotKeyTracker.seed(CACHE, saved.getValue(), saved.getScore() == null ? 0 : saved.getScore().longValue()))
+                    .flatMap(saved -> orderService.refreshCachedOrder(saved.getValue()), CONCURRENCY)
+                    .count()
+                    .block(preloadTimeout);
+            log.info("Preloaded {} hot orders into the cache", preloaded);
+        } catch (RuntimeException e) {
+            log.warn("Could not preload the hot orders: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache.hot-keys.refresh-interval:30s}",
+            initialDelayString = "${application.cache.hot-keys.refresh-interval:30s}")
+    public void refreshHotKeys() {
+        List<HotKeyTracker.HotKey> hotKeys = hotKeyTracker.hotKeys(CACHE);
+        if (hotKeys.isEmpty()) {
+            return;
+        }
+        Instant refreshBefore = Instant.now().minusMillis((long) (ttl.toMillis() * refreshAhead));
+        try {
+            Long refreshed = Flux.fromIterable(hotKeys)
+                    .filter(hotKey -> hotKey.loadedAt() == null || hotKey.loadedAt().isBefore(refreshBefore))
+                    .flatMap(hotKey -> orderService.refreshCachedOrder((String) hotKey.key())
+                            // Deleted since: stop refreshing it
+                            .switchIfEmpty(Mono.fromRunnable(() -> hotKeyTracker.forget(CACHE, hotKey.key()))), CONCURRENCY)
+                    .count()
+                    .flatMap(count -> save(hotKeys).thenReturn(count))
+                    .block(refreshInterval);
+            log.debug("Refreshed {} of {} hot orders", refreshed, hotKeys.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the hot orders: {}", e.getMessage());
+        }
+    }
+
+    private Mono<Void> save(List<HotKeyTracker.HotKey> hotKeys) {
+        String key = savedKey();
+        List<TypedTuple<String>> tuples = hotKeys.stream()
+                .map(hotKey -> TypedTuple.of(hotKey.key().toString(), (double) hotKey.estimate()))
+                .toList();
+        return redisTemplate.delete(key)
+                .then(redisTemplate.opsForZSet().addAll(key, tuples))
+                .then(redisTemplate.expire(key, SAVED_TTL))
+                .then();
+    }
+
+    private String savedKey() {
+        return keyPrefix + "hot-keys::" + CACHE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.orderservice.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Current hot keys of the tracked caches on this instance, with their estimated access rates:
+ * {@code GET /actuator/hotKeys}.
+ */
+@Component
+@Endpoint(id = "hotKeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> hotKeys() {
+        Map<String, List<Map<String, Object>>> caches = new TreeMap<>();
+        for (String cache : hotKeyTracker.trackedCaches()) {
+            caches.put(cache, hotKeyTracker.hotKeys(cache).stream().map(this::describe).toList());
+        }
+        return caches;
+    }
+
+    private Map<String, Object> describe(HotKeyTracker.HotKey hotKey) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("key", hotKey.key());
+        description.put("estimate", hotKey.estimate());
+        description.put("ratePerSecond", Math.round(hotKey.ratePerSecond() * 100) / 100.0);
+        description.put("loadedAt", hotKey.loadedAt() != null ? hotKey.loadedAt().toString() : null);
+        return description;
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.orderservice.infrastructure.cache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache decorator shielding callers from a slow or unavailable Redis.
+ *
+ * Every Redis call goes through a circuit breaker shared by all the caches of the service and is
+ * bounded by the Redis command timeout. When a call fails, or while the breaker is open, the
+ * operation is served by a small in-process cache instead, or treated as a miss (the caller then
+ * reads the database) when no local cache is configured.
+ *
+ * Keys written or evicted while Redis was bypassed are evicted from Redis once the breaker has
+ * closed again (see {@link #resync()}), so Redis does not keep serving versions that were replaced
+ * during the outage.
+ *
+ * Reads, writes and evictions are also reported to the {@link HotKeyTracker}, if any.
+ */
+@Slf4j
+public class ResilientCache implements Cache {
+
+    private final Cache redis;
+    @Nullable
+    private final Cache local;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    @Nullable
+    private final HotKeyTracker hotKeys;
+    private final int maxStaleKeys;
+    private final Set<Object> staleKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean allStale;
+
+    public ResilientCache(Cache redis, @Nullable Cache local, CircuitBreaker circuitBreaker, Duration timeout,
+                          int maxStaleKeys, @Nullable HotKeyTracker hotKeys, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.local = local;
+        this.circuitBreaker = circuitBreaker;
+        this.timeout = timeout;
+        this.maxStaleKeys = maxStaleKeys;
+        this.hotKeys = hotKeys;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return redis.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redis.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        recordAccess(key);
+        return call("get", key, () -> redis.get(key), () -> local != null ? local.get(key) : null);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        recordAccess(key);
+        return call("get", key, () -> redis.get(key, type), () -> local != null ? local.get(key, type) : null);
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Asynchronous read used for Mono and CompletableFuture results. Redis gets at most the
+     * command timeout to answer, after which the read falls back like a failed call.
+     */
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<?> retrieve(Object key) {
+        recordAccess(key);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallbackRetrieve(key, "open");
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Object> future;
+        try {
+            future = (CompletableFuture<Object>) redis.retrieve(key);
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            return fallbackRetrieve(key, "error");
+        }
+        if (future == null) {
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (error == null) {
+                        circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    return fallbackRetrieve(key, "error");
+                })
+                .thenCompose(Function.identity());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        CompletableFuture<?> cached = retrieve(key);
+        return (cached != null ? cached : CompletableFuture.completedFuture(null)).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture((T) (value instanceof ValueWrapper wrapper ? wrapper.get() : value));
+            }
+            return valueLoader.get().thenApply(loaded -> {
+                put(key, loaded);
+                return loaded;
+            });
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        recordLoad(key);
+        call("put", key, () -> {
+            redis.put(key, value);
+            return null;
+        }, () -> {
+            if (local != null) {
+                local.put(key, value);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        recordLoad(key);
+        return call("put", key, () -> redis.putIfAbsent(key, value), () -> local != null ? local.putIfAbsent(key, value) : null);
+    }
+
+    @Override
+    public void evict(Object key) {
+        forget(key);
+        call("evict", key, () -> {
+            redis.evict(key);
+            return null;
+        }, () -> {
+            if (local != null) {
+                local.evict(key);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        forget(key);
+        return call("evict", key, () -> redis.evictIfPresent(key), () -> local != null && local.evictIfPresent(key));
+    }
+
+    @Override
+    public void clear() {
+        call("clear", null, () -> {
+            redis.clear();
+            return null;
+        }, () -> {
+            if (local != null) {
+                local.clear();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean invalidate() {
+        return call("clear", null, redis::invalidate, () -> local != null && local.invalidate());
+    }
+
+    /**
+     * Called once Redis is reachable again: drops the local entries and evicts from Redis every
+     * key changed while it was bypassed, or the whole cache when too many were. Keys that cannot
+     * be evicted yet are kept for the next recovery.
+     */
+    void resync() {
+        if (local != null) {
+            local.clear();
+        }
+        boolean clearAll = allStale;
+        try {
+            if (clearAll) {
+                allStale = false;
+                staleKeys.clear();
+                redis.clear();
+            } else {
+                for (Object key : staleKeys) {
+                    redis.evict(key);
+                    staleKeys.remove(key);
+                }
+            }
+        } catch (RuntimeException e) {
+            if (clearAll) {
+                allStale = true;
+            }
+            log.warn("Could not resync cache '{}' with Redis: {}", getName(), e.getMessage());
+        }
+    }
+
+    private <T> T call(String operation, @Nullable Object key, Supplier<T> redisCall, Supplier<T> fallback) {
+        String reason;
+        try {
+            return circuitBreaker.executeSupplier(redisCall);
+        } catch (CallNotPermittedException e) {
+            reason = "open";
+        } catch (RuntimeException e) {
+            reason = "error";
+            log.debug("Redis {} on cache '{}' failed: {}", operation, getName(), e.getMessage());
+        }
+        countFallback(operation, reason);
+        if (!"get".equals(operation)) {
+            markStale(key);
+        }
+        return fallback.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> fallbackRetrieve(Object key, String reason) {
+        countFallback("get", reason);
+        CompletableFuture<?> value = local != null ? local.retrieve(key) : null;
+        return value != null ? (CompletableFuture<Object>) value : CompletableFuture.completedFuture(null);
+    }
+
+    private void recordAccess(Object key) {
+        if (hotKeys != null) {
+            hotKeys.recordAccess(getName(), key);
+        }
+    }
+
+    private void recordLoad(Object key) {
+        if (hotKeys != null) {
+            hotKeys.recordLoad(getName(), key);
+        }
+    }
+
+    private void forget(Object key) {
+        if (hotKeys != null) {
+            hotKeys.forget(getName(), key);
+        }
+    }
+
+    private void markStale(@Nullable Object key) {
+        if (key == null || staleKeys.size() >= maxStaleKeys) {
+            allStale = true;
+        } else {
+            staleKeys.add(key);
+        }
+    }
+
+    private void countFallback(String operation, String reason) {
+        meterRegistry.counter("cache.fallback",
+                "cache", getName(),
+                "operation", operation,
+                "reason", reason,
+                "target", local != null ? "local" : "none").increment();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+/**
+ * Additive increase, multiplicative decrease: the limit grows by one for every request that
+ * completes within 'timeout' while the limit is actually being used, and is multiplied by
+ * 'backoffRatio' for every request that is slower or dropped. Reacts quickly to a dependency
+ * slowing down, at the cost of a saw-tooth limit under steady load.
+ */
+final class AimdLimit implements AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long timeoutNanos;
+    private final double backoffRatio;
+    private volatile int limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long timeoutNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.timeoutNanos = timeoutNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            limit = Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio)));
+        } else if (inFlight * 2 >= limit) {
+            // Only grow when the current limit is the bottleneck, not while the service is idle
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
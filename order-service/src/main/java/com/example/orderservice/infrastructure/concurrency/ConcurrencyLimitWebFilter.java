@@ -0,0 +1,104 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Applies the adaptive concurrency limits to the order endpoints. Requests above the limit of
+ * their group are answered right away with 503 and 'Retry-After', ahead of security, instead of
+ * piling up on the event loop while Mongo or Redis is slow.
+ *
+ * The permit is released when the response completes: 5xx responses and errors count as drops
+ * and shrink the limit, a cancelled exchange (client gone) is not a latency sample. The SSE
+ * stream of the user's orders is long-lived by design and is not limited.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private static final String PREFIX = "/api/v1/orders";
+    private static final String ORDERS_READ = "orders-read";
+    private static final String ORDERS_WRITE = "orders-write";
+    private static final String ORDERS_BULK = "orders-bulk";
+    private static final String ORDERS_ANALYTICS = "orders-analytics";
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Service overloaded\",\"message\":\"Too many concurrent requests, retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrencyLimiters limiters;
+
+    public ConcurrencyLimitWebFilter(ConcurrencyLimiters limiters) {
+        this.limiters = limiters;
+        // Registered up front so every group shows up in the metrics from the start
+        List.of(ORDERS_READ, ORDERS_WRITE, ORDERS_BULK, ORDERS_ANALYTICS).forEach(limiters::limiter);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String group = groupOf(exchange.getRequest());
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+        ConcurrencyLimiter.Permit permit = limiters.limiter(group).tryAcquire();
+        if (permit == null) {
+            return reject(exchange.getResponse());
+        }
+        return chain.filter(exchange)
+                .doOnSuccess(done -> release(permit, exchange.getResponse().getStatusCode()))
+                .doOnError(e -> release(permit, e instanceof ResponseStatusException statusException
+                        ? statusException.getStatusCode() : HttpStatus.INTERNAL_SERVER_ERROR))
+                .doOnCancel(permit::onIgnore);
+    }
+
+    /**
+     * Endpoint group of the request, or null for requests that are not limited (actuator, SSE).
+     */
+    private static String groupOf(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.equals(PREFIX) && !path.startsWith(PREFIX + "/")) {
+            return null;
+        }
+        String subPath = path.substring(PREFIX.length());
+        if (HttpMethod.GET.equals(request.getMethod())) {
+            if (subPath.equals("/user/my-orders/stream")) {
+                return null;
+            }
+            return subPath.startsWith("/analytics/") || subPath.equals("/user/summary") ? ORDERS_ANALYTICS : ORDERS_READ;
+        }
+        return subPath.equals("/bulk") ? ORDERS_BULK : ORDERS_WRITE;
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit, HttpStatusCode status) {
+        if (status != null && status.is5xxServerError()) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(REJECTED_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests of one endpoint group while fewer than {@link AdaptiveLimit#getLimit()} are
+ * in flight. Each admitted request holds a {@link Permit} that must be released exactly once,
+ * reporting how the request went so the limit can adapt.
+ */
+public final class ConcurrencyLimiter {
+
+    private final AdaptiveLimit limit;
+    private final Counter rejectedCounter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    ConcurrencyLimiter(AdaptiveLimit limit, Counter rejectedCounter) {
+        this.limit = limit;
+        this.rejectedCounter = rejectedCounter;
+    }
+
+    /**
+     * @return A permit, or null when the group is at its limit and the request must be rejected.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejectedCounter.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The request completed; its latency is a valid sample.
+         */
+        public void onSuccess() {
+            release(false, true);
+        }
+
+        /**
+         * The request failed because the service or a dependency is overloaded or down.
+         */
+        public void onDropped() {
+            release(true, true);
+        }
+
+        /**
+         * The request ended without telling anything about the capacity (e.g. client disconnect).
+         */
+        public void onIgnore() {
+            release(false, false);
+        }
+
+        private void release(boolean dropped, boolean sample) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            if (sample) {
+                limit.onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
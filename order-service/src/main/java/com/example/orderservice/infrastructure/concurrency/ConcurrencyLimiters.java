@@ -0,0 +1,79 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link ConcurrencyLimiter} per endpoint group, each with its own adaptive limit, so a
+ * slow group (e.g. analytics aggregations) cannot take the capacity of the others.
+ * The limit, the requests in flight and the rejections are published per group.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final String algorithm;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final Duration aimdTimeout;
+    private final double aimdBackoffRatio;
+
+    public ConcurrencyLimiters(MeterRegistry meterRegistry,
+                               @Value("${application.concurrency-limit.algorithm:gradient}") String algorithm,
+                               @Value("${application.concurrency-limit.initial-limit:20}") int initialLimit,
+                               @Value("${application.concurrency-limit.min-limit:4}") int minLimit,
+                               @Value("${application.concurrency-limit.max-limit:200}") int maxLimit,
+                               @Value("${application.concurrency-limit.gradient.rtt-tolerance:1.5}") double rttTolerance,
+                               @Value("${application.concurrency-limit.gradient.long-window:600}") int longWindow,
+                               @Value("${application.concurrency-limit.aimd.timeout:500ms}") Duration aimdTimeout,
+                               @Value("${application.concurrency-limit.aimd.backoff-ratio:0.9}") double aimdBackoffRatio) {
+        if (!"gradient".equalsIgnoreCase(algorithm) && !"aimd".equalsIgnoreCase(algorithm)) {
+            throw new IllegalArgumentException("Unknown concurrency limit algorithm '" + algorithm + "' (gradient or aimd)");
+        }
+        this.meterRegistry = meterRegistry;
+        this.algorithm = algorithm;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.aimdTimeout = aimdTimeout;
+        this.aimdBackoffRatio = aimdBackoffRatio;
+    }
+
+    public ConcurrencyLimiter limiter(String group) {
+        return limiters.computeIfAbsent(group, this::create);
+    }
+
+    private ConcurrencyLimiter create(String group) {
+        AdaptiveLimit limit = "aimd".equalsIgnoreCase(algorithm)
+                ? new AimdLimit(initialLimit, minLimit, maxLimit, aimdTimeout.toNanos(), aimdBackoffRatio)
+                : new GradientLimit(initialLimit, minLimit, maxLimit, rttTolerance, longWindow);
+        Counter rejectedCounter = Counter.builder("http.server.concurrency.rejected")
+                .description("Requests rejected because their endpoint group was at its concurrency limit")
+                .tag("group", group)
+                .register(meterRegistry);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit, rejectedCounter);
+        Gauge.builder("http.server.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit of the endpoint group")
+                .tag("group", group)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", limiter, ConcurrencyLimiter::getInFlight)
+                .description("Requests of the endpoint group in flight")
+                .tag("group", group)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
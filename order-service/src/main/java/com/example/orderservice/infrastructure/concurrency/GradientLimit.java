@@ -0,0 +1,97 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+/**
+ * Latency-gradient limit: compares a short-term average of the request latency with a long-term
+ * one. While they are close (within 'rttTolerance'), the limit grows by about sqrt(limit); when
+ * recent requests get slower, i.e. they start queueing in front of a dependency, the limit shrinks
+ * in proportion, down to half per update.
+ *
+ * The long-term average follows latency changes within the tolerance, but not the increase caused
+ * by queueing: under sustained overload the limit would otherwise follow the latency it causes up
+ * to the maximum. When the latency stays beyond the tolerance for a whole long window, the limit
+ * is halved for a moment as a probe: if the latency does not come down with it, the dependency
+ * got slower for good and the recent latency becomes the new baseline; if it drops below the
+ * baseline, the dependency got faster and the baseline is lowered.
+ */
+final class GradientLimit implements AdaptiveLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final double SMOOTHING = 0.2;
+    // Latency must drop below this fraction of the pre-probe latency for queueing to be confirmed
+    private static final double PROBE_RELIEF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final double longAlpha;
+    private final double shortAlpha = 2.0 / (SHORT_WINDOW + 1);
+
+    // Guarded by 'this'
+    private double longRtt;
+    private double shortRtt;
+    private double estimatedLimit;
+    private int queueingUpdates;
+    private int probeSamples;
+    private double probeRtt;
+    private volatile int limit;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.longAlpha = 2.0 / (longWindow + 1);
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+            return;
+        }
+        shortRtt += shortAlpha * (rttNanos - shortRtt);
+        boolean queueing = shortRtt > rttTolerance * longRtt;
+        if (!queueing || rttNanos < longRtt) {
+            longRtt += longAlpha * (rttNanos - longRtt);
+        }
+        if (longRtt / shortRtt > 2) {
+            // Latency dropped for good (e.g. a dependency recovered): let the baseline catch up
+            longRtt *= 0.95;
+        }
+        if (probeSamples > 0) {
+            if (--probeSamples == 0) {
+                // Half the concurrency did not make requests faster: not queueing, a slower dependency.
+                // Otherwise the latency measured with less queueing may still show the baseline is too high.
+                longRtt = shortRtt > probeRtt * PROBE_RELIEF ? shortRtt : Math.min(longRtt, shortRtt);
+            }
+            return;
+        }
+        if (inFlight < estimatedLimit / 2) {
+            // Too few requests for their latency to say anything about the limit
+            return;
+        }
+        queueingUpdates = queueing ? queueingUpdates + 1 : 0;
+        if (queueingUpdates >= longWindow) {
+            // Requests started under the previous limit complete first, then the short average settles
+            queueingUpdates = 0;
+            probeSamples = (int) estimatedLimit + 2 * SHORT_WINDOW;
+            probeRtt = shortRtt;
+            estimatedLimit = Math.max(minLimit, estimatedLimit / 2);
+            limit = (int) estimatedLimit;
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
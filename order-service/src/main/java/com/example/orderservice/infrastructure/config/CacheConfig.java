@@ -0,0 +1,65 @@
+package com.example.orderservice.infrastructure.config;
+
+import com.example.orderservice.infrastructure.cache.HotKeyTracker;
+import com.example.orderservice.infrastructure.cache.ResilientCacheManager;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+
+/**
+ * Makes the Redis cache resilient to Redis failures. The cache manager auto-configured by
+ * Spring Boot (TTL, key prefix...) is kept and decorated with a {@link ResilientCacheManager}.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final String PREFIX = "application.cache.resilience.";
+
+    @Bean
+    @ConditionalOnProperty(name = PREFIX + "enabled", havingValue = "true", matchIfMissing = true)
+    static BeanPostProcessor resilientCacheManagerPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                ObjectProvider<HotKeyTracker> hotKeys, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof RedisCacheManager redisCacheManager
+                        ? resilient(redisCacheManager, meterRegistry.getObject(), hotKeys.getIfAvailable(), environment)
+                        : bean;
+            }
+        };
+    }
+
+    private static ResilientCacheManager resilient(RedisCacheManager redisCacheManager, MeterRegistry meterRegistry,
+                                                   HotKeyTracker hotKeys, Environment environment) {
+        // Also the Lettuce command timeout, which bounds the blocking operations
+        Duration timeout = environment.getProperty("spring.data.redis.timeout", Duration.class, Duration.ofMillis(250));
+        int slidingWindow = environment.getProperty(PREFIX + "sliding-window", Integer.class, 20);
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindow)
+                .minimumNumberOfCalls(Math.max(1, slidingWindow / 2))
+                .failureRateThreshold(environment.getProperty(PREFIX + "failure-rate-threshold", Float.class, 50f))
+                .waitDurationInOpenState(environment.getProperty(PREFIX + "open-duration", Duration.class, Duration.ofSeconds(10)))
+                .permittedNumberOfCallsInHalfOpenState(environment.getProperty(PREFIX + "half-open-calls", Integer.class, 3))
+                // A value that cannot be (de)serialized says nothing about the health of Redis
+                .ignoreExceptions(SerializationException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return new ResilientCacheManager(redisCacheManager, registry.circuitBreaker("redis-cache"), timeout,
+                environment.getProperty(PREFIX + "local.max-size", Integer.class, 10_000),
+                environment.getProperty(PREFIX + "local.ttl", Duration.class, Duration.ofSeconds(30)),
+                hotKeys, meterRegistry);
+    }
+}
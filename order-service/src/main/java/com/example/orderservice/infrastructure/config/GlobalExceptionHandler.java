@@ -1,5 +1,6 @@
 package com.example.orderservice.infrastructure.config;
 
+import com.example.orderservice.core.exceptions.OrderPricingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +18,12 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", "Access denied", "message", ex.getMessage()));
     }
 
+    @ExceptionHandler(OrderPricingException.class)
+    public ResponseEntity<Map<String, String>> handleOrderPricing(OrderPricingException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("error", "Invalid order pricing", "message", ex.getMessage()));
+    }
+
     @ExceptionHandler(NullPointerException.class)
     public ResponseEntity<Map<String, String>> handleNullPointer(NullPointerException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,85 @@
+package com.example.orderservice.infrastructure.config;
+
+import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.infrastructure.messaging.UserEventAvroSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Map;
+
+/**
+ * Failure routing of the user-event consumers.
+ *
+ * Nothing is retried in place, so one poison record never stalls its partition: a record whose
+ * processing fails goes to the retry topic, where the retry listener re-attempts it through
+ * staged topics with growing delays; a record that cannot even be deserialized goes straight
+ * to the dead-letter topic, since retrying it cannot succeed.
+ */
+@Configuration
+public class KafkaErrorHandlingConfig {
+
+    public static final String DLT_SUFFIX = "-dlt";
+
+    @Value("${application.kafka.user-events.retry-topic:user-events-retry}")
+    private String retryTopic;
+
+    /**
+     * Republishes records to the retry and dead-letter topics. Values are either the typed event,
+     * written as Avro, or, for records that failed deserialization or are replayed, the original raw bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> userEventsRetryTemplate(KafkaProperties kafkaProperties) {
+        DelegatingByTypeSerializer valueSerializer = new DelegatingByTypeSerializer(Map.<Class<?>, Serializer<?>>of(
+                byte[].class, new ByteArraySerializer(),
+                UserEvent.class, new UserEventAvroSerializer()));
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                kafkaProperties.buildProducerProperties(null), new StringSerializer(), valueSerializer));
+        // Keeps the trace of retried events connected to the original one
+        template.setObservationEnabled(true);
+        return template;
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer userEventsFailureRecoverer(KafkaTemplate<String, Object> userEventsRetryTemplate,
+                                                                    MeterRegistry meterRegistry) {
+        return new DeadLetterPublishingRecoverer(userEventsRetryTemplate, (record, exception) -> {
+            String destination = isDeserializationFailure(exception) ? "dlt" : "retry";
+            meterRegistry.counter("user.events.failures.routed", "destination", destination).increment();
+            // A negative partition lets the producer pick it from the key
+            return new TopicPartition("dlt".equals(destination) ? retryTopic + DLT_SUFFIX : retryTopic, -1);
+        });
+    }
+
+    /**
+     * Picked up by Spring Boot for the listener containers. Failures are handed to the recoverer
+     * right away instead of being retried in place.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer userEventsFailureRecoverer) {
+        return new DefaultErrorHandler(userEventsFailureRecoverer, new FixedBackOff(0L, 0L));
+    }
+
+    private static boolean isDeserializationFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.orderservice.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runtime metrics of the reactive stack, on top of the per-route 'http.server.requests' timings
+ * recorded by WebFlux and the MongoDB/Lettuce pool metrics auto-configured by Spring Boot.
+ */
+@Configuration
+public class RuntimeMetricsConfig {
+
+    /**
+     * Enables the Reactor Netty server metrics (reactor.netty.http.server.*, connections and
+     * event-loop pending tasks). URIs are collapsed into a single tag value: per-route timing is
+     * already provided by WebFlux with the route pattern, raw paths would explode cardinality.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.metrics.netty.enabled", havingValue = "true", matchIfMissing = true)
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, uri -> "/");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.metrics.reactor-schedulers.enabled", havingValue = "true", matchIfMissing = true)
+    public ReactorSchedulerMetrics reactorSchedulerMetrics(MeterRegistry meterRegistry) {
+        return new ReactorSchedulerMetrics(meterRegistry);
+    }
+
+    /**
+     * Wraps the executors of the shared Reactor schedulers with Micrometer's executor metrics
+     * (reactor.executor.queued, .active, .completed...). Only schedulers created after this bean
+     * are instrumented; the shared ones are created lazily on first use, after startup.
+     * boundedElastic is left out: it creates and evicts workers on demand, and a meter per
+     * short-lived worker would grow without bound.
+     */
+    public static class ReactorSchedulerMetrics implements AutoCloseable {
+
+        private static final String DECORATOR_KEY = "micrometer";
+
+        private final Map<String, AtomicInteger> executorIds = new ConcurrentHashMap<>();
+
+        public ReactorSchedulerMetrics(MeterRegistry meterRegistry) {
+            Schedulers.addExecutorServiceDecorator(DECORATOR_KEY, (scheduler, executor) -> {
+                String schedulerName = schedulerName(scheduler.toString());
+                if (schedulerName.startsWith("boundedElastic")) {
+                    return executor;
+                }
+                String executorName = schedulerName + "-" + executorIds
+                        .computeIfAbsent(schedulerName, name -> new AtomicInteger())
+                        .getAndIncrement();
+                return ExecutorServiceMetrics.monitor(meterRegistry, executor, executorName, "reactor",
+                        Tags.of("reactor.scheduler", schedulerName));
+            });
+        }
+
+        @Override
+        public void close() {
+            Schedulers.removeExecutorServiceDecorator(DECORATOR_KEY);
+        }
+
+        // Scheduler#toString is e.g. 'parallel(8,"parallel")'
+        private static String schedulerName(String description) {
+            int paren = description.indexOf('(');
+            return paren > 0 ? description.substring(0, paren) : description;
+        }
+    }
+}
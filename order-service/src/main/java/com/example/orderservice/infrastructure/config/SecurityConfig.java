@@ -29,6 +29,10 @@ public class SecurityConfig {
                 .authenticationManager(authenticationManager)
                 .securityContextRepository(securityContextRepository)
                 .authorizeExchange(spec -> spec
+                        // Probes and the metrics scraper do not carry a user token
+                        .pathMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        // The other endpoints export, move and replay data of every user; customer tokens carry no roles
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
                         .anyExchange().authenticated()
                 )
                 .build();
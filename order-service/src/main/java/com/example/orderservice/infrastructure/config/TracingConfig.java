@@ -0,0 +1,43 @@
+package com.example.orderservice.infrastructure.config;
+
+import com.example.orderservice.infrastructure.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+import java.nio.file.Path;
+
+/**
+ * Tracing setup on top of Micrometer Tracing (OpenTelemetry bridge). WebFlux and the Kafka
+ * listeners/template are observed by Spring Boot, continuing the trace started by user-service
+ * from the record headers; MongoDB commands are observed here.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Every MongoDB command becomes a child span of the observation found in the Reactor context.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    /**
+     * Registered with the OpenTelemetry SDK by Spring Boot, like any SpanExporter bean.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.file-exporter.enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(@Value("${application.tracing.file-exporter.path}") Path file,
+                                             ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
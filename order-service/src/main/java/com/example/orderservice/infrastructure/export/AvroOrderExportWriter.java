@@ -0,0 +1,97 @@
+package com.example.orderservice.infrastructure.export;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.infrastructure.export.OrderExportRequest.Compression;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Avro object container file with one block per row group, compressed by the block codec
+ * (deflate for GZIP, zstandard for ZSTD). Blocks are self-contained and delimited by sync
+ * markers, so readers (Spark, BigQuery, fastavro...) can split the file at row-group boundaries.
+ *
+ * The block of the current row group is buffered until it ends, so heap use is bounded by the
+ * row-group size rather than by the size of the export.
+ */
+class AvroOrderExportWriter implements OrderExportWriter {
+
+    private static final String SCHEMA_LOCATION = "avro/order-export/v1.avsc";
+    // Blocks are only cut by endRowGroup()
+    private static final int MAX_SYNC_INTERVAL = 1 << 30;
+
+    static final Schema SCHEMA = loadSchema();
+
+    private final Path path;
+    private final DataFileWriter<GenericRecord> writer;
+
+    AvroOrderExportWriter(Path path, long resumeAt, Compression compression, int zstdLevel) throws IOException {
+        this.path = path;
+        this.writer = new DataFileWriter<GenericRecord>(new GenericDatumWriter<>(SCHEMA))
+                .setSyncInterval(MAX_SYNC_INTERVAL);
+        if (resumeAt > 0) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                // Drops whatever was written after the last checkpoint
+                channel.truncate(resumeAt);
+            }
+            // Keeps the schema, codec and sync marker of the existing header
+            writer.appendTo(path.toFile());
+        } else {
+            writer.setCodec(switch (compression) {
+                case NONE -> CodecFactory.nullCodec();
+                case GZIP -> CodecFactory.deflateCodec(CodecFactory.DEFAULT_DEFLATE_LEVEL);
+                case ZSTD -> CodecFactory.zstandardCodec(zstdLevel);
+            });
+            writer.create(SCHEMA, path.toFile());
+        }
+    }
+
+    @Override
+    public void write(Order order) throws IOException {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("id", order.getId());
+        record.put("username", order.getUsername());
+        record.put("customerName", order.getCustomerName());
+        record.put("orderDate", order.getOrderDate() == null
+                ? null
+                : order.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+        record.put("totalAmount", order.getTotalAmount() == null ? null : order.getTotalAmount().toPlainString());
+        record.put("productIds", order.getProductIds() == null ? List.of() : order.getProductIds());
+        writer.append(record);
+    }
+
+    @Override
+    public long endRowGroup() throws IOException {
+        // Writes the block and its sync marker, then flushes and fsyncs the file
+        writer.fSync();
+        return Files.size(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static Schema loadSchema() {
+        try (InputStream in = AvroOrderExportWriter.class.getClassLoader().getResourceAsStream(SCHEMA_LOCATION)) {
+            if (in == null) {
+                throw new IllegalStateException("Order export schema not found: " + SCHEMA_LOCATION);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read order export schema", e);
+        }
+    }
+}
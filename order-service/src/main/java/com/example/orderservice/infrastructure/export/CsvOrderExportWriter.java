@@ -0,0 +1,115 @@
+package com.example.orderservice.infrastructure.export;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.infrastructure.export.OrderExportRequest.Compression;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * RFC 4180 CSV, one line per order with the product ids joined by '|'.
+ *
+ * Each row group is compressed as its own gzip member / zstd frame. Concatenated members and
+ * frames are a valid gzip / zstd stream, so a resumed export simply appends new ones after the
+ * last complete group, and standard tools (gunzip, zstdcat) read the file as a whole.
+ */
+class CsvOrderExportWriter implements OrderExportWriter {
+
+    private static final String HEADER = "id,username,customerName,orderDate,totalAmount,productIds";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final OutputStream file;
+    private final Compression compression;
+    private final int zstdLevel;
+    private boolean headerWritten;
+    private Writer group;
+
+    CsvOrderExportWriter(Path path, long resumeAt, Compression compression, int zstdLevel) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Drops whatever was written after the last checkpoint
+        channel.truncate(resumeAt);
+        channel.position(resumeAt);
+        this.file = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        this.compression = compression;
+        this.zstdLevel = zstdLevel;
+        this.headerWritten = resumeAt > 0;
+    }
+
+    @Override
+    public void write(Order order) throws IOException {
+        if (group == null) {
+            group = openGroup();
+        }
+        if (!headerWritten) {
+            group.write(HEADER);
+            group.write("\r\n");
+            headerWritten = true;
+        }
+        group.write(field(order.getId()));
+        group.write(',');
+        group.write(field(order.getUsername()));
+        group.write(',');
+        group.write(field(order.getCustomerName()));
+        group.write(',');
+        group.write(order.getOrderDate() == null ? "" : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(order.getOrderDate()));
+        group.write(',');
+        group.write(order.getTotalAmount() == null ? "" : order.getTotalAmount().toPlainString());
+        group.write(',');
+        group.write(order.getProductIds() == null ? "" : field(String.join("|", order.getProductIds())));
+        group.write("\r\n");
+    }
+
+    @Override
+    public long endRowGroup() throws IOException {
+        if (group != null) {
+            // Finishes the gzip member / zstd frame without closing the file
+            group.close();
+            group = null;
+        }
+        file.flush();
+        channel.force(false);
+        return channel.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // An unfinished group is dropped on resume anyway; only release the file
+        channel.close();
+    }
+
+    private Writer openGroup() throws IOException {
+        OutputStream target = StreamUtils.nonClosing(file);
+        OutputStream compressed = switch (compression) {
+            case NONE -> target;
+            case GZIP -> new GZIPOutputStream(target, BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(target, zstdLevel);
+        };
+        return new BufferedWriter(new OutputStreamWriter(compressed, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static String field(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
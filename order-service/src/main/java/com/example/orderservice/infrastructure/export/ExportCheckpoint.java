@@ -0,0 +1,31 @@
+package com.example.orderservice.infrastructure.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of an export, saved next to its data file after every row group.
+ *
+ * Orders are read source by source (the archive, then each shard) in '_id' order; 'source' and
+ * 'lastId' locate the last order of the last complete row group, and 'bytes' is the length of
+ * the data file at that point. Resuming truncates the file to 'bytes' and continues after
+ * 'lastId', so rows written after the checkpoint are never duplicated.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ExportCheckpoint {
+
+    private OrderExportRequest request;
+    private int source;
+    private String lastId;
+    private long rows;
+    private long bytes;
+    private boolean completed;
+    private Instant updatedAt;
+}
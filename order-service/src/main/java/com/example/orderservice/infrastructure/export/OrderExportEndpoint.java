@@ -0,0 +1,113 @@
+package com.example.orderservice.infrastructure.export;
+
+import com.example.orderservice.infrastructure.export.OrderExportRequest.Compression;
+import com.example.orderservice.infrastructure.export.OrderExportRequest.Format;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Actuator operations to run order exports:
+ * {@code POST /actuator/orderExports {"name": "orders-2024", "format": "csv", "compression": "zstd",
+ * "from": "2024-01-01", "to": "2025-01-01", "username": "jdoe"}} starts (or resumes) an export,
+ * {@code GET /actuator/orderExports} lists them with their progress and
+ * {@code DELETE /actuator/orderExports/orders-2024} stops one at its next checkpoint.
+ */
+@Component
+@Endpoint(id = "orderExports")
+public class OrderExportEndpoint {
+
+    // Names become file names in the export directory
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,99}");
+
+    private final OrderExporter orderExporter;
+
+    public OrderExportEndpoint(OrderExporter orderExporter) {
+        this.orderExporter = orderExporter;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> exports() {
+        return orderExporter.checkpoints().stream()
+                .map(checkpoint -> {
+                    String name = checkpoint.getRequest().getName();
+                    Map<String, Object> export = new LinkedHashMap<>();
+                    export.put("name", name);
+                    export.put("file", checkpoint.getRequest().fileName());
+                    export.put("status", checkpoint.isCompleted() ? "completed"
+                            : orderExporter.isRunning(name) ? "running" : "interrupted");
+                    export.put("rows", checkpoint.getRows());
+                    export.put("bytes", checkpoint.getBytes());
+                    export.put("updatedAt", checkpoint.getUpdatedAt());
+                    String failure = orderExporter.failure(name);
+                    if (failure != null) {
+                        export.put("failure", failure);
+                    }
+                    return export;
+                })
+                .toList();
+    }
+
+    /**
+     * @param format 'csv' (default) or 'avro'.
+     * @param compression 'zstd' (default), 'gzip' or 'none'.
+     * @param from Inclusive lower bound of the order date, ISO date or date-time.
+     * @param to Exclusive upper bound of the order date, ISO date or date-time.
+     */
+    @WriteOperation
+    public Map<String, Object> export(String name, @Nullable String format, @Nullable String compression,
+                                      @Nullable String from, @Nullable String to, @Nullable String username) {
+        if (!NAME.matcher(name).matches()) {
+            throw new InvalidEndpointRequestException("Invalid export name '" + name + "'",
+                    "Export names may only contain letters, digits, '.', '_' and '-'");
+        }
+        OrderExportRequest request = OrderExportRequest.builder()
+                .name(name)
+                .format(format == null ? Format.CSV : parse(Format.class, "format", format))
+                .compression(compression == null ? Compression.ZSTD : parse(Compression.class, "compression", compression))
+                .from(parseDate("from", from))
+                .to(parseDate("to", to))
+                .username(username)
+                .build();
+        return Map.of("name", name, "status", orderExporter.start(request));
+    }
+
+    @DeleteOperation
+    public Map<String, Object> cancel(@Selector String name) {
+        return Map.of("name", name, "status", orderExporter.cancel(name) ? "cancelling" : "not-running");
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String parameter, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Invalid " + parameter + " '" + value + "'", "Unknown " + parameter);
+        }
+    }
+
+    private static LocalDateTime parseDate(String parameter, @Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException("Invalid " + parameter + " '" + value + "'",
+                    "Expected an ISO date (2024-01-31) or date-time (2024-01-31T12:00:00)");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.orderservice.infrastructure.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * What an export writes: the file layout and the optional filters. Stored in the checkpoint, so
+ * a resumed export keeps exactly the settings it was started with.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderExportRequest {
+
+    public enum Format {
+        CSV, AVRO
+    }
+
+    public enum Compression {
+        NONE, GZIP, ZSTD
+    }
+
+    private String name;
+    private Format format;
+    private Compression compression;
+
+    // Orders placed in [from, to); either bound may be null
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String username;
+
+    /**
+     * Name of the data file in the export directory, e.g. 'orders-2024.csv.zst'.
+     */
+    public String fileName() {
+        if (format == Format.AVRO) {
+            // Avro compresses each block itself
+            return name + ".avro";
+        }
+        return switch (compression) {
+            case NONE -> name + ".csv";
+            case GZIP -> name + ".csv.gz";
+            case ZSTD -> name + ".csv.zst";
+        };
+    }
+}
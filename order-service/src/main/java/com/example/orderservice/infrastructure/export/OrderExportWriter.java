@@ -0,0 +1,21 @@
+package com.example.orderservice.infrastructure.export;
+
+import com.example.orderservice.core.domain.document.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams orders to an export file in row groups. Everything written before
+ * {@link #endRowGroup()} returns is durable and readable on its own, which is what makes
+ * checkpoints at row-group boundaries safe to resume from.
+ */
+interface OrderExportWriter extends Closeable {
+
+    void write(Order order) throws IOException;
+
+    /**
+     * Completes the current row group, flushes it to disk and returns the file length.
+     */
+    long endRowGroup() throws IOException;
+}
@@ -0,0 +1,318 @@
+package com.example.orderservice.infrastructure.export;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export of the order history (archive and every shard) to files in a local directory.
+ *
+ * Orders are streamed from a Mongo cursor and written one by one, each export on its own
+ * bounded-elastic thread; the cursor is only asked for the next batch once the previous one has
+ * been written, so heap use does not depend on the number of orders exported. A checkpoint is
+ * saved after every row group, and an export that was cancelled or interrupted (failure,
+ * restart) resumes from its last checkpoint when started again with the same name.
+ *
+ * An order being archived or moved to another shard while the export runs can be exported
+ * twice; consumers should de-duplicate by id.
+ */
+@Component
+@Slf4j
+public class OrderExporter {
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint.json";
+    private static final String ORDERS_COLLECTION = "orders";
+    private static final String ID_INDEX = "_id_";
+
+    private final OrderShards orderShards;
+    private final ObjectMapper objectMapper;
+    private final Counter exportedRows;
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    @Value("${application.orders.export.directory:exports}")
+    private Path directory;
+
+    @Value("${application.orders.export.row-group-size:50000}")
+    private int rowGroupSize;
+
+    @Value("${application.orders.export.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    @Value("${application.orders.export.zstd-level:3}")
+    private int zstdLevel;
+
+    @Value("${application.orders.export.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    public OrderExporter(OrderShards orderShards, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.orderShards = orderShards;
+        this.objectMapper = objectMapper;
+        this.exportedRows = Counter.builder("orders.export.rows")
+                .description("Orders written to export files")
+                .register(meterRegistry);
+        Gauge.builder("orders.export.running", running, Map::size)
+                .description("Order exports currently running")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        checkpoints().stream()
+                .filter(checkpoint -> !checkpoint.isCompleted())
+                .forEach(checkpoint -> {
+                    log.info("Resuming interrupted export '{}' after {} orders", checkpoint.getRequest().getName(), checkpoint.getRows());
+                    launch(checkpoint);
+                });
+    }
+
+    /**
+     * Starts the export, or resumes it from its checkpoint if one with the same name was
+     * interrupted; the settings of a resumed export are those it was started with.
+     * @return 'started', 'resumed', 'already-running' or 'already-completed'.
+     */
+    public String start(OrderExportRequest request) {
+        if (running.containsKey(request.getName())) {
+            return "already-running";
+        }
+        ExportCheckpoint checkpoint = readCheckpoint(request.getName());
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            return "already-completed";
+        }
+        if (checkpoint == null) {
+            checkpoint = saveCheckpoint(ExportCheckpoint.builder().request(request).build());
+        }
+        return launch(checkpoint) ? (checkpoint.getRows() > 0 || checkpoint.getSource() > 0 ? "resumed" : "started") : "already-running";
+    }
+
+    /**
+     * Stops the export at the end of the current row group, keeping its checkpoint.
+     */
+    public boolean cancel(String name) {
+        AtomicBoolean cancelled = running.get(name);
+        if (cancelled == null) {
+            return false;
+        }
+        cancelled.set(true);
+        return true;
+    }
+
+    public boolean isRunning(String name) {
+        return running.containsKey(name);
+    }
+
+    public String failure(String name) {
+        return failures.get(name);
+    }
+
+    /**
+     * Checkpoints of every export in the directory, finished or not.
+     */
+    public List<ExportCheckpoint> checkpoints() {
+        List<ExportCheckpoint> checkpoints = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return checkpoints;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CHECKPOINT_SUFFIX)) {
+            for (Path file : files) {
+                checkpoints.add(objectMapper.readValue(file.toFile(), ExportCheckpoint.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list order export checkpoints in " + directory, e);
+        }
+        return checkpoints;
+    }
+
+    private boolean launch(ExportCheckpoint checkpoint) {
+        String name = checkpoint.getRequest().getName();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        if (running.putIfAbsent(name, cancelled) != null) {
+            return false;
+        }
+        failures.remove(name);
+        Mono.fromCallable(() -> run(checkpoint, cancelled))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> running.remove(name))
+                .subscribe(
+                        last -> log.info("Export '{}' {} with {} orders ({} bytes)",
+                                name, last.isCompleted() ? "completed" : "cancelled", last.getRows(), last.getBytes()),
+                        e -> {
+                            failures.put(name, String.valueOf(e.getMessage()));
+                            log.error("Export '{}' failed; it resumes from its last checkpoint when started again", name, e);
+                        });
+        return true;
+    }
+
+    private ExportCheckpoint run(ExportCheckpoint from, AtomicBoolean cancelled) throws IOException {
+        OrderExportRequest request = from.getRequest();
+        Path file = directory.resolve(request.fileName());
+        List<Source> sources = sources();
+        ExportCheckpoint checkpoint = from;
+        try (OrderExportWriter writer = openWriter(request, file, checkpoint.getBytes())) {
+            for (int source = checkpoint.getSource(); source < sources.size(); source++) {
+                String lastId = source == checkpoint.getSource() ? checkpoint.getLastId() : null;
+                long groupRows = 0;
+                // Closing the stream cancels the cursor when the export stops early
+                try (Stream<Order> orders = find(sources.get(source), request, lastId).toStream(cursorBatchSize)) {
+                    Iterator<Order> iterator = orders.iterator();
+                    while (iterator.hasNext()) {
+                        Order order = iterator.next();
+                        writer.write(order);
+                        lastId = order.getId();
+                        if (++groupRows == rowGroupSize) {
+                            checkpoint = endRowGroup(writer, checkpoint, source, lastId, groupRows);
+                            groupRows = 0;
+                            if (cancelled.get()) {
+                                return checkpoint;
+                            }
+                        }
+                    }
+                }
+                // A row group never spans two sources, so the checkpoint can move on to the next one
+                checkpoint = endRowGroup(writer, checkpoint, source + 1, null, groupRows);
+            }
+        }
+        return saveCheckpoint(checkpoint.toBuilder().completed(true).build());
+    }
+
+    private ExportCheckpoint endRowGroup(OrderExportWriter writer, ExportCheckpoint checkpoint,
+                                         int source, String lastId, long groupRows) throws IOException {
+        long bytes = writer.endRowGroup();
+        exportedRows.increment(groupRows);
+        return saveCheckpoint(checkpoint.toBuilder()
+                .source(source)
+                .lastId(lastId)
+                .rows(checkpoint.getRows() + groupRows)
+                .bytes(bytes)
+                .build());
+    }
+
+    private OrderExportWriter openWriter(OrderExportRequest request, Path file, long resumeAt) throws IOException {
+        Files.createDirectories(directory);
+        return request.getFormat() == OrderExportRequest.Format.AVRO
+                ? new AvroOrderExportWriter(file, resumeAt, request.getCompression(), zstdLevel)
+                : new CsvOrderExportWriter(file, resumeAt, request.getCompression(), zstdLevel);
+    }
+
+    /**
+     * The archive first, then the 'orders' collection of every shard (including shards being
+     * drained by a rebalance). Resuming after the shard count changed may skip or repeat orders.
+     */
+    private List<Source> sources() {
+        List<Source> sources = new ArrayList<>();
+        sources.add(new Source(orderShards.shard(0), OrderArchiveRepository.COLLECTION));
+        orderShards.all().forEach(shard -> sources.add(new Source(shard, ORDERS_COLLECTION)));
+        return sources;
+    }
+
+    /**
+     * Orders of one source in '_id' order, after 'lastId'. Without a username filter the scan is
+     * pinned to the '_id' index, so Mongo streams the collection instead of sorting it.
+     */
+    private Flux<Order> find(Source source, OrderExportRequest request, String lastId) {
+        List<Criteria> filters = new ArrayList<>();
+        if (request.getUsername() != null) {
+            filters.add(Criteria.where("username").is(request.getUsername()));
+        }
+        if (request.getFrom() != null) {
+            filters.add(Criteria.where("orderDate").gte(request.getFrom()));
+        }
+        if (request.getTo() != null) {
+            filters.add(Criteria.where("orderDate").lt(request.getTo()));
+        }
+        if (lastId != null) {
+            filters.add(after(lastId));
+        }
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(cursorBatchSize)
+                .allowDiskUse(true);
+        if (request.getUsername() == null) {
+            query.withHint(ID_INDEX);
+        }
+        return source.template().find(query, Order.class, source.collection());
+    }
+
+    /**
+     * Ids are ObjectIds (orders created before sharding) or slot-prefixed strings, and BSON sorts
+     * every string before every ObjectId. A $gt on a string does not match ObjectIds, so those
+     * are added back explicitly.
+     */
+    private static Criteria after(String lastId) {
+        if (ObjectId.isValid(lastId)) {
+            return Criteria.where("_id").gt(new ObjectId(lastId));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("_id").gt(lastId),
+                Criteria.where("_id").type(JsonSchemaObject.Type.objectIdType()));
+    }
+
+    private ExportCheckpoint readCheckpoint(String name) {
+        Path file = directory.resolve(name + CHECKPOINT_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), ExportCheckpoint.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint of export '" + name + "'", e);
+        }
+    }
+
+    /**
+     * Written to a temporary file and renamed, so a crash never leaves a truncated checkpoint.
+     */
+    private ExportCheckpoint saveCheckpoint(ExportCheckpoint checkpoint) {
+        ExportCheckpoint saved = checkpoint.toBuilder().updatedAt(Instant.now()).build();
+        String name = saved.getRequest().getName();
+        Path file = directory.resolve(name + CHECKPOINT_SUFFIX);
+        Path temporary = directory.resolve(name + CHECKPOINT_SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            objectMapper.writeValue(temporary.toFile(), saved);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save checkpoint of export '" + name + "'", e);
+        }
+        return saved;
+    }
+
+    private record Source(ReactiveMongoTemplate template, String collection) {
+    }
+}
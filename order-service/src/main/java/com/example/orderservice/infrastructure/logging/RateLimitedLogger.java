@@ -0,0 +1,78 @@
+package com.example.orderservice.infrastructure.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs at most 'permits' messages per 'interval' and counts the others, for messages written
+ * once per request or per record: under load they would otherwise cost more than the work they
+ * describe. The number of messages left out is appended to the next one logged, so the volume
+ * stays visible. Arguments must not end with a Throwable; errors are logged with the plain logger.
+ *
+ * Use one instance per call site: the suppressed count is reported as "similar messages", and a
+ * shared instance would let a burst of one message hide the others.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger logger, int permits, Duration interval) {
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public static RateLimitedLogger perSecond(Logger logger, int permits) {
+        return new RateLimitedLogger(logger, permits, Duration.ofSeconds(1));
+    }
+
+    public void info(String format, Object... arguments) {
+        if (logger.isInfoEnabled() && tryAcquire()) {
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                logger.info(format + " ({} similar messages suppressed)", append(arguments, dropped));
+            } else {
+                logger.info(format, arguments);
+            }
+        }
+    }
+
+    public void debug(String format, Object... arguments) {
+        if (logger.isDebugEnabled() && tryAcquire()) {
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                logger.debug(format + " ({} similar messages suppressed)", append(arguments, dropped));
+            } else {
+                logger.debug(format, arguments);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    private static Object[] append(Object[] arguments, long dropped) {
+        Object[] extended = Arrays.copyOf(arguments, arguments.length + 1);
+        extended[arguments.length] = dropped;
+        return extended;
+    }
+}
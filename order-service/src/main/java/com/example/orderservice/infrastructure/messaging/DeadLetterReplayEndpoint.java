@@ -0,0 +1,140 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.infrastructure.config.KafkaErrorHandlingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Actuator operation pushing dead-lettered user events back to the retry topic, e.g. once the
+ * cause of the failures has been fixed: {@code POST /actuator/dltReplay {"maxRecords": 1000}}.
+ *
+ * Records are read with a dedicated consumer group and forwarded as raw bytes in batches of one
+ * poll; the group offsets are committed after each batch is acknowledged by the broker, so a
+ * replay interrupted midway resumes where it stopped. The retry bookkeeping headers are dropped
+ * so every replayed record gets the full set of retry attempts again. Requires an admin token
+ * (see SecurityConfig).
+ */
+@Component
+@Endpoint(id = "dltReplay")
+@Slf4j
+public class DeadLetterReplayEndpoint {
+
+    private static final String REPLAY_GROUP = "order-service-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    // Prefix of the attempt/backoff headers maintained by the retry topic infrastructure
+    private static final String RETRY_HEADER_PREFIX = "retry_topic-";
+
+    private final ConsumerFactory<String, UserEvent> consumerFactory;
+    private final KafkaTemplate<String, Object> userEventsRetryTemplate;
+    private final Counter replayedCounter;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    @Value("${application.kafka.user-events.retry-topic:user-events-retry}")
+    private String retryTopic;
+
+    @Value("${application.kafka.user-events.dlt-replay.batch-size:500}")
+    private int batchSize;
+
+    public DeadLetterReplayEndpoint(ConsumerFactory<String, UserEvent> consumerFactory,
+                                    KafkaTemplate<String, Object> userEventsRetryTemplate,
+                                    MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.userEventsRetryTemplate = userEventsRetryTemplate;
+        this.replayedCounter = Counter.builder("user.events.dlt.replayed")
+                .description("Dead-lettered user events pushed back to the retry topic")
+                .register(meterRegistry);
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Integer maxRecords) {
+        if (!replaying.compareAndSet(false, true)) {
+            return Map.of("status", "already-running");
+        }
+        try {
+            long replayed = replayUpTo(maxRecords == null ? Long.MAX_VALUE : maxRecords);
+            return Map.of("status", "done", "replayed", replayed);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private long replayUpTo(long maxRecords) {
+        String dltTopic = retryTopic + KafkaErrorHandlingConfig.DLT_SUFFIX;
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchSize));
+
+        long replayed = 0;
+        try (Consumer<String, byte[]> consumer = (Consumer<String, byte[]>) (Consumer<?, ?>)
+                consumerFactory.createConsumer(REPLAY_GROUP, "dlt-replay", null, overrides)) {
+            consumer.subscribe(List.of(dltTopic));
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                List<CompletableFuture<?>> sends = new ArrayList<>(records.count());
+                Set<TopicPartition> cut = new HashSet<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (cut.contains(partition)) {
+                        continue;
+                    }
+                    if (replayed + sends.size() >= maxRecords) {
+                        // Rewind so records past the limit are not committed and stay for the next replay
+                        consumer.seek(partition, record.offset());
+                        cut.add(partition);
+                        continue;
+                    }
+                    sends.add(userEventsRetryTemplate.send(toRetryRecord(record)));
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync();
+                replayed += sends.size();
+                replayedCounter.increment(sends.size());
+            }
+        }
+        log.info("Replayed {} dead-lettered user events from '{}' to '{}'", replayed, dltTopic, retryTopic);
+        return replayed;
+    }
+
+    private ProducerRecord<String, Object> toRetryRecord(ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, Object> retry = new ProducerRecord<>(retryTopic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                retry.headers().add(header);
+            }
+        }
+        return retry;
+    }
+}
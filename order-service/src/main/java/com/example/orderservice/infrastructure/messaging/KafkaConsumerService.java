@@ -1,36 +1,313 @@
 package com.example.orderservice.infrastructure.messaging;
 
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.ReceiverContext;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
 import com.example.orderservice.core.events.UserEvent;
 import com.example.orderservice.core.service.OrderService;
+import com.example.orderservice.infrastructure.config.KafkaErrorHandlingConfig;
+import com.example.orderservice.infrastructure.logging.RateLimitedLogger;
+import com.example.orderservice.infrastructure.messaging.UserEventCoalescer.CoalescedEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consumes user events from Kafka.
+ *
+ * Two listeners are declared on the same consumer group and exactly one of them is started,
+ * depending on 'application.kafka.user-events.batch.enabled':
+ * - The batch listener (default) receives whatever the consumer fetched in one poll, coalesces
+ *   the records per user and issues a single downstream update per user.
+ * - The record listener processes every record on its own.
+ *
+ * Per-key ordering is preserved in both modes: all records of a user live in the same partition,
+ * and a batch is fully applied before the container polls the next one.
+ *
+ * Failures never block the partition: an event that cannot be applied is published to the retry
+ * topic and the batch moves on. The retry listener re-attempts it through staged retry topics
+ * with exponential backoff and finally parks it in the dead-letter topic with the failure headers.
+ * A retried event may thus come back after a newer event of the same user went through; every
+ * event is checked against the user's {@link UserEventWatermarks} first and skipped when stale.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class KafkaConsumerService {
 
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaConsumerService.class);
+    // Version of the (possibly coalesced) event sent to the retry topic, kept on dead-letter replays
+    static final String VERSION_HEADER = "x-user-event-version";
+    // Logged once per record (or batch) consumed, with one limiter per call site
+    private static final RateLimitedLogger recordLog = RateLimitedLogger.perSecond(log, 10);
+    private static final RateLimitedLogger batchLog = RateLimitedLogger.perSecond(log, 10);
+
     private final OrderService orderService;
+    private final UserEventWatermarks watermarks;
+    private final KafkaTemplate<String, Object> userEventsRetryTemplate;
+    private final DeadLetterPublishingRecoverer userEventsFailureRecoverer;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Counter receivedCounter;
+    private final Counter appliedCounter;
+    private final DistributionSummary coalescingRatio;
+    private final Counter routedToRetryCounter;
+    private final Counter retrySucceededCounter;
+    private final Counter retryFailedCounter;
+    private final Counter deadLetteredCounter;
+    private final Counter staleCounter;
+
+    @Value("${application.kafka.user-events.batch.apply-concurrency:8}")
+    private int applyConcurrency;
+
+    @Value("${application.kafka.user-events.retry-topic:user-events-retry}")
+    private String retryTopic;
+
+    public KafkaConsumerService(OrderService orderService,
+                                UserEventWatermarks watermarks,
+                                KafkaTemplate<String, Object> userEventsRetryTemplate,
+                                DeadLetterPublishingRecoverer userEventsFailureRecoverer,
+                                ObservationRegistry observationRegistry,
+                                MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.watermarks = watermarks;
+        this.userEventsRetryTemplate = userEventsRetryTemplate;
+        this.userEventsFailureRecoverer = userEventsFailureRecoverer;
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.receivedCounter = Counter.builder("user.events.received")
+                .description("User events read from Kafka")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("user.events.applied")
+                .description("User events applied downstream after coalescing")
+                .register(meterRegistry);
+        this.coalescingRatio = DistributionSummary.builder("user.events.coalescing.ratio")
+                .description("Records received per downstream update in a batch")
+                .register(meterRegistry);
+        // Same meter as the one incremented by the container-level recoverer
+        this.routedToRetryCounter = meterRegistry.counter("user.events.failures.routed", "destination", "retry");
+        this.retrySucceededCounter = Counter.builder("user.events.retry.attempts")
+                .tag("outcome", "success")
+                .description("Attempts of the retry listener")
+                .register(meterRegistry);
+        this.retryFailedCounter = Counter.builder("user.events.retry.attempts")
+                .tag("outcome", "failure")
+                .description("Attempts of the retry listener")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("user.events.dlt.received")
+                .description("User events that reached the dead-letter topic")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("user.events.stale.skipped")
+                .description("User events skipped because a newer event of the user was applied already")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = "userEventsRecordListener", topics = "user-events", groupId = "order-service-group",
+            autoStartup = "#{!${application.kafka.user-events.batch.enabled:true}}")
+    public void consumeUserEvent(@Payload(required = false) UserEvent event,
+                                 @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String key) {
+        receivedCounter.increment();
+        if (event == null) {
+            // Tombstone of a deleted user: its orders are kept, and UserProjectionLoader drops
+            // the user from the projection. Same as the batch listener, which skips them.
+            log.debug("User {} deleted, no action required on the orders", key);
+            return;
+        }
+        recordLog.info("Received {} event for user {}", event.getEventType(), event.getId());
+        // Block on the listener thread so the offset is only committed once the update is applied
+        // or handed over to the retry topic
+        applyOrRetry(event, event.getEventTimestamp()).block();
+        appliedCounter.increment();
+    }
+
+    @KafkaListener(id = "userEventsBatchListener", topics = "user-events", groupId = "order-service-group",
+            batch = "true", autoStartup = "${application.kafka.user-events.batch.enabled:true}")
+    public void consumeUserEventBatch(List<ConsumerRecord<String, UserEvent>> records) {
+        List<ConsumerRecord<String, UserEvent>> readable = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, UserEvent> record : records) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(
+                    record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+            if (failure != null) {
+                log.warn("Undeserializable user event at {}-{}@{}, sending it to the dead-letter topic",
+                        record.topic(), record.partition(), record.offset());
+                userEventsFailureRecoverer.accept(record, failure);
+            } else {
+                readable.add(record);
+            }
+        }
+        Collection<CoalescedEvent> coalesced = UserEventCoalescer.coalesce(readable);
+        batchLog.info("Received batch of {} user events, coalesced into {} updates", records.size(), coalesced.size());
+
+        // Each user appears once per batch, so different users can be applied concurrently
+        Flux.fromIterable(coalesced)
+                .flatMap(this::observeApply, applyConcurrency)
+                .then()
+                .block();
+
+        receivedCounter.increment(records.size());
+        appliedCounter.increment(coalesced.size());
+        if (!coalesced.isEmpty()) {
+            coalescingRatio.record((double) records.size() / coalesced.size());
+        }
+    }
 
-    @KafkaListener(topics = "user-events", groupId = "order-service-group")
-    public void consumeUserEvent(UserEvent event) {
-        log.info("Received UserEvent: {}", event);
+    /**
+     * Re-attempts events that failed on the main topic. Every attempt that fails moves the event
+     * to the next retry stage topic (suffixed with its index) with a growing delay, and the last
+     * one to the dead-letter topic.
+     */
+    @RetryableTopic(
+            attempts = "${application.kafka.user-events.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${application.kafka.user-events.retry.initial-delay:1000}",
+                    multiplierExpression = "${application.kafka.user-events.retry.multiplier:5}",
+                    maxDelayExpression = "${application.kafka.user-events.retry.max-delay:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = KafkaErrorHandlingConfig.DLT_SUFFIX,
+            dltStrategy = DltStrategy.FAIL_ON_ERROR,
+            numPartitions = "3",
+            kafkaTemplate = "userEventsRetryTemplate")
+    @KafkaListener(id = "userEventsRetryListener", topics = "${application.kafka.user-events.retry-topic:user-events-retry}",
+            groupId = "order-service-group")
+    public void consumeRetriedUserEvent(UserEvent event,
+                                        @Header(name = VERSION_HEADER, required = false) byte[] version) {
+        try {
+            apply(event, version == null ? event.getEventTimestamp() : Long.valueOf(new String(version, StandardCharsets.UTF_8))).block();
+            retrySucceededCounter.increment();
+        } catch (RuntimeException e) {
+            retryFailedCounter.increment();
+            throw e;
+        }
+    }
+
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, Object> record,
+                                 @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) byte[] error) {
+        deadLetteredCounter.increment();
+        log.error("User event {}@{} moved to the dead-letter topic: {}", record.key(), record.offset(),
+                error == null ? "unknown error" : new String(error, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Batch listeners are not observed by the container, so each merged event gets its own
+     * observation, continuing the trace propagated in the headers of its latest record. It is
+     * put in the Reactor context, where the Mongo command observations pick it up as parent.
+     */
+    private Mono<Void> observeApply(CoalescedEvent coalesced) {
+        ReceiverContext<ConsumerRecord<String, UserEvent>> context = new ReceiverContext<>((record, key) -> {
+            org.apache.kafka.common.header.Header header = record.headers().lastHeader(key);
+            return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+        });
+        context.setCarrier(coalesced.latestRecord());
+        context.setRemoteServiceName("kafka");
+        Observation observation = Observation.createNotStarted("user.events.apply", () -> context, observationRegistry)
+                .contextualName("user-events apply")
+                .lowCardinalityKeyValue("event.type", String.valueOf(coalesced.event().getEventType()));
+
+        return Mono.defer(() -> {
+                    observation.start();
+                    return applyOrRetry(coalesced.event(), coalesced.version())
+                            .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+                })
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop());
+    }
+
+    private Mono<Void> applyOrRetry(UserEvent event, Long version) {
+        return apply(event, version)
+                .onErrorResume(e -> {
+                    log.warn("Applying {} for user {} failed, sending it to '{}': {}",
+                            event.getEventType(), event.getId(), retryTopic, e.toString());
+                    ProducerRecord<String, Object> retry = new ProducerRecord<>(retryTopic,
+                            event.getId() == null ? null : event.getId().toString(), event);
+                    retry.headers().add(KafkaHeaders.EXCEPTION_FQCN, e.getClass().getName().getBytes(StandardCharsets.UTF_8));
+                    retry.headers().add(KafkaHeaders.EXCEPTION_MESSAGE,
+                            String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+                    if (version != null) {
+                        retry.headers().add(VERSION_HEADER, version.toString().getBytes(StandardCharsets.UTF_8));
+                    }
+                    return Mono.fromFuture(userEventsRetryTemplate.send(retry))
+                            .doOnSuccess(result -> routedToRetryCounter.increment())
+                            .then();
+                });
+    }
+
+    /**
+     * Events without a version (from producers predating the event timestamp) are always applied.
+     */
+    private Mono<Void> apply(UserEvent event, Long version) {
+        if (version == null || event.getId() == null) {
+            return dispatch(event).doOnSuccess(v -> recordEndToEndLatency(event));
+        }
+        return watermarks.advance(event.getId(), version)
+                .flatMap(current -> {
+                    if (!current) {
+                        staleCounter.increment();
+                        log.debug("Skipping stale {} event of user {} (version {})", event.getEventType(), event.getId(), version);
+                        return Mono.empty();
+                    }
+                    return dispatch(event).doOnSuccess(v -> recordEndToEndLatency(event));
+                });
+    }
+
+    /**
+     * Time between the producer creating the event and its update being applied here, i.e. how
+     * long the orders of a user lag behind a change of the user.
+     */
+    private void recordEndToEndLatency(UserEvent event) {
+        if (event.getEventTimestamp() == null) {
+            return;
+        }
+        Timer.builder("user.events.end_to_end.latency")
+                .description("Delay between a user event being produced and applied to the orders")
+                .tag("event.type", String.valueOf(event.getEventType()))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.getEventTimestamp())));
+    }
 
+    private Mono<Void> dispatch(UserEvent event) {
         switch (event.getEventType()) {
             case "USER_UPDATED":
-                orderService.updateOrderCustomerData(event);
-                break;
+                return orderService.updateOrderCustomerData(event);
 
             case "USER_CREATED":
-                log.info("No action required for USER_CREATED");
-                break;
+                log.debug("No action required for USER_CREATED");
+                return Mono.empty();
 
             default:
                 log.warn("Unknown event type: {}", event.getEventType());
+                return Mono.empty();
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes {@link UserEvent}s as Avro binary with the latest schema of {@link UserEventSchemas}.
+ * Records only carry the field values; the schema version travels in a header. Null values
+ * (tombstones) are passed through.
+ */
+public class UserEventAvroSerializer implements Serializer<UserEvent> {
+
+    private final UserEventSchemas schemas = UserEventSchemas.load();
+    private final Schema schema = schemas.latest();
+    private final byte[] versionHeader = UserEventSchemas.versionHeader(schemas.latestVersion());
+    private final GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(schema);
+
+    @Override
+    public byte[] serialize(String topic, UserEvent event) {
+        return serialize(topic, null, event);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, UserEvent event) {
+        if (event == null) {
+            return null;
+        }
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("eventType", event.getEventType());
+        record.put("id", event.getId());
+        record.put("username", event.getUsername());
+        record.put("email", event.getEmail());
+        record.put("street", event.getStreet());
+        record.put("city", event.getCity());
+        record.put("state", event.getState());
+        record.put("zipCode", event.getZipCode());
+        record.put("eventTimestamp", event.getEventTimestamp());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try {
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.write(record, encoder);
+            encoder.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot encode user event " + event.getId(), e);
+        }
+        if (headers != null) {
+            headers.remove(UserEventSchemas.VERSION_HEADER);
+            headers.add(UserEventSchemas.VERSION_HEADER, versionHeader);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses a batch of user events into one event per user.
+ * Each event carries the full state of its user, so the latest event in offset order replaces
+ * the earlier ones whole: a field it leaves null was cleared, not omitted. Only the event
+ * timestamp is the earliest one instead, so the end-to-end latency covers the oldest update
+ * merged in.
+ */
+final class UserEventCoalescer {
+
+    /**
+     * A merged event and the latest record it was built from, whose headers carry the trace context.
+     */
+    record CoalescedEvent(UserEvent event, ConsumerRecord<String, UserEvent> latestRecord) {
+
+        /**
+         * Version of the merged state: the timestamp of the latest event, not the earliest one
+         * the merged event carries.
+         */
+        Long version() {
+            Long latest = latestRecord.value().getEventTimestamp();
+            return latest != null ? latest : event.getEventTimestamp();
+        }
+    }
+
+    private UserEventCoalescer() {
+    }
+
+    static Collection<CoalescedEvent> coalesce(List<ConsumerRecord<String, UserEvent>> records) {
+        Map<String, CoalescedEvent> latestByUser = new LinkedHashMap<>();
+        for (ConsumerRecord<String, UserEvent> record : records) {
+            UserEvent event = record.value();
+            if (event == null) {
+                continue;
+            }
+            String key = record.key() != null ? record.key() : String.valueOf(event.getId());
+            latestByUser.merge(key, new CoalescedEvent(event, record),
+                    (previous, next) -> new CoalescedEvent(merge(previous.event(), next.event()), next.latestRecord()));
+        }
+        return latestByUser.values();
+    }
+
+    private static UserEvent merge(UserEvent previous, UserEvent next) {
+        return next.toBuilder()
+                .eventTimestamp(previous.getEventTimestamp() != null ? previous.getEventTimestamp() : next.getEventTimestamp())
+                .build();
+    }
+}
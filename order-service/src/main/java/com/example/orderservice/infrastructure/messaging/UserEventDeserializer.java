@@ -0,0 +1,86 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads user events in both wire formats while producers migrate from JSON to Avro:
+ * records with a {@value UserEventSchemas#VERSION_HEADER} header are decoded as Avro, resolving the
+ * writer's schema version against the latest known one; the others go to the JSON deserializer,
+ * configured from the regular 'spring.json.*' consumer properties.
+ */
+public class UserEventDeserializer implements Deserializer<UserEvent> {
+
+    private final UserEventSchemas schemas = UserEventSchemas.load();
+    private final Map<Integer, GenericDatumReader<GenericRecord>> readersByWriterVersion = new ConcurrentHashMap<>();
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public UserEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public UserEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header version = headers == null ? null : headers.lastHeader(UserEventSchemas.VERSION_HEADER);
+        if (version == null) {
+            return (UserEvent) jsonDeserializer.deserialize(topic, headers, data);
+        }
+        GenericRecord record = decode(UserEventSchemas.parseVersionHeader(version.value()), data);
+        return UserEvent.builder()
+                .eventType(asString(record.get("eventType")))
+                .id((Long) record.get("id"))
+                .username(asString(record.get("username")))
+                .email(asString(record.get("email")))
+                .street(asString(record.get("street")))
+                .city(asString(record.get("city")))
+                .state(asString(record.get("state")))
+                .zipCode(asString(record.get("zipCode")))
+                .eventTimestamp((Long) record.get("eventTimestamp"))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private GenericRecord decode(int writerVersion, byte[] data) {
+        GenericDatumReader<GenericRecord> reader = readersByWriterVersion.computeIfAbsent(writerVersion, v -> {
+            Schema writerSchema = schemas.get(v);
+            return new GenericDatumReader<>(writerSchema, schemas.latest());
+        });
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, null);
+            return reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot decode user event written with schema v" + writerVersion, e);
+        }
+    }
+
+    // Avro decodes strings as Utf8
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local, file-based schema store of the Avro encoding of user events. Every version lives in
+ * {@code classpath:avro/user-event/v<N>.avsc}; the same files ship with every service exchanging
+ * user events, so no external schema registry is needed. UserEventSchemasTest fails when the
+ * copies of the two services differ.
+ *
+ * Writers always use the latest version and tag each record with it in the
+ * {@value #VERSION_HEADER} header. Readers resolve the writer's version against their own latest
+ * one, so a new version must stay backward compatible: only add fields, and give them a default.
+ */
+final class UserEventSchemas {
+
+    static final String VERSION_HEADER = "user-event-schema";
+
+    private static final String LOCATION = "avro/user-event/v%d.avsc";
+
+    private final Map<Integer, Schema> schemasByVersion;
+    private final int latestVersion;
+
+    private UserEventSchemas(Map<Integer, Schema> schemasByVersion, int latestVersion) {
+        this.schemasByVersion = schemasByVersion;
+        this.latestVersion = latestVersion;
+    }
+
+    static UserEventSchemas load() {
+        Map<Integer, Schema> schemas = new HashMap<>();
+        ClassLoader classLoader = UserEventSchemas.class.getClassLoader();
+        int version = 1;
+        while (true) {
+            try (InputStream in = classLoader.getResourceAsStream(String.format(LOCATION, version))) {
+                if (in == null) {
+                    break;
+                }
+                // A parser instance only accepts one definition of a given record name
+                schemas.put(version, new Schema.Parser().parse(in));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read user event schema v" + version, e);
+            }
+            version++;
+        }
+        if (schemas.isEmpty()) {
+            throw new IllegalStateException("No user event schema found under " + String.format(LOCATION, 1));
+        }
+        return new UserEventSchemas(Map.copyOf(schemas), version - 1);
+    }
+
+    int latestVersion() {
+        return latestVersion;
+    }
+
+    Schema latest() {
+        return schemasByVersion.get(latestVersion);
+    }
+
+    Schema get(int version) {
+        Schema schema = schemasByVersion.get(version);
+        if (schema == null) {
+            throw new SerializationException("Unknown user event schema version " + version);
+        }
+        return schema;
+    }
+
+    static byte[] versionHeader(int version) {
+        return Integer.toString(version).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int parseVersionHeader(byte[] value) {
+        try {
+            return Integer.parseInt(new String(value, StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            throw new SerializationException("Invalid user event schema header", e);
+        }
+    }
+}
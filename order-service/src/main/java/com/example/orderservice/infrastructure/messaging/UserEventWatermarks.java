@@ -0,0 +1,41 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Newest user event version (the producer's event timestamp) applied per user, kept in the
+ * 'user_event_watermarks' collection so every consumer instance and the retry listener share it.
+ *
+ * A user event carries the full state of the user, so one older than the watermark, e.g. coming
+ * back from a retry topic or a dead-letter replay after a newer event went through, is stale.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEventWatermarks {
+
+    static final String COLLECTION = "user_event_watermarks";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Moves the user's watermark to the given version unless it is already past it, in a single
+     * conditional upsert: a newer watermark does not match the filter, so the upsert attempts an
+     * insert of the existing _id and fails with a duplicate key.
+     *
+     * @return false if a newer event of the user was applied already. An event with the same
+     * version passes, so an event re-attempted after a failed apply is not taken for stale.
+     */
+    public Mono<Boolean> advance(Long userId, long version) {
+        Query notNewer = Query.query(Criteria.where("_id").is(userId).and("version").lte(version));
+        return mongoTemplate.upsert(notNewer, Update.update("version", version), COLLECTION)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.domain.projection.UserProjectionStore;
+import com.example.orderservice.core.events.UserEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps the {@link UserProjectionStore} in sync with the log-compacted 'user-events' topic.
+ *
+ * Unlike the order listeners, this consumer is not part of a consumer group: it assigns itself
+ * every partition, so each instance sees every user. On startup it reads the compacted log from
+ * the beginning (which holds at most a few records per user) and then keeps tailing it.
+ * Startup waits for the bootstrap to complete, bounded by a timeout, before the context finishes
+ * starting, so the first requests already see a populated projection.
+ *
+ * If the consumer fails (broker or client errors), it is closed and a new one resumes from the
+ * last applied offsets after 'restart-backoff', doubled on every consecutive failure up to
+ * 'restart-max-backoff'.
+ */
+@Component
+@Slf4j
+public class UserProjectionLoader implements SmartLifecycle {
+
+    private final ConsumerFactory<String, UserEvent> consumerFactory;
+    private final UserProjectionStore store;
+    private final CountDownLatch bootstrapped = new CountDownLatch(1);
+    private final Counter restartCounter;
+    // Next offset to apply per partition, and consecutive failures; only touched by the worker thread
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+    private int failures;
+
+    @Value("${application.kafka.user-events.topic:user-events}")
+    private String topic;
+
+    @Value("${application.users.projection.bootstrap-timeout:30s}")
+    private Duration bootstrapTimeout;
+
+    @Value("${application.users.projection.restart-backoff:1s}")
+    private Duration restartBackoff;
+
+    @Value("${application.users.projection.restart-max-backoff:30s}")
+    private Duration restartMaxBackoff;
+
+    private volatile boolean running;
+    private volatile Consumer<String, UserEvent> consumer;
+    private Thread worker;
+
+    private volatile long recordsBehind;
+    private volatile long lastRecordTimestamp;
+    private volatile double bootstrapSeconds = Double.NaN;
+
+    public UserProjectionLoader(ConsumerFactory<String, UserEvent> consumerFactory, UserProjectionStore store,
+                                MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.store = store;
+        Gauge.builder("users.projection.size", store, UserProjectionStore::size)
+                .description("Users held in the local projection")
+                .register(meterRegistry);
+        Gauge.builder("users.projection.lag.records", this, loader -> loader.recordsBehind)
+                .description("Records of the user-events topic not yet applied to the projection")
+                .register(meterRegistry);
+        Gauge.builder("users.projection.lag.seconds", this, UserProjectionLoader::secondsSinceLastRecord)
+                .description("Age of the last user event applied to the projection")
+                .register(meterRegistry);
+        Gauge.builder("users.projection.bootstrap.seconds", this, loader -> loader.bootstrapSeconds)
+                .description("Time taken to load the compacted log on startup")
+                .register(meterRegistry);
+        this.restartCounter = Counter.builder("users.projection.restarts")
+                .description("Times the projection consumer failed and was restarted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "user-projection-loader");
+        worker.setDaemon(true);
+        worker.start();
+        try {
+            if (!bootstrapped.await(bootstrapTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("User projection bootstrap did not finish within {}; continuing in the background", bootstrapTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Consumer<String, UserEvent> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                consume();
+            } catch (WakeupException e) {
+                if (running) {
+                    backOff(e);
+                }
+            } catch (RuntimeException e) {
+                backOff(e);
+            }
+        }
+    }
+
+    private void backOff(RuntimeException e) {
+        long backoff = Math.min(restartMaxBackoff.toMillis(), restartBackoff.toMillis() << Math.min(failures, 20));
+        failures++;
+        restartCounter.increment();
+        log.error("User projection consumer failed, restarting in {} ms", backoff, e);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        while (running && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(deadline - System.nanoTime());
+        }
+    }
+
+    private void consume() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5000");
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, "1");
+
+        try (Consumer<String, UserEvent> kafkaConsumer = consumerFactory.createConsumer(null, "user-projection", null, overrides)) {
+            consumer = kafkaConsumer;
+            List<TopicPartition> partitions = awaitPartitions(kafkaConsumer);
+            kafkaConsumer.assign(partitions);
+            for (TopicPartition partition : partitions) {
+                Long position = positions.get(partition);
+                if (position != null) {
+                    kafkaConsumer.seek(partition, position);
+                } else {
+                    kafkaConsumer.seekToBeginning(List.of(partition));
+                }
+            }
+            Map<TopicPartition, Long> bootstrapEndOffsets = kafkaConsumer.endOffsets(partitions);
+            long start = System.nanoTime();
+
+            while (running) {
+                poll(kafkaConsumer);
+                failures = 0;
+                recordsBehind = partitions.stream()
+                        .mapToLong(partition -> kafkaConsumer.currentLag(partition).orElse(0))
+                        .sum();
+                if (bootstrapped.getCount() > 0 && caughtUp(kafkaConsumer, bootstrapEndOffsets)) {
+                    bootstrapSeconds = (System.nanoTime() - start) / 1e9;
+                    log.info("User projection bootstrapped with {} users in {} s", store.size(), bootstrapSeconds);
+                    bootstrapped.countDown();
+                }
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private void poll(Consumer<String, UserEvent> kafkaConsumer) {
+        ConsumerRecords<String, UserEvent> records;
+        try {
+            records = kafkaConsumer.poll(Duration.ofMillis(500));
+        } catch (RecordDeserializationException e) {
+            log.warn("Skipping undeserializable user event at {}@{}", e.topicPartition(), e.offset());
+            kafkaConsumer.seek(e.topicPartition(), e.offset() + 1);
+            positions.put(e.topicPartition(), e.offset() + 1);
+            return;
+        }
+        for (ConsumerRecord<String, UserEvent> record : records) {
+            if (record.value() == null
+                    && record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                // Not a tombstone: the ErrorHandlingDeserializer replaced an undeserializable value with null
+                log.warn("Skipping undeserializable user event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            } else {
+                apply(record);
+            }
+            lastRecordTimestamp = record.timestamp();
+            positions.put(new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+        }
+    }
+
+    /**
+     * A record that cannot be applied is skipped like an undeserializable one: restarting would
+     * fail on it again.
+     */
+    private void apply(ConsumerRecord<String, UserEvent> record) {
+        try {
+            if (record.value() != null) {
+                store.apply(record.value());
+            } else if (record.key() != null) {
+                store.remove(Long.valueOf(record.key()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Skipping user event at {}-{}@{} that cannot be applied: {}",
+                    record.topic(), record.partition(), record.offset(), e.toString());
+        }
+    }
+
+    private List<TopicPartition> awaitPartitions(Consumer<String, UserEvent> kafkaConsumer) {
+        while (running) {
+            List<PartitionInfo> infos = kafkaConsumer.partitionsFor(topic);
+            if (infos != null && !infos.isEmpty()) {
+                return infos.stream().map(info -> new TopicPartition(topic, info.partition())).toList();
+            }
+            log.info("Topic '{}' not available yet, retrying", topic);
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return List.of();
+    }
+
+    private boolean caughtUp(Consumer<String, UserEvent> kafkaConsumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> kafkaConsumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private double secondsSinceLastRecord() {
+        return lastRecordTimestamp == 0 ? 0 : (System.currentTimeMillis() - lastRecordTimestamp) / 1000.0;
+    }
+}
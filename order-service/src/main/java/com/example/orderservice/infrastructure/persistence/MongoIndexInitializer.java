@@ -0,0 +1,52 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ensures the indexes declared on the documents (@Indexed, @CompoundIndex...) exist before
+ * the application starts serving traffic. Automatic index creation is disabled by default in
+ * Spring Data MongoDB, so it is done explicitly here; ensureIndex is a no-op for existing indexes.
+ * The archive collection, which is not mapped by annotations, is created here as well.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(
+            Order.class
+    );
+
+    private final OrderShards orderShards;
+    private final MongoMappingContext mappingContext;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        // Orders live on every shard, so each one gets the indexes
+        Flux.range(0, orderShards.all().size())
+                .concatMap(shard -> Flux.fromIterable(INDEXED_DOCUMENTS)
+                        .concatMap(type -> Flux.fromIterable(resolver.resolveIndexFor(type))
+                                .concatMap(index -> orderShards.shard(shard).indexOps(type).ensureIndex(index))
+                                .doOnNext(name -> log.info("Ensured index '{}' on {} (shard {})", name, type.getSimpleName(), shard))))
+                .then(orderArchiveRepository.ensureCollection())
+                .doOnNext(name -> log.info("Ensured index '{}' on {}", name, OrderArchiveRepository.COLLECTION))
+                .then()
+                .block(Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.StoredOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves orders older than the archive cutoff from the hot 'orders' collection to the archive.
+ * Each run copies at most {@code max-batches} batches of {@code batch-size} orders, pausing
+ * between batches so archival never competes with regular traffic for long.
+ */
+@Component
+@Slf4j
+public class OrderArchivalJob {
+
+    private static final int DELETE_CONCURRENCY = 16;
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final Counter archivedOrders;
+    private final AtomicLong hotSize = new AtomicLong();
+    private final AtomicLong archiveSize = new AtomicLong();
+
+    @Value("${application.orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.orders.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${application.orders.archive.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${application.orders.archive.re-archive-attempts:3}")
+    private int reArchiveAttempts;
+
+    public OrderArchivalJob(OrderRepository orderRepository, OrderArchiveRepository orderArchiveRepository,
+                            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.archivedOrders = Counter.builder("orders.archive.moved")
+                .description("Orders moved from the hot collection to the archive")
+                .register(meterRegistry);
+        Gauge.builder("orders.tier.size", hotSize, AtomicLong::get)
+                .description("Estimated number of orders per storage tier")
+                .tag("tier", "hot")
+                .register(meterRegistry);
+        Gauge.builder("orders.tier.size", archiveSize, AtomicLong::get)
+                .description("Estimated number of orders per storage tier")
+                .tag("tier", "archive")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        refreshTierSizes().subscribe();
+    }
+
+    @Scheduled(cron = "${application.orders.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = orderArchiveRepository.cutoff();
+        long start = System.nanoTime();
+        Flux.range(0, maxBatches)
+                .concatMap(batch -> batch == 0
+                        ? archiveBatch(cutoff)
+                        : archiveBatch(cutoff).delaySubscription(batchPause))
+                .takeUntil(batch -> batch.read() < batchSize)
+                .map(BatchResult::moved)
+                .reduce(0L, Long::sum)
+                .doOnNext(total -> log.info("Archived {} orders placed before {} in {} ms",
+                        total, cutoff, (System.nanoTime() - start) / 1_000_000))
+                .doOnError(e -> log.error("Order archival failed", e))
+                .onErrorComplete()
+                .then(refreshTierSizes())
+                .block();
+    }
+
+    /**
+     * The run stops after the first batch that read fewer orders than the batch size: the number
+     * moved can be lower even when more orders are due, as changed and deleted orders are not moved.
+     */
+    private record BatchResult(int read, long moved) {
+    }
+
+    /**
+     * Outcome of removing one archived order from the hot tier: removed, changed since it was
+     * read (with its current state), or deleted by someone else in the meantime.
+     */
+    private record Removal(boolean moved, StoredOrder changed) {
+
+        static final Removal MOVED = new Removal(true, null);
+        static final Removal GONE = new Removal(false, null);
+    }
+
+    private Mono<BatchResult> archiveBatch(LocalDateTime cutoff) {
+        return orderRepository.findByOrderDateBefore(cutoff, batchSize)
+                .collectList()
+                .flatMap(batch -> (batch.isEmpty() ? Mono.just(0L) : moveToArchive(batch, reArchiveAttempts))
+                        .doOnNext(archivedOrders::increment)
+                        .map(moved -> new BatchResult(batch.size(), moved)));
+    }
+
+    /**
+     * Copies the orders into the archive and only then removes them from the hot tier, so an
+     * order is never missing from both. Readers de-duplicate the brief overlap.
+     *
+     * A hot order is only removed if it was not changed since it was read: an update landing
+     * between the copy and the delete would otherwise be lost. Changed orders are read and
+     * archived again (at most 're-archive-attempts' times, then left to the next run), and the
+     * archive copy of an order deleted in the meantime is removed.
+     *
+     * @return A Mono emitting the number of orders removed from the hot tier by this job.
+     */
+    private Mono<Long> moveToArchive(List<StoredOrder> batch, int attemptsLeft) {
+        return orderArchiveRepository.saveAll(batch.stream().map(StoredOrder::order).toList())
+                .thenMany(Flux.fromIterable(batch)
+                        .flatMap(stored -> orderRepository.deleteIfUnchanged(stored)
+                                .flatMap(deleted -> deleted
+                                        ? Mono.just(Removal.MOVED)
+                                        : changedOrDeleted(stored.order().getId())), DELETE_CONCURRENCY))
+                .collectList()
+                .flatMap(outcomes -> {
+                    long moved = outcomes.stream().filter(Removal::moved).count();
+                    List<StoredOrder> changed = outcomes.stream()
+                            .map(Removal::changed)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    if (changed.isEmpty()) {
+                        return Mono.just(moved);
+                    }
+                    if (attemptsLeft == 0) {
+                        log.info("{} orders changed while being archived, leaving them to the next run", changed.size());
+                        return Mono.just(moved);
+                    }
+                    return moveToArchive(changed, attemptsLeft - 1).map(movedAgain -> moved + movedAgain);
+                });
+    }
+
+    /**
+     * Current state of an order that was not deleted because its document changed, or
+     * {@link Removal#GONE} (after removing its archive copy) if it was deleted in the meantime.
+     */
+    private Mono<Removal> changedOrDeleted(String id) {
+        return orderRepository.findStoredById(id)
+                .map(changed -> new Removal(false, changed))
+                .switchIfEmpty(Mono.defer(() -> orderArchiveRepository.deleteById(id)
+                        .then(Mono.just(Removal.GONE))));
+    }
+
+    private Mono<Void> refreshTierSizes() {
+        return Mono.zip(orderRepository.estimatedCount(), orderArchiveRepository.estimatedCount())
+                .doOnNext(sizes -> {
+                    hotSize.set(sizes.getT1());
+                    archiveSize.set(sizes.getT2());
+                })
+                .doOnError(e -> log.warn("Could not refresh order tier sizes", e))
+                .onErrorComplete()
+                .then();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Actuator operations to inspect the order shards and, after the shard count was changed, move
+ * the orders of the reassigned slots to their new shard while the service keeps running:
+ * {@code GET /actuator/orderShards}, {@code POST /actuator/orderShards {"maxUsers": 1000}}.
+ * A request stops moving users after 'request-timeout' and reports 'partial'; running it again
+ * picks up where it stopped. Both operations require an admin token (see SecurityConfig).
+ *
+ * Users are found per shard with a $group on the indexed 'username'; the orders of a user whose
+ * slot now belongs to another shard are copied there in batches and only then deleted from the
+ * source, so an order is never missing from both. Copies never overwrite: an order already
+ * rewritten on its new shard (reads and writes follow the new owner during the move) keeps the
+ * newer version. A delete of an order racing with its copy can leave the copy behind.
+ */
+@Component
+@Endpoint(id = "orderShards")
+@Slf4j
+public class OrderShardRebalancer {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final OrderShards orderShards;
+    private final Counter movedCounter;
+    private final AtomicBoolean rebalancing = new AtomicBoolean();
+
+    @Value("${application.orders.sharding.rebalance.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.orders.sharding.rebalance.batch-pause:100ms}")
+    private Duration batchPause;
+
+    @Value("${application.orders.sharding.rebalance.request-timeout:10m}")
+    private Duration requestTimeout;
+
+    public OrderShardRebalancer(OrderShards orderShards, MeterRegistry meterRegistry) {
+        this.orderShards = orderShards;
+        this.movedCounter = Counter.builder("orders.shards.moved")
+                .description("Orders moved to another shard by a rebalance")
+                .register(meterRegistry);
+    }
+
+    @ReadOperation
+    public Map<String, Object> topology() {
+        List<ReactiveMongoTemplate> shards = orderShards.all();
+        Map<String, Object> topology = new LinkedHashMap<>();
+        topology.put("count", orderShards.count());
+        topology.put("previousCount", orderShards.previousCount());
+        topology.put("movedSlots", orderShards.movedSlots().size());
+        topology.put("estimatedOrders", Flux.fromIterable(shards)
+                .concatMap(shard -> shard.estimatedCount(Order.class))
+                .collectList()
+                .block(Duration.ofSeconds(30)));
+        return topology;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebalance(@Nullable Integer maxUsers) {
+        if (!orderShards.isRebalancing()) {
+            return Map.of("status", "nothing-to-move");
+        }
+        if (!rebalancing.compareAndSet(false, true)) {
+            return Map.of("status", "already-running");
+        }
+        try {
+            long start = System.nanoTime();
+            AtomicLong users = new AtomicLong();
+            AtomicLong orders = new AtomicLong();
+            // Cancelling between a batch's copy and its delete is safe: the next run skips the copies
+            boolean finished = Flux.range(0, orderShards.all().size())
+                    .concatMap(this::misplacedUsers)
+                    .take(maxUsers == null ? Long.MAX_VALUE : maxUsers)
+                    .concatMap(misplaced -> moveUser(misplaced.source(), misplaced.username()))
+                    .doOnNext(moved -> {
+                        users.incrementAndGet();
+                        orders.addAndGet(moved);
+                    })
+                    .then(Mono.just(true))
+                    .timeout(requestTimeout, Mono.just(false))
+                    .block();
+            log.info("Rebalanced {} orders of {} users across {} shards in {} ms{}", orders.get(), users.get(),
+                    orderShards.count(), (System.nanoTime() - start) / 1_000_000, finished ? "" : " (timed out)");
+            return Map.of("status", finished ? "done" : "partial", "users", users.get(), "orders", orders.get());
+        } finally {
+            rebalancing.set(false);
+        }
+    }
+
+    /**
+     * Users with orders on the given shard whose slot is now owned by another one.
+     */
+    private Flux<Misplaced> misplacedUsers(int source) {
+        ReactiveMongoTemplate shard = orderShards.shard(source);
+        Aggregation usernames = Aggregation.newAggregation(Aggregation.group("username"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(1000).build());
+        return shard.aggregate(usernames, shard.getCollectionName(Order.class), Document.class)
+                .map(user -> user.getString("_id"))
+                .filter(username -> username != null && orderShards.ownerOf(username) != source)
+                .map(username -> new Misplaced(source, username));
+    }
+
+    private Mono<Long> moveUser(int source, String username) {
+        ReactiveMongoTemplate from = orderShards.shard(source);
+        ReactiveMongoTemplate to = orderShards.forUsername(username);
+        return moveBatch(from, to, username)
+                .expand(moved -> moved < batchSize ? Mono.empty() : moveBatch(from, to, username).delaySubscription(batchPause))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> moveBatch(ReactiveMongoTemplate from, ReactiveMongoTemplate to, String username) {
+        return from.find(Query.query(Criteria.where("username").is(username)).limit(batchSize), Order.class)
+                .collectList()
+                .flatMap(orders -> orders.isEmpty()
+                        ? Mono.just(0L)
+                        : to.bulkOps(BulkMode.UNORDERED, Order.class)
+                                .insert(orders)
+                                .execute()
+                                .then()
+                                .onErrorResume(this::onlyDuplicates, e -> Mono.empty())
+                                .then(from.remove(Query.query(Criteria.where("_id").in(orders.stream().map(Order::getId).toList())), Order.class))
+                                .then(Mono.fromSupplier(() -> {
+                                    movedCounter.increment(orders.size());
+                                    return (long) orders.size();
+                                })));
+    }
+
+    /**
+     * Duplicates are orders already present on the target shard, in their current version.
+     */
+    private boolean onlyDuplicates(Throwable e) {
+        List<BulkWriteError> errors;
+        if (e instanceof BulkOperationException bulkException) {
+            errors = bulkException.getErrors();
+        } else if (e instanceof MongoBulkWriteException writeException) {
+            errors = writeException.getWriteErrors();
+        } else {
+            return false;
+        }
+        return errors.stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+    }
+
+    private record Misplaced(int source, String username) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.document.Product;
+import com.example.orderservice.core.domain.projection.ProductPriceCatalog;
+import com.mongodb.MongoCommandException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link ProductPriceCatalog} in sync with the 'products' collection.
+ *
+ * On startup the whole collection is loaded, then a change stream opened at the cluster time
+ * read before the load applies every later insert, update and delete, so a change made while
+ * loading is not lost. A failed change stream is reopened from its last resume token; when that
+ * is no longer possible (history rolled off the oplog, collection dropped) the catalog is loaded
+ * again from scratch. Startup waits for the first load, bounded by a timeout, like the user
+ * projection.
+ */
+@Component
+@Slf4j
+public class ProductCatalogLoader implements SmartLifecycle {
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProductPriceCatalog catalog;
+    private final Counter skippedCounter;
+    private final CountDownLatch bootstrapped = new CountDownLatch(1);
+
+    @Value("${application.orders.pricing.mode:off}")
+    private String pricingMode;
+
+    @Value("${application.orders.pricing.catalog.bootstrap-timeout:30s}")
+    private Duration bootstrapTimeout;
+
+    private volatile boolean running;
+    private volatile BsonValue resumeToken;
+    private volatile double bootstrapSeconds = Double.NaN;
+    private Disposable subscription;
+
+    public ProductCatalogLoader(ReactiveMongoTemplate mongoTemplate, ProductPriceCatalog catalog, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.catalog = catalog;
+        this.skippedCounter = Counter.builder("orders.pricing.catalog.skipped")
+                .description("Products left out of the price catalog because of a missing or invalid price")
+                .register(meterRegistry);
+        Gauge.builder("orders.pricing.catalog.size", catalog, ProductPriceCatalog::size)
+                .description("Products held in the price catalog")
+                .register(meterRegistry);
+        Gauge.builder("orders.pricing.catalog.memory", catalog, ProductPriceCatalog::offHeapBytes)
+                .description("Direct memory used by the price catalog")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("orders.pricing.catalog.bootstrap.seconds", this, loader -> loader.bootstrapSeconds)
+                .description("Time taken to load the price catalog on startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if ("off".equalsIgnoreCase(pricingMode)) {
+            return;
+        }
+        subscription = sync()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Product price catalog sync failed, reloading: {}", signal.failure().getMessage())))
+                .subscribe(this::apply);
+        try {
+            if (!bootstrapped.await(bootstrapTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Product price catalog was not loaded within {}; continuing in the background", bootstrapTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A full load followed by the changes made since it started.
+     */
+    private Flux<ChangeStreamEvent<Product>> sync() {
+        return Flux.defer(() -> {
+            resumeToken = null;
+            return clusterTime().flatMapMany(startAt -> load().thenMany(changes(startAt)));
+        });
+    }
+
+    private Mono<BsonTimestamp> clusterTime() {
+        return mongoTemplate.executeCommand(new Document("hello", 1))
+                .mapNotNull(reply -> reply.get("operationTime", BsonTimestamp.class));
+    }
+
+    private Mono<Void> load() {
+        long start = System.nanoTime();
+        Query query = new Query().cursorBatchSize(5_000);
+        query.fields().include("price");
+        return catalog.reload(mongoTemplate.find(query, Product.class).filter(this::hasValidPrice))
+                .doOnNext(loaded -> {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    if (bootstrapped.getCount() > 0) {
+                        bootstrapSeconds = seconds;
+                    }
+                    log.info("Product price catalog loaded with {} products in {} s ({} bytes off-heap)",
+                            loaded, seconds, catalog.offHeapBytes());
+                    bootstrapped.countDown();
+                })
+                .then();
+    }
+
+    /**
+     * Changes after 'startAt', resumed from the last seen change when the stream fails. The
+     * stream only ends when the collection is dropped or renamed, which calls for a full reload.
+     */
+    private Flux<ChangeStreamEvent<Product>> changes(BsonTimestamp startAt) {
+        return Flux.defer(() -> {
+                    ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                            .filter(Aggregation.newAggregation(Aggregation.match(
+                                    Criteria.where("operationType").in("insert", "update", "replace", "delete"))))
+                            .returnFullDocumentOnUpdate();
+                    BsonValue token = resumeToken;
+                    if (token != null) {
+                        options.resumeAfter(token);
+                    } else {
+                        options.resumeAt(startAt);
+                    }
+                    return mongoTemplate.changeStream(mongoTemplate.getCollectionName(Product.class), options.build(), Product.class);
+                })
+                .doOnNext(change -> resumeToken = change.getResumeToken())
+                .concatWith(Mono.error(StreamInvalidatedException::new))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .filter(failure -> !isHistoryLost(failure)
+                                && !(failure instanceof StreamInvalidatedException))
+                        .doBeforeRetry(signal -> log.warn("Product change stream failed, resuming: {}", signal.failure().getMessage())));
+    }
+
+    private void apply(ChangeStreamEvent<Product> change) {
+        if (change.getOperationType() == null) {
+            return;
+        }
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                Product product = change.getBody();
+                if (product == null) {
+                    // Deleted before the lookup of the full document; the delete follows
+                    return;
+                }
+                if (hasValidPrice(product)) {
+                    catalog.put(product.getId(), product.getPrice());
+                } else {
+                    // Better to reject orders for it than to keep charging the previous price
+                    catalog.remove(product.getId());
+                }
+            }
+            case DELETE -> {
+                String id = documentId(change);
+                if (id != null) {
+                    catalog.remove(id);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private boolean hasValidPrice(Product product) {
+        if (product.getId() != null && ProductPriceCatalog.isValidPrice(product.getPrice())) {
+            return true;
+        }
+        skippedCounter.increment();
+        log.warn("Product '{}' has no valid price ({}); orders for it are rejected", product.getId(), product.getPrice());
+        return false;
+    }
+
+    private String documentId(ChangeStreamEvent<Product> change) {
+        if (change.getRaw() == null || change.getRaw().getDocumentKey() == null) {
+            return null;
+        }
+        BsonDocument key = change.getRaw().getDocumentKey();
+        BsonValue id = key.get("_id");
+        if (id == null) {
+            return null;
+        }
+        // Spring Data stores ids that look like ObjectIds as ObjectIds
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.isString() ? id.asString().getValue()
+                : id.toString();
+    }
+
+    private boolean isHistoryLost(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException commandException
+                    && commandException.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class StreamInvalidatedException extends RuntimeException {
+
+        private StreamInvalidatedException() {
+            super("Product change stream was invalidated");
+        }
+    }
+}
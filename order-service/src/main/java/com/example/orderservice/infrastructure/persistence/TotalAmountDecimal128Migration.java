@@ -0,0 +1,115 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One-off migration converting 'orders.totalAmount' from the string representation Spring Data
+ * used to write into Decimal128, followed by an initial build of the order summaries.
+ *
+ * It runs in the background once the application is ready, so startup never waits for it; reads
+ * still convert the remaining string amounts in the meantime. Orders are converted in batches
+ * walking the _id index, each batch a pipeline-style updateMany ($toDecimal), with the progress
+ * logged after every batch. Completion is recorded in the 'schema_migrations' collection so later
+ * startups skip the (unindexed) $type scan.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TotalAmountDecimal128Migration {
+
+    private static final String MIGRATIONS_COLLECTION = "schema_migrations";
+    private static final String MIGRATION_ID = "orders-total-amount-decimal128";
+    private static final int BSON_STRING_TYPE = 2;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    @Value("${application.orders.migrations.total-amount-decimal128.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.orders.migrations.total-amount-decimal128.batch-size:1000}")
+    private int batchSize;
+
+    private record Progress(Object lastId, long converted, long total, boolean done) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        mongoTemplate.exists(Query.query(Criteria.where("_id").is(MIGRATION_ID)), MIGRATIONS_COLLECTION)
+                .flatMap(applied -> applied ? Mono.<Void>empty() : migrate().then(recordApplied()))
+                .subscribe(null, e -> log.error("totalAmount Decimal128 migration failed, it is retried on the next startup", e));
+    }
+
+    private Mono<Void> migrate() {
+        long start = System.nanoTime();
+        return mongoTemplate.count(pending(null), Order.class)
+                .doOnNext(total -> log.info("Converting totalAmount to Decimal128 on {} orders in the background", total))
+                .flatMap(total -> Mono.just(new Progress(null, 0, total, total == 0))
+                        .expand(progress -> progress.done() ? Mono.empty() : convertBatch(progress))
+                        .last())
+                .doOnNext(progress -> log.info("Converted totalAmount to Decimal128 on {} orders in {} s",
+                        progress.converted(), (System.nanoTime() - start) / 1_000_000_000))
+                .then(orderSummaryRepository.rebuildAll())
+                .doOnSuccess(v -> log.info("Order summaries rebuilt"));
+    }
+
+    private Mono<Progress> convertBatch(Progress progress) {
+        Query batch = pending(progress.lastId()).with(Sort.by("_id")).limit(batchSize);
+        batch.fields().include("_id");
+        return mongoTemplate.find(batch, Document.class, mongoTemplate.getCollectionName(Order.class))
+                .map(order -> order.get("_id"))
+                .collectList()
+                .flatMap(ids -> ids.isEmpty()
+                        ? Mono.just(new Progress(progress.lastId(), progress.converted(), progress.total(), true))
+                        : convert(ids).map(converted -> {
+                            long total = progress.converted() + converted;
+                            log.info("totalAmount Decimal128 migration: {} of {} orders converted", total, progress.total());
+                            return new Progress(ids.get(ids.size() - 1), total, progress.total(), false);
+                        }));
+    }
+
+    private Mono<Long> convert(List<Object> ids) {
+        return mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("_id").in(ids).and("totalAmount").type(BSON_STRING_TYPE)),
+                        AggregationUpdate.update().set("totalAmount").toValue(ConvertOperators.valueOf("totalAmount").convertToDecimal()),
+                        mongoTemplate.getCollectionName(Order.class))
+                .map(result -> result.getModifiedCount());
+    }
+
+    /**
+     * Orders still holding a string amount; after the first batch only those past the last
+     * converted _id, so each batch continues on the _id index instead of rescanning from the start.
+     */
+    private Query pending(Object afterId) {
+        Criteria criteria = Criteria.where("totalAmount").type(BSON_STRING_TYPE);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(afterId);
+        }
+        return Query.query(criteria);
+    }
+
+    private Mono<Void> recordApplied() {
+        return mongoTemplate.insert(new Document("_id", MIGRATION_ID).append("appliedAt", Instant.now()), MIGRATIONS_COLLECTION).then();
+    }
+}
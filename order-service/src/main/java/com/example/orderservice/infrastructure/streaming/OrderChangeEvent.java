@@ -0,0 +1,25 @@
+package com.example.orderservice.infrastructure.streaming;
+
+import com.example.orderservice.core.domain.document.Order;
+
+/**
+ * A change of one order, as fanned out by {@link OrderChangeFeed}.
+ *
+ * @param id       Resume token of the change, usable as SSE event id.
+ * @param type     'insert', 'update', 'delete', or {@link #RESET} when the subscriber must reload.
+ * @param orderId  Id of the changed order.
+ * @param username Owner of the order.
+ * @param order    Current order state; null for deletes and resets.
+ */
+public record OrderChangeEvent(String id, String type, String orderId, String username, Order order) {
+
+    /**
+     * Sent first to a subscriber that cannot be resumed from its last event id (or has none):
+     * it must load a fresh snapshot, then apply the changes that follow.
+     */
+    public static final String RESET = "reset";
+
+    static OrderChangeEvent reset(String latestId, String username) {
+        return new OrderChangeEvent(latestId, RESET, null, username, null);
+    }
+}
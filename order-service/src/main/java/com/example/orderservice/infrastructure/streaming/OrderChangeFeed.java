@@ -0,0 +1,376 @@
+package com.example.orderservice.infrastructure.streaming;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fans out the changes of the 'orders' collection to in-process subscribers.
+ *
+ * One change-stream cursor per order shard is shared by all subscribers: the cursors are opened
+ * when the first subscriber arrives and closed when the last one leaves. Every subscriber gets
+ * its own bounded buffer; when a slow subscriber's buffer is full, the configured policy either
+ * drops the change or closes the subscription (the client then reconnects and resumes).
+ *
+ * The most recent changes are kept in a bounded replay log, so a subscriber reconnecting with
+ * the id of the last event it saw receives what it missed instead of reloading everything.
+ *
+ * Reopened cursors resume after the last change seen, unless it is older than 'max-resume-age'
+ * (or MongoDB no longer has the history): the oplog may have moved past it. The cursor then
+ * starts at the current time, and since the changes in between are lost, the replay log is
+ * cleared and every subscriber is sent a {@link OrderChangeEvent#RESET}.
+ */
+@Component
+@Slf4j
+public class OrderChangeFeed {
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final OrderShards orderShards;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final Timer fanOutTimer;
+    private final Timer eventLagTimer;
+    private final Counter droppedCounter;
+    private final Counter closedCounter;
+    private final Counter replayGapCounter;
+
+    private final Object lock = new Object();
+    // All guarded by 'lock'
+    private final Map<String, Set<FeedSubscriber>> subscribersByUsername = new HashMap<>();
+    private final ArrayDeque<OrderChangeEvent> replayLog = new ArrayDeque<>();
+    private int subscriberCount;
+    private Disposable cursor;
+
+    // Resume token of each shard's change stream, and the cluster time of its change
+    private final AtomicReferenceArray<BsonValue> lastResumeTokens;
+    private final AtomicReferenceArray<Instant> lastResumeTimes;
+
+    @Value("${application.orders.stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    @Value("${application.orders.stream.overflow-policy:drop}")
+    private String overflowPolicy;
+
+    @Value("${application.orders.stream.replay-size:10000}")
+    private int replaySize;
+
+    @Value("${application.orders.stream.max-resume-age:1h}")
+    private Duration maxResumeAge;
+
+    public OrderChangeFeed(OrderShards orderShards, OrderArchiveRepository orderArchiveRepository,
+                           MeterRegistry meterRegistry) {
+        this.orderShards = orderShards;
+        this.lastResumeTokens = new AtomicReferenceArray<>(orderShards.all().size());
+        this.lastResumeTimes = new AtomicReferenceArray<>(orderShards.all().size());
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.fanOutTimer = Timer.builder("orders.stream.fanout")
+                .description("Time to dispatch one change to its subscribers")
+                .register(meterRegistry);
+        this.eventLagTimer = Timer.builder("orders.stream.event.lag")
+                .description("Delay between a change being committed and being dispatched")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("orders.stream.dropped")
+                .description("Changes dropped because a subscriber buffer was full")
+                .register(meterRegistry);
+        this.closedCounter = Counter.builder("orders.stream.closed")
+                .description("Subscriptions closed because their buffer was full")
+                .register(meterRegistry);
+        this.replayGapCounter = Counter.builder("orders.stream.replay.gaps")
+                .description("Change stream reopens that could not resume from the last change seen")
+                .register(meterRegistry);
+        Gauge.builder("orders.stream.subscribers", this, feed -> feed.subscriberCount)
+                .description("Active order change subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deletes can only be routed to their owner with the pre-image of the document,
+     * which MongoDB records only once enabled on the collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enablePreImages() {
+        Flux.fromIterable(orderShards.all())
+                .flatMap(shard -> shard.executeCommand(new Document("collMod", shard.getCollectionName(Order.class))
+                                .append("changeStreamPreAndPostImages", new Document("enabled", true)))
+                        .doOnError(e -> log.warn("Could not enable change stream pre-images on orders: {}", e.getMessage()))
+                        .onErrorComplete())
+                .subscribe();
+    }
+
+    /**
+     * Subscribes to the changes of one user's orders.
+     *
+     * @param username    The owner whose changes are delivered.
+     * @param lastEventId The id of the last event received before a reconnect, or null.
+     * @return A Flux of changes; it starts with a {@link OrderChangeEvent#RESET} event unless the
+     *         subscription could be resumed from 'lastEventId'.
+     */
+    public Flux<OrderChangeEvent> subscribe(String username, String lastEventId) {
+        return Flux.defer(() -> {
+            FeedSubscriber subscriber = new FeedSubscriber(username);
+            synchronized (lock) {
+                List<OrderChangeEvent> missed = lastEventId == null ? null : replayAfter(lastEventId, username);
+                if (missed == null) {
+                    OrderChangeEvent latest = replayLog.peekLast();
+                    subscriber.offer(OrderChangeEvent.reset(latest == null ? null : latest.id(), username));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+                subscribersByUsername.computeIfAbsent(username, key -> new HashSet<>()).add(subscriber);
+                subscriberCount++;
+                openCursorIfNeeded();
+            }
+            return subscriber.sink.asFlux().doFinally(signal -> unsubscribe(subscriber));
+        });
+    }
+
+    private void unsubscribe(FeedSubscriber subscriber) {
+        synchronized (lock) {
+            Set<FeedSubscriber> subscribers = subscribersByUsername.get(subscriber.username);
+            if (subscribers == null || !subscribers.remove(subscriber)) {
+                return;
+            }
+            if (subscribers.isEmpty()) {
+                subscribersByUsername.remove(subscriber.username);
+            }
+            if (--subscriberCount == 0 && cursor != null) {
+                cursor.dispose();
+                cursor = null;
+            }
+        }
+    }
+
+    private List<OrderChangeEvent> replayAfter(String lastEventId, String username) {
+        List<OrderChangeEvent> missed = new ArrayList<>();
+        boolean found = false;
+        for (OrderChangeEvent event : replayLog) {
+            if (found && username.equals(event.username())) {
+                missed.add(event);
+            } else if (event.id().equals(lastEventId)) {
+                found = true;
+            }
+        }
+        return found ? missed : null;
+    }
+
+    private void openCursorIfNeeded() {
+        if (cursor != null) {
+            return;
+        }
+        // merge and concatMap serialize the shards' changes, so dispatch is never called concurrently
+        int shards = orderShards.all().size();
+        Instant oldestResumable = Instant.now().minus(maxResumeAge);
+        boolean gap = false;
+        for (int shard = 0; shard < shards; shard++) {
+            Instant resumeTime = lastResumeTimes.get(shard);
+            if (lastResumeTokens.get(shard) != null && (resumeTime == null || resumeTime.isBefore(oldestResumable))) {
+                lastResumeTokens.set(shard, null);
+                gap = true;
+            }
+        }
+        if (gap) {
+            signalReplayGap("the last change seen is older than " + maxResumeAge);
+        }
+        cursor = Flux.merge(Flux.range(0, shards).map(this::shardChanges), shards)
+                .concatMap(shardChange -> toEvent(shardChange.shard(), shardChange.change())
+                        .doOnNext(event -> dispatch(shardChange.change(), event)))
+                .subscribe();
+    }
+
+    /**
+     * Changes of one shard, reopened from the last seen position when the stream fails.
+     */
+    private Flux<ShardChange> shardChanges(int shard) {
+        return Flux.defer(() -> changeStream(shard))
+                .doOnNext(change -> {
+                    lastResumeTokens.set(shard, change.getResumeToken());
+                    lastResumeTimes.set(shard, change.getTimestamp() != null ? change.getTimestamp() : Instant.now());
+                })
+                .map(change -> new ShardChange(shard, change))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            log.warn("Order change stream of shard {} failed, reopening: {}", shard, signal.failure().getMessage());
+                            if (isHistoryLost(signal.failure())) {
+                                lastResumeTokens.set(shard, null);
+                                signalReplayGap("the change stream history of shard " + shard + " was lost");
+                            }
+                        }));
+    }
+
+    private Flux<ChangeStreamEvent<Order>> changeStream(int shard) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(Aggregation.match(
+                        Criteria.where("operationType").in("insert", "update", "replace", "delete"))))
+                .returnFullDocumentOnUpdate()
+                .fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        // Without a resume token the stream starts at the current operation time
+        BsonValue resumeToken = lastResumeTokens.get(shard);
+        if (resumeToken != null) {
+            options.resumeAfter(resumeToken);
+        }
+        ReactiveMongoTemplate template = orderShards.shard(shard);
+        return template.changeStream(template.getCollectionName(Order.class), options.build(), Order.class);
+    }
+
+    /**
+     * Changes were missed: events in the replay log can no longer be followed by what comes
+     * next, so resumes are refused and every subscriber reloads.
+     */
+    private void signalReplayGap(String reason) {
+        log.warn("Order change stream restarted from the current time, changes may have been missed: {}", reason);
+        replayGapCounter.increment();
+        synchronized (lock) {
+            replayLog.clear();
+            subscribersByUsername.forEach((username, subscribers) ->
+                    subscribers.forEach(subscriber -> subscriber.offer(OrderChangeEvent.reset(null, username))));
+        }
+    }
+
+    private void dispatch(ChangeStreamEvent<Order> change, OrderChangeEvent event) {
+        Instant committedAt = change.getTimestamp();
+        if (committedAt != null) {
+            eventLagTimer.record(Duration.between(committedAt, Instant.now()));
+        }
+
+        long start = System.nanoTime();
+        synchronized (lock) {
+            replayLog.addLast(event);
+            if (replayLog.size() > replaySize) {
+                replayLog.removeFirst();
+            }
+            Set<FeedSubscriber> subscribers = subscribersByUsername.get(event.username());
+            if (subscribers != null) {
+                subscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+        fanOutTimer.record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Mono<OrderChangeEvent> toEvent(int shard, ChangeStreamEvent<Order> change) {
+        if (change.getOperationType() == null || change.getResumeToken() == null) {
+            return Mono.empty();
+        }
+        String id = tokenId(change.getResumeToken());
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                Order order = change.getBody();
+                if (order == null) {
+                    return Mono.empty();
+                }
+                String type = change.getOperationType() == OperationType.INSERT ? "insert" : "update";
+                return Mono.just(new OrderChangeEvent(id, type, order.getId(), order.getUsername(), order));
+            case DELETE:
+                Order deleted = change.getBodyBeforeChange();
+                if (deleted == null) {
+                    // Without the pre-image the owner of a deleted order is unknown
+                    return Mono.empty();
+                }
+                if (orderShards.ownerOf(deleted.getUsername()) != shard) {
+                    // Moved to its new shard by a rebalance (the copy shows up there as an insert)
+                    return Mono.empty();
+                }
+                OrderChangeEvent event = new OrderChangeEvent(id, "delete", deleted.getId(), deleted.getUsername(), null);
+                // The archival job copies an order to the archive before deleting it from the hot
+                // tier: if the archive has it, the order was moved and still exists
+                return orderArchiveRepository.existsById(deleted.getId())
+                        .onErrorResume(e -> {
+                            log.warn("Could not check whether deleted order {} was archived: {}", deleted.getId(), e.getMessage());
+                            return Mono.just(false);
+                        })
+                        .filter(archived -> !archived)
+                        .map(notArchived -> event);
+            default:
+                return Mono.empty();
+        }
+    }
+
+    private String tokenId(BsonValue resumeToken) {
+        if (resumeToken.isDocument()) {
+            BsonDocument token = resumeToken.asDocument();
+            return token.containsKey("_data") && token.get("_data").isString()
+                    ? token.getString("_data").getValue()
+                    : token.toJson();
+        }
+        return resumeToken.toString();
+    }
+
+    private boolean isHistoryLost(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException commandException
+                    && commandException.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record ShardChange(int shard, ChangeStreamEvent<Order> change) {
+    }
+
+    /**
+     * One subscription with its own bounded buffer. Only called while holding 'lock',
+     * which also serializes the emissions into the sink.
+     */
+    private final class FeedSubscriber {
+
+        private final String username;
+        private final Sinks.Many<OrderChangeEvent> sink;
+
+        private FeedSubscriber(String username) {
+            this.username = username;
+            this.sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<OrderChangeEvent>get(subscriberBuffer).get());
+        }
+
+        private void offer(OrderChangeEvent event) {
+            if (sink.tryEmitNext(event) != Sinks.EmitResult.FAIL_OVERFLOW) {
+                return;
+            }
+            if ("close".equalsIgnoreCase(overflowPolicy)) {
+                closedCounter.increment();
+                sink.tryEmitComplete();
+            } else {
+                droppedCounter.increment();
+            }
+        }
+    }
+}
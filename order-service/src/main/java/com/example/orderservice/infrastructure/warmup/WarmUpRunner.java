@@ -0,0 +1,236 @@
+package com.example.orderservice.infrastructure.warmup;
+
+import com.example.orderservice.application.rest.dto.CustomerDetailsDto;
+import com.example.orderservice.application.rest.dto.OrderPageResponseDto;
+import com.example.orderservice.application.rest.dto.OrderRequestDto;
+import com.example.orderservice.application.rest.dto.OrderResponseDto;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.example.orderservice.core.service.OrderService;
+import com.example.orderservice.core.service.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Warms the request path up before the instance reports ready, so the first requests after a
+ * deploy do not pay for cold code (JWT parsing, DTO serialization, query mapping) and empty
+ * connection pools (MongoDB, Redis).
+ *
+ * Spring Boot flips the readiness state to ACCEPTING_TRAFFIC once all application runners have
+ * completed, so this runner, ordered last, holds readiness back until the warm-up is done or its
+ * time budget runs out; a failing step is logged and never prevents startup. Synthetic data only:
+ * nothing is written to MongoDB, and the cache entry used is removed again.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final String USERNAME = "warmup-user";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderService;
+    private final OrderShards orderShards;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.warmup.budget:20s}")
+    private Duration budget;
+
+    @Value("${application.warmup.iterations:5000}")
+    private int iterations;
+
+    @Value("${application.warmup.io-iterations:50}")
+    private int ioIterations;
+
+    @Value("${application.warmup.mongo-connections:10}")
+    private int mongoConnections;
+
+    @Value("${application.security.jwt.secret-key}")
+    private String jwtSecret;
+
+    private volatile boolean stopped;
+
+    public WarmUpRunner(JwtTokenProvider jwtTokenProvider, ObjectMapper objectMapper, OrderService orderService,
+                        OrderShards orderShards, CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.orderService = orderService;
+        this.orderShards = orderShards;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "warmup"));
+        Future<Map<String, Long>> steps = worker.submit(this::warmUp);
+        String outcome;
+        try {
+            Map<String, Long> stepMillis = steps.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+            outcome = "completed";
+            log.info("Warm-up completed in {} ms (per step: {})", (System.nanoTime() - start) / 1_000_000, stepMillis);
+        } catch (TimeoutException e) {
+            outcome = "budget-exceeded";
+            log.warn("Warm-up stopped after its {} budget", budget);
+        } catch (Exception e) {
+            outcome = "failed";
+            log.warn("Warm-up failed", e);
+        } finally {
+            stopped = true;
+            worker.shutdownNow();
+        }
+        Timer.builder("warmup.duration")
+                .description("Time spent warming up before accepting traffic")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Map<String, Long> warmUp() {
+        Map<String, Long> stepMillis = new LinkedHashMap<>();
+        step(stepMillis, "mongo-pool", this::fillMongoPools);
+        step(stepMillis, "jwt", this::parseTokens);
+        step(stepMillis, "jackson", this::serializeDtos);
+        step(stepMillis, "queries", this::runQueries);
+        step(stepMillis, "cache", this::roundTripCache);
+        return stepMillis;
+    }
+
+    private void step(Map<String, Long> stepMillis, String name, Runnable step) {
+        if (stopped) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up step '{}' failed: {}", name, e.getMessage());
+        }
+        stepMillis.put(name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Concurrent pings make each driver pool open up to 'mongo-connections' connections.
+     */
+    private void fillMongoPools() {
+        Flux.fromIterable(orderShards.all())
+                .flatMap(shard -> Flux.range(0, mongoConnections)
+                        .flatMap(i -> shard.executeCommand("{ ping: 1 }"), mongoConnections))
+                .then()
+                .block(budget);
+    }
+
+    private void parseTokens() {
+        String token = Jwts.builder()
+                .subject(USERNAME)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+        for (int i = 0; i < iterations && !stopped; i++) {
+            jwtTokenProvider.authenticate(token);
+        }
+    }
+
+    private void serializeDtos() {
+        OrderPageResponseDto page = OrderPageResponseDto.builder()
+                .items(IntStream.range(0, 20).mapToObj(this::syntheticOrder).toList())
+                .nextCursor("warmup")
+                .build();
+        try {
+            byte[] request = objectMapper.writeValueAsBytes(new OrderRequestDto("Warm Up", List.of("product-1", "product-2"), new BigDecimal("10.50")));
+            for (int i = 0; i < iterations && !stopped; i++) {
+                objectMapper.writeValueAsBytes(page);
+                objectMapper.readValue(request, OrderRequestDto.class);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Read paths of the service for a user without orders: queries, cursor handling and mapping.
+     */
+    private void runQueries() {
+        for (int i = 0; i < ioIterations && !stopped; i++) {
+            orderService.getOrdersPageByUsername(USERNAME, null, null, null, null).block(budget);
+            orderService.getOrderSummary(USERNAME).block(budget);
+        }
+    }
+
+    private void roundTripCache() {
+        Cache cache = cacheManager.getCache("orders");
+        if (cache == null) {
+            return;
+        }
+        String key = "warmup-" + ProcessHandle.current().pid();
+        for (int i = 0; i < ioIterations && !stopped; i++) {
+            cache.put(key, "warmup");
+            cache.get(key);
+        }
+        cache.evict(key);
+    }
+
+    private OrderResponseDto syntheticOrder(int index) {
+        return OrderResponseDto.builder()
+                .id("000-" + "0".repeat(21) + String.format("%03d", index))
+                .username(USERNAME)
+                .customerName("Warm Up")
+                .productIds(List.of("product-" + index, "product-" + (index + 1)))
+                .totalAmount(BigDecimal.valueOf(index * 100L + 99, 2))
+                .orderDate(LocalDateTime.now())
+                .customer(CustomerDetailsDto.builder()
+                        .id((long) index)
+                        .email(USERNAME + "@example.com")
+                        .street("1 Main Street")
+                        .city("Springfield")
+                        .state("State")
+                        .zipCode("00000")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.orderservice.core.domain.projection;
+
+import com.example.orderservice.core.domain.document.Product;
+import com.example.orderservice.core.exceptions.OrderPricingException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductPriceCatalogTest {
+
+    @Test
+    void totalsListedProductsCountingRepeatsAndKeepsCents() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(16);
+        catalog.put("p1", new BigDecimal("10"));
+        catalog.put("p2", new BigDecimal("0.0005"));
+        catalog.put("p3", new BigDecimal("2.50"));
+
+        assertThat(catalog.total(List.of("p1", "p3", "p3"))).isEqualTo(new BigDecimal("15.00"));
+        assertThat(catalog.total(List.of("p1", "p2"))).isEqualTo(new BigDecimal("10.0005"));
+        assertThat(catalog.total(List.of())).isEqualTo(new BigDecimal("0.00"));
+        assertThat(catalog.priceOf("p1")).contains(new BigDecimal("10.00"));
+    }
+
+    @Test
+    void unknownProductsFailThePricingAndAreListed() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(16);
+        catalog.put("p1", BigDecimal.ONE);
+
+        assertThatThrownBy(() -> catalog.total(List.of("p1", "missing-1", "missing-2")))
+                .isInstanceOf(OrderPricingException.class)
+                .hasMessage("Unknown products: missing-1, missing-2");
+        assertThat(catalog.priceOf("missing-1")).isEmpty();
+    }
+
+    @Test
+    void overwritingAPriceKeepsASingleEntry() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(16);
+        catalog.put("p1", BigDecimal.ONE);
+        catalog.put("p1", BigDecimal.TEN);
+
+        assertThat(catalog.size()).isEqualTo(1);
+        assertThat(catalog.priceOf("p1")).contains(new BigDecimal("10.00"));
+    }
+
+    @Test
+    void growsPastTheExpectedNumberOfProducts() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(1);
+        long initialBytes = catalog.offHeapBytes();
+        for (int i = 0; i < 10_000; i++) {
+            catalog.put("product-" + i, BigDecimal.valueOf(i, 2));
+        }
+
+        assertThat(catalog.size()).isEqualTo(10_000);
+        assertThat(catalog.offHeapBytes()).isGreaterThan(initialBytes);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(catalog.priceOf("product-" + i)).contains(amount(BigDecimal.valueOf(i, 2)));
+        }
+    }
+
+    @Test
+    void randomPutsAndRemovesMatchAMap() {
+        // Few slots for many keys: long probe chains, so removals have to shift entries back
+        ProductPriceCatalog catalog = new ProductPriceCatalog(1);
+        Map<String, BigDecimal> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            String id = "p" + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                catalog.remove(id);
+                expected.remove(id);
+            } else {
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(1_000_000), 4);
+                catalog.put(id, price);
+                expected.put(id, price);
+            }
+        }
+
+        assertThat(catalog.size()).isEqualTo(expected.size());
+        for (int i = 0; i < 2_000; i++) {
+            String id = "p" + i;
+            BigDecimal price = expected.get(id);
+            assertThat(catalog.priceOf(id)).isEqualTo(Optional.ofNullable(price).map(ProductPriceCatalogTest::amount));
+        }
+    }
+
+    @Test
+    void reloadReplacesTheWholeCatalog() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(16);
+        catalog.put("old", BigDecimal.ONE);
+
+        Integer loaded = catalog.reload(Flux.range(0, 100)
+                        .map(i -> new Product("new-" + i, "Product " + i, BigDecimal.valueOf(i))))
+                .block();
+
+        assertThat(loaded).isEqualTo(100);
+        assertThat(catalog.size()).isEqualTo(100);
+        assertThat(catalog.priceOf("old")).isEmpty();
+        assertThat(catalog.priceOf("new-42")).contains(new BigDecimal("42.00"));
+    }
+
+    @Test
+    void failedReloadKeepsTheCurrentPrices() {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(16);
+        catalog.put("current", BigDecimal.ONE);
+
+        assertThatThrownBy(() -> catalog.reload(Flux.concat(
+                        Flux.just(new Product("new", "New", BigDecimal.TEN)),
+                        Flux.error(new IllegalStateException("cursor lost"))))
+                .block())
+                .hasMessageContaining("cursor lost");
+
+        assertThat(catalog.priceOf("current")).contains(new BigDecimal("1.00"));
+        assertThat(catalog.priceOf("new")).isEmpty();
+    }
+
+    @Test
+    void onlyNonNegativePricesWithAtMostFourDecimalsAreValid() {
+        assertThat(ProductPriceCatalog.isValidPrice(new BigDecimal("19.9999"))).isTrue();
+        assertThat(ProductPriceCatalog.isValidPrice(BigDecimal.ZERO)).isTrue();
+        assertThat(ProductPriceCatalog.isValidPrice(new BigDecimal("0.00001"))).isFalse();
+        assertThat(ProductPriceCatalog.isValidPrice(new BigDecimal("-1"))).isFalse();
+        assertThat(ProductPriceCatalog.isValidPrice(null)).isFalse();
+    }
+
+    @Test
+    void readersSeeStablePricesWhileTheTableGrowsUnderThem() throws InterruptedException {
+        ProductPriceCatalog catalog = new ProductPriceCatalog(1);
+        List<String> stable = IntStream.range(0, 100).mapToObj(i -> "stable-" + i).toList();
+        stable.forEach(id -> catalog.put(id, BigDecimal.ONE));
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        assertThat(catalog.total(stable)).isEqualTo(new BigDecimal("100.00"));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        // Meanwhile the table doubles and is replaced a dozen times, and entries are shifted back by removals
+        for (int i = 0; i < 200_000; i++) {
+            catalog.put("new-" + i, BigDecimal.TEN);
+            if (i % 3 == 0) {
+                catalog.remove("new-" + (i / 2));
+            }
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+    }
+
+    private static BigDecimal amount(BigDecimal price) {
+        BigDecimal stripped = price.stripTrailingZeros();
+        return stripped.scale() < 2 ? stripped.setScale(2) : stripped;
+    }
+}
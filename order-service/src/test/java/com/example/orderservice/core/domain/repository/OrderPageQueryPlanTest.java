@@ -0,0 +1,166 @@
+package com.example.orderservice.core.domain.repository;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.PageCursor;
+import com.example.orderservice.infrastructure.persistence.MongoIndexInitializer;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the query plans of the keyset page queries against an embedded MongoDB with the indexes
+ * created by {@link MongoIndexInitializer}. Skipped when MongoDB cannot be downloaded or started.
+ */
+class OrderPageQueryPlanTest {
+
+    private static final int USERS = 20;
+    private static final int ORDERS_PER_USER = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+    private static ReactiveMongoTemplate template;
+
+    @BeforeAll
+    static void startMongo() {
+        try {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+        } catch (RuntimeException e) {
+            Assumptions.abort("Embedded MongoDB unavailable: " + e.getMessage());
+        }
+        client = MongoClients.create("mongodb://" + mongod.current().getServerAddress());
+        template = new ReactiveMongoTemplate(client, "orders-plan-test");
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers = mock(ObjectProvider.class);
+        when(customizers.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        OrderShards shards = new OrderShards(template, template.getConverter(), customizers, List.of(), 0, 0);
+        new MongoIndexInitializer(shards, (MongoMappingContext) template.getConverter().getMappingContext(),
+                new OrderArchiveRepository(template, new SimpleMeterRegistry()))
+                .run(null);
+
+        // Product 'p0' is in every order, 'p1' in a tenth of them
+        List<Order> orders = new ArrayList<>();
+        for (int user = 0; user < USERS; user++) {
+            for (int i = 0; i < ORDERS_PER_USER; i++) {
+                orders.add(new Order(new ObjectId().toHexString(), "user" + user, "User " + user,
+                        i % 10 == 0 ? List.of("p0", "p1") : List.of("p0"), BigDecimal.TEN, START.plusHours(i)));
+            }
+        }
+        template.insertAll(orders).then().block();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (client != null) {
+            client.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @Test
+    void firstPageOfAUserIsReadInIndexOrderWithoutSorting() {
+        Query page = OrderRepositoryCustomImpl.pageQuery(Criteria.where("username").is("user3"), null, null, null, PAGE_SIZE);
+
+        Document explain = explain(page);
+
+        assertUsesIndexWithoutSort(explain, "username_orderDate_id");
+        Document stats = explain.get("executionStats", Document.class);
+        assertThat(stats.getInteger("nReturned")).isEqualTo(PAGE_SIZE);
+        assertThat(stats.getInteger("totalDocsExamined")).isEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void laterPagesAndDateRangesStayOnTheIndex() {
+        Order last = template.find(OrderRepositoryCustomImpl.pageQuery(
+                        Criteria.where("username").is("user3"), null, null, null, PAGE_SIZE), Order.class)
+                .last()
+                .block();
+        PageCursor after = new PageCursor(last.getOrderDate(), last.getId());
+
+        assertUsesIndexWithoutSort(explain(OrderRepositoryCustomImpl.pageQuery(
+                Criteria.where("username").is("user3"), after, null, null, PAGE_SIZE)), "username_orderDate_id");
+        assertUsesIndexWithoutSort(explain(OrderRepositoryCustomImpl.pageQuery(
+                Criteria.where("username").is("user3"), after, START.plusHours(10), START.plusHours(150), PAGE_SIZE)),
+                "username_orderDate_id");
+    }
+
+    @Test
+    void pagesOfAProductUseTheProductIndex() {
+        Query page = OrderRepositoryCustomImpl.pageQuery(Criteria.where("productIds").is("p1"), null, null, null, PAGE_SIZE);
+
+        assertUsesIndexWithoutSort(explain(page), "productIds_orderDate_id");
+    }
+
+    private static Document explain(Query query) {
+        QueryMapper mapper = new QueryMapper(template.getConverter());
+        var entity = template.getConverter().getMappingContext().getRequiredPersistentEntity(Order.class);
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+        return template.getCollection(template.getCollectionName(Order.class))
+                .flatMap(collection -> Mono.from(collection.find(filter)
+                        .sort(sort)
+                        .limit(query.getLimit())
+                        .explain(Document.class, ExplainVerbosity.EXECUTION_STATS)))
+                .block();
+    }
+
+    private static void assertUsesIndexWithoutSort(Document explain, String index) {
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<Document> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+
+        List<Document> indexScans = stages.stream().filter(stage -> "IXSCAN".equals(stage.getString("stage"))).toList();
+        assertThat(indexScans).as("index scans of %s", winningPlan.toJson()).isNotEmpty();
+        assertThat(indexScans).allSatisfy(scan -> assertThat(scan.getString("indexName")).isEqualTo(index));
+        assertThat(stages).extracting(stage -> stage.getString("stage"))
+                .as("stages of %s", winningPlan.toJson())
+                .doesNotContain("SORT", "COLLSCAN");
+    }
+
+    /**
+     * Plan stages nest under 'inputStage', 'inputStages' or, with the slot-based engine, 'queryPlan'.
+     */
+    private static void collectStages(Object node, List<Document> stages) {
+        if (node instanceof Document document) {
+            if (document.containsKey("stage")) {
+                stages.add(document);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
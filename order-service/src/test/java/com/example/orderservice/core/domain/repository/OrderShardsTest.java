@@ -0,0 +1,161 @@
+package com.example.orderservice.core.domain.repository;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderShardsTest {
+
+    private final List<OrderShards> created = new ArrayList<>();
+
+    @AfterEach
+    void closeClients() {
+        created.forEach(OrderShards::destroy);
+    }
+
+    @Test
+    void slotsOfExistingUsernamesNeverChange() {
+        // Existing orders live where these slots put them: the hash must stay as it is
+        assertThat(OrderShards.slotOf("alice")).isEqualTo(932);
+        assertThat(OrderShards.slotOf("bob")).isEqualTo(1831);
+        assertThat(OrderShards.slotOf("")).isEqualTo(1455);
+        assertThat(OrderShards.slotOf("użytkownik")).isEqualTo(2963);
+    }
+
+    @Test
+    void usernamesSpreadEvenlyOverTheSlots() {
+        int[] perSlot = new int[OrderShards.SLOTS];
+        int users = 409_600;
+        for (int i = 0; i < users; i++) {
+            perSlot[OrderShards.slotOf("user" + i)]++;
+        }
+
+        // 100 users per slot on average; a binomial count stays within +-50 % with overwhelming probability
+        assertThat(IntStream.of(perSlot).min().orElseThrow()).isGreaterThanOrEqualTo(50);
+        assertThat(IntStream.of(perSlot).max().orElseThrow()).isLessThanOrEqualTo(150);
+    }
+
+    @Test
+    void ringGivesEveryShardAFairShareOfTheSlots() {
+        for (int shards = 2; shards <= 8; shards++) {
+            int[] owned = new int[shards];
+            for (int owner : OrderShards.assignSlots(shards)) {
+                owned[owner]++;
+            }
+            double fairShare = (double) OrderShards.SLOTS / shards;
+            for (int count : owned) {
+                assertThat(count).isBetween((int) (fairShare * 0.75), (int) (fairShare * 1.25));
+            }
+        }
+    }
+
+    @Test
+    void addingAShardOnlyMovesSlotsToTheNewShard() {
+        for (int shards = 1; shards < 8; shards++) {
+            int[] before = OrderShards.assignSlots(shards);
+            int[] after = OrderShards.assignSlots(shards + 1);
+            int moved = 0;
+            for (int slot = 0; slot < OrderShards.SLOTS; slot++) {
+                if (before[slot] != after[slot]) {
+                    assertThat(after[slot]).isEqualTo(shards);
+                    moved++;
+                }
+            }
+            double expected = (double) OrderShards.SLOTS / (shards + 1);
+            assertThat(moved).isBetween((int) (expected * 0.75), (int) (expected * 1.25));
+        }
+    }
+
+    @Test
+    void slotIsReadBackFromEncodedIdsOnly() {
+        assertThat(OrderShards.slotOfId("3a4-" + new ObjectId().toHexString())).isEqualTo(0x3a4);
+        assertThat(OrderShards.slotOfId(new ObjectId().toHexString())).isEqualTo(-1);
+        assertThat(OrderShards.slotOfId("xyz-" + new ObjectId().toHexString())).isEqualTo(-1);
+        assertThat(OrderShards.slotOfId("3a4_" + new ObjectId().toHexString())).isEqualTo(-1);
+        assertThat(OrderShards.slotOfId(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void unshardedIdsArePlainObjectIdsLookedUpOnTheOnlyShard() {
+        OrderShards shards = shards(1, 0);
+
+        String id = shards.newId("alice");
+
+        assertThat(shards.isSharded()).isFalse();
+        assertThat(ObjectId.isValid(id)).isTrue();
+        assertThat(shards.readersForId(id)).containsExactly(shards.shard(0));
+    }
+
+    @Test
+    void shardedIdsCarryTheSlotOfTheirOwner() {
+        OrderShards shards = shards(3, 0);
+
+        for (String username : List.of("alice", "bob", "carol", "dave")) {
+            String id = shards.newId(username);
+            assertThat(OrderShards.slotOfId(id)).isEqualTo(OrderShards.slotOf(username));
+            assertThat(shards.readersForId(id)).containsExactly(shards.forUsername(username));
+        }
+        assertThat(shards.readersForId(new ObjectId().toHexString())).hasSize(3);
+    }
+
+    @Test
+    void movedSlotsAreReadFromTheNewAndThePreviousOwnerWhileRebalancing() {
+        OrderShards shards = shards(3, 2);
+
+        assertThat(shards.isRebalancing()).isTrue();
+        List<Integer> moved = shards.movedSlots();
+        assertThat(moved).isNotEmpty();
+        String movedUser = IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "user" + i)
+                .filter(username -> moved.contains(OrderShards.slotOf(username)))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(shards.ownerOf(movedUser)).isEqualTo(2);
+        assertThat(shards.readersForUsername(movedUser))
+                .containsExactly(shards.shard(2), shards.shard(OrderShards.assignSlots(2)[OrderShards.slotOf(movedUser)]));
+    }
+
+    @Test
+    void idOrderSortsSlotPrefixedIdsBeforePlainObjectIdsLikeMongoDb() {
+        String plain = new ObjectId().toHexString();
+        String prefixed = "fff-" + new ObjectId().toHexString();
+        String older = new ObjectId(new Date(0)).toHexString();
+
+        assertThat(Stream.of(plain, prefixed, older).sorted(OrderShards.ID_ORDER))
+                .containsExactly(prefixed, older, plain);
+    }
+
+    /**
+     * Shard 0 is a mock; the others are real clients pointing nowhere, which only connect when used.
+     */
+    private OrderShards shards(int count, int previousCount) {
+        List<String> additionalUris = IntStream.range(1, Math.max(count, previousCount))
+                .mapToObj(i -> "mongodb://localhost:1/orders" + i + "?serverSelectionTimeoutMS=100")
+                .toList();
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers = mock(ObjectProvider.class);
+        when(customizers.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        OrderShards shards = new OrderShards(mock(ReactiveMongoTemplate.class),
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()),
+                customizers, additionalUris, count, previousCount);
+        created.add(shards);
+        return shards;
+    }
+}
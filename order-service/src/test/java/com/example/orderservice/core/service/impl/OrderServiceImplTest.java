@@ -0,0 +1,117 @@
+package com.example.orderservice.core.service.impl;
+
+import com.example.orderservice.application.rest.dto.OrderRequestDto;
+import com.example.orderservice.application.rest.dto.OrderResponseDto;
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.projection.ProductPriceCatalog;
+import com.example.orderservice.core.domain.projection.UserProjectionStore;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderShards;
+import com.example.orderservice.core.domain.repository.OrderSummaryRepository;
+import com.example.orderservice.infrastructure.streaming.OrderChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Orders are updated in the tier that holds them, like they are read and deleted.
+ */
+class OrderServiceImplTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderArchiveRepository orderArchiveRepository = mock(OrderArchiveRepository.class);
+    private final OrderSummaryRepository orderSummaryRepository = mock(OrderSummaryRepository.class);
+    private final OrderServiceImpl service = new OrderServiceImpl(orderRepository, mock(OrderShards.class),
+            orderArchiveRepository, orderSummaryRepository, new UserProjectionStore(), mock(OrderChangeFeed.class),
+            mock(ProductPriceCatalog.class));
+
+    private final OrderRequestDto request = OrderRequestDto.builder()
+            .customerName("Alice A.")
+            .productIds(List.of("product-2"))
+            .totalAmount(new BigDecimal("30"))
+            .build();
+
+    OrderServiceImplTest() {
+        ReflectionTestUtils.setField(service, "pricingMode", "off");
+        when(orderRepository.findById(anyString())).thenReturn(Mono.empty());
+        when(orderArchiveRepository.findById(anyString())).thenReturn(Mono.empty());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(orderArchiveRepository.save(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(orderSummaryRepository.recordAmountChanged(anyString(), any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void hotOrderIsUpdatedInTheHotTier() {
+        when(orderRepository.findById("order-1")).thenReturn(Mono.just(order("order-1", "alice")));
+
+        StepVerifier.create(updateAs("alice", "order-1"))
+                .expectNextMatches(updated -> updated.getTotalAmount().equals(new BigDecimal("30")))
+                .verifyComplete();
+
+        verify(orderRepository).save(any(Order.class));
+        verify(orderArchiveRepository, never()).save(any(Order.class));
+        verify(orderSummaryRepository).recordAmountChanged("alice", new BigDecimal("20"));
+    }
+
+    @Test
+    void archivedOrderIsUpdatedInTheArchive() {
+        when(orderArchiveRepository.findById("order-1")).thenReturn(Mono.just(order("order-1", "alice")));
+
+        StepVerifier.create(updateAs("alice", "order-1"))
+                .expectNextMatches(updated -> updated.getCustomerName().equals("Alice A."))
+                .verifyComplete();
+
+        verify(orderArchiveRepository).save(any(Order.class));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderSummaryRepository).recordAmountChanged("alice", new BigDecimal("20"));
+    }
+
+    @Test
+    void archivedOrderOfAnotherUserIsRefused() {
+        when(orderArchiveRepository.findById("order-1")).thenReturn(Mono.just(order("order-1", "bob")));
+
+        StepVerifier.create(updateAs("alice", "order-1"))
+                .verifyError(AccessDeniedException.class);
+
+        verify(orderArchiveRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void unknownOrderIsEmpty() {
+        StepVerifier.create(updateAs("alice", "missing"))
+                .verifyComplete();
+    }
+
+    private Mono<OrderResponseDto> updateAs(String username, String id) {
+        return service.updateOrder(id, request)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(username, null, List.of())));
+    }
+
+    private static Order order(String id, String username) {
+        return Order.builder()
+                .id(id)
+                .username(username)
+                .customerName("Alice")
+                .productIds(List.of("product-1"))
+                .totalAmount(new BigDecimal("10"))
+                .orderDate(LocalDateTime.now().minusYears(2))
+                .build();
+    }
+}
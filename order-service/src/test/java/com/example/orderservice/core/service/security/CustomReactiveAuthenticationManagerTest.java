@@ -0,0 +1,82 @@
+package com.example.orderservice.core.service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Authentication runs on the Netty event loop for every request. The tests run it on a
+ * non-blocking Reactor thread, so with 'mvn test -Pblockhound' any blocking call on that path
+ * (key building, parsing, logging) fails them.
+ */
+class CustomReactiveAuthenticationManagerTest {
+
+    private static final String SECRET = "TestSecretKeyLongEnoughForHmacSha256";
+
+    private final CustomReactiveAuthenticationManager authenticationManager =
+            new CustomReactiveAuthenticationManager(new JwtTokenProvider(SECRET));
+
+    @Test
+    void validTokenAuthenticatesOnANonBlockingThread() {
+        String token = token(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        StepVerifier.create(authenticate(token))
+                .assertNext(authentication -> {
+                    assertThat(authentication.getName()).isEqualTo("alice");
+                    assertThat(authentication.getAuthorities())
+                            .extracting(GrantedAuthority::getAuthority)
+                            .containsExactly("ROLE_USER", "ROLE_ADMIN");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidTokensAreRejectedOnANonBlockingThread() {
+        String expired = token(SECRET, new Date(System.currentTimeMillis() - 60_000));
+        String foreign = token("AnotherSecretKeyLongEnoughForHmacSha256", new Date(System.currentTimeMillis() + 60_000));
+
+        StepVerifier.create(authenticate(expired)).verifyComplete();
+        StepVerifier.create(authenticate(foreign)).verifyComplete();
+        StepVerifier.create(authenticate("not-a-jwt")).verifyComplete();
+    }
+
+    @Test
+    void blockingCallsOnNonBlockingThreadsFailUnderBlockHound() {
+        assumeTrue(ClassUtils.isPresent("reactor.blockhound.BlockHound", null), "BlockHound runs with -Pblockhound");
+
+        StepVerifier.create(Mono.fromCallable(() -> {
+                            Thread.sleep(1);
+                            return true;
+                        })
+                        .subscribeOn(Schedulers.parallel()))
+                .expectErrorSatisfies(e -> assertThat(e.getClass().getName()).isEqualTo("reactor.blockhound.BlockingOperationError"))
+                .verify();
+    }
+
+    private Mono<Authentication> authenticate(String token) {
+        return Mono.defer(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(token, token)))
+                .subscribeOn(Schedulers.parallel());
+    }
+
+    private static String token(String secret, Date expiration) {
+        return Jwts.builder()
+                .subject("alice")
+                .claim("auth", "ROLE_USER,ROLE_ADMIN")
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
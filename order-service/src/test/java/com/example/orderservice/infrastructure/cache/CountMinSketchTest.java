@@ -0,0 +1,80 @@
+package com.example.orderservice.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    private static final int WIDTH = 1024;
+
+    @Test
+    void neverUnderCountsAndStaysWithinTheErrorBoundForAlmostEveryKey() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH);
+        Map<String, Integer> actual = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        // Zipf-like popularity over 20,000 keys, as cache keys are accessed
+        for (int i = 0; i < 200_000; i++) {
+            String key = "order-" + (int) Math.pow(20_000, random.nextDouble());
+            sketch.increment(key);
+            actual.merge(key, 1, Integer::sum);
+            total++;
+        }
+
+        // With 4 rows, an estimate exceeds the count by more than e * N / width with probability e^-4 (1.8 %)
+        double bound = Math.E * total / WIDTH;
+        long withinBound = 0;
+        for (Map.Entry<String, Integer> entry : actual.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= bound) {
+                withinBound++;
+            }
+        }
+        assertThat((double) withinBound / actual.size()).isGreaterThanOrEqualTo(0.97);
+    }
+
+    @Test
+    void heavyHittersStandOutFromTheNoise() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH);
+        for (int i = 0; i < 50_000; i++) {
+            sketch.increment("cold-" + i);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            sketch.increment("hot");
+        }
+
+        assertThat(sketch.estimate("hot")).isBetween(5_000L, 5_000L + (long) (Math.E * 55_000 / WIDTH));
+        assertThat(sketch.estimate("never-seen")).isLessThan(500);
+    }
+
+    @Test
+    void incrementReturnsTheNewEstimateAndHalvingAgesIt() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH);
+        for (int i = 1; i < 100; i++) {
+            assertThat(sketch.increment("key")).isEqualTo(i);
+        }
+        assertThat(sketch.add("key", 1)).isEqualTo(100);
+
+        sketch.halve();
+        assertThat(sketch.estimate("key")).isEqualTo(50);
+        sketch.halve();
+        assertThat(sketch.estimate("key")).isEqualTo(25);
+    }
+
+    @Test
+    void aSingleCounterPerRowEstimatesTheTotalForEveryKey() {
+        CountMinSketch sketch = new CountMinSketch(0);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(i);
+        }
+
+        assertThat(sketch.estimate(3)).isEqualTo(10);
+        assertThat(sketch.estimate("unseen")).isEqualTo(10);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.orderservice.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * With a 60s decay interval and a minimum rate of 1/s, a key becomes a candidate at 60 accesses
+ * and stays hot while its estimate over about a minute keeps the rate above 1/s.
+ */
+class HotKeyTrackerTest {
+
+    private final HotKeyTracker tracker = new HotKeyTracker(List.of("orders", " "), 1024, 2, 1.0, Duration.ofSeconds(60));
+
+    @Test
+    void onlyTheTopKeysAboveTheMinimumRateAreHot() {
+        access("order-1", 300);
+        access("order-2", 200);
+        access("order-3", 100);
+        access("order-4", 30);
+
+        assertThat(tracker.hotKeys("orders"))
+                .extracting(HotKeyTracker.HotKey::key)
+                .containsExactly("order-1", "order-2");
+        assertThat(tracker.hotKeys("orders").get(0).ratePerSecond()).isBetween(4.5, 5.0);
+    }
+
+    @Test
+    void untrackedCachesAreIgnored() {
+        assertThat(tracker.trackedCaches()).containsExactly("orders");
+
+        tracker.recordAccess("other", "order-1");
+        tracker.seed("other", "order-1", 1_000);
+
+        assertThat(tracker.hotKeys("other")).isEmpty();
+    }
+
+    @Test
+    void keysCoolDownAfterHalvingsWithoutAccesses() {
+        access("order-1", 130);
+        assertThat(tracker.hotKeys("orders")).hasSize(1);
+
+        tracker.decay();
+        // 65 over about 60 seconds: still above the minimum rate
+        assertThat(tracker.hotKeys("orders")).hasSize(1);
+        tracker.decay();
+        tracker.decay();
+
+        assertThat(tracker.hotKeys("orders")).isEmpty();
+    }
+
+    @Test
+    void loadsAreRecordedForHotKeysAndEvictionsForgetThem() {
+        access("order-1", 120);
+        assertThat(tracker.hotKeys("orders").get(0).loadedAt()).isNull();
+
+        tracker.recordLoad("orders", "order-1");
+        assertThat(tracker.hotKeys("orders").get(0).loadedAt()).isNotNull();
+
+        tracker.forget("orders", "order-1");
+        assertThat(tracker.hotKeys("orders")).isEmpty();
+    }
+
+    @Test
+    void seededKeysAreHotRightAway() {
+        tracker.seed("orders", "order-7", 600);
+
+        assertThat(tracker.hotKeys("orders"))
+                .extracting(HotKeyTracker.HotKey::key, HotKeyTracker.HotKey::estimate)
+                .containsExactly(tuple("order-7", 600L));
+    }
+
+    private void access(Object key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordAccess("orders", key);
+        }
+    }
+}
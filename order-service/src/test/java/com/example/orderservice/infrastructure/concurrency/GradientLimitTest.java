@@ -0,0 +1,86 @@
+package com.example.orderservice.infrastructure.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the limit with a saturated endpoint in front of a dependency that serves 'capacity'
+ * requests concurrently in 'baseRtt' and queues the others, so the latency grows with the
+ * concurrency beyond the capacity. Every sample starts a new request, so in-flight equals the limit.
+ */
+class GradientLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    private final GradientLimit limit = new GradientLimit(20, 4, 200, 1.5, 600);
+
+    @Test
+    void saturatedLimitSettlesNearTheCapacityInsteadOfDriftingToTheMaximum() {
+        Range settled = run(20_000, 40, 10 * MS);
+
+        // The probes briefly halve it; it stays where queueing adds at most about the tolerance
+        assertThat(settled.max()).isBetween(40, 100);
+        assertThat(settled.min()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void followsACapacityDropDown() {
+        run(3_000, 40, 10 * MS);
+
+        Range settled = run(3_000, 10, 10 * MS);
+
+        assertThat(settled.max()).isLessThanOrEqualTo(25);
+    }
+
+    @Test
+    void adoptsASlowerDependencyAsTheNewBaseline() {
+        run(3_000, 40, 10 * MS);
+
+        // Twice as slow at any concurrency: no queueing, so halving the limit would not help
+        Range settled = run(6_000, 40, 20 * MS);
+
+        assertThat(limit.getLimit()).isBetween(40, 100);
+        assertThat(settled.max()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void lowersTheBaselineWhenTheDependencyGetsFaster() {
+        run(3_000, 40, 20 * MS);
+
+        Range settled = run(6_000, 40, 10 * MS);
+
+        assertThat(limit.getLimit()).isBetween(40, 100);
+        assertThat(settled.max()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void doesNotGrowWhileFewRequestsAreInFlight() {
+        for (int i = 0; i < 1_000; i++) {
+            limit.onSample(10 * MS, 2, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    /**
+     * @return The range of the limit over the second half of the run.
+     */
+    private Range run(int samples, int capacity, long baseRtt) {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0; i < samples; i++) {
+            int inFlight = limit.getLimit();
+            long rtt = inFlight <= capacity ? baseRtt : baseRtt * inFlight / capacity;
+            limit.onSample(rtt, inFlight, false);
+            if (i >= samples / 2) {
+                min = Math.min(min, limit.getLimit());
+                max = Math.max(max, limit.getLimit());
+            }
+        }
+        return new Range(min, max);
+    }
+
+    private record Range(int min, int max) {
+    }
+}
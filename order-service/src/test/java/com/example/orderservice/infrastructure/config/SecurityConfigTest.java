@@ -0,0 +1,106 @@
+package com.example.orderservice.infrastructure.config;
+
+import com.example.orderservice.core.service.security.CustomReactiveAuthenticationManager;
+import com.example.orderservice.core.service.security.JwtTokenProvider;
+import com.example.orderservice.core.service.security.SecurityContextRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * The actuator endpoints that act on the data of every user are only open to admin tokens; a
+ * customer token, which anyone can get by registering, is refused.
+ */
+@SpringJUnitConfig
+class SecurityConfigTest {
+
+    private static final String SECRET = "TestSecretKeyLongEnoughForHmacSha256";
+
+    @Configuration
+    @EnableWebFlux
+    @Import({SecurityConfig.class, CustomReactiveAuthenticationManager.class, SecurityContextRepository.class, AnyPath.class})
+    static class Config {
+
+        @Bean
+        JwtTokenProvider jwtTokenProvider() {
+            return new JwtTokenProvider(SECRET);
+        }
+    }
+
+    /**
+     * Stands in for the actuator endpoints and the API: every path that gets through security answers 200.
+     */
+    @RestController
+    static class AnyPath {
+
+        @RequestMapping("/**")
+        Mono<String> ok() {
+            return Mono.just("ok");
+        }
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/actuator/health", "/actuator/health/readiness", "/actuator/prometheus"})
+    void probesAndScrapingNeedNoToken(String path) {
+        client.get().uri(path).exchange().expectStatus().isOk();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/actuator/orderExports", "/actuator/orderExports/finance-2026", "/actuator/orderShards", "/actuator/dltReplay"})
+    void adminEndpointsRefuseCustomerTokens(String path) {
+        client.post().uri(path).exchange().expectStatus().isUnauthorized();
+        client.post().uri(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token("ROLE_USER"))
+                .exchange().expectStatus().isForbidden();
+        client.delete().uri(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null))
+                .exchange().expectStatus().isForbidden();
+        client.post().uri(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token("ROLE_ADMIN"))
+                .exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void customerTokensStillReachTheApi() {
+        client.get().uri("/api/v1/orders").header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null))
+                .exchange().expectStatus().isOk();
+    }
+
+    /**
+     * @param authorities the 'auth' claim; user-service issues customer tokens without one
+     */
+    private static String token(String authorities) {
+        var builder = Jwts.builder()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 60_000));
+        if (authorities != null) {
+            builder.claim("auth", authorities);
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+    }
+}
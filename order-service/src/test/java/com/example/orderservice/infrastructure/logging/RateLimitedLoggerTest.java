@@ -0,0 +1,98 @@
+package com.example.orderservice.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitedLoggerTest {
+
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("rate-limited");
+        logger.setLevel(Level.INFO);
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @Test
+    void logsUpToThePermitsAndReportsTheSuppressedCountWithTheNextMessage() throws InterruptedException {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 3, Duration.ofMillis(200));
+
+        for (int i = 0; i < 10; i++) {
+            limited.info("order {}", i);
+        }
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("order 0", "order 1", "order 2");
+
+        Thread.sleep(250);
+        limited.info("order {}", 10);
+        limited.info("order {}", 11);
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .endsWith("order 10 (7 similar messages suppressed)", "order 11");
+    }
+
+    @Test
+    void disabledLevelIsNeitherLoggedNorCountedAsSuppressed() throws InterruptedException {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 1, Duration.ofMillis(200));
+
+        for (int i = 0; i < 5; i++) {
+            limited.debug("debug {}", i);
+        }
+        limited.info("first");
+        Thread.sleep(250);
+        limited.info("second");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("first", "second");
+    }
+
+    @Test
+    void concurrentCallersShareThePermitsAndLoseNoSuppressedCount() throws InterruptedException {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 5, Duration.ofMillis(500));
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    limited.info("event {}", i);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(appender.list).hasSize(5);
+
+        Thread.sleep(600);
+        limited.info("after");
+
+        assertThat(appender.list.get(appender.list.size() - 1).getFormattedMessage())
+                .isEqualTo("after (" + (threads * perThread - 5) + " similar messages suppressed)");
+    }
+}
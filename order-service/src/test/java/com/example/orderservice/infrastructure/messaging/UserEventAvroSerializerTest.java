@@ -0,0 +1,75 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEventAvroSerializerTest {
+
+    private final UserEventAvroSerializer serializer = new UserEventAvroSerializer();
+    private final UserEventDeserializer deserializer = new UserEventDeserializer();
+
+    @Test
+    void eventsRoundTripWithTheLatestVersionInTheHeader() {
+        UserEvent event = UserEvent.builder()
+                .eventType("USER_UPDATED")
+                .id(7L)
+                .username("alice")
+                .email("alice@example.com")
+                .street("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .zipCode(null)
+                .eventTimestamp(1_700_000_000_000L)
+                .build();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize("user-events", headers, event);
+        UserEvent read = deserializer.deserialize("user-events", headers, data);
+
+        assertThat(UserEventSchemas.parseVersionHeader(headers.lastHeader(UserEventSchemas.VERSION_HEADER).value()))
+                .isEqualTo(UserEventSchemas.load().latestVersion());
+        assertThat(read).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void recordsOfTheFirstVersionReadWithoutTheNewerFields() throws IOException {
+        UserEventSchemas schemas = UserEventSchemas.load();
+        GenericRecord v1 = new GenericData.Record(schemas.get(1));
+        v1.put("eventType", "USER_CREATED");
+        v1.put("id", 7L);
+        v1.put("username", "alice");
+        v1.put("email", "alice@example.com");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(schemas.get(1)).write(v1, encoder);
+        encoder.flush();
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(UserEventSchemas.VERSION_HEADER, UserEventSchemas.versionHeader(1));
+
+        UserEvent read = deserializer.deserialize("user-events", headers, out.toByteArray());
+
+        assertThat(read.getUsername()).isEqualTo("alice");
+        assertThat(read.getStreet()).isNull();
+        assertThat(read.getEventTimestamp()).isNull();
+    }
+
+    @Test
+    void tombstonesArePassedThrough() {
+        RecordHeaders headers = new RecordHeaders();
+
+        assertThat(serializer.serialize("user-events", headers, null)).isNull();
+        assertThat(deserializer.deserialize("user-events", headers, (byte[]) null)).isNull();
+        assertThat(headers.lastHeader(UserEventSchemas.VERSION_HEADER)).isNull();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.events.UserEvent;
+import com.example.orderservice.infrastructure.messaging.UserEventCoalescer.CoalescedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Every user event carries the full state of its user, so a field cleared by a later event in
+ * the batch must stay cleared in the coalesced one.
+ */
+class UserEventCoalescerTest {
+
+    private static final String TOPIC = "user-events";
+
+    @Test
+    void latestEventReplacesEarlierOnesWhole() {
+        List<ConsumerRecord<String, UserEvent>> records = List.of(
+                record(0, event(1L, "alice", "1 Main St", 1_000L)),
+                record(1, event(1L, "alice", null, 2_000L)));
+
+        CoalescedEvent coalesced = UserEventCoalescer.coalesce(records).iterator().next();
+
+        assertThat(coalesced.event().getStreet()).isNull();
+        assertThat(coalesced.event().getCity()).isEqualTo("Springfield");
+        assertThat(coalesced.latestRecord().offset()).isEqualTo(1);
+    }
+
+    @Test
+    void mergedEventKeepsTheEarliestTimestampAndVersionIsTheLatest() {
+        List<ConsumerRecord<String, UserEvent>> records = List.of(
+                record(0, event(1L, "alice", "1 Main St", 1_000L)),
+                record(1, event(1L, "alice-renamed", "2 Elm St", 2_000L)),
+                record(2, event(1L, "alice-renamed", "3 Oak St", 3_000L)));
+
+        CoalescedEvent coalesced = UserEventCoalescer.coalesce(records).iterator().next();
+
+        assertThat(coalesced.event().getUsername()).isEqualTo("alice-renamed");
+        assertThat(coalesced.event().getStreet()).isEqualTo("3 Oak St");
+        assertThat(coalesced.event().getEventTimestamp()).isEqualTo(1_000L);
+        assertThat(coalesced.version()).isEqualTo(3_000L);
+    }
+
+    @Test
+    void eventsOfDifferentUsersStayApartInFirstSeenOrder() {
+        List<ConsumerRecord<String, UserEvent>> records = List.of(
+                record(0, event(2L, "bob", "5 Pine St", 1_000L)),
+                record(1, event(1L, "alice", "1 Main St", 1_500L)),
+                record(2, null),
+                record(3, event(2L, "bob", "6 Pine St", 2_000L)));
+
+        assertThat(UserEventCoalescer.coalesce(records))
+                .extracting(coalesced -> coalesced.event().getUsername(), coalesced -> coalesced.event().getStreet())
+                .containsExactly(
+                        tuple("bob", "6 Pine St"),
+                        tuple("alice", "1 Main St"));
+    }
+
+    private static ConsumerRecord<String, UserEvent> record(long offset, UserEvent event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, event != null ? event.getId().toString() : "2", event);
+    }
+
+    private static UserEvent event(Long id, String username, String street, Long eventTimestamp) {
+        return UserEvent.builder()
+                .eventType("USER_UPDATED")
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .street(street)
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .eventTimestamp(eventTimestamp)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.orderservice.infrastructure.messaging;
+
+import com.example.orderservice.core.domain.projection.UserProjectionStore;
+import com.example.orderservice.core.events.UserEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A failing consumer is replaced, and the new one resumes after the last applied record instead
+ * of leaving the projection frozen.
+ */
+class UserProjectionLoaderTest {
+
+    private static final String TOPIC = "user-events";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserProjectionStore store = new UserProjectionStore();
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, UserEvent> consumerFactory = mock(ConsumerFactory.class);
+    private final MockConsumer<String, UserEvent> failing = consumer();
+    private final MockConsumer<String, UserEvent> replacement = consumer();
+    private final UserProjectionLoader loader = new UserProjectionLoader(consumerFactory, store, meterRegistry);
+
+    UserProjectionLoaderTest() {
+        when(consumerFactory.createConsumer(isNull(), eq("user-projection"), isNull(), any()))
+                .thenReturn(failing, replacement);
+        ReflectionTestUtils.setField(loader, "topic", TOPIC);
+        ReflectionTestUtils.setField(loader, "bootstrapTimeout", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(loader, "restartBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(loader, "restartMaxBackoff", Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.stop();
+    }
+
+    @Test
+    void failedConsumerIsReplacedAndResumesAfterTheLastAppliedRecord() throws InterruptedException {
+        failing.schedulePollTask(() -> {
+            failing.addRecord(record(0, user(1L, "alice")));
+            failing.addRecord(record(1, user(2L, "bob")));
+        });
+        failing.schedulePollTask(() -> failing.setPollException(new KafkaException("broker connection lost")));
+        replacement.schedulePollTask(() -> {
+            // Already applied by the failed consumer: skipped if the replacement resumes at offset 2
+            replacement.addRecord(record(1, user(2L, "not-replayed")));
+            replacement.addRecord(record(2, user(3L, "carol")));
+        });
+
+        loader.start();
+        awaitUsers(3);
+
+        assertThat(store.findByUsername("bob")).isPresent();
+        assertThat(store.findByUsername("not-replayed")).isEmpty();
+        assertThat(store.findByUsername("carol")).isPresent();
+        assertThat(meterRegistry.get("users.projection.restarts").counter().count()).isEqualTo(1);
+        assertThat(failing.closed()).isTrue();
+    }
+
+    @Test
+    void recordsThatCannotBeAppliedAreSkipped() throws InterruptedException {
+        failing.schedulePollTask(() -> {
+            failing.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "not-a-user-id", null));
+            failing.addRecord(record(1, user(1L, "alice")));
+        });
+
+        loader.start();
+        awaitUsers(1);
+
+        assertThat(meterRegistry.get("users.projection.restarts").counter().count()).isZero();
+    }
+
+    private void awaitUsers(int users) throws InterruptedException {
+        for (int i = 0; i < 100 && store.size() < users; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(store.size()).isEqualTo(users);
+    }
+
+    private static MockConsumer<String, UserEvent> consumer() {
+        MockConsumer<String, UserEvent> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, 3L));
+        return consumer;
+    }
+
+    private static ConsumerRecord<String, UserEvent> record(long offset, UserEvent event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, event.getId().toString(), event);
+    }
+
+    private static UserEvent user(Long id, String username) {
+        return UserEvent.builder().eventType("USER_UPDATED").id(id).username(username).build();
+    }
+}
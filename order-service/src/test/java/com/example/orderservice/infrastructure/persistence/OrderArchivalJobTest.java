@@ -0,0 +1,89 @@
+package com.example.orderservice.infrastructure.persistence;
+
+import com.example.orderservice.core.domain.document.Order;
+import com.example.orderservice.core.domain.repository.OrderArchiveRepository;
+import com.example.orderservice.core.domain.repository.OrderRepository;
+import com.example.orderservice.core.domain.repository.OrderRepositoryCustom.StoredOrder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Only orders the job removed from the hot tier count as moved; orders deleted or changed while
+ * being archived do not.
+ */
+class OrderArchivalJobTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderArchiveRepository orderArchiveRepository = mock(OrderArchiveRepository.class);
+    private final OrderArchivalJob job = new OrderArchivalJob(orderRepository, orderArchiveRepository, meterRegistry);
+
+    OrderArchivalJobTest() {
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "batchSize", 3);
+        ReflectionTestUtils.setField(job, "maxBatches", 10);
+        ReflectionTestUtils.setField(job, "batchPause", Duration.ZERO);
+        ReflectionTestUtils.setField(job, "reArchiveAttempts", 0);
+        when(orderArchiveRepository.cutoff()).thenReturn(LocalDateTime.now());
+        when(orderArchiveRepository.saveAll(anyList())).thenReturn(Mono.empty());
+        when(orderArchiveRepository.deleteById(any())).thenReturn(Mono.empty());
+        when(orderRepository.estimatedCount()).thenReturn(Mono.just(0L));
+        when(orderArchiveRepository.estimatedCount()).thenReturn(Mono.just(0L));
+    }
+
+    @Test
+    void ordersDeletedOrChangedMeanwhileAreNotCountedAsMoved() {
+        StoredOrder removed = stored("removed");
+        StoredOrder deleted = stored("deleted");
+        StoredOrder changed = stored("changed");
+        when(orderRepository.findByOrderDateBefore(any(), anyInt()))
+                .thenReturn(Flux.just(removed, deleted, changed), Flux.empty());
+        when(orderRepository.deleteIfUnchanged(removed)).thenReturn(Mono.just(true));
+        when(orderRepository.deleteIfUnchanged(deleted)).thenReturn(Mono.just(false));
+        when(orderRepository.deleteIfUnchanged(changed)).thenReturn(Mono.just(false));
+        when(orderRepository.findStoredById("deleted")).thenReturn(Mono.empty());
+        when(orderRepository.findStoredById("changed")).thenReturn(Mono.just(changed));
+
+        job.archive();
+
+        assertThat(meterRegistry.get("orders.archive.moved").counter().count()).isEqualTo(1);
+        verify(orderArchiveRepository).deleteById("deleted");
+    }
+
+    @Test
+    void fullBatchWithNothingMovedDoesNotEndTheRun() {
+        StoredOrder deleted = stored("deleted");
+        StoredOrder removed = stored("removed");
+        when(orderRepository.findByOrderDateBefore(any(), anyInt()))
+                .thenReturn(Flux.just(deleted, deleted, deleted), Flux.just(removed), Flux.empty());
+        when(orderRepository.deleteIfUnchanged(deleted)).thenReturn(Mono.just(false));
+        when(orderRepository.findStoredById("deleted")).thenReturn(Mono.empty());
+        when(orderRepository.deleteIfUnchanged(removed)).thenReturn(Mono.just(true));
+
+        job.archive();
+
+        assertThat(meterRegistry.get("orders.archive.moved").counter().count()).isEqualTo(1);
+    }
+
+    private static StoredOrder stored(String id) {
+        return new StoredOrder(Order.builder().id(id).username("alice").orderDate(LocalDateTime.now().minusYears(2)).build(),
+                new Document("_id", id));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.userservice.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.userservice.infrastructure.logging.RateLimitedLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request throughput with one INFO line logged per request, the way the cache-miss and Kafka
+ * publish logs are written, for the three setups of the services:
+ *
+ *   sync         the default: the request thread formats and writes the line itself
+ *   async        the 'prod' profile: a bounded queue drained by a background writer, dropping
+ *                INFO when nearly full and never blocking (logback-spring.xml)
+ *   rate-limited 'async' with the message going through {@link RateLimitedLogger}
+ *
+ * 'bench.threads' threads run for 'bench.seconds', each request spinning 'bench.work-micros' of
+ * CPU before logging. Lines go to a file flushed after every event, like stdout piped to a
+ * container runtime. Run all variants, or one with -Dbench.logging=sync|async|rate-limited:
+ *
+ *   mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.userservice.benchmark.LoggingThroughputBenchmark
+ *
+ * System properties: bench.logging (default all), bench.threads (default 8), bench.seconds
+ * (default 10), bench.work-micros (default 20), bench.queue-size (default 8192),
+ * bench.rate-limit (messages per second, default 10).
+ */
+public final class LoggingThroughputBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private static volatile long sink;
+
+    private LoggingThroughputBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String only = System.getProperty("bench.logging", "all");
+        int threads = Integer.getInteger("bench.threads", 8);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        long workNanos = Long.getLong("bench.work-micros", 20) * 1000;
+        int queueSize = Integer.getInteger("bench.queue-size", 8192);
+        int rateLimit = Integer.getInteger("bench.rate-limit", 10);
+
+        List<String> variants = "all".equals(only) ? List.of("sync", "async", "rate-limited") : List.of(only);
+        System.out.printf("%d threads, %d s, %d us of work per request%n", threads, seconds, workNanos / 1000);
+        for (String variant : variants) {
+            // Warm-up, then the measured run
+            run(variant, threads, Math.max(1, seconds / 5), workNanos, queueSize, rateLimit, false);
+            run(variant, threads, seconds, workNanos, queueSize, rateLimit, true);
+        }
+    }
+
+    private static void run(String variant, int threads, int seconds, long workNanos, int queueSize,
+                            int rateLimit, boolean report) throws Exception {
+        Path file = Files.createTempFile("logging-benchmark-", ".log");
+        LoggerContext context = new LoggerContext();
+        context.start();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setName("FILE");
+        fileAppender.setFile(file.toString());
+        fileAppender.setAppend(false);
+        fileAppender.setImmediateFlush(true);
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (!"sync".equals(variant)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_FILE");
+            async.setQueueSize(queueSize);
+            async.setDiscardingThreshold(queueSize / 5);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+
+        Logger logger = context.getLogger("com.example.userservice.core.service.impl.UserServiceImpl");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        RateLimitedLogger rateLimited = "rate-limited".equals(variant) ? RateLimitedLogger.perSecond(logger, rateLimit) : null;
+
+        LongAdder requests = new LongAdder();
+        LongAdder logNanos = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long firstId = (long) t << 32;
+            Thread worker = new Thread(() -> {
+                long id = firstId;
+                long spentLogging = 0;
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    work(workNanos);
+                    long before = System.nanoTime();
+                    if (rateLimited != null) {
+                        rateLimited.info("DB hit -> fetching user {}", ++id);
+                    } else {
+                        logger.info("DB hit -> fetching user {}", ++id);
+                    }
+                    spentLogging += System.nanoTime() - before;
+                    count++;
+                }
+                requests.add(count);
+                logNanos.add(spentLogging);
+            }, "bench-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long total = requests.sum();
+        // Stopping drains what is still queued (up to the appender's max flush time)
+        context.stop();
+        long lines = countLines(file);
+        Files.deleteIfExists(file);
+
+        if (report) {
+            System.out.printf("%-12s %,12.0f requests/s   %,8.0f ns logging per request   %,d of %,d lines written%n",
+                    variant, total / (double) seconds, logNanos.sum() / (double) Math.max(1, total), lines, total);
+        }
+    }
+
+    private static void work(long nanos) {
+        long end = System.nanoTime() + nanos;
+        long x = 0;
+        while (System.nanoTime() < end) {
+            x += x * 31 + 7;
+        }
+        sink = x;
+    }
+
+    private static long countLines(Path file) throws IOException {
+        long lines = 0;
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+}
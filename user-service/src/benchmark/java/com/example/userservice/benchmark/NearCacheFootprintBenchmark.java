@@ -0,0 +1,279 @@
+package com.example.userservice.benchmark;
+
+import com.example.userservice.application.rest.dto.AddressDto;
+import com.example.userservice.application.rest.dto.UserResponseDto;
+import com.example.userservice.infrastructure.cache.EncodedUser;
+import com.example.userservice.infrastructure.cache.EncodedUserHttpMessageConverter;
+import com.example.userservice.infrastructure.cache.UserNearCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Heap footprint, GC pauses and throughput of the 'users' near cache held off-heap
+ * ({@link UserNearCache}) versus on the heap (a Caffeine cache of the same number of DTOs).
+ *
+ * Both caches are filled with 'bench.entries' users, then 'bench.threads' threads run for
+ * 'bench.seconds': 95% reads rendered to JSON the way the controller answers them (the binary
+ * entry through {@link EncodedUserHttpMessageConverter}, the DTO through Jackson) and 5% writes
+ * replacing a user. Pauses are the stop-the-world collections reported by the JVM; run each
+ * variant in its own JVM with the same heap:
+ *
+ *   MAVEN_OPTS="-Xmx2g -XX:MaxDirectMemorySize=1g" mvn -Pbenchmark test-compile exec:java -Dbench.cache=onheap
+ *   MAVEN_OPTS="-Xmx2g -XX:MaxDirectMemorySize=1g" mvn -Pbenchmark test-compile exec:java -Dbench.cache=offheap
+ *
+ * System properties: bench.cache (offheap|onheap, default offheap), bench.entries (default 2000000),
+ * bench.threads (default 4), bench.seconds (default 30), bench.offheap-mb (default 200 bytes per entry).
+ */
+public final class NearCacheFootprintBenchmark {
+
+    private static final String[] CITIES = {"Bogotá", "Medellín", "Cali", "Barranquilla", "Cartagena"};
+
+    private static volatile long sink;
+
+    private NearCacheFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String variant = System.getProperty("bench.cache", "offheap");
+        int entries = Integer.getInteger("bench.entries", 2_000_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        int seconds = Integer.getInteger("bench.seconds", 30);
+        long offHeapMb = Long.getLong("bench.offheap-mb", Math.max(64, entries * 200L >> 20));
+
+        long heapBefore = usedHeapAfterGc();
+        long directBefore = directMemory();
+        Variant cache = "onheap".equals(variant) ? new OnHeap(entries) : new OffHeap(offHeapMb);
+        long start = System.nanoTime();
+        for (long id = 1; id <= entries; id++) {
+            cache.put(id, user(id));
+        }
+        System.out.printf("%s: filled %d users in %.1f s%n", variant, entries, (System.nanoTime() - start) / 1e9);
+        long heap = usedHeapAfterGc() - heapBefore;
+        long direct = directMemory() - directBefore;
+        System.out.printf("%s: heap after GC +%d MB, direct memory +%d MB (%.0f bytes/user)%n",
+                variant, heap >> 20, direct >> 20, (double) (heap + direct) / entries);
+
+        // Warm-up, then the measured run
+        run(cache, entries, threads, Math.max(1, seconds / 5));
+        Pauses pauses = new Pauses();
+        pauses.listen();
+        long operations = run(cache, entries, threads, seconds);
+        System.out.printf("%s: %.0f ops/s, %d GC pauses, total %d ms, max %d ms (%s)%n",
+                variant, (double) operations / seconds, pauses.count.sum(), pauses.totalMillis.sum(),
+                pauses.maxMillis.get(), String.join(", ", pauses.collectors()));
+        System.out.printf("%s: hit ratio %.3f%n", variant, cache.hitRatio());
+    }
+
+    private static long run(Variant cache, int entries, int threads, int seconds) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ByteArrayOutputStream response = new ByteArrayOutputStream(512);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                try {
+                    while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                        long id = 1 + random.nextInt(entries);
+                        if (random.nextInt(100) < 5) {
+                            cache.put(id, user(id));
+                        } else {
+                            response.reset();
+                            cache.write(id, response);
+                            sink += response.size();
+                        }
+                        done++;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                operations.add(done);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum();
+    }
+
+    private static UserResponseDto user(long id) {
+        return UserResponseDto.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .address(AddressDto.builder()
+                        .street("Calle " + (id % 200) + " # " + (id % 97) + "-" + (id % 53))
+                        .city(CITIES[(int) (id % CITIES.length)])
+                        .state("Estado " + (id % 32))
+                        .zipCode(String.format("%06d", id % 1_000_000))
+                        .build())
+                .build();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private interface Variant {
+
+        void put(long id, UserResponseDto user);
+
+        void write(long id, OutputStream response) throws IOException;
+
+        double hitRatio();
+    }
+
+    private static final class OffHeap implements Variant {
+
+        private final UserNearCache cache;
+        private final EncodedUserHttpMessageConverter converter = new EncodedUserHttpMessageConverter();
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+
+        private OffHeap(long capacityMb) {
+            this.cache = new UserNearCache(true, DataSize.ofMegabytes(capacityMb), 16, DataSize.ofKilobytes(1),
+                    Duration.ofHours(1), null, new SimpleMeterRegistry());
+        }
+
+        @Override
+        public void put(long id, UserResponseDto user) {
+            cache.put(id, user);
+        }
+
+        @Override
+        public void write(long id, OutputStream response) throws IOException {
+            reads.increment();
+            EncodedUser cached = cache.getEncoded(id);
+            if (cached == null) {
+                // Evicted: answered like a miss served by the next level
+                objectMapper.writeValue(response, user(id));
+                return;
+            }
+            hits.increment();
+            converter.write(cached, MediaType.APPLICATION_JSON, new BenchmarkOutputMessage(response));
+        }
+
+        @Override
+        public double hitRatio() {
+            return hits.doubleValue() / Math.max(1, reads.sum());
+        }
+    }
+
+    private static final class OnHeap implements Variant {
+
+        private final Cache<Long, UserResponseDto> cache;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+
+        private OnHeap(int entries) {
+            this.cache = Caffeine.newBuilder().maximumSize(entries).build();
+        }
+
+        @Override
+        public void put(long id, UserResponseDto user) {
+            cache.put(id, user);
+        }
+
+        @Override
+        public void write(long id, OutputStream response) throws IOException {
+            reads.increment();
+            UserResponseDto cached = cache.getIfPresent(id);
+            if (cached != null) {
+                hits.increment();
+            }
+            objectMapper.writeValue(response, cached != null ? cached : user(id));
+        }
+
+        @Override
+        public double hitRatio() {
+            return hits.doubleValue() / Math.max(1, reads.sum());
+        }
+    }
+
+    private record BenchmarkOutputMessage(OutputStream body, HttpHeaders headers) implements HttpOutputMessage {
+
+        private BenchmarkOutputMessage(OutputStream body) {
+            this(body, new HttpHeaders());
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    /**
+     * Stop-the-world collections, from the GC notifications (concurrent cycles excluded).
+     */
+    private static final class Pauses {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private void listen() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector.getName().contains("Concurrent")) {
+                    continue;
+                }
+                ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        return;
+                    }
+                    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    long millis = info.getGcInfo().getDuration();
+                    count.increment();
+                    totalMillis.add(millis);
+                    maxMillis.accumulateAndGet(millis, Math::max);
+                }, null, null);
+            }
+        }
+
+        private List<String> collectors() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().map(GarbageCollectorMXBean::getName).toList();
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.example.userservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching // Enables Spring's caching abstraction
+@EnableScheduling // Enables the periodic cache jobs (hot-key aging and refresh-ahead)
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
@@ -3,6 +3,7 @@ package com.example.userservice.application.rest;
 import com.example.userservice.application.rest.dto.UserResponseDto;
 import com.example.userservice.application.rest.dto.UserUpdateRequestDto;
 import com.example.userservice.core.service.UserService;
+import com.example.userservice.infrastructure.cache.EncodedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +19,16 @@ public class UserController {
 
     private final UserService userService;
 
+    /**
+     * Users cached on this instance are answered right away on the request thread and written
+     * from their binary form, without the executor hop or building the DTO.
+     */
     @GetMapping("/{id}")
-    public CompletableFuture<ResponseEntity<UserResponseDto>> getUser(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> getUser(@PathVariable Long id) {
+        EncodedUser cached = userService.getEncodedUser(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(cached));
+        }
         return userService.getUserById(id)
                 .thenApply(opt -> new ResponseEntity<>(opt, HttpStatus.OK));
     }
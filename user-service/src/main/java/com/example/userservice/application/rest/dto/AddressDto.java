@@ -4,13 +4,20 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * DTO for representing address information.
  */
 @Getter
 @Setter
 @Builder
-public class AddressDto {
+public class AddressDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private String street;
     private String city;
     private String state;
@@ -4,6 +4,9 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * DTO for returning user information in API responses.
  * This object is used to control what information is sent to the client,
@@ -12,7 +15,10 @@ import lombok.Setter;
 @Getter
 @Setter
 @Builder
-public class UserResponseDto {
+public class UserResponseDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     private Long id;
     private String username;
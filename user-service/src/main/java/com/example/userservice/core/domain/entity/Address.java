@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents a user's address.
@@ -13,6 +15,7 @@ import lombok.Setter;
  */
 @Entity
 @Table(name = "addresses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Address.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,6 +23,8 @@ import lombok.Setter;
 @Builder
 public class Address {
 
+    public static final String CACHE_REGION = "address-entities";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
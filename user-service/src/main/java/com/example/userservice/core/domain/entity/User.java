@@ -6,6 +6,10 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Represents the User entity in the database.
@@ -15,9 +19,14 @@ import lombok.Setter;
  * Lombok's @Data has been avoided in favor of more granular annotations (@Getter, @Setter)
  * to provide finer control over generated boilerplate code and avoid potential issues
  * with bi-directional relationships or unintended mutability.
+ *
+ * Users are kept in the Hibernate second-level cache, and so are the username to id
+ * resolutions, so logins do not query the table (see HibernateCacheConfig).
  */
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,10 +34,15 @@ import lombok.Setter;
 @Builder
 public class User {
 
+    public static final String CACHE_REGION = "user-entities";
+    public static final String NATURAL_ID_CACHE_REGION = "user-natural-ids";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Mutable: it can be changed through PUT /users/{id}
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -0,0 +1,20 @@
+package com.example.userservice.core.domain.repository;
+
+import com.example.userservice.core.domain.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups of users by their natural id (the username), implemented with the Hibernate
+ * natural-id API so they are resolved from the second-level cache when possible.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Finds a user by their username.
+     *
+     * @param username The username to search for.
+     * @return An Optional containing the user if found, or an empty Optional otherwise.
+     */
+    Optional<User> findByUsername(String username);
+}
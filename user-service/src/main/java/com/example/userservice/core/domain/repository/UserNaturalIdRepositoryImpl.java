@@ -0,0 +1,28 @@
+package com.example.userservice.core.domain.repository;
+
+import com.example.userservice.core.domain.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Picked up by Spring Data as the implementation of {@link UserNaturalIdRepository}; it takes
+ * precedence over a query derived from the method name, which would always hit the database.
+ */
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The session must stay open for the lookup, which the shared EntityManager only ensures within a transaction
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
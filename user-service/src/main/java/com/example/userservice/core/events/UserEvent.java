@@ -1,5 +1,7 @@
 package com.example.userservice.core.events;
 
+import com.example.userservice.core.domain.entity.Address;
+import com.example.userservice.core.domain.entity.User;
 import lombok.*;
 
 @Getter
@@ -12,4 +14,28 @@ public class UserEvent {
     private Long id;
     private String username;
     private String email;
+    // Current address, so consumers can keep a self-contained projection of the user
+    private String street;
+    private String city;
+    private String state;
+    private String zipCode;
+    // Epoch millis at which the producer created the event, for end-to-end latency measurement
+    private Long eventTimestamp;
+
+    public static UserEvent of(String eventType, User user) {
+        UserEventBuilder builder = UserEvent.builder()
+                .eventType(eventType)
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .eventTimestamp(System.currentTimeMillis());
+        Address address = user.getAddress();
+        if (address != null) {
+            builder.street(address.getStreet())
+                    .city(address.getCity())
+                    .state(address.getState())
+                    .zipCode(address.getZipCode());
+        }
+        return builder.build();
+    }
 }
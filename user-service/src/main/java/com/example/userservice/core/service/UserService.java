@@ -2,6 +2,7 @@ package com.example.userservice.core.service;
 
 import com.example.userservice.application.rest.dto.UserResponseDto;
 import com.example.userservice.application.rest.dto.UserUpdateRequestDto;
+import com.example.userservice.infrastructure.cache.EncodedUser;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -9,6 +10,10 @@ import java.util.concurrent.CompletableFuture;
 public interface UserService {
 
     CompletableFuture<UserResponseDto> getUserById(Long id);
+    // The user in its cached binary form when this instance holds it, to be written as is; null otherwise
+    EncodedUser getEncodedUser(Long id);
+    // Reloads the user into the 'users' cache (refresh-ahead of hot entries); null if it no longer exists
+    UserResponseDto refreshCachedUser(Long id);
     CompletableFuture<List<UserResponseDto>> getAllUsers();
     CompletableFuture<UserResponseDto> updateUser(Long id, UserUpdateRequestDto updateRequest);
     CompletableFuture<Void> deleteUser(Long id);
@@ -54,9 +54,7 @@ public class AuthenticationService {
         address.setUser(user);
         User savedUser = userRepository.save(user);
 
-        kafkaProducerService.sendUserEvent(
-                new UserEvent("USER_CREATED", savedUser.getId(), savedUser.getUsername(), savedUser.getEmail())
-        );
+        kafkaProducerService.sendUserEvent(UserEvent.of("USER_CREATED", savedUser));
 
         String jwtToken = jwtService.generateToken(savedUser);
 
@@ -6,6 +6,9 @@ import com.example.userservice.application.rest.dto.AddressDto;
 import com.example.userservice.core.domain.entity.User;
 import com.example.userservice.core.domain.repository.UserRepository;
 import com.example.userservice.core.service.UserService;
+import com.example.userservice.infrastructure.cache.EncodedUser;
+import com.example.userservice.infrastructure.cache.UserNearCache;
+import com.example.userservice.infrastructure.logging.RateLimitedLogger;
 import com.example.userservice.infrastructure.messaging.KafkaProducerService;
 
 import lombok.RequiredArgsConstructor;
@@ -17,7 +20,7 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,21 +33,42 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // Logged once per cache miss and per report request, with one limiter per call site
+    private static final RateLimitedLogger cacheMissLog = RateLimitedLogger.perSecond(log, 10);
+    private static final RateLimitedLogger reportLog = RateLimitedLogger.perSecond(log, 10);
+
     private final UserRepository userRepository;
     private final KafkaProducerService kafkaProducerService;
     private final PasswordEncoder passwordEncoder;
     private final ExecutorService userExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final UserNearCache userNearCache;
 
     @Override
     @Cacheable(value = "users", key = "#id")
     public CompletableFuture<UserResponseDto> getUserById(Long id) {
         return CompletableFuture.supplyAsync(() -> {
-            log.info("DB hit -> fetching user {}", id);
+            cacheMissLog.info("DB hit -> fetching user {}", id);
             Optional<User> user = userRepository.findById(id);
             return toDto(user.orElseThrow());
         }, userExecutor);
     }
 
+    /**
+     * Reads the off-heap near cache of 'users' only, which reports the hit to the hot-key tracker:
+     * no executor hop and no DTO built for the users this instance already holds.
+     */
+    @Override
+    public EncodedUser getEncodedUser(Long id) {
+        return userNearCache.getEncoded(id);
+    }
+
+    @Override
+    @CachePut(value = "users", key = "#id", unless = "#result == null")
+    public UserResponseDto refreshCachedUser(Long id) {
+        return userRepository.findById(id).map(this::toDto).orElse(null);
+    }
+
     @Override
     public CompletableFuture<List<UserResponseDto>> getAllUsers() {
         return CompletableFuture.supplyAsync(() -> userRepository.findAll()
@@ -53,40 +77,39 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList()), userExecutor);
     }
 
-    
-    @Transactional
+    // The cache is updated by the proxy once the future completes. The transaction has to run on
+    // the executor thread, and a @Transactional method called from here would bypass the proxy.
+    @Override
     @CachePut(value = "users", key = "#id")
-    public UserResponseDto updateUserTransactional(Long id, UserUpdateRequestDto update) {
-        
+    public CompletableFuture<UserResponseDto> updateUser(Long id, UserUpdateRequestDto updateRequest) {
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
             User user = userRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            if (update.getUsername() != null) user.setUsername(update.getUsername());
-            if (update.getEmail() != null) user.setEmail(update.getEmail());
-            if (update.getPassword() != null && !update.getPassword().isBlank()) {
-                user.setPassword(passwordEncoder.encode(update.getPassword()));
+            if (updateRequest.getUsername() != null) user.setUsername(updateRequest.getUsername());
+            if (updateRequest.getEmail() != null) user.setEmail(updateRequest.getEmail());
+            if (updateRequest.getPassword() != null && !updateRequest.getPassword().isBlank()) {
+                user.setPassword(passwordEncoder.encode(updateRequest.getPassword()));
             }
             User userUpdated = userRepository.save(user);
-            kafkaProducerService.sendUserEvent(
-                new UserEvent("USER_UPDATED", userUpdated.getId(), userUpdated.getUsername(), userUpdated.getEmail())
-            );
+            kafkaProducerService.sendUserEvent(UserEvent.of("USER_UPDATED", userUpdated));
             return toDto(userUpdated);
-    }
-
-    @Override
-    public CompletableFuture<UserResponseDto> updateUser(Long id, UserUpdateRequestDto updateRequest) {
-        return CompletableFuture.supplyAsync(() -> updateUserTransactional(id, updateRequest), userExecutor);
+        }), userExecutor);
     }
 
     @Override
     @CacheEvict(value = "users", key = "#id")
     public CompletableFuture<Void> deleteUser(Long id) {
-        return CompletableFuture.runAsync(() -> userRepository.deleteById(id), userExecutor);
+        return CompletableFuture.runAsync(() -> {
+            userRepository.deleteById(id);
+            // Tombstone: lets log compaction drop the user from the 'user-events' topic
+            kafkaProducerService.sendUserTombstone(id);
+        }, userExecutor);
     }
 
     @Override
     public CompletableFuture<String> generateUserReport(Long userId) {
         return CompletableFuture.supplyAsync(() -> {
-            log.info("Generating report for {}", userId);
+            reportLog.info("Generating report for {}", userId);
             try { Thread.sleep(5000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
             return userRepository.findById(userId)
                     .map(u -> String.format("Report for %s (%s)", u.getUsername(), u.getEmail()))
@@ -0,0 +1,8 @@
+package com.example.userservice.infrastructure.cache;
+
+/**
+ * A user read from the {@link UserNearCache} in its binary form, returned by the controller
+ * as is and written as JSON by {@link EncodedUserHttpMessageConverter}.
+ */
+public record EncodedUser(byte[] bytes) {
+}
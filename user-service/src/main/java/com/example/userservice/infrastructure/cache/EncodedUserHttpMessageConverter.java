@@ -0,0 +1,59 @@
+package com.example.userservice.infrastructure.cache;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link EncodedUser} as JSON straight from its binary form into the response, with
+ * the same output as Jackson for the decoded {@link com.example.userservice.application.rest.dto.UserResponseDto}.
+ * Picked up by Spring Boot like any HttpMessageConverter bean.
+ */
+@Component
+public class EncodedUserHttpMessageConverter extends AbstractHttpMessageConverter<EncodedUser> {
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    public EncodedUserHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EncodedUser.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected EncodedUser readInternal(Class<? extends EncodedUser> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("EncodedUser is only written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(EncodedUser user, MediaType contentType) {
+        // Known only once written; the body is small, so it is not worth rendering twice
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(EncodedUser user, HttpOutputMessage outputMessage) throws IOException {
+        int maxBytes = UserBinaryCodec.maxJsonBytes(user.bytes().length);
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < maxBytes) {
+            buffer = new byte[maxBytes];
+            BUFFERS.set(buffer);
+        }
+        int length = UserBinaryCodec.writeJson(user.bytes(), user.bytes().length, buffer);
+        outputMessage.getHeaders().setContentLength(length);
+        outputMessage.getBody().write(buffer, 0, length);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.example.userservice.core.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Refresh-ahead of the hot users found by {@link HotKeyTracker}. Every 'refresh-interval', the
+ * hot users whose cache entry this instance wrote more than 'refresh-ahead' x TTL ago, or at an
+ * unknown time, are reloaded from the database, so a popular user never expires and misses.
+ *
+ * The hot keys are also saved to a Redis sorted set, from which the top ones are loaded into the
+ * cache on startup, before the instance reports ready (runs just before the warm-up).
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class HotKeyRefresher implements ApplicationRunner {
+
+    private static final String CACHE = "users";
+    private static final Duration SAVED_TTL = Duration.ofDays(1);
+
+    private final HotKeyTracker hotKeyTracker;
+    private final UserService userService;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${spring.cache.redis.time-to-live:600000}")
+    private Duration ttl;
+
+    @Value("${spring.cache.redis.key-prefix:}")
+    private String keyPrefix;
+
+    @Value("${application.cache.hot-keys.refresh-ahead:0.8}")
+    private double refreshAhead;
+
+    @Value("${application.cache.hot-keys.preload-timeout:10s}")
+    private Duration preloadTimeout;
+
+    public HotKeyRefresher(HotKeyTracker hotKeyTracker, UserService userService, StringRedisTemplate redisTemplate) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.userService = userService;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!hotKeyTracker.trackedCaches().contains(CACHE)) {
+            return;
+        }
+        try {
+            Set<TypedTuple<String>> saved = redisTemplate.opsForZSet()
+                    .reverseRangeWithScores(savedKey(), 0, hotKeyTracker.topN() - 1L);
+            if (saved == null || saved.isEmpty()) {
+                return;
+            }
+            long deadline = System.nanoTime() + preloadTimeout.toNanos();
+            int preloaded = 0;
+            for (TypedTuple<String> hotKey : saved) {
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+                Long id = Long.valueOf(hotKey.getValue());
+                hotKeyTracker.seed(CACHE, id, hotKey.getScore() == null ? 0 : hotKey.getScore().longValue());
+                if (userService.refreshCachedUser(id) != null) {
+                    preloaded++;
+                }
+            }
+            log.info("Preloaded {} hot users into the cache", preloaded);
+        } catch (RuntimeException e) {
+            log.warn("Could not preload the hot users: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.cache.hot-keys.refresh-interval:30s}",
+            initialDelayString = "${application.cache.hot-keys.refresh-interval:30s}")
+    public void refreshHotKeys() {
+        List<HotKeyTracker.HotKey> hotKeys = hotKeyTracker.hotKeys(CACHE);
+        if (hotKeys.isEmpty()) {
+            return;
+        }
+        Instant refreshBefore = Instant.now().minusMillis((long) (ttl.toMillis() * refreshAhead));
+        try {
+            int refreshed = 0;
+            for (HotKeyTracker.HotKey hotKey : hotKeys) {
+                if (hotKey.loadedAt() != null && !hotKey.loadedAt().isBefore(refreshBefore)) {
+                    continue;
+                }
+                if (userService.refreshCachedUser((Long) hotKey.key()) != null) {
+                    refreshed++;
+                } else {
+                    // Deleted since: stop refreshing it
+                    hotKeyTracker.forget(CACHE, hotKey.key());
+                }
+            }
+            save(hotKeys);
+            log.debug("Refreshed {} of {} hot users", refreshed, hotKeys.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the hot users: {}", e.getMessage());
+        }
+    }
+
+    private void save(List<HotKeyTracker.HotKey> hotKeys) {
+        String key = savedKey();
+        Set<TypedTuple<String>> tuples = hotKeys.stream()
+                .map(hotKey -> TypedTuple.of(hotKey.key().toString(), (double) hotKey.estimate()))
+                .collect(Collectors.toSet());
+        redisTemplate.delete(key);
+        redisTemplate.opsForZSet().add(key, tuples);
+        redisTemplate.expire(key, SAVED_TTL);
+    }
+
+    private String savedKey() {
+        return keyPrefix + "hot-keys::" + CACHE;
+    }
+}
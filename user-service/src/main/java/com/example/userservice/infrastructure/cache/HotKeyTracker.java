@@ -0,0 +1,185 @@
+package com.example.userservice.infrastructure.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the most accessed keys of selected caches. Accesses are counted in a
+ * {@link CountMinSketch} per cache, halved every 'decay-interval'; keys reaching 'min-rate'
+ * accesses per second become candidates, of which the 'top-n' most frequent are the hot keys.
+ *
+ * With halving every T seconds, a key read r times per second settles at an estimate of
+ * r * (T + t), t being the time since the last halving, which gives the reported rate.
+ * Accesses and loads are reported by {@link ResilientCache}, and the hits of the off-heap near
+ * cache in front of it by {@link UserNearCache}.
+ */
+@Component
+public class HotKeyTracker {
+
+    private final Map<String, Tracked> caches = new HashMap<>();
+    private final int topN;
+    private final double minRate;
+    private final Duration decayInterval;
+    private volatile long lastDecayNanos = System.nanoTime();
+
+    public HotKeyTracker(@Value("${application.cache.hot-keys.caches:}") List<String> cacheNames,
+                         @Value("${application.cache.hot-keys.sketch-width:65536}") int sketchWidth,
+                         @Value("${application.cache.hot-keys.top-n:100}") int topN,
+                         @Value("${application.cache.hot-keys.min-rate:1.0}") double minRate,
+                         @Value("${application.cache.hot-keys.decay-interval:60s}") Duration decayInterval) {
+        for (String cacheName : cacheNames) {
+            if (!cacheName.isBlank()) {
+                caches.put(cacheName.trim(), new Tracked(new CountMinSketch(sketchWidth)));
+            }
+        }
+        this.topN = topN;
+        this.minRate = minRate;
+        this.decayInterval = decayInterval;
+    }
+
+    public Set<String> trackedCaches() {
+        return caches.keySet();
+    }
+
+    public int topN() {
+        return topN;
+    }
+
+    public void recordAccess(String cacheName, Object key) {
+        Tracked tracked = caches.get(cacheName);
+        if (tracked == null) {
+            return;
+        }
+        long estimate = tracked.sketch.increment(key);
+        Candidate candidate = tracked.candidates.get(key);
+        if (candidate != null) {
+            candidate.estimate = estimate;
+        } else if (estimate >= admissionThreshold()) {
+            tracked.candidates.putIfAbsent(key, new Candidate(estimate));
+            if (tracked.candidates.size() > 4 * topN) {
+                tracked.prune(3 * topN);
+            }
+        }
+    }
+
+    /**
+     * The key's value was (re)written to the cache.
+     */
+    public void recordLoad(String cacheName, Object key) {
+        Tracked tracked = caches.get(cacheName);
+        Candidate candidate = tracked != null ? tracked.candidates.get(key) : null;
+        if (candidate != null) {
+            candidate.loadedAt = Instant.now();
+        }
+    }
+
+    public void forget(String cacheName, Object key) {
+        Tracked tracked = caches.get(cacheName);
+        if (tracked != null) {
+            tracked.candidates.remove(key);
+        }
+    }
+
+    /**
+     * Makes a key hot right away with the given estimate, e.g. a hot key of a previous run.
+     */
+    public void seed(String cacheName, Object key, long estimate) {
+        Tracked tracked = caches.get(cacheName);
+        if (tracked != null && estimate > 0) {
+            long seeded = tracked.sketch.add(key, (int) Math.min(estimate, Integer.MAX_VALUE / 2));
+            tracked.candidates.computeIfAbsent(key, k -> new Candidate(seeded)).estimate = seeded;
+        }
+    }
+
+    /**
+     * Current hot keys of the cache, most accessed first.
+     */
+    public List<HotKey> hotKeys(String cacheName) {
+        Tracked tracked = caches.get(cacheName);
+        if (tracked == null) {
+            return List.of();
+        }
+        double seconds = (decayInterval.toNanos() + System.nanoTime() - lastDecayNanos) / 1e9;
+        return tracked.candidates.entrySet().stream()
+                .filter(entry -> entry.getValue().estimate / seconds >= minRate)
+                .sorted(Comparator.comparingLong((Map.Entry<Object, Candidate> entry) -> entry.getValue().estimate).reversed())
+                .limit(topN)
+                .map(entry -> new HotKey(entry.getKey(), entry.getValue().estimate,
+                        entry.getValue().estimate / seconds, entry.getValue().loadedAt))
+                .toList();
+    }
+
+    @Scheduled(fixedRateString = "${application.cache.hot-keys.decay-interval:60s}",
+            initialDelayString = "${application.cache.hot-keys.decay-interval:60s}")
+    public void decay() {
+        long threshold = admissionThreshold();
+        for (Tracked tracked : caches.values()) {
+            tracked.sketch.halve();
+            tracked.candidates.forEach((key, candidate) -> {
+                candidate.estimate = tracked.sketch.estimate(key);
+                // Cooled down well below the admission level
+                if (candidate.estimate < threshold / 2) {
+                    tracked.candidates.remove(key);
+                }
+            });
+        }
+        lastDecayNanos = System.nanoTime();
+    }
+
+    /**
+     * Estimate of a key read 'min-rate' times per second right after a halving.
+     */
+    private long admissionThreshold() {
+        return Math.max(1, (long) (minRate * decayInterval.toSeconds()));
+    }
+
+    /**
+     * @param ratePerSecond estimated accesses per second on this instance
+     * @param loadedAt      last time this instance wrote the key to the cache, if known
+     */
+    public record HotKey(Object key, long estimate, double ratePerSecond, @Nullable Instant loadedAt) {
+    }
+
+    private static final class Candidate {
+
+        private volatile long estimate;
+        private volatile Instant loadedAt;
+
+        private Candidate(long estimate) {
+            this.estimate = estimate;
+        }
+    }
+
+    private record Tracked(CountMinSketch sketch, Map<Object, Candidate> candidates) {
+
+        private Tracked(CountMinSketch sketch) {
+            this(sketch, new ConcurrentHashMap<>());
+        }
+
+        /**
+         * Keeps the 'size' most accessed candidates.
+         */
+        private synchronized void prune(int size) {
+            if (candidates.size() <= size) {
+                return;
+            }
+            candidates.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().estimate))
+                    .limit(candidates.size() - size)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(candidates::remove);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.userservice.infrastructure.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache: reads are served from the {@link UserNearCache} when possible, and values
+ * read from or written to the underlying cache are copied into it. Writes and evictions go to
+ * both levels.
+ */
+public class OffHeapNearCache implements Cache {
+
+    private final Cache delegate;
+    private final UserNearCache near;
+
+    public OffHeapNearCache(Cache delegate, UserNearCache near) {
+        this.delegate = delegate;
+        this.near = near;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        Object cached = near.get(key);
+        if (cached != null) {
+            return new SimpleValueWrapper(cached);
+        }
+        ValueWrapper value = delegate.get(key);
+        if (value != null) {
+            near.put(key, value.get());
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        Object cached = near.get(key);
+        if (cached != null && (type == null || type.isInstance(cached))) {
+            return (T) cached;
+        }
+        T value = delegate.get(key, type);
+        if (value != null) {
+            near.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = near.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        T value = delegate.get(key, valueLoader);
+        near.put(key, value);
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(Object key) {
+        Object cached = near.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<?> future = delegate.retrieve(key);
+        if (future == null) {
+            return null;
+        }
+        return future.thenApply(value -> {
+            if (value != null) {
+                near.put(key, value instanceof ValueWrapper wrapper ? wrapper.get() : value);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Object cached = near.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached);
+        }
+        return delegate.retrieve(key, valueLoader).thenApply(value -> {
+            near.put(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        delegate.put(key, value);
+        near.put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        // The near entry is filled again by the next read
+        near.evict(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        // Underlying cache first, so a concurrent read cannot copy the old value back
+        delegate.evict(key);
+        near.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        near.evict(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        near.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        near.clear();
+        return invalidated;
+    }
+}
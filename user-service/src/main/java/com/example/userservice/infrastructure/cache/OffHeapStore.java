@@ -0,0 +1,406 @@
+package com.example.userservice.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded map of long keys to small byte values, held in direct memory so millions of entries
+ * add nothing for the GC to trace or copy.
+ *
+ * Keys are spread over segments, each with its own lock. A segment is a log: values are appended
+ * to a circular arena of fixed size, overwriting the oldest ones, so memory never exceeds the
+ * configured capacity and eviction costs nothing. An entry read while it sits in the oldest
+ * quarter of the arena is appended again (second chance), which keeps frequently read entries
+ * from being evicted first. An off-heap open-addressing index maps each key to the position of
+ * its latest value; positions that have been overwritten or expired count as misses and are
+ * dropped when the index is rebuilt.
+ *
+ * Readers use an optimistic stamp and only take the read lock when a write raced with them.
+ */
+final class OffHeapStore {
+
+    // key, expiry (epoch millis), value length
+    private static final int HEADER_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int ALIGNMENT = 8;
+    // Direct buffers are indexed by int
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int maxValueBytes;
+    private final long ttlMillis;
+
+    /**
+     * @param capacityBytes Arena memory over all segments; the index comes on top (about 1/8 of it).
+     * @param segmentCount Rounded up to a power of two.
+     * @param maxValueBytes Larger values are not stored.
+     */
+    OffHeapStore(long capacityBytes, int segmentCount, int maxValueBytes, long ttlMillis) {
+        int count = segmentCount <= 1 ? 1 : Integer.highestOneBit(segmentCount - 1) << 1;
+        long segmentBytes = Math.min(MAX_SEGMENT_BYTES, capacityBytes / count) & -ALIGNMENT;
+        if (segmentBytes < 4L * align(HEADER_BYTES + maxValueBytes)) {
+            throw new IllegalArgumentException("Off-heap store of " + capacityBytes + " bytes in " + count
+                    + " segments is too small for values of " + maxValueBytes + " bytes");
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((int) segmentBytes);
+        }
+        this.segmentMask = count - 1;
+        this.maxValueBytes = maxValueBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    int maxValueBytes() {
+        return maxValueBytes;
+    }
+
+    /**
+     * Copies the value of 'key' into 'target', which must hold {@link #maxValueBytes()} bytes.
+     * @return The length of the value, or -1 if there is none.
+     */
+    int get(long key, byte[] target) {
+        long hash = mix(key);
+        return segmentOf(hash).get(key, hash, target);
+    }
+
+    void put(long key, byte[] value, int length) {
+        if (length > maxValueBytes) {
+            remove(key);
+            return;
+        }
+        long hash = mix(key);
+        segmentOf(hash).put(key, hash, value, length, System.currentTimeMillis() + ttlMillis);
+    }
+
+    void remove(long key) {
+        long hash = mix(key);
+        segmentOf(hash).remove(key, hash);
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Keys in the index, including the ones whose value was overwritten since the last rebuild.
+     */
+    long indexedKeys() {
+        long keys = 0;
+        for (Segment segment : segments) {
+            keys += segment.index.size;
+        }
+        return keys;
+    }
+
+    long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.arena.capacity() + (long) segment.index.capacity() * Index.SLOT_BYTES;
+        }
+        return bytes;
+    }
+
+    private Segment segmentOf(long hash) {
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    private static int align(int bytes) {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * MurmurHash3 finalizer: low bits pick the index slot, high bits the segment.
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec3L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private final ByteBuffer arena;
+        private final int arenaBytes;
+        private final int initialIndexCapacity;
+        // Logical write position: total bytes appended so far; the arena holds [head - arenaBytes, head)
+        private long head;
+        private Index index;
+
+        private Segment(int arenaBytes) {
+            this.arena = ByteBuffer.allocateDirect(arenaBytes).order(ByteOrder.nativeOrder());
+            this.arenaBytes = arenaBytes;
+            // Room for entries of ~128 bytes before the index has to grow
+            this.initialIndexCapacity = Index.capacityFor(arenaBytes / 128);
+            this.index = new Index(initialIndexCapacity);
+        }
+
+        private int get(long key, long hash, byte[] target) {
+            long stamp = lock.tryOptimisticRead();
+            long position = locate(key, hash);
+            int length = position < 0 ? -1 : copy(position, key, target);
+            boolean promote = length >= 0 && position < head - arenaBytes + arenaBytes / 4;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    position = locate(key, hash);
+                    length = position < 0 ? -1 : copy(position, key, target);
+                    promote = length >= 0 && position < head - arenaBytes + arenaBytes / 4;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (promote) {
+                promote(key, hash, position, target, length);
+            }
+            return length;
+        }
+
+        private void put(long key, long hash, byte[] value, int length, long expiresAt) {
+            long stamp = lock.writeLock();
+            try {
+                append(key, hash, value, length, expiresAt);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                index.remove(key, hash);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                index = new Index(initialIndexCapacity);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Position of the latest value of the key, or -1 if it has none or it was overwritten.
+         */
+        private long locate(long key, long hash) {
+            long position = index.get(key, hash);
+            return position >= 0 && position >= head - arenaBytes ? position : -1;
+        }
+
+        /**
+         * Bounds are checked because an optimistic read may see an entry being overwritten;
+         * such a read is discarded by the stamp validation.
+         */
+        private int copy(long position, long key, byte[] target) {
+            int offset = (int) (position % arenaBytes);
+            if (offset > arenaBytes - HEADER_BYTES || arena.getLong(offset) != key) {
+                return -1;
+            }
+            if (arena.getLong(offset + Long.BYTES) <= System.currentTimeMillis()) {
+                return -1;
+            }
+            int length = arena.getInt(offset + 2 * Long.BYTES);
+            if (length < 0 || length > target.length || offset + HEADER_BYTES + length > arenaBytes) {
+                return -1;
+            }
+            arena.get(offset + HEADER_BYTES, target, 0, length);
+            return length;
+        }
+
+        /**
+         * Appends again a value about to be overwritten, keeping its expiry, unless it changed
+         * since it was read.
+         */
+        private void promote(long key, long hash, long position, byte[] value, int length) {
+            long stamp = lock.tryWriteLock();
+            if (stamp == 0) {
+                // Another thread is writing; the entry gets its chance on a later read
+                return;
+            }
+            try {
+                if (locate(key, hash) == position) {
+                    long expiresAt = arena.getLong((int) (position % arenaBytes) + Long.BYTES);
+                    append(key, hash, value, length, expiresAt);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void append(long key, long hash, byte[] value, int length, long expiresAt) {
+            int entryBytes = align(HEADER_BYTES + length);
+            int offset = (int) (head % arenaBytes);
+            if (offset + entryBytes > arenaBytes) {
+                // Entries never wrap around: skip the end of the arena
+                head += arenaBytes - offset;
+                offset = 0;
+            }
+            long position = head;
+            arena.putLong(offset, key);
+            arena.putLong(offset + Long.BYTES, expiresAt);
+            arena.putInt(offset + 2 * Long.BYTES, length);
+            arena.put(offset + HEADER_BYTES, value, 0, length);
+            head += entryBytes;
+            if (!index.contains(key, hash) && index.isFull()) {
+                index = rebuild();
+            }
+            index.put(key, hash, position);
+        }
+
+        /**
+         * A new index with only the keys whose value is still in the arena and not expired;
+         * twice as large if those still fill half of it.
+         */
+        private Index rebuild() {
+            long now = System.currentTimeMillis();
+            int live = 0;
+            for (int slot = 0; slot < index.capacity(); slot++) {
+                if (isLive(index.positionAt(slot), now)) {
+                    live++;
+                }
+            }
+            int capacity = live * 2 > index.capacity() ? Math.min(index.capacity() * 2, Index.MAX_CAPACITY) : index.capacity();
+            Index rebuilt = new Index(capacity);
+            for (int slot = 0; slot < index.capacity(); slot++) {
+                long position = index.positionAt(slot);
+                if (isLive(position, now)) {
+                    long key = index.keyAt(slot);
+                    rebuilt.put(key, mix(key), position);
+                }
+            }
+            return rebuilt;
+        }
+
+        private boolean isLive(long position, long now) {
+            return position >= 0 && position >= head - arenaBytes
+                    && arena.getLong((int) (position % arenaBytes) + Long.BYTES) > now;
+        }
+    }
+
+    /**
+     * Power-of-two open-addressing table of (key, position + 1) slots in a direct buffer, with
+     * linear probing; a slot is empty when its position is 0, so any key value can be stored.
+     */
+    private static final class Index {
+
+        private static final int SLOT_BYTES = 16;
+        private static final double MAX_LOAD = 0.7;
+        // More than a 1 GiB arena can hold at 24 bytes per entry
+        private static final int MAX_CAPACITY = 1 << 26;
+
+        private final ByteBuffer slots;
+        private final int mask;
+        private int size;
+
+        private Index(int capacity) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            this.mask = capacity - 1;
+        }
+
+        private static int capacityFor(int entries) {
+            long needed = (long) Math.ceil(Math.max(entries, 1) / MAX_LOAD);
+            int capacity = 16;
+            while (capacity < needed && capacity < MAX_CAPACITY) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private boolean isFull() {
+            return size + 1 > capacity() * MAX_LOAD;
+        }
+
+        private long keyAt(int slot) {
+            return slots.getLong(slot * SLOT_BYTES);
+        }
+
+        /**
+         * @return The position stored in the slot, or -1 if it is empty.
+         */
+        private long positionAt(int slot) {
+            return slots.getLong(slot * SLOT_BYTES + Long.BYTES) - 1;
+        }
+
+        private boolean contains(long key, long hash) {
+            return get(key, hash) >= 0;
+        }
+
+        private long get(long key, long hash) {
+            int slot = (int) hash & mask;
+            // Bounded so a read racing with a write always terminates (and is then retried)
+            for (int probe = 0; probe <= mask; probe++) {
+                long position = positionAt(slot);
+                if (position < 0) {
+                    return -1;
+                }
+                if (keyAt(slot) == key) {
+                    return position;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void put(long key, long hash, long position) {
+            int slot = (int) hash & mask;
+            while (true) {
+                boolean empty = positionAt(slot) < 0;
+                if (empty || keyAt(slot) == key) {
+                    slots.putLong(slot * SLOT_BYTES, key);
+                    slots.putLong(slot * SLOT_BYTES + Long.BYTES, position + 1);
+                    if (empty) {
+                        size++;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Backward-shift deletion: the entries following the removed one are moved back when
+         * that brings them closer to their home slot, so no tombstones are needed.
+         */
+        private void remove(long key, long hash) {
+            int hole = (int) hash & mask;
+            while (true) {
+                if (positionAt(hole) < 0) {
+                    return;
+                }
+                if (keyAt(hole) == key) {
+                    break;
+                }
+                hole = (hole + 1) & mask;
+            }
+            int next = (hole + 1) & mask;
+            while (positionAt(next) >= 0) {
+                long current = keyAt(next);
+                int home = (int) mix(current) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots.putLong(hole * SLOT_BYTES, current);
+                    slots.putLong(hole * SLOT_BYTES + Long.BYTES, slots.getLong(next * SLOT_BYTES + Long.BYTES));
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            slots.putLong(hole * SLOT_BYTES + Long.BYTES, 0);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the Redis cache manager in a {@link ResilientCache}, all sharing one
+ * circuit breaker: Redis is a single dependency, so failures seen by one cache open it for all.
+ * Cache accesses are reported to the {@link HotKeyTracker} when one is given, and the 'users'
+ * cache is fronted by the off-heap {@link UserNearCache} when it is enabled.
+ *
+ * Breaker transitions are logged and counted ('cache.breaker.transitions'); when it closes again,
+ * the caches resync with Redis in the background.
+ */
+@Slf4j
+public class ResilientCacheManager implements CacheManager {
+
+    private final CacheManager redis;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final int localMaxSize;
+    private final Duration localTtl;
+    private final MeterRegistry meterRegistry;
+    @Nullable
+    private final HotKeyTracker hotKeys;
+    @Nullable
+    private final UserNearCache userNearCache;
+    private final ConcurrentMap<String, ResilientCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> nearCaches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(CacheManager redis, CircuitBreaker circuitBreaker, Duration timeout,
+                                 int localMaxSize, Duration localTtl, @Nullable HotKeyTracker hotKeys,
+                                 @Nullable UserNearCache userNearCache, MeterRegistry meterRegistry) {
+        this.redis = redis;
+        this.circuitBreaker = circuitBreaker;
+        this.timeout = timeout;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.meterRegistry = meterRegistry;
+        this.hotKeys = hotKeys;
+        this.userNearCache = userNearCache;
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            if (transition.getToState() == CircuitBreaker.State.OPEN) {
+                log.warn("Redis cache circuit breaker opened, serving caches from {}",
+                        localMaxSize > 0 ? "the local fallback" : "the database");
+            } else {
+                log.info("Redis cache circuit breaker {} -> {}", transition.getFromState(), transition.getToState());
+            }
+            meterRegistry.counter("cache.breaker.transitions",
+                    "name", circuitBreaker.getName(),
+                    "from", transition.getFromState().name(),
+                    "to", transition.getToState().name()).increment();
+            if (transition.getToState() == CircuitBreaker.State.CLOSED) {
+                CompletableFuture.runAsync(() -> caches.values().forEach(ResilientCache::resync));
+            }
+        });
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(String name) {
+        Cache nearCache = nearCaches.get(name);
+        if (nearCache != null) {
+            return nearCache;
+        }
+        ResilientCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = redis.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        ResilientCache resilient = caches.computeIfAbsent(name, cacheName ->
+                new ResilientCache(target, localCache(cacheName), circuitBreaker, timeout, Math.max(localMaxSize, 1000), hotKeys, meterRegistry));
+        if (userNearCache != null && userNearCache.isEnabled() && UserNearCache.CACHE_NAME.equals(name)) {
+            return nearCaches.computeIfAbsent(name, cacheName -> new OffHeapNearCache(resilient, userNearCache));
+        }
+        return resilient;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redis.getCacheNames();
+    }
+
+    /**
+     * Bounded, short-lived in-process cache used while Redis is unavailable; none when the size is 0.
+     */
+    @Nullable
+    private Cache localCache(String name) {
+        if (localMaxSize <= 0) {
+            return null;
+        }
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .buildAsync(), true);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.example.userservice.application.rest.dto.AddressDto;
+import com.example.userservice.application.rest.dto.UserResponseDto;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of a {@link UserResponseDto}, as stored in the {@link UserNearCache}:
+ * a byte of presence flags, the id as a varint, then every present string as a varint length
+ * and its UTF-8 bytes. A typical user with an address takes ~100 bytes instead of the ~600 of
+ * its object graph on the heap.
+ *
+ * It can be decoded back to the DTO or written directly as the JSON Jackson produces for it, so
+ * a cached user is served without building the DTO or any String.
+ */
+final class UserBinaryCodec {
+
+    private static final int ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int ADDRESS = 1 << 3;
+    private static final int STREET = 1 << 4;
+    private static final int CITY = 1 << 5;
+    private static final int STATE = 1 << 6;
+    private static final int ZIP_CODE = 1 << 7;
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private UserBinaryCodec() {
+    }
+
+    /**
+     * @return The number of bytes written to 'target', or -1 if the user does not fit in it.
+     */
+    static int encode(UserResponseDto user, byte[] target) {
+        AddressDto address = user.getAddress();
+        int flags = (user.getId() != null ? ID : 0)
+                | (user.getUsername() != null ? USERNAME : 0)
+                | (user.getEmail() != null ? EMAIL : 0);
+        if (address != null) {
+            flags |= ADDRESS
+                    | (address.getStreet() != null ? STREET : 0)
+                    | (address.getCity() != null ? CITY : 0)
+                    | (address.getState() != null ? STATE : 0)
+                    | (address.getZipCode() != null ? ZIP_CODE : 0);
+        }
+        try {
+            target[0] = (byte) flags;
+            int position = 1;
+            if (user.getId() != null) {
+                position = writeVarLong(target, position, user.getId());
+            }
+            position = writeString(target, position, user.getUsername());
+            position = writeString(target, position, user.getEmail());
+            if (address != null) {
+                position = writeString(target, position, address.getStreet());
+                position = writeString(target, position, address.getCity());
+                position = writeString(target, position, address.getState());
+                position = writeString(target, position, address.getZipCode());
+            }
+            return position;
+        } catch (IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    static UserResponseDto decode(byte[] source, int length) {
+        Reader reader = new Reader(source);
+        int flags = source[reader.position++] & 0xFF;
+        UserResponseDto.UserResponseDtoBuilder user = UserResponseDto.builder();
+        if ((flags & ID) != 0) {
+            user.id(reader.readVarLong());
+        }
+        if ((flags & USERNAME) != 0) {
+            user.username(reader.readString());
+        }
+        if ((flags & EMAIL) != 0) {
+            user.email(reader.readString());
+        }
+        if ((flags & ADDRESS) != 0) {
+            AddressDto.AddressDtoBuilder address = AddressDto.builder();
+            if ((flags & STREET) != 0) {
+                address.street(reader.readString());
+            }
+            if ((flags & CITY) != 0) {
+                address.city(reader.readString());
+            }
+            if ((flags & STATE) != 0) {
+                address.state(reader.readString());
+            }
+            if ((flags & ZIP_CODE) != 0) {
+                address.zipCode(reader.readString());
+            }
+            user.address(address.build());
+        }
+        if (reader.position != length) {
+            throw new IllegalStateException("Corrupted cached user: " + reader.position + " of " + length + " bytes read");
+        }
+        return user.build();
+    }
+
+    /**
+     * Upper bound of the JSON size of an encoded user of 'length' bytes (every byte escaped).
+     */
+    static int maxJsonBytes(int length) {
+        return 192 + 6 * length;
+    }
+
+    /**
+     * Writes the user as JSON into 'target', with the properties, nulls and escaping of
+     * Jackson's default serialization of {@link UserResponseDto}. String bytes are copied as
+     * they are: the characters JSON requires to escape are all ASCII, and ASCII bytes never
+     * occur inside multi-byte UTF-8 sequences. The exception are characters outside the BMP,
+     * which Jackson writes as an escaped surrogate pair.
+     * @param target At least {@link #maxJsonBytes(int)} bytes.
+     * @return The number of bytes written.
+     */
+    static int writeJson(byte[] source, int length, byte[] target) {
+        Reader reader = new Reader(source);
+        int flags = source[reader.position++] & 0xFF;
+        int out = 0;
+        out = ascii(target, out, "{\"id\":");
+        out = (flags & ID) != 0 ? decimal(target, out, reader.readVarLong()) : ascii(target, out, "null");
+        out = ascii(target, out, ",\"username\":");
+        out = jsonString(reader, (flags & USERNAME) != 0, target, out);
+        out = ascii(target, out, ",\"email\":");
+        out = jsonString(reader, (flags & EMAIL) != 0, target, out);
+        out = ascii(target, out, ",\"address\":");
+        if ((flags & ADDRESS) != 0) {
+            out = ascii(target, out, "{\"street\":");
+            out = jsonString(reader, (flags & STREET) != 0, target, out);
+            out = ascii(target, out, ",\"city\":");
+            out = jsonString(reader, (flags & CITY) != 0, target, out);
+            out = ascii(target, out, ",\"state\":");
+            out = jsonString(reader, (flags & STATE) != 0, target, out);
+            out = ascii(target, out, ",\"zipCode\":");
+            out = jsonString(reader, (flags & ZIP_CODE) != 0, target, out);
+            out = ascii(target, out, "}");
+        } else {
+            out = ascii(target, out, "null");
+        }
+        target[out++] = '}';
+        if (reader.position != length) {
+            throw new IllegalStateException("Corrupted cached user: " + reader.position + " of " + length + " bytes read");
+        }
+        return out;
+    }
+
+    private static int jsonString(Reader reader, boolean present, byte[] target, int out) {
+        if (!present) {
+            return ascii(target, out, "null");
+        }
+        int length = reader.readVarInt();
+        int end = reader.position + length;
+        target[out++] = '"';
+        for (int i = reader.position; i < end; i++) {
+            byte b = reader.source[i];
+            if (b == '"' || b == '\\') {
+                target[out++] = '\\';
+                target[out++] = b;
+            } else if (b >= 0 && b < 0x20) {
+                out = escapeControl(b, target, out);
+            } else if ((b & 0xF8) == 0xF0) {
+                byte[] source = reader.source;
+                int codePoint = (b & 0x07) << 18 | (source[i + 1] & 0x3F) << 12
+                        | (source[i + 2] & 0x3F) << 6 | (source[i + 3] & 0x3F);
+                out = escapeUnicode(Character.highSurrogate(codePoint), target, out);
+                out = escapeUnicode(Character.lowSurrogate(codePoint), target, out);
+                i += 3;
+            } else {
+                target[out++] = b;
+            }
+        }
+        target[out++] = '"';
+        reader.position = end;
+        return out;
+    }
+
+    private static int escapeControl(byte b, byte[] target, int out) {
+        switch (b) {
+            case '\b' -> out = shortEscape('b', target, out);
+            case '\t' -> out = shortEscape('t', target, out);
+            case '\n' -> out = shortEscape('n', target, out);
+            case '\f' -> out = shortEscape('f', target, out);
+            case '\r' -> out = shortEscape('r', target, out);
+            default -> out = escapeUnicode((char) b, target, out);
+        }
+        return out;
+    }
+
+    private static int shortEscape(char c, byte[] target, int out) {
+        target[out++] = '\\';
+        target[out++] = (byte) c;
+        return out;
+    }
+
+    private static int escapeUnicode(char c, byte[] target, int out) {
+        target[out++] = '\\';
+        target[out++] = 'u';
+        target[out++] = HEX[c >> 12];
+        target[out++] = HEX[(c >> 8) & 0xF];
+        target[out++] = HEX[(c >> 4) & 0xF];
+        target[out++] = HEX[c & 0xF];
+        return out;
+    }
+
+    private static int decimal(byte[] target, int out, long value) {
+        if (value == Long.MIN_VALUE) {
+            return ascii(target, out, Long.toString(value));
+        }
+        if (value < 0) {
+            target[out++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        for (int i = out + digits - 1; i >= out; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return out + digits;
+    }
+
+    private static int ascii(byte[] target, int out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            target[out++] = (byte) text.charAt(i);
+        }
+        return out;
+    }
+
+    private static int writeString(byte[] target, int position, String value) {
+        if (value == null) {
+            return position;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        position = writeVarLong(target, position, bytes.length);
+        System.arraycopy(bytes, 0, target, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Zig-zag varint, so negative ids stay short too.
+     */
+    private static int writeVarLong(byte[] target, int position, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            target[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        target[position++] = (byte) zigZag;
+        return position;
+    }
+
+    private static final class Reader {
+
+        private final byte[] source;
+        private int position;
+
+        private Reader(byte[] source) {
+            this.source = source;
+        }
+
+        private long readVarLong() {
+            long zigZag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = source[position++];
+                zigZag |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+        }
+
+        private int readVarInt() {
+            return Math.toIntExact(readVarLong());
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            String value = new String(source, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.example.userservice.application.rest.dto.UserResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Off-heap near cache of the 'users' cache: users are kept in their {@link UserBinaryCodec}
+ * form in an {@link OffHeapStore}, in front of Redis, so the whole active user base can stay in
+ * every instance without growing the heap.
+ *
+ * Filled and invalidated through {@link OffHeapNearCache}, i.e. by the cache annotations of the
+ * user service. Changes made on other instances are seen once the local entry expires ('ttl').
+ *
+ * Hits are reported to the {@link HotKeyTracker}: they never reach the {@link ResilientCache}
+ * behind, which reports the misses.
+ */
+@Component
+@Slf4j
+public class UserNearCache {
+
+    public static final String CACHE_NAME = "users";
+
+    @Nullable
+    private final OffHeapStore store;
+    private final ThreadLocal<byte[]> buffers;
+    @Nullable
+    private final HotKeyTracker hotKeys;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public UserNearCache(@Value("${application.cache.near.enabled:true}") boolean enabled,
+                         @Value("${application.cache.near.capacity:64MB}") DataSize capacity,
+                         @Value("${application.cache.near.segments:16}") int segments,
+                         @Value("${application.cache.near.max-entry-size:1KB}") DataSize maxEntrySize,
+                         @Value("${application.cache.near.ttl:60s}") Duration ttl,
+                         @Nullable HotKeyTracker hotKeys, MeterRegistry meterRegistry) {
+        this.store = enabled ? new OffHeapStore(capacity.toBytes(), segments, (int) maxEntrySize.toBytes(), ttl.toMillis()) : null;
+        this.buffers = ThreadLocal.withInitial(() -> new byte[(int) maxEntrySize.toBytes()]);
+        this.hotKeys = hotKeys;
+        this.hitCounter = Counter.builder("cache.near.gets")
+                .description("Reads of the off-heap near cache")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.near.gets")
+                .description("Reads of the off-heap near cache")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        if (store != null) {
+            Gauge.builder("cache.near.keys", store, OffHeapStore::indexedKeys)
+                    .description("Keys indexed by the off-heap near cache, overwritten ones included until the index is rebuilt")
+                    .tag("cache", CACHE_NAME)
+                    .register(meterRegistry);
+            Gauge.builder("cache.near.memory", store, OffHeapStore::offHeapBytes)
+                    .description("Direct memory used by the off-heap near cache")
+                    .tag("cache", CACHE_NAME)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            log.info("Off-heap near cache for '{}' enabled: {} of direct memory", CACHE_NAME, DataSize.ofBytes(store.offHeapBytes()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    @Nullable
+    public UserResponseDto get(Object key) {
+        byte[] buffer = buffers.get();
+        int length = read(key, buffer);
+        return length < 0 ? null : UserBinaryCodec.decode(buffer, length);
+    }
+
+    /**
+     * The cached user without decoding it, to be written to the response as is.
+     */
+    @Nullable
+    public EncodedUser getEncoded(Object key) {
+        byte[] buffer = buffers.get();
+        int length = read(key, buffer);
+        if (length < 0) {
+            return null;
+        }
+        return new EncodedUser(Arrays.copyOf(buffer, length));
+    }
+
+    public void put(Object key, @Nullable Object value) {
+        if (store == null || !(key instanceof Long id)) {
+            return;
+        }
+        if (!(value instanceof UserResponseDto user)) {
+            store.remove(id);
+            return;
+        }
+        byte[] buffer = buffers.get();
+        int length = UserBinaryCodec.encode(user, buffer);
+        if (length < 0) {
+            // Larger than 'max-entry-size': served from Redis only
+            store.remove(id);
+        } else {
+            store.put(id, buffer, length);
+        }
+    }
+
+    public void evict(Object key) {
+        if (store != null && key instanceof Long id) {
+            store.remove(id);
+        }
+    }
+
+    public void clear() {
+        if (store != null) {
+            store.clear();
+        }
+    }
+
+    private int read(Object key, byte[] buffer) {
+        if (store == null || !(key instanceof Long id)) {
+            return -1;
+        }
+        int length = store.get(id, buffer);
+        if (length < 0) {
+            missCounter.increment();
+        } else {
+            hitCounter.increment();
+            if (hotKeys != null) {
+                hotKeys.recordAccess(CACHE_NAME, id);
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.userservice.infrastructure.concurrency;
+
+/**
+ * A concurrency limit that adjusts itself from the latency of completed requests.
+ */
+public interface AdaptiveLimit {
+
+    int getLimit();
+
+    /**
+     * @param rttNanos Time the request took.
+     * @param inFlight Requests in flight when it started, itself included.
+     * @param dropped Whether it failed in a way that signals overload (5xx, timeout).
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
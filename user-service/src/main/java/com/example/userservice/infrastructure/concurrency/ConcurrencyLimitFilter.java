@@ -0,0 +1,132 @@
+package com.example.userservice.infrastructure.concurrency;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Applies the adaptive concurrency limits to the REST endpoints. Requests above the limit of
+ * their group are answered right away with 503 and 'Retry-After', before security or any
+ * executor work, instead of queueing behind a slow database or Redis.
+ *
+ * The controllers return CompletableFutures, so the permit is released when the async request
+ * completes rather than when the filter chain returns. 5xx responses, async timeouts and errors
+ * count as drops and shrink the limit.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH = "auth";
+    private static final String USERS_READ = "users-read";
+    private static final String USERS_WRITE = "users-write";
+    private static final String USERS_REPORT = "users-report";
+
+    private final ConcurrencyLimiters limiters;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiters limiters) {
+        this.limiters = limiters;
+        // Registered up front so every group shows up in the metrics from the start
+        List.of(AUTH, USERS_READ, USERS_WRITE, USERS_REPORT).forEach(limiters::limiter);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return groupOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ConcurrencyLimiter.Permit permit = limiters.limiter(groupOf(request)).tryAcquire();
+        if (permit == null) {
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new PermitReleasingListener(permit, response));
+        } else {
+            release(permit, response);
+        }
+    }
+
+    /**
+     * Endpoint group of the request, or null for requests that are not limited (actuator).
+     */
+    private static String groupOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/auth/")) {
+            return AUTH;
+        }
+        if (path.equals("/users") || path.startsWith("/users/")) {
+            if (!HttpMethod.GET.matches(request.getMethod())) {
+                return USERS_WRITE;
+            }
+            return path.endsWith("/report") ? USERS_REPORT : USERS_READ;
+        }
+        return null;
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit, HttpServletResponse response) {
+        if (response.getStatus() >= 500) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Service overloaded\",\"message\":\"Too many concurrent requests, retry later\"}");
+    }
+
+    private record PermitReleasingListener(ConcurrencyLimiter.Permit permit, HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // After a timeout or error the permit was already released as dropped
+            release(permit, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle of the same request
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
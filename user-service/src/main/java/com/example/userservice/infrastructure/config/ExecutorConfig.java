@@ -3,20 +3,25 @@ package com.example.userservice.infrastructure.config;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class ExecutorConfig {
-    
+
+    // Tasks run with the context (e.g. the current trace) of the thread that submitted them
+    private final ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+
     @Bean(name = "authExecutor")
     public ExecutorService authExecutor() {
-        return Executors.newFixedThreadPool(5); // auth ops livianas
+        return ContextExecutorService.wrap(Executors.newFixedThreadPool(5), snapshotFactory::captureAll); // auth ops livianas
     }
 
     @Bean(name = "userExecutor")
     public ExecutorService userExecutor() {
-        return Executors.newCachedThreadPool(); // consultas que pueden crecer
+        return ContextExecutorService.wrap(Executors.newCachedThreadPool(), snapshotFactory::captureAll); // consultas que pueden crecer
     }
 }
 
@@ -0,0 +1,51 @@
+package com.example.userservice.infrastructure.config;
+
+import com.example.userservice.core.domain.entity.Address;
+import com.example.userservice.core.domain.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache on an in-process JCache provider (Caffeine). Every region is
+ * created here with its own size bound and time-to-live from 'application.jpa.cache.regions.*',
+ * and Hibernate is set to fail on any other region instead of creating an unbounded one.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String PREFIX = "application.jpa.cache.regions.";
+    private static final List<String> REGIONS = List.of(
+            User.CACHE_REGION, User.NATURAL_ID_CACHE_REGION, Address.CACHE_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(
+                    environment.getProperty(PREFIX + region + ".max-size", Long.class, 10_000L)));
+            configuration.setExpireAfterWrite(OptionalLong.of(
+                    environment.getProperty(PREFIX + region + ".ttl", Duration.class, Duration.ofMinutes(10)).toNanos()));
+            // Hibernate caches disassembled, immutable entries: no need to copy them on every access
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.userservice.infrastructure.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,11 +9,18 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicConfig {
 
+    /**
+     * Keyed by user id and log-compacted: the topic always retains at least the latest event of
+     * every user, so consumers can rebuild a full user projection by reading it from the beginning.
+     * The compaction lag keeps recent intermediate events readable by regular consumers.
+     */
     @Bean
     public NewTopic userEventsTopic() {
         return TopicBuilder.name("user-events")
                 .partitions(3)
                 .replicas(1)
+                .compact()
+                .config(TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "3600000")
                 .build();
     }
 }
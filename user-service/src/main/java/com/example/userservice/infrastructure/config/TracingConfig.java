@@ -0,0 +1,29 @@
+package com.example.userservice.infrastructure.config;
+
+import com.example.userservice.infrastructure.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Tracing setup on top of Micrometer Tracing (OpenTelemetry bridge). The HTTP server and the
+ * Kafka producer are observed by Spring Boot; the trace context travels to order-service in the
+ * record headers.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Registered with the OpenTelemetry SDK by Spring Boot, like any SpanExporter bean.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.file-exporter.enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(@Value("${application.tracing.file-exporter.path}") Path file,
+                                             ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.userservice.infrastructure.messaging;
 
 import com.example.userservice.core.events.UserEvent;
+import com.example.userservice.infrastructure.logging.RateLimitedLogger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -11,12 +12,21 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class KafkaProducerService {
 
+    // One event is published per user write, with one limiter per call site
+    private static final RateLimitedLogger eventLog = RateLimitedLogger.perSecond(log, 10);
+    private static final RateLimitedLogger tombstoneLog = RateLimitedLogger.perSecond(log, 10);
+
     private final KafkaTemplate<String, UserEvent> kafkaTemplate;
 
     private String topic = "user-events";
     public void sendUserEvent(UserEvent event) {
         kafkaTemplate.send(topic, event.getId().toString(), event);
-        log.info(" Published event to Kafka: {}", event);
+        eventLog.info("Published {} event to Kafka for user {}", event.getEventType(), event.getId());
+    }
+
+    public void sendUserTombstone(Long userId) {
+        kafkaTemplate.send(topic, userId.toString(), null);
+        tombstoneLog.info("Published tombstone to Kafka for user {}", userId);
     }
 }
 
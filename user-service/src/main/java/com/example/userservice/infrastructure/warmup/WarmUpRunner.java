@@ -0,0 +1,239 @@
+package com.example.userservice.infrastructure.warmup;
+
+import com.example.userservice.application.rest.dto.AddressDto;
+import com.example.userservice.application.rest.dto.AuthenticationResponse;
+import com.example.userservice.application.rest.dto.LoginRequest;
+import com.example.userservice.application.rest.dto.UserResponseDto;
+import com.example.userservice.core.domain.entity.User;
+import com.example.userservice.core.domain.repository.UserRepository;
+import com.example.userservice.core.service.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the request path up before the instance reports ready, so the first requests after a
+ * deploy do not pay for cold code (JWT signing and parsing, DTO serialization, JPA queries) and
+ * empty connection pools (Hikari, Redis).
+ *
+ * Spring Boot flips the readiness state to ACCEPTING_TRAFFIC once all application runners have
+ * completed, so this runner, ordered last, holds readiness back until the warm-up is done or its
+ * time budget runs out; a failing step is logged and never prevents startup. Synthetic data only:
+ * the queries look up users that do not exist, and the cache entry used is removed again.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final String USERNAME = "warmup-user";
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.warmup.budget:20s}")
+    private Duration budget;
+
+    @Value("${application.warmup.iterations:5000}")
+    private int iterations;
+
+    @Value("${application.warmup.io-iterations:50}")
+    private int ioIterations;
+
+    @Value("${application.warmup.db-connections:10}")
+    private int dbConnections;
+
+    private volatile boolean stopped;
+
+    public WarmUpRunner(JwtService jwtService, ObjectMapper objectMapper, UserRepository userRepository,
+                        DataSource dataSource, CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "warmup"));
+        Future<Map<String, Long>> steps = worker.submit(this::warmUp);
+        String outcome;
+        try {
+            Map<String, Long> stepMillis = steps.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+            outcome = "completed";
+            log.info("Warm-up completed in {} ms (per step: {})", (System.nanoTime() - start) / 1_000_000, stepMillis);
+        } catch (TimeoutException e) {
+            outcome = "budget-exceeded";
+            log.warn("Warm-up stopped after its {} budget", budget);
+        } catch (Exception e) {
+            outcome = "failed";
+            log.warn("Warm-up failed", e);
+        } finally {
+            stopped = true;
+            worker.shutdownNow();
+        }
+        Timer.builder("warmup.duration")
+                .description("Time spent warming up before accepting traffic")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Map<String, Long> warmUp() {
+        Map<String, Long> stepMillis = new LinkedHashMap<>();
+        step(stepMillis, "db-pool", this::fillConnectionPool);
+        step(stepMillis, "jwt", this::signAndParseTokens);
+        step(stepMillis, "jackson", this::serializeDtos);
+        step(stepMillis, "queries", this::runQueries);
+        step(stepMillis, "cache", this::roundTripCache);
+        return stepMillis;
+    }
+
+    private void step(Map<String, Long> stepMillis, String name, Runnable step) {
+        if (stopped) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up step '{}' failed: {}", name, e.getMessage());
+        }
+        stepMillis.put(name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Holding 'db-connections' connections at once makes Hikari open them now instead of on the
+     * first concurrent requests.
+     */
+    private void fillConnectionPool() {
+        List<Connection> borrowed = new ArrayList<>(dbConnections);
+        try {
+            for (int i = 0; i < dbConnections && !stopped; i++) {
+                Connection connection = dataSource.getConnection();
+                borrowed.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Could not return warm-up connection", e);
+                }
+            }
+        }
+    }
+
+    private void signAndParseTokens() {
+        User user = User.builder().username(USERNAME).build();
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.withUsername(USERNAME)
+                .password("")
+                .build();
+        for (int i = 0; i < iterations && !stopped; i++) {
+            jwtService.isTokenValid(jwtService.generateToken(user), userDetails);
+        }
+    }
+
+    private void serializeDtos() {
+        AuthenticationResponse response = AuthenticationResponse.builder()
+                .token("warmup")
+                .user(syntheticUser(1L))
+                .build();
+        try {
+            byte[] login = objectMapper.writeValueAsBytes(Map.of("username", USERNAME, "password", "warmup"));
+            for (int i = 0; i < iterations && !stopped; i++) {
+                objectMapper.writeValueAsBytes(response);
+                objectMapper.writeValueAsBytes(syntheticUser(i));
+                objectMapper.readValue(login, LoginRequest.class);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lookups of users that do not exist: query planning, statement preparation and mapping.
+     */
+    private void runQueries() {
+        for (int i = 0; i < ioIterations && !stopped; i++) {
+            userRepository.findByUsername(USERNAME);
+            userRepository.findById(-1L);
+        }
+    }
+
+    private void roundTripCache() {
+        Cache cache = cacheManager.getCache("users");
+        if (cache == null) {
+            return;
+        }
+        String key = "warmup-" + ProcessHandle.current().pid();
+        for (int i = 0; i < ioIterations && !stopped; i++) {
+            cache.put(key, "warmup");
+            cache.get(key);
+        }
+        cache.evict(key);
+    }
+
+    private UserResponseDto syntheticUser(long id) {
+        return UserResponseDto.builder()
+                .id(id)
+                .username(USERNAME)
+                .email(USERNAME + "@example.com")
+                .address(AddressDto.builder()
+                        .street("1 Main Street")
+                        .city("Springfield")
+                        .state("State")
+                        .zipCode("00000")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.userservice.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * With a 60s decay interval and a minimum rate of 1/s, a key becomes a candidate at 60 accesses
+ * and stays hot while its estimate over about a minute keeps the rate above 1/s.
+ */
+class HotKeyTrackerTest {
+
+    private final HotKeyTracker tracker = new HotKeyTracker(List.of("users", " "), 1024, 2, 1.0, Duration.ofSeconds(60));
+
+    @Test
+    void onlyTheTopKeysAboveTheMinimumRateAreHot() {
+        access(1L, 300);
+        access(2L, 200);
+        access(3L, 100);
+        access(4L, 30);
+
+        assertThat(tracker.hotKeys("users"))
+                .extracting(HotKeyTracker.HotKey::key)
+                .containsExactly(1L, 2L);
+        assertThat(tracker.hotKeys("users").get(0).ratePerSecond()).isBetween(4.5, 5.0);
+    }
+
+    @Test
+    void untrackedCachesAreIgnored() {
+        assertThat(tracker.trackedCaches()).containsExactly("users");
+
+        tracker.recordAccess("other", 1L);
+        tracker.seed("other", 1L, 1_000);
+
+        assertThat(tracker.hotKeys("other")).isEmpty();
+    }
+
+    @Test
+    void keysCoolDownAfterHalvingsWithoutAccesses() {
+        access(1L, 130);
+        assertThat(tracker.hotKeys("users")).hasSize(1);
+
+        tracker.decay();
+        // 65 over about 60 seconds: still above the minimum rate
+        assertThat(tracker.hotKeys("users")).hasSize(1);
+        tracker.decay();
+        tracker.decay();
+
+        assertThat(tracker.hotKeys("users")).isEmpty();
+    }
+
+    @Test
+    void loadsAreRecordedForHotKeysAndEvictionsForgetThem() {
+        access(1L, 120);
+        assertThat(tracker.hotKeys("users").get(0).loadedAt()).isNull();
+
+        tracker.recordLoad("users", 1L);
+        assertThat(tracker.hotKeys("users").get(0).loadedAt()).isNotNull();
+
+        tracker.forget("users", 1L);
+        assertThat(tracker.hotKeys("users")).isEmpty();
+    }
+
+    @Test
+    void seededKeysAreHotRightAway() {
+        tracker.seed("users", 7L, 600);
+
+        assertThat(tracker.hotKeys("users"))
+                .extracting(HotKeyTracker.HotKey::key, HotKeyTracker.HotKey::estimate)
+                .containsExactly(tuple(7L, 600L));
+    }
+
+    private void access(Object key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordAccess("users", key);
+        }
+    }
+}
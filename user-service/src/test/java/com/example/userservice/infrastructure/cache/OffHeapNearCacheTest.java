@@ -0,0 +1,77 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.example.userservice.application.rest.dto.AddressDto;
+import com.example.userservice.application.rest.dto.UserResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads served by the off-heap near cache never reach the Redis cache behind it, so the near
+ * cache reports them to the hot-key tracker itself.
+ */
+class OffHeapNearCacheTest {
+
+    private final HotKeyTracker hotKeys = new HotKeyTracker(List.of(UserNearCache.CACHE_NAME), 1024, 10, 1.0, Duration.ofSeconds(60));
+    private final UserNearCache near = new UserNearCache(true, DataSize.ofMegabytes(1), 1, DataSize.ofKilobytes(1),
+            Duration.ofSeconds(60), hotKeys, new SimpleMeterRegistry());
+    // Stands for Redis: once the user is copied into the near cache, it is never read again
+    private final Cache redis = new ConcurrentMapCache(UserNearCache.CACHE_NAME);
+    private final OffHeapNearCache cache = new OffHeapNearCache(redis, near);
+
+    @Test
+    void keyServedOnlyFromTheNearCacheBecomesHot() {
+        cache.put(1L, user(1L));
+        cache.put(2L, user(2L));
+        redis.clear();
+
+        // 2 reads per second over the 60s decay interval, above the 1/s minimum rate
+        for (int i = 0; i < 120; i++) {
+            assertThat(cache.get(1L, UserResponseDto.class)).isNotNull();
+        }
+        cache.get(2L);
+
+        assertThat(hotKeys.hotKeys(UserNearCache.CACHE_NAME))
+                .extracting(HotKeyTracker.HotKey::key)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void encodedReadsCountAsAccessesToo() {
+        cache.put(1L, user(1L));
+
+        for (int i = 0; i < 60; i++) {
+            assertThat(near.getEncoded(1L)).isNotNull();
+            assertThat(cache.retrieve(1L)).isCompleted();
+        }
+
+        assertThat(hotKeys.hotKeys(UserNearCache.CACHE_NAME))
+                .extracting(HotKeyTracker.HotKey::key)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void missesAreLeftToTheCacheBehind() {
+        for (int i = 0; i < 120; i++) {
+            assertThat(near.get(3L)).isNull();
+        }
+
+        assertThat(hotKeys.hotKeys(UserNearCache.CACHE_NAME)).isEmpty();
+    }
+
+    private static UserResponseDto user(Long id) {
+        return UserResponseDto.builder()
+                .id(id)
+                .username("user-" + id)
+                .email("user-" + id + "@example.com")
+                .address(AddressDto.builder().street("1 Main St").city("Springfield").state("IL").zipCode("62701").build())
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.userservice.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapStoreTest {
+
+    private static final int MAX_VALUE_BYTES = 64;
+    // Header of 20 bytes plus the largest value, aligned to 8
+    private static final int ENTRY_BYTES = 88;
+    private static final long NO_EXPIRY = Long.MAX_VALUE / 2;
+
+    private final byte[] target = new byte[MAX_VALUE_BYTES];
+
+    @Test
+    void valuesAreReadBackAndOverwritten() {
+        OffHeapStore store = new OffHeapStore(1 << 20, 4, MAX_VALUE_BYTES, NO_EXPIRY);
+
+        store.put(1, bytes("first"), 5);
+        store.put(-1, bytes("minus one"), 9);
+        assertThat(read(store, 1)).isEqualTo("first");
+        assertThat(read(store, -1)).isEqualTo("minus one");
+        assertThat(store.get(2, target)).isEqualTo(-1);
+
+        store.put(1, bytes("second value"), 12);
+        assertThat(read(store, 1)).isEqualTo("second value");
+        assertThat(store.indexedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void removedAndClearedKeysAreMisses() {
+        OffHeapStore store = new OffHeapStore(1 << 20, 4, MAX_VALUE_BYTES, NO_EXPIRY);
+        for (long key = 0; key < 100; key++) {
+            store.put(key, bytes("value-" + key), 6 + Long.toString(key).length());
+        }
+
+        store.remove(42);
+        assertThat(store.get(42, target)).isEqualTo(-1);
+        for (long key = 0; key < 100; key++) {
+            if (key != 42) {
+                assertThat(read(store, key)).isEqualTo("value-" + key);
+            }
+        }
+
+        store.clear();
+        assertThat(store.get(7, target)).isEqualTo(-1);
+        assertThat(store.indexedKeys()).isZero();
+    }
+
+    @Test
+    void oversizeValueIsNotStoredAndDropsThePreviousOne() {
+        OffHeapStore store = new OffHeapStore(1 << 20, 1, MAX_VALUE_BYTES, NO_EXPIRY);
+        store.put(1, bytes("small"), 5);
+
+        store.put(1, new byte[MAX_VALUE_BYTES + 1], MAX_VALUE_BYTES + 1);
+
+        assertThat(store.get(1, target)).isEqualTo(-1);
+    }
+
+    @Test
+    void oldestValuesAreOverwrittenOnceTheArenaWraps() {
+        // A single segment holding 46 entries of the largest size
+        OffHeapStore store = new OffHeapStore(4096, 1, MAX_VALUE_BYTES, NO_EXPIRY);
+        for (long key = 0; key < 1_000; key++) {
+            store.put(key, value(key), MAX_VALUE_BYTES);
+        }
+        long offHeapBytes = store.offHeapBytes();
+        for (long key = 1_000; key < 100_000; key++) {
+            store.put(key % 1_000, value(key % 1_000), MAX_VALUE_BYTES);
+        }
+
+        assertThat(store.get(0, target)).isEqualTo(-1);
+        assertThat(store.get(900, target)).isEqualTo(-1);
+        for (long key = 1_000 - 4096 / ENTRY_BYTES; key < 1_000; key++) {
+            assertThat(store.get(key, target)).isEqualTo(MAX_VALUE_BYTES);
+            assertThat(target).isEqualTo(value(key));
+        }
+        // Overwritten keys are dropped when the index fills, so it does not grow either
+        assertThat(store.offHeapBytes()).isEqualTo(offHeapBytes);
+        assertThat(store.indexedKeys()).isLessThan(128);
+    }
+
+    @Test
+    void valueReadInTheOldestQuarterGetsASecondChance() {
+        OffHeapStore store = new OffHeapStore(4096, 1, MAX_VALUE_BYTES, NO_EXPIRY);
+        int capacity = 4096 / ENTRY_BYTES;
+        for (long key = 0; key < capacity; key++) {
+            store.put(key, value(key), MAX_VALUE_BYTES);
+        }
+
+        assertThat(store.get(0, target)).isEqualTo(MAX_VALUE_BYTES);
+        for (long key = capacity; key < capacity + 20; key++) {
+            store.put(key, value(key), MAX_VALUE_BYTES);
+        }
+
+        // Key 1 was written after key 0 but never read
+        assertThat(store.get(0, target)).isEqualTo(MAX_VALUE_BYTES);
+        assertThat(target).isEqualTo(value(0));
+        assertThat(store.get(1, target)).isEqualTo(-1);
+    }
+
+    @Test
+    void expiredValuesAreMisses() throws InterruptedException {
+        OffHeapStore store = new OffHeapStore(1 << 20, 1, MAX_VALUE_BYTES, 200);
+        store.put(1, bytes("short-lived"), 11);
+        assertThat(read(store, 1)).isEqualTo("short-lived");
+
+        Thread.sleep(300);
+
+        assertThat(store.get(1, target)).isEqualTo(-1);
+    }
+
+    @Test
+    void segmentsTooSmallForFourValuesAreRejected() {
+        assertThatThrownBy(() -> new OffHeapStore(4 * ENTRY_BYTES - 8, 1, MAX_VALUE_BYTES, NO_EXPIRY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapStore(4 * ENTRY_BYTES * 4, 8, MAX_VALUE_BYTES, NO_EXPIRY))
+                .isInstanceOf(IllegalArgumentException.class);
+        new OffHeapStore(4 * ENTRY_BYTES, 1, MAX_VALUE_BYTES, NO_EXPIRY);
+    }
+
+    @Test
+    void readersNeverSeeTornValuesWhileTheyAreOverwritten() throws InterruptedException {
+        OffHeapStore store = new OffHeapStore(16 << 20, 4, MAX_VALUE_BYTES, NO_EXPIRY);
+        int keys = 1_000;
+        for (long key = 0; key < keys; key++) {
+            store.put(key, versioned(key, 0, MAX_VALUE_BYTES), MAX_VALUE_BYTES);
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            long seed = r;
+            Thread reader = new Thread(() -> {
+                byte[] read = new byte[MAX_VALUE_BYTES];
+                Random random = new Random(seed);
+                try {
+                    while (writing.get()) {
+                        long key = random.nextInt(keys);
+                        int length = store.get(key, read);
+                        // Every key stays in the arena: a miss or a mix of two versions is a bug
+                        assertThat(length).isBetween(Long.BYTES + 1, MAX_VALUE_BYTES);
+                        assertThat(ByteBuffer.wrap(read).getLong()).isEqualTo(key);
+                        byte version = read[Long.BYTES];
+                        for (int i = Long.BYTES; i < length; i++) {
+                            assertThat(read[i]).isEqualTo(version);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(keys);
+            int length = Long.BYTES + 1 + random.nextInt(MAX_VALUE_BYTES - Long.BYTES);
+            store.put(key, versioned(key, i, length), length);
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+    }
+
+    private String read(OffHeapStore store, long key) {
+        int length = store.get(key, target);
+        assertThat(length).isNotNegative();
+        return new String(target, 0, length);
+    }
+
+    private static byte[] bytes(String value) {
+        return Arrays.copyOf(value.getBytes(), MAX_VALUE_BYTES);
+    }
+
+    private static byte[] value(long key) {
+        byte[] value = new byte[MAX_VALUE_BYTES];
+        new Random(key).nextBytes(value);
+        return value;
+    }
+
+    /**
+     * The key followed by 'length - 8' copies of a byte that changes with every write.
+     */
+    private static byte[] versioned(long key, int version, int length) {
+        byte[] value = new byte[MAX_VALUE_BYTES];
+        ByteBuffer.wrap(value).putLong(key);
+        Arrays.fill(value, Long.BYTES, length, (byte) version);
+        return value;
+    }
+}
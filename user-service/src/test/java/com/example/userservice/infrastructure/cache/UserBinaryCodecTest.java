@@ -0,0 +1,114 @@
+package com.example.userservice.infrastructure.cache;
+
+import com.example.userservice.application.rest.dto.AddressDto;
+import com.example.userservice.application.rest.dto.UserResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserBinaryCodecTest {
+
+    // Every escaping case of Jackson, plus multi-byte and supplementary characters
+    private static final int[] CODE_POINTS = {
+            'a', 'Z', '0', ' ', '@', '/', '"', '\\', '\b', '\t', '\n', '\f', '\r', 0x00, 0x01, 0x1F, 0x7F,
+            'é', 'ß', 0x2028, '中', 0xFFFD, 0x1F600, 0x10FFFF
+    };
+    private static final long[] IDS = {0, 1, -1, 127, 128, -129, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void randomUsersRoundTripAndAreWrittenAsTheJsonOfJackson() throws Exception {
+        Random random = new Random(2024);
+        byte[] encoded = new byte[4096];
+        for (int i = 0; i < 5_000; i++) {
+            UserResponseDto user = randomUser(random);
+
+            int length = UserBinaryCodec.encode(user, encoded);
+            assertThat(length).isPositive();
+
+            assertThat(UserBinaryCodec.decode(encoded, length)).usingRecursiveComparison().isEqualTo(user);
+
+            byte[] json = new byte[UserBinaryCodec.maxJsonBytes(length)];
+            int jsonLength = UserBinaryCodec.writeJson(encoded, length, json);
+            assertThat(Arrays.copyOf(json, jsonLength)).isEqualTo(objectMapper.writeValueAsBytes(user));
+        }
+    }
+
+    @Test
+    void maxJsonBytesHoldsAUserMadeOfEscapedCharactersOnly() throws Exception {
+        String controls = "\u0001".repeat(100);
+        UserResponseDto user = UserResponseDto.builder()
+                .id(Long.MIN_VALUE)
+                .username(controls)
+                .email(controls)
+                .address(AddressDto.builder().street(controls).city(controls).state(controls).zipCode(controls).build())
+                .build();
+        byte[] encoded = new byte[4096];
+        int length = UserBinaryCodec.encode(user, encoded);
+
+        byte[] json = new byte[UserBinaryCodec.maxJsonBytes(length)];
+        int jsonLength = UserBinaryCodec.writeJson(encoded, length, json);
+
+        assertThat(Arrays.copyOf(json, jsonLength)).isEqualTo(objectMapper.writeValueAsBytes(user));
+    }
+
+    @Test
+    void userNotFittingTheTargetIsNotEncoded() {
+        UserResponseDto user = UserResponseDto.builder().id(1L).username("x".repeat(100)).build();
+
+        assertThat(UserBinaryCodec.encode(user, new byte[64])).isEqualTo(-1);
+        assertThat(UserBinaryCodec.encode(user, new byte[128])).isPositive();
+    }
+
+    @Test
+    void lengthNotMatchingTheEncodedUserIsRejected() {
+        byte[] encoded = new byte[256];
+        int length = UserBinaryCodec.encode(UserResponseDto.builder().id(7L).username("alice").build(), encoded);
+
+        assertThatThrownBy(() -> UserBinaryCodec.decode(encoded, length + 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> UserBinaryCodec.writeJson(encoded, length + 1, new byte[UserBinaryCodec.maxJsonBytes(length)]))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static UserResponseDto randomUser(Random random) {
+        AddressDto address = random.nextInt(4) == 0 ? null : AddressDto.builder()
+                .street(randomString(random))
+                .city(randomString(random))
+                .state(randomString(random))
+                .zipCode(randomString(random))
+                .build();
+        return UserResponseDto.builder()
+                .id(randomId(random))
+                .username(randomString(random))
+                .email(randomString(random))
+                .address(address)
+                .build();
+    }
+
+    private static Long randomId(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> null;
+            case 1 -> IDS[random.nextInt(IDS.length)];
+            default -> random.nextLong() >> random.nextInt(64);
+        };
+    }
+
+    private static String randomString(Random random) {
+        if (random.nextInt(5) == 0) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(40);
+        for (int i = 0; i < length; i++) {
+            value.appendCodePoint(CODE_POINTS[random.nextInt(CODE_POINTS.length)]);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.userservice.infrastructure.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    private final AimdLimit limit = new AimdLimit(20, 4, 200, 500 * MS, 0.9);
+
+    @Test
+    void saturatedLimitSawTeethJustBelowTheConcurrencyThatReachesTheTimeout() {
+        // Latency grows linearly with the concurrency and reaches the 500 ms timeout at 100
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0; i < 5_000; i++) {
+            int inFlight = limit.getLimit();
+            limit.onSample(5 * MS * inFlight, inFlight, false);
+            if (i >= 2_500) {
+                min = Math.min(min, limit.getLimit());
+                max = Math.max(max, limit.getLimit());
+            }
+        }
+
+        assertThat(min).isGreaterThanOrEqualTo(85);
+        assertThat(max).isLessThanOrEqualTo(101);
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDropsDownToTheMinimum() {
+        limit.onSample(10 * MS, 20, true);
+        assertThat(limit.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MS, 20, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void slowRequestsCountAsDrops() {
+        limit.onSample(600 * MS, 20, false);
+
+        assertThat(limit.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    void growsByOneOnlyWhileTheLimitIsUsed() {
+        limit.onSample(10 * MS, 9, false);
+        assertThat(limit.getLimit()).isEqualTo(20);
+
+        limit.onSample(10 * MS, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(21);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.userservice.infrastructure.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private final FixedLimit limit = new FixedLimit(2);
+    private final Counter rejected = new SimpleMeterRegistry().counter("rejected");
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit, rejected);
+
+    @Test
+    void requestsAboveTheLimitAreRejectedUntilAPermitIsReleased() {
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(rejected.count()).isEqualTo(1);
+
+        first.onSuccess();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void eachPermitIsReleasedAndSampledOnce() {
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        second.onDropped();
+        second.onSuccess();
+        first.onIgnore();
+        first.onDropped();
+
+        assertThat(limiter.getInFlight()).isZero();
+        // The ignored request gives no sample; the dropped one reports the 2 requests in flight at its start
+        assertThat(limit.samples).containsExactly(new Sample(2, true));
+    }
+
+    @Test
+    void theLimitIsReadOnEveryAcquire() {
+        limit.value = 0;
+        assertThat(limiter.tryAcquire()).isNull();
+
+        limit.value = 1;
+        assertThat(limiter.tryAcquire()).isNotNull();
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    private record Sample(int inFlight, boolean dropped) {
+    }
+
+    private static final class FixedLimit implements AdaptiveLimit {
+
+        private final List<Sample> samples = new ArrayList<>();
+        private volatile int value;
+
+        private FixedLimit(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int getLimit() {
+            return value;
+        }
+
+        @Override
+        public void onSample(long rttNanos, int inFlight, boolean dropped) {
+            samples.add(new Sample(inFlight, dropped));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.userservice.infrastructure.config;
+
+import com.example.userservice.infrastructure.cache.HotKeyTracker;
+import com.example.userservice.infrastructure.cache.ResilientCacheManager;
+import com.example.userservice.infrastructure.cache.UserNearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fault injection into the Redis cache behind the resilient cache manager, as configured for the
+ * application: a breaker opening after 2 failed calls out of 2, for an hour unless a test
+ * shortens it.
+ */
+class CacheConfigTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FaultyRedisCache redis = new FaultyRedisCache();
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("spring.data.redis.timeout", "50ms")
+            .withProperty("application.cache.resilience.sliding-window", "4")
+            .withProperty("application.cache.resilience.open-duration", "1h")
+            .withProperty("application.cache.resilience.half-open-calls", "1");
+
+    @Test
+    void failuresOpenTheBreakerAndTheLocalCacheServesTheReads() {
+        Cache cache = resilientCache();
+        redis.put(1L, "from redis");
+
+        redis.fault = Fault.DOWN;
+        cache.put(1L, "written during the outage");
+        assertThat(cache.get(1L, String.class)).isEqualTo("written during the outage");
+        assertThat(breakerOpenings()).isEqualTo(1);
+
+        int redisCalls = redis.calls.get();
+        assertThat(cache.get(1L, String.class)).isEqualTo("written during the outage");
+        assertThat(cache.get(2L, String.class)).isNull();
+        assertThat(redis.calls.get()).isEqualTo(redisCalls);
+        assertThat(fallbacks("open")).isEqualTo(2);
+    }
+
+    @Test
+    void timedOutReadsAreMissesAndOpenTheBreaker() throws Exception {
+        Cache cache = resilientCache();
+        redis.fault = Fault.HANGING;
+
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            assertThat(cache.retrieve(1L).get(1, TimeUnit.SECONDS)).isNull();
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertThat(breakerOpenings()).isEqualTo(1);
+        int redisCalls = redis.calls.get();
+        assertThat(cache.retrieve(1L).get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(redis.calls.get()).isEqualTo(redisCalls);
+    }
+
+    @Test
+    void serializationErrorsFallBackWithoutOpeningTheBreaker() {
+        Cache cache = resilientCache();
+        redis.fault = Fault.UNREADABLE_VALUES;
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(cache.get(1L)).isNull();
+        }
+
+        assertThat(breakerOpenings()).isZero();
+        assertThat(fallbacks("error")).isEqualTo(20);
+        redis.fault = Fault.NONE;
+        redis.put(1L, "readable");
+        assertThat(cache.get(1L, String.class)).isEqualTo("readable");
+    }
+
+    @Test
+    void keysWrittenDuringTheOutageAreEvictedFromRedisOnceItRecovers() throws InterruptedException {
+        environment.setProperty("application.cache.resilience.open-duration", "100ms");
+        Cache cache = resilientCache();
+        redis.put(1L, "replaced during the outage");
+
+        redis.fault = Fault.DOWN;
+        cache.put(1L, "new");
+        cache.get(2L);
+        assertThat(breakerOpenings()).isEqualTo(1);
+
+        redis.fault = Fault.NONE;
+        Thread.sleep(150);
+        // The half-open call succeeds and closes the breaker, which resyncs in the background
+        cache.get(2L);
+        for (int i = 0; i < 100 && redis.lookup(1L) != null; i++) {
+            Thread.sleep(20);
+        }
+
+        assertThat(redis.lookup(1L)).isNull();
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    private Cache resilientCache() {
+        environment.setConversionService(new ApplicationConversionService());
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCache("users")).thenReturn(redis);
+        ObjectProvider<MeterRegistry> meterRegistryProvider = provider(meterRegistry);
+        ObjectProvider<HotKeyTracker> hotKeys = provider(null);
+        ObjectProvider<UserNearCache> userNearCache = provider(null);
+
+        Object cacheManager = CacheConfig.resilientCacheManagerPostProcessor(meterRegistryProvider, hotKeys, userNearCache, environment)
+                .postProcessAfterInitialization(redisCacheManager, "cacheManager");
+
+        assertThat(cacheManager).isInstanceOf(ResilientCacheManager.class);
+        return ((ResilientCacheManager) cacheManager).getCache("users");
+    }
+
+    private double breakerOpenings() {
+        var counter = meterRegistry.find("cache.breaker.transitions").tag("to", "OPEN").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double fallbacks(String reason) {
+        var counter = meterRegistry.find("cache.fallback").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T value) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(value);
+        when(provider.getIfAvailable()).thenReturn(value);
+        return provider;
+    }
+
+    private enum Fault {
+        NONE, DOWN, HANGING, UNREADABLE_VALUES
+    }
+
+    /**
+     * In-memory stand-in for the Redis cache, failing the way Redis and its serializer do.
+     */
+    private static final class FaultyRedisCache extends ConcurrentMapCache {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Fault fault = Fault.NONE;
+
+        private FaultyRedisCache() {
+            super("users");
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            inject();
+            return super.lookup(key);
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            if (fault == Fault.HANGING) {
+                calls.incrementAndGet();
+                return new CompletableFuture<>();
+            }
+            inject();
+            return super.retrieve(key);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            inject();
+            super.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            inject();
+            super.evict(key);
+        }
+
+        private void inject() {
+            calls.incrementAndGet();
+            switch (fault) {
+                case DOWN, HANGING -> throw new RedisConnectionFailureException("Unable to connect to Redis");
+                case UNREADABLE_VALUES -> throw new SerializationException("Cannot deserialize");
+                case NONE -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.userservice.infrastructure.messaging;
+
+import com.example.userservice.core.events.UserEvent;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEventAvroSerializerTest {
+
+    private final UserEventSchemas schemas = UserEventSchemas.load();
+    private final UserEventAvroSerializer serializer = new UserEventAvroSerializer();
+
+    @Test
+    void eventsAreWrittenWithTheLatestVersionNamedInTheHeader() throws IOException {
+        UserEvent event = UserEvent.builder()
+                .eventType("USER_UPDATED")
+                .id(7L)
+                .username("alice")
+                .email("alice@example.com")
+                .street("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .zipCode(null)
+                .eventTimestamp(1_700_000_000_000L)
+                .build();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize("user-events", headers, event);
+
+        int version = UserEventSchemas.parseVersionHeader(headers.lastHeader(UserEventSchemas.VERSION_HEADER).value());
+        assertThat(version).isEqualTo(schemas.latestVersion());
+        GenericRecord record = new GenericDatumReader<GenericRecord>(schemas.get(version))
+                .read(null, DecoderFactory.get().binaryDecoder(data, null));
+        assertThat(record.get("eventType")).hasToString("USER_UPDATED");
+        assertThat(record.get("id")).isEqualTo(7L);
+        assertThat(record.get("username")).hasToString("alice");
+        assertThat(record.get("city")).hasToString("Springfield");
+        assertThat(record.get("zipCode")).isNull();
+        assertThat(record.get("eventTimestamp")).isEqualTo(1_700_000_000_000L);
+    }
+
+    @Test
+    void readersOfTheFirstVersionCanReadTheLatest() throws IOException {
+        UserEvent event = UserEvent.builder().eventType("USER_CREATED").id(7L).username("alice").city("Springfield").build();
+
+        byte[] data = serializer.serialize("user-events", new RecordHeaders(), event);
+        GenericRecord record = new GenericDatumReader<GenericRecord>(schemas.latest(), schemas.get(1))
+                .read(null, DecoderFactory.get().binaryDecoder(data, null));
+
+        assertThat(record.get("username")).hasToString("alice");
+        assertThat(record.getSchema().getField("city")).isNull();
+    }
+
+    @Test
+    void tombstonesArePassedThrough() {
+        RecordHeaders headers = new RecordHeaders();
+
+        assertThat(serializer.serialize("user-events", headers, null)).isNull();
+        assertThat(headers.lastHeader(UserEventSchemas.VERSION_HEADER)).isNull();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.userservice.infrastructure.messaging;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The user event schemas are the wire contract with order-service, which ships its own copy of
+ * the files: both stores must hold the same versions, and the latest must read all of them.
+ */
+class UserEventSchemasTest {
+
+    // order-service's store, next to this module in the repository; absent when the module is built alone
+    private static final Path OTHER_STORE = Path.of("../order-service/src/main/resources/avro/user-event");
+
+    private final UserEventSchemas schemas = UserEventSchemas.load();
+
+    @Test
+    void latestVersionReadsEveryVersion() {
+        for (int version = 1; version <= schemas.latestVersion(); version++) {
+            assertThat(SchemaCompatibility.checkReaderWriterCompatibility(schemas.latest(), schemas.get(version)).getType())
+                    .as("v%d read with v%d", version, schemas.latestVersion())
+                    .isEqualTo(SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE);
+        }
+    }
+
+    @Test
+    void otherServiceHasTheSameVersions() throws IOException {
+        assumeTrue(Files.isDirectory(OTHER_STORE), "order-service is not checked out next to this module");
+
+        Map<Integer, Schema> other = read(OTHER_STORE);
+
+        assertThat(other.keySet()).as("versions in " + OTHER_STORE)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, schemas.latestVersion()).boxed().toList());
+        other.forEach((version, schema) -> assertThat(schema)
+                .as("v%d in %s", version, OTHER_STORE)
+                .isEqualTo(schemas.get(version)));
+    }
+
+    private static Map<Integer, Schema> read(Path store) throws IOException {
+        Map<Integer, Schema> schemas = new TreeMap<>();
+        try (Stream<Path> files = Files.list(store)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().matches("v\\d+\\.avsc")).toList()) {
+                String name = file.getFileName().toString();
+                try (InputStream in = Files.newInputStream(file)) {
+                    schemas.put(Integer.parseInt(name.substring(1, name.indexOf('.'))), new Schema.Parser().parse(in));
+                }
+            }
+        }
+        return schemas;
+    }
+}
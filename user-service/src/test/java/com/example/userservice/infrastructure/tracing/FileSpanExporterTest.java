@@ -0,0 +1,98 @@
+package com.example.userservice.infrastructure.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSpanExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void spansAreAppendedAsJsonLinesWithTheirParent() throws IOException {
+        Path file = directory.resolve("traces/spans.jsonl");
+        try (SdkTracerProvider tracerProvider = tracerProvider(file, "user-service")) {
+            Tracer tracer = tracerProvider.get("test");
+            Span parent = tracer.spanBuilder("update").setSpanKind(SpanKind.SERVER).startSpan();
+            try (Scope ignored = parent.makeCurrent()) {
+                tracer.spanBuilder("send").setAttribute("user.id", 42L).startSpan().end();
+            }
+            parent.end();
+        }
+
+        List<JsonNode> spans = read(file);
+        assertThat(spans).extracting(span -> span.get("name").asText()).containsExactly("send", "update");
+        JsonNode child = spans.get(0);
+        JsonNode root = spans.get(1);
+        assertThat(child.get("traceId").asText()).isEqualTo(root.get("traceId").asText());
+        assertThat(child.get("parentSpanId").asText()).isEqualTo(root.get("spanId").asText());
+        assertThat(root.get("parentSpanId").isNull()).isTrue();
+        assertThat(root.get("kind").asText()).isEqualTo("SERVER");
+        assertThat(child.get("service").asText()).isEqualTo("user-service");
+        assertThat(child.get("status").asText()).isEqualTo("UNSET");
+        assertThat(child.get("attributes").get("user.id").asLong()).isEqualTo(42);
+        assertThat(child.get("durationMicros").asLong()).isNotNegative();
+    }
+
+    @Test
+    void servicesSharingTheFileAppendToIt() throws IOException {
+        Path file = directory.resolve("spans.jsonl");
+        for (String service : List.of("user-service", "order-service")) {
+            try (SdkTracerProvider tracerProvider = tracerProvider(file, service)) {
+                tracerProvider.get("test").spanBuilder("send").startSpan().end();
+            }
+        }
+
+        assertThat(read(file)).extracting(span -> span.get("service").asText())
+                .containsExactly("user-service", "order-service");
+    }
+
+    @Test
+    void unwritableFileFailsTheExport() throws IOException {
+        Path file = Files.createDirectory(directory.resolve("a-directory"));
+        FileSpanExporter exporter = new FileSpanExporter(file, objectMapper);
+
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build()) {
+            Span span = tracerProvider.get("test").spanBuilder("lost").startSpan();
+            span.end();
+            assertThat(exporter.export(List.of(((ReadableSpan) span).toSpanData())).isSuccess()).isFalse();
+        }
+    }
+
+    private SdkTracerProvider tracerProvider(Path file, String service) {
+        return SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), service)))
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file, objectMapper)))
+                .build();
+    }
+
+    private List<JsonNode> read(Path file) throws IOException {
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            spans.add(objectMapper.readTree(line));
+        }
+        return spans;
+    }
+}